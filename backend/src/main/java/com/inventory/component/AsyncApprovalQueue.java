@@ -0,0 +1,338 @@
+package com.inventory.component;
+
+import com.inventory.component.OrderNoGenerator.OrderType;
+import com.inventory.exception.BusinessException;
+import com.inventory.exception.ServiceBusyException;
+import com.inventory.service.InboundService;
+import com.inventory.service.OutboundService;
+import com.inventory.vo.ApprovalTicketVO;
+import com.inventory.vo.BatchApproveItemVO;
+import com.inventory.vo.BatchApproveResultVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 异步审核队列（入库单、出库单共用）
+ *
+ * 审核请求进入有界队列后立即返回审核凭证，不再占用请求线程等待事务提交；队列已满时直接拒绝（背压）。
+ * 队列已满时返回 429，客户端按 retry-after-seconds 重试。
+ * 少量工作线程从队列中取出请求，在短窗口内凑满最多 max-batch-size 笔，按单据类型、审核人分组，
+ * 每组调用一次批量审核，在同一事务中提交（组提交：N 笔审核一次提交）。
+ * 出库单按允许部分审核执行，库存不足的单据各自记为失败，不影响同组其他单据。
+ * 整组事务失败（如期间单据状态被并发修改）时，组内单据逐单重新审核，各自得到结果。
+ *
+ * 调用方凭审核凭证轮询结果，或等待完成（长轮询）；完成的结果保留 result-ttl-seconds 后清除。
+ * 凭证只保存在本节点内存中，进程重启后未完成的请求丢失（单据仍为待审核，可重新提交）。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Slf4j
+@Component
+public class AsyncApprovalQueue {
+
+    private final InboundService inboundService;
+    private final OutboundService outboundService;
+    private final boolean enabled;
+    private final int workerCount;
+    private final int maxBatchSize;
+    private final long windowMillis;
+    private final long maxWaitMillis;
+    private final long resultTtlMillis;
+    private final long retryAfterSeconds;
+
+    private final BlockingQueue<Approval> queue;
+    private final Map<String, Approval> tickets = new ConcurrentHashMap<>();
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    public AsyncApprovalQueue(
+            InboundService inboundService,
+            OutboundService outboundService,
+            @Value("${inventory.async-approval.enabled:false}") boolean enabled,
+            @Value("${inventory.async-approval.workers:2}") int workerCount,
+            @Value("${inventory.async-approval.queue-capacity:1000}") int queueCapacity,
+            @Value("${inventory.async-approval.max-batch-size:50}") int maxBatchSize,
+            @Value("${inventory.async-approval.window-ms:5}") long windowMillis,
+            @Value("${inventory.async-approval.max-wait-ms:30000}") long maxWaitMillis,
+            @Value("${inventory.async-approval.result-ttl-seconds:600}") long resultTtlSeconds,
+            @Value("${inventory.async-approval.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.inboundService = inboundService;
+        this.outboundService = outboundService;
+        this.enabled = enabled;
+        this.workerCount = workerCount;
+        this.maxBatchSize = maxBatchSize;
+        this.windowMillis = windowMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.resultTtlMillis = TimeUnit.SECONDS.toMillis(resultTtlSeconds);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger threadNo = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "approval-worker-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::runWorker);
+        }
+        log.info("异步审核队列已启动，workers={}, capacity={}, maxBatchSize={}",
+                workerCount, queue.remainingCapacity(), maxBatchSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (workers != null) {
+            workers.shutdown();
+            try {
+                workers.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 是否启用异步审核
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 长轮询最长等待时间（毫秒）
+     */
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * 提交审核请求，立即返回审核凭证
+     *
+     * @param type 单据类型
+     * @param id 单据ID
+     * @param approvedBy 审核人
+     * @return 审核凭证（未完成）
+     */
+    public ApprovalTicketVO submit(OrderType type, Long id, String approvedBy) {
+        if (!running) {
+            throw new BusinessException("异步审核未启用");
+        }
+        Approval approval = new Approval(UUID.randomUUID().toString().replace("-", ""), type, id, approvedBy);
+        tickets.put(approval.ticket, approval);
+        if (!queue.offer(approval)) {
+            tickets.remove(approval.ticket);
+            throw new ServiceBusyException("审核队列已满，请稍后重试", retryAfterSeconds);
+        }
+        return approval.toVO();
+    }
+
+    /**
+     * 查询审核结果（当前状态，不等待）
+     *
+     * @param type 单据类型
+     * @param ticket 审核凭证
+     * @return 审核凭证及结果
+     */
+    public ApprovalTicketVO get(OrderType type, String ticket) {
+        return find(type, ticket).toVO();
+    }
+
+    /**
+     * 等待审核完成
+     *
+     * @param type 单据类型
+     * @param ticket 审核凭证
+     * @return 审核完成时完成的 Future
+     */
+    public CompletableFuture<ApprovalTicketVO> await(OrderType type, String ticket) {
+        Approval approval = find(type, ticket);
+        return approval.future.thenApply(item -> approval.toVO());
+    }
+
+    /**
+     * 清除过期的已完成结果
+     */
+    @Scheduled(fixedDelayString = "${inventory.async-approval.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        long expireBefore = System.currentTimeMillis() - resultTtlMillis;
+        tickets.values().removeIf(approval -> approval.future.isDone() && approval.completedAtMillis < expireBefore);
+    }
+
+    private Approval find(OrderType type, String ticket) {
+        Approval approval = ticket != null ? tickets.get(ticket) : null;
+        if (approval == null || approval.type != type) {
+            throw new BusinessException("审核凭证不存在或已过期");
+        }
+        return approval;
+    }
+
+    private void runWorker() {
+        List<Approval> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Approval first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collectWindow(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("异步审核处理异常", e);
+                for (Approval approval : batch) {
+                    approval.complete(BatchApproveItemVO.failure(approval.id, null, "审核失败，请重新提交"));
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 在窗口内继续收集请求；审核进行期间到达的请求自然进入下一批
+     */
+    private void collectWindow(List<Approval> batch) throws InterruptedException {
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            Approval next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    private void flush(List<Approval> batch) {
+        // 按单据类型、审核人分组，保持到达顺序
+        Map<String, List<Approval>> groups = new LinkedHashMap<>();
+        for (Approval approval : batch) {
+            groups.computeIfAbsent(approval.type + ":" + approval.approvedBy, k -> new ArrayList<>()).add(approval);
+        }
+        for (List<Approval> group : groups.values()) {
+            approveGroup(group);
+        }
+    }
+
+    private void approveGroup(List<Approval> group) {
+        OrderType type = group.get(0).type;
+        String approvedBy = group.get(0).approvedBy;
+        List<Long> ids = group.stream().map(approval -> approval.id).collect(Collectors.toList());
+
+        Map<Long, BatchApproveItemVO> results = new HashMap<>();
+        try {
+            // 1. 整组一次批量审核，一个事务提交
+            BatchApproveResultVO result = type == OrderType.INBOUND
+                    ? inboundService.approveBatch(ids, approvedBy)
+                    : outboundService.approveBatch(ids, approvedBy, true);
+            for (BatchApproveItemVO item : result.getItems()) {
+                results.put(item.getId(), item);
+            }
+        } catch (RuntimeException e) {
+            // 2. 整组回滚：逐单各自审核，一笔失败不拖累同组其他单据
+            log.warn("异步审核组提交失败，逐单重新审核，type={}, size={}, reason={}", type, group.size(), e.getMessage());
+            for (Long id : ids) {
+                results.computeIfAbsent(id, k -> approveOne(type, k, approvedBy));
+            }
+        }
+
+        for (Approval approval : group) {
+            BatchApproveItemVO item = results.get(approval.id);
+            approval.complete(item != null ? item : BatchApproveItemVO.failure(approval.id, null, "审核失败，请重新提交"));
+        }
+        log.debug("异步审核组提交完成，type={}, size={}", type, group.size());
+    }
+
+    private BatchApproveItemVO approveOne(OrderType type, Long id, String approvedBy) {
+        try {
+            if (type == OrderType.INBOUND) {
+                inboundService.approve(id, approvedBy);
+            } else {
+                outboundService.approve(id, approvedBy);
+            }
+            return BatchApproveItemVO.success(id, null);
+        } catch (BusinessException e) {
+            return BatchApproveItemVO.failure(id, null, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("异步审核失败，type={}, id={}", type, id, e);
+            return BatchApproveItemVO.failure(id, null, "审核失败，请重新提交");
+        }
+    }
+
+    /**
+     * 单个审核请求
+     */
+    private static final class Approval {
+
+        private final String ticket;
+        private final OrderType type;
+        private final Long id;
+        private final String approvedBy;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final CompletableFuture<BatchApproveItemVO> future = new CompletableFuture<>();
+        private volatile LocalDateTime completedAt;
+        private volatile long completedAtMillis;
+
+        private Approval(String ticket, OrderType type, Long id, String approvedBy) {
+            this.ticket = ticket;
+            this.type = type;
+            this.id = id;
+            this.approvedBy = approvedBy;
+        }
+
+        private void complete(BatchApproveItemVO item) {
+            if (future.isDone()) {
+                return;
+            }
+            completedAt = LocalDateTime.now();
+            completedAtMillis = System.currentTimeMillis();
+            future.complete(item);
+        }
+
+        private ApprovalTicketVO toVO() {
+            ApprovalTicketVO vo = new ApprovalTicketVO();
+            vo.setTicket(ticket);
+            vo.setId(id);
+            vo.setSubmittedAt(submittedAt);
+            BatchApproveItemVO item = future.getNow(null);
+            vo.setDone(item != null);
+            if (item != null) {
+                vo.setOrderNo(item.getOrderNo());
+                vo.setSuccess(item.getSuccess());
+                vo.setMessage(item.getMessage());
+                vo.setCompletedAt(completedAt);
+            } else {
+                vo.setMessage("审核排队中");
+            }
+            return vo;
+        }
+    }
+}
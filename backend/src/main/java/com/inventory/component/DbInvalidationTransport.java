@@ -0,0 +1,133 @@
+package com.inventory.component;
+
+import com.inventory.component.InvalidationBus.Event;
+import com.inventory.component.ResourceVersions.Resource;
+import com.inventory.entity.CacheInvalidation;
+import com.inventory.mapper.CacheInvalidationMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 缓存失效事件传输：数据库轮询
+ *
+ * 发布时在写入事务中插入 t_cache_invalidation，与业务数据同时提交或回滚；库存事件由广播按拉取周期合并，
+ * 每个节点每个周期至多一行，不随每笔出入库写入。
+ * 拉取时读取ID水位之后的事件，并重叠读取最近 overlap-seconds 内创建的事件，覆盖较晚提交的小ID事件，按事件ID去重；
+ * 事务从插入到提交超过重叠窗口的事件可能遗漏，重叠窗口应大于绝大多数写入事务。
+ * 首次拉取或两次成功拉取的间隔超过重叠窗口时，按数据库时间重读最近 lookback-seconds 内的全部事件；
+ * 间隔超过回看窗口（数据库不可用、调度阻塞）时无法确认是否遗漏，返回全部失效事件。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.invalidation.transport", havingValue = "db", matchIfMissing = true)
+public class DbInvalidationTransport implements InvalidationTransport {
+
+    private static final int CLEANUP_BATCH_SIZE = 1000;
+
+    private final CacheInvalidationMapper cacheInvalidationMapper;
+    private final int lookbackSeconds;
+    private final int overlapSeconds;
+    private final int retentionSeconds;
+
+    /**
+     * 回看窗口内已返回的事件ID -> 首次拉取时间（纳秒）
+     */
+    private final Map<Long, Long> seen = new HashMap<>();
+    private long lastPollNanos = System.nanoTime();
+    /**
+     * 已拉取的最大事件ID，首次拉取前为空
+     */
+    private Long lastSeenId;
+
+    public DbInvalidationTransport(
+            CacheInvalidationMapper cacheInvalidationMapper,
+            @Value("${inventory.invalidation.lookback-seconds:60}") int lookbackSeconds,
+            @Value("${inventory.invalidation.overlap-seconds:5}") int overlapSeconds,
+            @Value("${inventory.invalidation.retention-minutes:60}") int retentionMinutes) {
+        this.cacheInvalidationMapper = cacheInvalidationMapper;
+        this.lookbackSeconds = lookbackSeconds;
+        this.overlapSeconds = overlapSeconds;
+        this.retentionSeconds = (int) TimeUnit.MINUTES.toSeconds(retentionMinutes);
+    }
+
+    @Override
+    public void publish(Event event) {
+        CacheInvalidation row = new CacheInvalidation();
+        row.setNodeId(event.getNodeId());
+        row.setResource(event.getResource().name());
+        if (event.getIds() != null) {
+            row.setIds(event.getIds().stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+        cacheInvalidationMapper.insert(row);
+    }
+
+    @Override
+    public synchronized List<Event> poll() {
+        long now = System.nanoTime();
+        long lookbackNanos = TimeUnit.SECONDS.toNanos(lookbackSeconds);
+        boolean stalled = now - lastPollNanos > lookbackNanos;
+        // 重叠窗口不足以覆盖本次间隔内较晚提交的事件时，重读完整回看窗口
+        boolean recovering = lastSeenId == null || now - lastPollNanos > TimeUnit.SECONDS.toNanos(overlapSeconds);
+        List<CacheInvalidation> rows = recovering
+                ? cacheInvalidationMapper.selectRecent(lookbackSeconds)
+                : cacheInvalidationMapper.selectSince(lastSeenId, overlapSeconds);
+        lastPollNanos = now;
+        seen.values().removeIf(seenAt -> now - seenAt > 2 * lookbackNanos);
+
+        List<Event> events = new ArrayList<>();
+        if (stalled) {
+            log.warn("距上次拉取缓存失效事件已超过 {} 秒，全部缓存失效", lookbackSeconds);
+            for (Resource resource : Resource.values()) {
+                events.add(new Event(null, resource, null));
+            }
+        }
+        for (CacheInvalidation row : rows) {
+            if (seen.putIfAbsent(row.getId(), now) == null) {
+                events.add(toEvent(row));
+            }
+            if (lastSeenId == null || row.getId() > lastSeenId) {
+                lastSeenId = row.getId();
+            }
+        }
+        return events;
+    }
+
+    /**
+     * 清理过期事件
+     */
+    @Scheduled(fixedDelayString = "${inventory.invalidation.cleanup-interval-ms:600000}")
+    public void cleanup() {
+        int deleted;
+        int total = 0;
+        do {
+            deleted = cacheInvalidationMapper.deleteExpired(retentionSeconds, CLEANUP_BATCH_SIZE);
+            total += deleted;
+        } while (deleted == CLEANUP_BATCH_SIZE);
+        if (total > 0) {
+            log.debug("清理过期缓存失效事件 {} 条", total);
+        }
+    }
+
+    private Event toEvent(CacheInvalidation row) {
+        Set<Long> ids = null;
+        if (row.getIds() != null) {
+            ids = new HashSet<>();
+            for (String id : row.getIds().split(",")) {
+                if (!id.isEmpty()) {
+                    ids.add(Long.valueOf(id));
+                }
+            }
+        }
+        return new Event(row.getNodeId(), Resource.valueOf(row.getResource()), ids);
+    }
+}
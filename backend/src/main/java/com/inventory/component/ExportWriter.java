@@ -0,0 +1,221 @@
+package com.inventory.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.exception.BusinessException;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 导出文件写入
+ *
+ * 逐条写入输出流，不缓存结果集，支持两种格式：
+ * <ul>
+ *     <li>csv：UTF-8 带 BOM（Excel 可直接打开），首行为表头，时间格式 yyyy-MM-dd HH:mm:ss；
+ *     以 = + - @ 开头的文本前加单引号，防止被表格软件当作公式执行</li>
+ *     <li>ndjson：每行一个 JSON 对象，字段与列表接口返回的对象相同</li>
+ * </ul>
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Component
+public class ExportWriter {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ObjectMapper objectMapper;
+
+    public ExportWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 导出格式
+     */
+    @Getter
+    public enum Format {
+        CSV("csv", "text/csv;charset=UTF-8"),
+        NDJSON("ndjson", "application/x-ndjson;charset=UTF-8");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        /**
+         * 按名称解析导出格式（不区分大小写）
+         */
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new BusinessException("不支持的导出格式：" + name);
+        }
+    }
+
+    /**
+     * CSV 列：列名与取值方法
+     */
+    public static final class Column<T> {
+
+        private final String name;
+        private final Function<T, Object> getter;
+
+        private Column(String name, Function<T, Object> getter) {
+            this.name = name;
+            this.getter = getter;
+        }
+
+        public static <T> Column<T> of(String name, Function<T, Object> getter) {
+            return new Column<>(name, getter);
+        }
+    }
+
+    /**
+     * 开始写入
+     *
+     * @param out 输出流（由调用方关闭）
+     * @param format 导出格式
+     * @param columns CSV 列，NDJSON 忽略
+     * @return 逐条写入的输出
+     */
+    public <T> Sink<T> open(OutputStream out, Format format, List<Column<T>> columns) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.NDJSON) {
+            return new NdjsonSink<>(writer);
+        }
+        CsvSink<T> sink = new CsvSink<>(writer, columns);
+        sink.writeHeader();
+        return sink;
+    }
+
+    /**
+     * 逐条写入的输出；写入失败（通常是客户端断开）时抛出 UncheckedIOException，以便在结果集回调中中止查询
+     */
+    public abstract static class Sink<T> {
+
+        final Writer writer;
+        private long count;
+
+        Sink(Writer writer) {
+            this.writer = writer;
+        }
+
+        public void write(T row) {
+            try {
+                writeRow(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count++;
+        }
+
+        /**
+         * 写出缓冲区中的剩余内容，不关闭输出流
+         *
+         * @return 写入条数
+         */
+        public long finish() throws IOException {
+            writer.flush();
+            return count;
+        }
+
+        abstract void writeRow(T row) throws IOException;
+    }
+
+    private final class NdjsonSink<T> extends Sink<T> {
+
+        private NdjsonSink(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void writeRow(T row) throws IOException {
+            writer.write(objectMapper.writeValueAsString(row));
+            writer.write('\n');
+        }
+    }
+
+    private static final class CsvSink<T> extends Sink<T> {
+
+        private final List<Column<T>> columns;
+
+        private CsvSink(Writer writer, List<Column<T>> columns) {
+            super(writer);
+            this.columns = columns;
+        }
+
+        private void writeHeader() throws IOException {
+            writer.write('\uFEFF');
+            List<String> names = new ArrayList<>(columns.size());
+            for (Column<T> column : columns) {
+                names.add(column.name);
+            }
+            writeLine(names);
+        }
+
+        @Override
+        void writeRow(T row) throws IOException {
+            List<String> values = new ArrayList<>(columns.size());
+            for (Column<T> column : columns) {
+                values.add(format(column.getter.apply(row)));
+            }
+            writeLine(values);
+        }
+
+        private void writeLine(List<String> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values.get(i)));
+            }
+            writer.write("\r\n");
+        }
+
+        private static String format(Object value) {
+            if (value == null) {
+                return "";
+            }
+            if (value instanceof LocalDateTime) {
+                return ((LocalDateTime) value).format(DATE_TIME_FORMATTER);
+            }
+            if (value instanceof String) {
+                String text = (String) value;
+                if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+                    return "'" + text;
+                }
+                return text;
+            }
+            return value.toString();
+        }
+
+        /**
+         * 含逗号、引号或换行的字段用双引号包裹，引号写两次
+         */
+        static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.inventory.component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.dto.InboundDTO;
+import com.inventory.exception.BusinessException;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 入库单导入文件解析
+ *
+ * 逐行读取，不缓存整个文件，支持两种格式：
+ * <ul>
+ *     <li>csv：首行为表头，列名与 {@link InboundDTO} 字段名相同（productId、warehouseId、quantity、supplier、
+ *     inboundDate、remark），列顺序不限，多余的列忽略；字段含逗号或引号时用双引号包裹，不支持字段内换行</li>
+ *     <li>ndjson：每行一个 JSON 对象，字段同 {@link InboundDTO}</li>
+ * </ul>
+ * 空行跳过；入库日期支持 yyyy-MM-dd HH:mm:ss、ISO 格式（yyyy-MM-ddTHH:mm:ss）和 yyyy-MM-dd。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Component
+public class InboundImportParser {
+
+    private static final String[] REQUIRED_COLUMNS = {"productId", "quantity", "supplier", "inboundDate"};
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ObjectMapper objectMapper;
+
+    public InboundImportParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 开始解析
+     *
+     * @param reader 导入文件
+     * @param format 文件格式：csv 或 ndjson
+     * @return 逐行读取的游标
+     */
+    public Cursor open(BufferedReader reader, String format) throws IOException {
+        if ("csv".equalsIgnoreCase(format)) {
+            return new CsvCursor(reader);
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return new NdjsonCursor(reader);
+        }
+        throw new BusinessException("不支持的导入格式：" + format);
+    }
+
+    /**
+     * 解析后的一行：解析成功时 dto 不为空，否则 error 为错误说明
+     */
+    @Getter
+    public static final class Line {
+
+        private final int lineNo;
+        private final InboundDTO dto;
+        private final String error;
+
+        private Line(int lineNo, InboundDTO dto, String error) {
+            this.lineNo = lineNo;
+            this.dto = dto;
+            this.error = error;
+        }
+    }
+
+    /**
+     * 逐行读取的游标
+     */
+    public abstract static class Cursor {
+
+        private final BufferedReader reader;
+        private int lineNo;
+
+        Cursor(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * 读取下一行数据（跳过空行）
+         *
+         * @return 解析结果，文件结束时返回 null
+         */
+        public Line next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                lineNo++;
+            } while (text.trim().isEmpty());
+            try {
+                return new Line(lineNo, parse(text), null);
+            } catch (IllegalArgumentException e) {
+                return new Line(lineNo, null, e.getMessage());
+            }
+        }
+
+        String readHeader() throws IOException {
+            String header = reader.readLine();
+            lineNo++;
+            return header;
+        }
+
+        /**
+         * 解析一行；格式错误时抛出 IllegalArgumentException，消息即错误说明
+         */
+        abstract InboundDTO parse(String text);
+    }
+
+    private final class NdjsonCursor extends Cursor {
+
+        private NdjsonCursor(BufferedReader reader) {
+            super(reader);
+        }
+
+        @Override
+        InboundDTO parse(String text) {
+            InboundDTO dto;
+            try {
+                dto = objectMapper.readValue(text, InboundDTO.class);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("JSON 格式错误：" + e.getOriginalMessage());
+            }
+            if (dto == null) {
+                throw new IllegalArgumentException("JSON 格式错误：不是对象");
+            }
+            return dto;
+        }
+    }
+
+    private static final class CsvCursor extends Cursor {
+
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        private CsvCursor(BufferedReader reader) throws IOException {
+            super(reader);
+            String header = readHeader();
+            if (header == null) {
+                throw new BusinessException("导入文件为空");
+            }
+            // 去掉 UTF-8 BOM（Excel 导出的 CSV 常带）
+            if (header.startsWith("\uFEFF")) {
+                header = header.substring(1);
+            }
+            List<String> names;
+            try {
+                names = split(header);
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException("导入文件表头格式错误：" + e.getMessage());
+            }
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim(), i);
+            }
+            for (String column : REQUIRED_COLUMNS) {
+                if (!columns.containsKey(column)) {
+                    throw new BusinessException("导入文件缺少列：" + column);
+                }
+            }
+        }
+
+        @Override
+        InboundDTO parse(String text) {
+            List<String> fields = split(text);
+            InboundDTO dto = new InboundDTO();
+            dto.setProductId(toLong(field(fields, "productId"), "productId"));
+            dto.setWarehouseId(toLong(field(fields, "warehouseId"), "warehouseId"));
+            Long quantity = toLong(field(fields, "quantity"), "quantity");
+            if (quantity != null && (quantity > Integer.MAX_VALUE || quantity < Integer.MIN_VALUE)) {
+                throw new IllegalArgumentException("quantity 超出范围");
+            }
+            dto.setQuantity(quantity != null ? quantity.intValue() : null);
+            dto.setSupplier(field(fields, "supplier"));
+            dto.setInboundDate(toDateTime(field(fields, "inboundDate")));
+            dto.setRemark(field(fields, "remark"));
+            return dto;
+        }
+
+        /**
+         * 取列值；缺列或空白时返回 null
+         */
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private static Long toLong(String value, String column) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + " 不是有效的整数：" + value);
+            }
+        }
+
+        private static LocalDateTime toDateTime(String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                if (value.length() == 10) {
+                    return LocalDate.parse(value).atStartOfDay();
+                }
+                return value.indexOf('T') > 0 ? LocalDateTime.parse(value) : LocalDateTime.parse(value, DATE_TIME_FORMATTER);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("inboundDate 不是有效的日期：" + value);
+            }
+        }
+
+        /**
+         * 按逗号拆分一行，双引号包裹的字段内可含逗号，两个双引号表示一个双引号
+         */
+        static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("引号未闭合");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
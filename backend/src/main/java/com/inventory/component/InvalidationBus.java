@@ -0,0 +1,288 @@
+package com.inventory.component;
+
+import com.inventory.component.ResourceVersions.Resource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 缓存失效广播
+ *
+ * 商品、分类、库存写入后由服务发布失效事件：同一事务内的事件按资源类别合并，提交前交给传输层
+ * （数据库传输在同一事务中写入事件表），提交后通知本节点的订阅者；回滚时全部丢弃。
+ * 其他节点定时拉取事件并通知各自的订阅者，缓存陈旧时间不超过拉取间隔加一次查询耗时。
+ *
+ * 库存（INVENTORY）每笔出入库都会变更，不随事务逐笔发布：提交后先在本节点合并，每个拉取周期发布一次，
+ * 其他节点的陈旧时间延长一个拉取间隔。进程在发布前退出时合并的事件丢失，由库存读模型的定时对账修正。
+ *
+ * 订阅者在事件到达时同步执行，须立即失效（不能再注册事务同步），且不应执行耗时操作。
+ * 每次事件同时递增对应资源类别的版本号（ETag）。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Slf4j
+@Component
+public class InvalidationBus {
+
+    /**
+     * 提交后按拉取周期合并发布的资源类别
+     */
+    private static final Set<Resource> COALESCED = EnumSet.of(Resource.INVENTORY);
+
+    private final InvalidationTransport transport;
+    private final ResourceVersions resourceVersions;
+    private final int maxIdsPerEvent;
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<Resource, List<Subscriber>> subscribers = new EnumMap<>(Resource.class);
+    /**
+     * 已提交、待下个拉取周期发布的合并事件，访问时对其加锁
+     */
+    private final Merged outbox = new Merged();
+
+    public InvalidationBus(
+            InvalidationTransport transport,
+            ResourceVersions resourceVersions,
+            @Value("${inventory.invalidation.max-ids-per-event:200}") int maxIdsPerEvent) {
+        this.transport = transport;
+        this.resourceVersions = resourceVersions;
+        this.maxIdsPerEvent = maxIdsPerEvent;
+        for (Resource resource : Resource.values()) {
+            subscribers.put(resource, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    /**
+     * 订阅本节点和其他节点的失效事件
+     *
+     * @param handler 参数为失效的ID，为 null 时表示该类别全部失效
+     */
+    public void subscribe(Resource resource, Consumer<Set<Long>> handler) {
+        subscribers.get(resource).add(new Subscriber(handler, false));
+    }
+
+    /**
+     * 只订阅其他节点的失效事件（本节点已在提交后自行更新的缓存使用）
+     *
+     * @param handler 参数为失效的ID，为 null 时表示该类别全部失效
+     */
+    public void subscribeRemote(Resource resource, Consumer<Set<Long>> handler) {
+        subscribers.get(resource).add(new Subscriber(handler, true));
+    }
+
+    /**
+     * 当前事务提交后发布失效事件；无事务时立即发布
+     *
+     * @param ids 失效的ID，为 null 时表示该类别全部失效
+     */
+    public void publishAfterCommit(Resource resource, Collection<Long> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Event event = new Event(nodeId, resource, ids == null || ids.size() > maxIdsPerEvent ? null : new HashSet<>(ids));
+            if (COALESCED.contains(resource)) {
+                defer(Collections.singletonList(event));
+            } else {
+                transport.publish(event);
+            }
+            dispatch(event, true);
+            return;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(resource, ids);
+    }
+
+    /**
+     * 发布本周期合并的事件，再拉取其他节点发布的事件并通知订阅者
+     */
+    @Scheduled(fixedDelayString = "${inventory.invalidation.poll-interval-ms:1000}")
+    public void poll() {
+        flush();
+        List<Event> events;
+        try {
+            events = transport.poll();
+        } catch (RuntimeException e) {
+            log.warn("拉取缓存失效事件失败：{}", e.getMessage());
+            return;
+        }
+        for (Event event : events) {
+            if (!nodeId.equals(event.getNodeId())) {
+                dispatch(event, false);
+            }
+        }
+    }
+
+    /**
+     * 暂存已提交的合并事件，由下次拉取前发布
+     */
+    private void defer(List<Event> events) {
+        synchronized (outbox) {
+            for (Event event : events) {
+                outbox.add(event.getResource(), event.getIds());
+            }
+        }
+    }
+
+    /**
+     * 发布暂存的合并事件，每个资源类别一条；发布失败时放回，下个周期重试
+     */
+    private void flush() {
+        List<Event> events;
+        synchronized (outbox) {
+            if (outbox.isEmpty()) {
+                return;
+            }
+            events = outbox.drain();
+        }
+        try {
+            for (Event event : events) {
+                transport.publish(event);
+            }
+        } catch (RuntimeException e) {
+            log.warn("发布合并的缓存失效事件失败：{}", e.getMessage());
+            defer(events);
+        }
+    }
+
+    private void dispatch(Event event, boolean local) {
+        for (Subscriber subscriber : subscribers.get(event.getResource())) {
+            if (local && subscriber.remoteOnly) {
+                continue;
+            }
+            try {
+                subscriber.handler.accept(event.getIds());
+            } catch (RuntimeException e) {
+                // 单个订阅者失败不影响其他缓存失效
+                log.error("处理缓存失效事件失败，resource={}, ids={}", event.getResource(), event.getIds(), e);
+            }
+        }
+        resourceVersions.bump(event.getResource());
+    }
+
+    /**
+     * 失效事件（不可变）
+     */
+    @Getter
+    public static final class Event {
+
+        private final String nodeId;
+        private final Resource resource;
+        /**
+         * 失效的ID，为 null 时表示该类别全部失效
+         */
+        private final Set<Long> ids;
+
+        public Event(String nodeId, Resource resource, Set<Long> ids) {
+            this.nodeId = nodeId;
+            this.resource = resource;
+            this.ids = ids != null ? Collections.unmodifiableSet(ids) : null;
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final Consumer<Set<Long>> handler;
+        private final boolean remoteOnly;
+
+        private Subscriber(Consumer<Set<Long>> handler, boolean remoteOnly) {
+            this.handler = handler;
+            this.remoteOnly = remoteOnly;
+        }
+    }
+
+    /**
+     * 按资源类别合并的事件ID
+     */
+    private final class Merged {
+
+        private final Map<Resource, Set<Long>> ids = new EnumMap<>(Resource.class);
+        private final Set<Resource> all = EnumSet.noneOf(Resource.class);
+
+        private void add(Resource resource, Collection<Long> resourceIds) {
+            if (all.contains(resource)) {
+                return;
+            }
+            Set<Long> merged = ids.computeIfAbsent(resource, k -> new HashSet<>());
+            if (resourceIds != null) {
+                merged.addAll(resourceIds);
+            }
+            // ID 过多时整类失效，避免单个事件过大
+            if (resourceIds == null || merged.size() > maxIdsPerEvent) {
+                ids.remove(resource);
+                all.add(resource);
+            }
+        }
+
+        private boolean isEmpty() {
+            return ids.isEmpty() && all.isEmpty();
+        }
+
+        /**
+         * 取出合并后的事件并清空
+         */
+        private List<Event> drain() {
+            List<Event> events = new ArrayList<>();
+            for (Resource resource : all) {
+                events.add(new Event(nodeId, resource, null));
+            }
+            ids.forEach((resource, resourceIds) -> events.add(new Event(nodeId, resource, resourceIds)));
+            ids.clear();
+            all.clear();
+            return events;
+        }
+    }
+
+    /**
+     * 当前事务内待发布的事件，按资源类别合并ID
+     */
+    private final class Pending implements TransactionSynchronization {
+
+        private final Merged merged = new Merged();
+        private List<Event> events = Collections.emptyList();
+
+        private void add(Resource resource, Collection<Long> resourceIds) {
+            merged.add(resource, resourceIds);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            events = merged.drain();
+            for (Event event : events) {
+                if (!COALESCED.contains(event.getResource())) {
+                    transport.publish(event);
+                }
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            List<Event> coalesced = new ArrayList<>();
+            for (Event event : events) {
+                if (COALESCED.contains(event.getResource())) {
+                    coalesced.add(event);
+                }
+            }
+            defer(coalesced);
+            for (Event event : events) {
+                dispatch(event, true);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InvalidationBus.this);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.inventory.component;
+
+import com.inventory.component.InvalidationBus.Event;
+
+import java.util.List;
+
+/**
+ * 缓存失效事件传输
+ *
+ * 负责把本节点发布的事件送达其他节点，由 inventory.invalidation.transport 选择实现：
+ * db（数据库轮询，多节点部署）或 local（进程内，单节点部署和测试）。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+public interface InvalidationTransport {
+
+    /**
+     * 发布事件
+     *
+     * 在写入事务提交前调用（无事务时立即调用）：事件须在事务提交后才对其他节点可见，事务回滚时丢弃。
+     * 按拉取周期合并的事件（库存）在提交后由广播的拉取任务调用，不在事务中。
+     *
+     * @param event 事件
+     */
+    void publish(Event event);
+
+    /**
+     * 拉取上次拉取以来新到达的事件
+     *
+     * 结果可能包含本节点发布的事件，由调用方按节点ID过滤；同一事件只返回一次。
+     * 无法保证不遗漏时（如长时间未能拉取）应返回各类别的全部失效事件。
+     *
+     * @return 事件列表
+     */
+    List<Event> poll();
+}
@@ -0,0 +1,78 @@
+package com.inventory.component;
+
+import com.inventory.component.InvalidationBus.Event;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 缓存失效事件传输：进程内
+ *
+ * 同一 {@link Channel} 上的各传输实例互为"节点"：发布的事件在事务提交后投递到每个实例的队列，
+ * 拉取时取出本实例队列中的事件。单节点部署时只有本节点自己，事件由广播按节点ID过滤；
+ * 测试中可用同一 Channel 构造多个实例模拟多节点。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.invalidation.transport", havingValue = "local")
+public class LocalInvalidationTransport implements InvalidationTransport {
+
+    private final Channel channel;
+    private final Queue<Event> inbox = new ConcurrentLinkedQueue<>();
+
+    public LocalInvalidationTransport() {
+        this(new Channel());
+    }
+
+    public LocalInvalidationTransport(Channel channel) {
+        this.channel = channel;
+        channel.inboxes.add(inbox);
+    }
+
+    @Override
+    public void publish(Event event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            channel.deliver(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                channel.deliver(event);
+            }
+        });
+    }
+
+    @Override
+    public List<Event> poll() {
+        List<Event> events = new ArrayList<>();
+        Event event;
+        while ((event = inbox.poll()) != null) {
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * 进程内事件通道
+     */
+    public static final class Channel {
+
+        private final List<Queue<Event>> inboxes = new CopyOnWriteArrayList<>();
+
+        private void deliver(Event event) {
+            for (Queue<Event> inbox : inboxes) {
+                inbox.add(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.inventory.component;
+
+import com.inventory.exception.BusinessException;
+import com.inventory.mapper.OrderSequenceMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单号生成器（入库单、出库单共用）
+ *
+ * 单号格式：前缀 + yyyyMMdd + 序号，按日期重新计数，同一天内字典序即生成顺序（各节点之间按序号段交错）。
+ * 序号小于 900000 时为 6 位定长；从 900000 起为 "9" + 序号位数 + 序号（如 96900000、971000000），
+ * 以 9 开头的长度前缀使其排在全部 6 位序号之后，位数多的排在位数少的之后，每天每类单据最多 9 位序号。
+ *
+ * 序号按段从 t_order_sequence 预留：一次 UPDATE 把当天的下一个可用序号推进一个段长，在独立事务中提交，
+ * 行锁只持有一条语句的时间，不随业务事务延长；段内序号在内存中用原子计数器分配，不访问数据库。
+ * 多个节点各自预留不重叠的序号段，单号不会重复。
+ *
+ * 预留由单独的后台线程执行：当前序号段剩余不足 low-water 个时提前预留下一段，取号线程不在锁内访问数据库，
+ * 也不在持有业务事务连接的同时再申请一个连接。下一段尚未就绪时取号线程最多等待 refill-timeout-ms，超时报错，
+ * 不会无限期占着连接等待。
+ *
+ * 进程重启或跨天时未用完的序号段作废，单号可能不连续。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Slf4j
+@Component
+public class OrderNoGenerator {
+
+    /**
+     * 单据类型
+     */
+    public enum OrderType {
+        /**
+         * 入库单
+         */
+        INBOUND("IN", "入库单"),
+        /**
+         * 出库单
+         */
+        OUTBOUND("OUT", "出库单");
+
+        private final String prefix;
+        private final String label;
+
+        OrderType(String prefix, String label) {
+            this.prefix = prefix;
+            this.label = label;
+        }
+    }
+
+    /**
+     * 按 6 位定长输出的最大序号，更大的序号使用长度前缀形式
+     */
+    static final long PLAIN_MAX = 899_999L;
+
+    /**
+     * 每天每类单据的序号上限（9 位）
+     */
+    static final long MAX_VALUE = 999_999_999L;
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final OrderSequenceMapper orderSequenceMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+    private final int lowWater;
+    private final long refillTimeoutMillis;
+
+    private final Map<OrderType, Block> blocks = new EnumMap<>(OrderType.class);
+    /**
+     * 正在预留或已预留待启用的下一段
+     */
+    private final Map<OrderType, CompletableFuture<Block>> refills = new EnumMap<>(OrderType.class);
+    private final ExecutorService refiller;
+
+    public OrderNoGenerator(
+            OrderSequenceMapper orderSequenceMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.order-no.block-size:20}") int blockSize,
+            @Value("${inventory.order-no.low-water:5}") int lowWater,
+            @Value("${inventory.order-no.refill-timeout-ms:3000}") long refillTimeoutMillis) {
+        this.orderSequenceMapper = orderSequenceMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 预留序号段不参与调用方事务：业务事务回滚时序号段不回收，也不长时间持有行锁
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        this.lowWater = lowWater;
+        this.refillTimeoutMillis = refillTimeoutMillis;
+        this.refiller = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "order-no-refill");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        refiller.shutdownNow();
+    }
+
+    /**
+     * 生成单号
+     *
+     * @param type 单据类型
+     * @return 单号
+     */
+    public String next(OrderType type) {
+        LocalDate today = LocalDate.now();
+        Block block = currentBlock(type);
+        while (true) {
+            if (block != null && block.date.equals(today)) {
+                long value = block.next.getAndIncrement();
+                if (value <= block.max) {
+                    if (block.max - value <= lowWater && block.prefetched.compareAndSet(false, true)) {
+                        prefetch(type, today);
+                    }
+                    return type.prefix + today.format(DATE_FORMATTER) + formatSequence(value);
+                }
+            }
+            // 在锁外等待后台预留完成，再启用下一段
+            CompletableFuture<Block> refill = refill(type, block, today);
+            await(refill);
+            block = install(type, block, refill);
+        }
+    }
+
+    /**
+     * 一次预留多个单号（批量导入），不经过内存中的序号段
+     *
+     * @param type 单据类型
+     * @param count 单号个数
+     * @return 按顺序排列的单号
+     */
+    public List<String> reserve(OrderType type, int count) {
+        LocalDate today = LocalDate.now();
+        long next = allocate(type, today, count);
+        if (next - 1 > MAX_VALUE) {
+            throw new BusinessException("今日" + type.label + "数量已达上限");
+        }
+        String prefix = type.prefix + today.format(DATE_FORMATTER);
+        List<String> orderNos = new ArrayList<>(count);
+        for (long value = next - count; value < next; value++) {
+            orderNos.add(prefix + formatSequence(value));
+        }
+        return orderNos;
+    }
+
+    /**
+     * 序号转为单号中的序号部分，字典序与数值顺序一致
+     */
+    static String formatSequence(long value) {
+        if (value <= PLAIN_MAX) {
+            return String.format("%06d", value);
+        }
+        String digits = Long.toString(value);
+        return "9" + digits.length() + digits;
+    }
+
+    private synchronized Block currentBlock(OrderType type) {
+        return blocks.get(type);
+    }
+
+    /**
+     * 当前序号段用完或已跨天时取得下一段的预留结果；其他线程已经换过时直接返回当前序号段
+     */
+    private synchronized CompletableFuture<Block> refill(OrderType type, Block exhausted, LocalDate today) {
+        Block current = blocks.get(type);
+        if (current != exhausted) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return prefetch(type, today);
+    }
+
+    /**
+     * 提交后台预留；已有可用的预留（进行中，或已完成且属于当天）时不重复提交
+     */
+    private synchronized CompletableFuture<Block> prefetch(OrderType type, LocalDate today) {
+        CompletableFuture<Block> pending = refills.get(type);
+        if (pending != null && (!pending.isDone() || isUsable(pending, today))) {
+            return pending;
+        }
+        pending = CompletableFuture.supplyAsync(() -> allocateBlock(type, today), refiller);
+        refills.put(type, pending);
+        return pending;
+    }
+
+    /**
+     * 启用已完成的下一段；其他线程已经启用过时返回当前序号段
+     */
+    private synchronized Block install(OrderType type, Block exhausted, CompletableFuture<Block> refill) {
+        Block current = blocks.get(type);
+        if (current != exhausted || refills.get(type) != refill) {
+            return current;
+        }
+        Block block = refill.join();
+        blocks.put(type, block);
+        refills.remove(type);
+        return block;
+    }
+
+    private static boolean isUsable(CompletableFuture<Block> refill, LocalDate today) {
+        return !refill.isCompletedExceptionally() && refill.join().date.equals(today);
+    }
+
+    private Block allocateBlock(OrderType type, LocalDate today) {
+        long next = allocate(type, today, blockSize);
+        long first = next - blockSize;
+        if (first > MAX_VALUE) {
+            throw new BusinessException("今日" + type.label + "数量已达上限");
+        }
+        Block block = new Block(today, first, Math.min(next - 1, MAX_VALUE));
+        log.debug("预留{}单号序号段，date={}, range=[{}, {}]", type.label, today, first, block.max);
+        return block;
+    }
+
+    private void await(CompletableFuture<Block> refill) {
+        try {
+            refill.get(refillTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new BusinessException("单号生成繁忙，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("单号生成被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BusinessException) {
+                throw (BusinessException) e.getCause();
+            }
+            throw new BusinessException("单号生成失败，请稍后重试", e.getCause());
+        }
+    }
+
+    /**
+     * 在独立事务中把当天的下一个可用序号推进 count，返回推进后的值；预留到的序号为 [返回值 - count, 返回值 - 1]
+     */
+    private long allocate(OrderType type, LocalDate date, int count) {
+        Long next = transactionTemplate.execute(status -> {
+            if (orderSequenceMapper.advance(type.name(), date, count) == 0) {
+                orderSequenceMapper.insertIfAbsent(type.name(), date);
+                orderSequenceMapper.advance(type.name(), date, count);
+            }
+            return orderSequenceMapper.selectNextValue(type.name(), date);
+        });
+        return next;
+    }
+
+    /**
+     * 已预留的序号段 [next, max]
+     */
+    private static final class Block {
+
+        private final LocalDate date;
+        private final AtomicLong next;
+        private final long max;
+        private final AtomicBoolean prefetched = new AtomicBoolean();
+
+        private Block(LocalDate date, long first, long max) {
+            this.date = date;
+            this.next = new AtomicLong(first);
+            this.max = max;
+        }
+    }
+}
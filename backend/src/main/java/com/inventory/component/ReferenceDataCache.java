@@ -0,0 +1,288 @@
+package com.inventory.component;
+
+import com.inventory.component.ResourceVersions.Resource;
+import com.inventory.entity.Category;
+import com.inventory.entity.Product;
+import com.inventory.mapper.CategoryMapper;
+import com.inventory.mapper.ProductMapper;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 商品/分类引用数据缓存
+ *
+ * 列表、详情接口补充商品名称、编码、分类名称时使用：一批ID先查缓存，未命中的ID合并为一次
+ * IN 查询加载，不再逐行查询。缓存按访问顺序淘汰（LRU），条目数有上限，并设置写入后过期时间，
+ * 以限制多实例部署下其他实例修改造成的陈旧时间。
+ *
+ * 订阅 {@link InvalidationBus} 的商品、分类失效事件：本节点写入在事务提交后失效，其他节点的写入在拉取到事件后失效；
+ * 加载期间发生失效时，本次加载结果不写入缓存。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Component
+public class ReferenceDataCache {
+
+    private final ProductMapper productMapper;
+    private final CategoryMapper categoryMapper;
+    private final BoundedStore<ProductRef> products;
+    private final BoundedStore<CategoryRef> categories;
+
+    public ReferenceDataCache(
+            ProductMapper productMapper,
+            CategoryMapper categoryMapper,
+            @Value("${inventory.reference-cache.max-products:10000}") int maxProducts,
+            @Value("${inventory.reference-cache.max-categories:2000}") int maxCategories,
+            @Value("${inventory.reference-cache.ttl-seconds:600}") long ttlSeconds,
+            InvalidationBus invalidationBus) {
+        this.productMapper = productMapper;
+        this.categoryMapper = categoryMapper;
+        this.products = new BoundedStore<>(maxProducts, TimeUnit.SECONDS.toNanos(ttlSeconds));
+        this.categories = new BoundedStore<>(maxCategories, TimeUnit.SECONDS.toNanos(ttlSeconds));
+        invalidationBus.subscribe(Resource.PRODUCT, this::evictProducts);
+        invalidationBus.subscribe(Resource.CATEGORY, this::evictCategories);
+    }
+
+    /**
+     * 获取单个商品引用信息
+     *
+     * @param productId 商品ID
+     * @return 商品引用信息，不存在时返回 null
+     */
+    public ProductRef getProduct(Long productId) {
+        if (productId == null) {
+            return null;
+        }
+        return getProducts(Collections.singleton(productId)).get(productId);
+    }
+
+    /**
+     * 批量获取商品引用信息，未命中部分一次查询加载
+     *
+     * @param productIds 商品ID集合（允许重复、允许 null 元素）
+     * @return 商品ID到引用信息的映射，不存在的商品不在结果中
+     */
+    public Map<Long, ProductRef> getProducts(Collection<Long> productIds) {
+        return products.getAll(productIds, ids -> {
+            Map<Long, ProductRef> loaded = new HashMap<>();
+            for (Product product : productMapper.selectBatchIds(ids)) {
+                loaded.put(product.getId(), new ProductRef(product));
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * 获取单个分类引用信息
+     *
+     * @param categoryId 分类ID
+     * @return 分类引用信息，不存在时返回 null
+     */
+    public CategoryRef getCategory(Long categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        return getCategories(Collections.singleton(categoryId)).get(categoryId);
+    }
+
+    /**
+     * 批量获取分类引用信息，未命中部分一次查询加载
+     *
+     * @param categoryIds 分类ID集合（允许重复、允许 null 元素）
+     * @return 分类ID到引用信息的映射，不存在的分类不在结果中
+     */
+    public Map<Long, CategoryRef> getCategories(Collection<Long> categoryIds) {
+        return categories.getAll(categoryIds, ids -> {
+            Map<Long, CategoryRef> loaded = new HashMap<>();
+            for (Category category : categoryMapper.selectBatchIds(ids)) {
+                loaded.put(category.getId(), new CategoryRef(category));
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * 立即失效商品缓存
+     *
+     * @param productIds 商品ID，为 null 时清空全部商品缓存
+     */
+    public void evictProducts(Collection<Long> productIds) {
+        products.evict(productIds);
+    }
+
+    /**
+     * 立即失效分类缓存
+     *
+     * @param categoryIds 分类ID，为 null 时清空全部分类缓存
+     */
+    public void evictCategories(Collection<Long> categoryIds) {
+        categories.evict(categoryIds);
+    }
+
+    /**
+     * 缓存统计：条目数、命中、未命中、淘汰次数
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("product", products.stats());
+        stats.put("category", categories.stats());
+        return stats;
+    }
+
+    /**
+     * 商品引用信息（不可变）
+     */
+    @Getter
+    public static final class ProductRef {
+
+        private final Long id;
+        private final String sku;
+        private final String name;
+        private final Long categoryId;
+        private final BigDecimal price;
+        private final BigDecimal costPrice;
+        private final Integer status;
+
+        public ProductRef(Product product) {
+            this.id = product.getId();
+            this.sku = product.getSku();
+            this.name = product.getName();
+            this.categoryId = product.getCategoryId();
+            this.price = product.getPrice();
+            this.costPrice = product.getCostPrice();
+            this.status = product.getStatus();
+        }
+    }
+
+    /**
+     * 分类引用信息（不可变）
+     */
+    @Getter
+    public static final class CategoryRef {
+
+        private final Long id;
+        private final String name;
+        private final Long parentId;
+        private final Integer status;
+
+        public CategoryRef(Category category) {
+            this.id = category.getId();
+            this.name = category.getName();
+            this.parentId = category.getParentId();
+            this.status = category.getStatus();
+        }
+    }
+
+    /**
+     * 有界 LRU 存储，带写入后过期与命中统计
+     */
+    private static final class BoundedStore<V> {
+
+        private final int maxSize;
+        private final long ttlNanos;
+        private final LinkedHashMap<Long, CachedValue<V>> entries;
+        /**
+         * 失效代数：加载前记录，写入时不一致说明加载期间发生过失效，结果可能已陈旧
+         */
+        private final AtomicLong generation = new AtomicLong();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        private BoundedStore(int maxSize, long ttlNanos) {
+            this.maxSize = maxSize;
+            this.ttlNanos = ttlNanos;
+            this.entries = new LinkedHashMap<Long, CachedValue<V>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CachedValue<V>> eldest) {
+                    if (size() > BoundedStore.this.maxSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private Map<Long, V> getAll(Collection<Long> ids, Function<Set<Long>, Map<Long, V>> loader) {
+            if (ids == null || ids.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            Map<Long, V> result = new HashMap<>();
+            Set<Long> missing = new HashSet<>();
+            long now = System.nanoTime();
+            synchronized (entries) {
+                for (Long id : ids) {
+                    if (id == null || result.containsKey(id) || missing.contains(id)) {
+                        continue;
+                    }
+                    CachedValue<V> entry = entries.get(id);
+                    if (entry != null && now - entry.loadedAt < ttlNanos) {
+                        result.put(id, entry.value);
+                    } else {
+                        missing.add(id);
+                    }
+                }
+            }
+            hits.add(result.size());
+            if (missing.isEmpty()) {
+                return result;
+            }
+            misses.add(missing.size());
+
+            long loadGeneration = generation.get();
+            Map<Long, V> loaded = loader.apply(missing);
+            result.putAll(loaded);
+            synchronized (entries) {
+                if (generation.get() == loadGeneration) {
+                    long loadedAt = System.nanoTime();
+                    loaded.forEach((id, value) -> entries.put(id, new CachedValue<>(value, loadedAt)));
+                }
+            }
+            return result;
+        }
+
+        private void evict(Collection<Long> ids) {
+            synchronized (entries) {
+                generation.incrementAndGet();
+                if (ids == null) {
+                    entries.clear();
+                } else {
+                    ids.forEach(entries::remove);
+                }
+            }
+        }
+
+        private Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            synchronized (entries) {
+                stats.put("size", entries.size());
+            }
+            stats.put("maxSize", maxSize);
+            stats.put("hits", hits.sum());
+            stats.put("misses", misses.sum());
+            stats.put("evictions", evictions.sum());
+            return stats;
+        }
+    }
+
+    private static final class CachedValue<V> {
+
+        private final V value;
+        private final long loadedAt;
+
+        private CachedValue(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
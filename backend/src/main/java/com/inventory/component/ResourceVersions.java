@@ -0,0 +1,90 @@
+package com.inventory.component;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 资源版本号
+ *
+ * 按资源类别（分类、商品、库存）各维护一个版本号，相应数据写入的事务提交后递增，
+ * 其他节点的写入经 {@link InvalidationBus} 到达后同样递增。
+ * 查询接口以所依赖类别的版本号生成 ETag，请求携带的 If-None-Match 与之相同时直接返回 304，
+ * 不执行查询和序列化。
+ *
+ * 接口须在查询数据之前取 ETag：提交与递增之间读到新数据时仍带旧版本号，下次请求即会重新获取；
+ * 反过来先查后取则可能把旧数据和新版本号一起返回。
+ *
+ * 版本号只在本进程内有效，ETag 带上启动时间以区分重启前后的版本；
+ * 多实例部署时各实例版本号互不相关，仅在客户端固定访问同一实例时才能命中。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Component
+public class ResourceVersions {
+
+    /**
+     * 资源类别
+     */
+    public enum Resource {
+        /**
+         * 商品分类
+         */
+        CATEGORY,
+        /**
+         * 商品
+         */
+        PRODUCT,
+        /**
+         * 库存（数量、出入库汇总）
+         */
+        INVENTORY
+    }
+
+    private final String startupTag = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLongArray versions = new AtomicLongArray(Resource.values().length);
+
+    /**
+     * 当前版本号
+     */
+    public long get(Resource resource) {
+        return versions.get(resource.ordinal());
+    }
+
+    /**
+     * 递增版本号，由缓存失效广播在本节点事务提交后、收到其他节点的事件时调用
+     */
+    public void bump(Resource resource) {
+        versions.incrementAndGet(resource.ordinal());
+    }
+
+    /**
+     * 按所依赖资源类别的当前版本号生成弱 ETag
+     *
+     * @param resources 响应内容依赖的资源类别
+     * @return ETag
+     */
+    public String etag(Resource... resources) {
+        return etag((LocalDate) null, resources);
+    }
+
+    /**
+     * 按所依赖资源类别的当前版本号生成弱 ETag
+     *
+     * @param day 响应内容按该日期计算（如最近 N 天的统计区间），日期变化时 ETag 随之变化
+     * @param resources 响应内容依赖的资源类别
+     * @return ETag
+     */
+    public String etag(LocalDate day, Resource... resources) {
+        StringBuilder sb = new StringBuilder("W/\"").append(startupTag);
+        for (Resource resource : resources) {
+            sb.append('-').append(Character.toLowerCase(resource.name().charAt(0))).append(get(resource));
+        }
+        if (day != null) {
+            sb.append('-').append(day);
+        }
+        return sb.append('"').toString();
+    }
+}
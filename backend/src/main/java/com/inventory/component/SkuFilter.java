@@ -0,0 +1,284 @@
+package com.inventory.component;
+
+import com.inventory.component.ResourceVersions.Resource;
+import com.inventory.entity.Product;
+import com.inventory.mapper.ProductMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 商品编码（SKU）布隆过滤器
+ *
+ * 新建商品时输入编码逐字校验、批量导入逐行校验都会查询 SKU 是否存在，绝大多数结果为不存在。
+ * 过滤器判定不存在时直接返回，可能存在时才查询数据库。
+ *
+ * 启动时按批扫描 t_product 构建；新建、修改商品时在写入前加入新编码（事务回滚只多一个误判，不影响正确性），
+ * 其他节点的商品变更经 {@link InvalidationBus} 到达后按ID加载编码加入，拉取之前的短暂窗口内可能判定不存在，
+ * 此时由 t_product 的唯一约束拒绝重复编码。
+ * 过滤器不支持删除，删除或改掉的编码留作误判，由定时重建清除；重建同时按当前商品数调整容量。
+ *
+ * 编码与数据库比较时不区分大小写、忽略末尾空格（MySQL 默认排序规则），过滤器按同样规则归一化；
+ * 含非 ASCII 字符的编码排序规则另有等价关系，不经过滤器直接查库。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Slf4j
+@Component
+public class SkuFilter {
+
+    /**
+     * 保留最近写入的编码个数：重建开始前已写入、扫描经过后才提交的商品由此补入
+     */
+    private static final int RECENT_SIZE = 256;
+
+    private final ProductMapper productMapper;
+    private final boolean enabled;
+    private final int minCapacity;
+    private final double fpp;
+    private final int batchSize;
+
+    private volatile Bloom current;
+    /**
+     * 以下字段由 writeLock 保护：写入同时加入当前过滤器、重建中的过滤器和最近写入
+     */
+    private final Object writeLock = new Object();
+    private Bloom building;
+    private final String[] recent = new String[RECENT_SIZE];
+    private int recentPos;
+
+    public SkuFilter(
+            ProductMapper productMapper,
+            @Value("${inventory.sku-filter.enabled:true}") boolean enabled,
+            @Value("${inventory.sku-filter.min-capacity:100000}") int minCapacity,
+            @Value("${inventory.sku-filter.fpp:0.01}") double fpp,
+            @Value("${inventory.sku-filter.rebuild-batch-size:5000}") int batchSize,
+            InvalidationBus invalidationBus) {
+        this.productMapper = productMapper;
+        this.enabled = enabled;
+        this.minCapacity = minCapacity;
+        this.fpp = fpp;
+        this.batchSize = batchSize;
+        // 本节点的写入已在保存前加入，只需处理其他节点的变更
+        invalidationBus.subscribeRemote(Resource.PRODUCT, this::addProducts);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // 构建失败不影响启动，校验回退到数据库，由下一次重建重试
+            log.error("SKU 过滤器构建失败", e);
+        }
+    }
+
+    /**
+     * 编码是否可能存在
+     *
+     * @return false 表示一定不存在；true 表示可能存在（或过滤器不可用），需查询数据库确认
+     */
+    public boolean mightContain(String sku) {
+        Bloom bloom = current;
+        String key = normalize(sku);
+        return bloom == null || key == null || bloom.mightContain(key);
+    }
+
+    /**
+     * 加入编码；应在商品写入数据库之前调用
+     */
+    public void add(String sku) {
+        String key = normalize(sku);
+        if (key == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            Bloom bloom = current;
+            if (bloom != null) {
+                bloom.put(key);
+            }
+            if (building != null) {
+                building.put(key);
+            }
+            recent[recentPos] = key;
+            recentPos = (recentPos + 1) % RECENT_SIZE;
+        }
+    }
+
+    /**
+     * 按商品ID加载编码加入过滤器
+     *
+     * @param productIds 商品ID，为 null 时重建
+     */
+    public void addProducts(Set<Long> productIds) {
+        if (!enabled || current == null) {
+            return;
+        }
+        if (productIds == null) {
+            rebuild();
+            return;
+        }
+        if (productIds.isEmpty()) {
+            return;
+        }
+        for (Product product : productMapper.selectBatchIds(productIds)) {
+            add(product.getSku());
+        }
+    }
+
+    /**
+     * 按批扫描 t_product 重建，清除已删除编码的误判并按商品数调整容量
+     */
+    @Scheduled(cron = "${inventory.sku-filter.rebuild-cron:0 15 3 * * ?}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long count = productMapper.selectCount(null);
+        // 预留一倍余量，两次重建之间新增商品不至于使误判率明显上升
+        Bloom bloom = new Bloom((int) Math.min(Integer.MAX_VALUE, Math.max(minCapacity, count * 2)), fpp);
+        synchronized (writeLock) {
+            building = bloom;
+            for (String key : recent) {
+                if (key != null) {
+                    bloom.put(key);
+                }
+            }
+        }
+        try {
+            int rows = 0;
+            long afterId = 0L;
+            while (true) {
+                List<Product> batch = productMapper.selectSkuBatch(afterId, batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (Product product : batch) {
+                    String key = normalize(product.getSku());
+                    if (key != null) {
+                        bloom.put(key);
+                    }
+                }
+                rows += batch.size();
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+            synchronized (writeLock) {
+                current = bloom;
+            }
+            log.info("SKU 过滤器重建完成，商品数={}, 容量={}", rows, bloom.capacity);
+        } finally {
+            synchronized (writeLock) {
+                building = null;
+            }
+        }
+    }
+
+    /**
+     * 按数据库比较规则归一化：忽略末尾空格、转小写；含非 ASCII 字符或为空时返回 null（不经过滤器）
+     */
+    static String normalize(String sku) {
+        if (sku == null) {
+            return null;
+        }
+        int end = sku.length();
+        while (end > 0 && sku.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end == 0) {
+            return null;
+        }
+        char[] chars = new char[end];
+        for (int i = 0; i < end; i++) {
+            char c = sku.charAt(i);
+            if (c > 0x7F) {
+                return null;
+            }
+            chars[i] = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 布隆过滤器：m 位、k 个哈希函数，k 个位置由两个 64 位哈希按双重哈希派生
+     */
+    static final class Bloom {
+
+        private final int capacity;
+        private final long bits;
+        private final int hashes;
+        private final AtomicLongArray words;
+
+        Bloom(int capacity, double fpp) {
+            this.capacity = capacity;
+            // m = -n·ln(p) / (ln2)^2，k = m/n·ln2
+            long m = (long) Math.ceil(-capacity * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            this.bits = Math.max(64, (m + 63) / 64 * 64);
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * Math.log(2)));
+            this.words = new AtomicLongArray((int) (bits / 64));
+        }
+
+        void put(String key) {
+            long h1 = hash(key);
+            long h2 = mix(h1 + 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 1; i <= hashes; i++) {
+                long bit = index(h1 + i * h2);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value = words.get(word);
+                while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+                    value = words.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(String key) {
+            long h1 = hash(key);
+            long h2 = mix(h1 + 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 1; i <= hashes; i++) {
+                long bit = index(h1 + i * h2);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long index(long combined) {
+            return (combined & Long.MAX_VALUE) % bits;
+        }
+
+        /**
+         * FNV-1a 后做 64 位混淆
+         */
+        private static long hash(String key) {
+            long h = 0xCBF29CE484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h ^= key.charAt(i);
+                h *= 0x100000001B3L;
+            }
+            return mix(h);
+        }
+
+        /**
+         * MurmurHash3 fmix64
+         */
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            h *= 0xC4CEB93FE1A85EC3L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
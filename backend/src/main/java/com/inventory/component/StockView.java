@@ -0,0 +1,722 @@
+package com.inventory.component;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.inventory.component.ResourceVersions.Resource;
+import com.inventory.entity.Inventory;
+import com.inventory.mapper.InventoryMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 库存内存读模型
+ *
+ * 以 (商品ID, 仓库ID) 打包成的 long 为键，在开放寻址的原始类型数组中保存库存数量、预占数量和预警值，
+ * 另按商品ID保存跨仓合计。库存充足性检查、总库存查询直接读内存：无装箱、无数据库往返，
+ * 读取使用乐观读锁，不阻塞写入。
+ *
+ * 启动时全量加载；库存流水和预占变更在事务提交后把增量应用到内存，回滚时丢弃。
+ * 定时对账按批扫描 t_inventory 修正偏差：对账期间被修改过或有未提交变更的键跳过，留待下一轮。
+ * 其他节点的库存变更经 {@link InvalidationBus} 到达后按商品重新加载。
+ *
+ * 同时维护低库存索引（库存数量 <= 预警值的记录，按缺货数量从多到少排序），库存数量或预警值越过预警线时
+ * 随写入一起增删，低库存查询取前 N 条只需遍历 N 条，与库存记录总数无关。
+ *
+ * 商品ID超过 48 位或仓库ID超过 16 位时无法打包，此时读模型停用，调用方回退到数据库查询。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Slf4j
+@Component
+public class StockView {
+
+    /**
+     * 键不存在（无库存记录）
+     */
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    private static final int WAREHOUSE_BITS = 16;
+    private static final int PRODUCT_BITS = Long.SIZE - 1 - WAREHOUSE_BITS;
+    private static final long WAREHOUSE_MASK = (1L << WAREHOUSE_BITS) - 1;
+
+    private static final int QUANTITY = 0;
+    private static final int RESERVED = 1;
+    private static final int WARNING = 2;
+    private static final int PENDING = 3;
+
+    private final InventoryMapper inventoryMapper;
+    private final boolean enabled;
+    private final int batchSize;
+
+    private final StampedLock lock = new StampedLock();
+    private volatile boolean ready;
+    private Table stock = new Table(4, 1024);
+    private Table totals = new Table(1, 1024);
+    /**
+     * 低库存索引：全部仓库，以及按仓库ID划分；键到条目的映射用于定位旧条目
+     */
+    private final Map<Long, LowStockEntry> lowStockEntries = new HashMap<>();
+    private final NavigableSet<LowStockEntry> lowStock = new TreeSet<>();
+    private final Map<Long, NavigableSet<LowStockEntry>> lowStockByWarehouse = new HashMap<>();
+    /**
+     * 变更序号，写锁内递增；对账开始时记录，序号更大的键说明对账期间被修改过
+     */
+    private long mutationSeq;
+    /**
+     * 库存数量版本，数量发生变化（增量、新建、对账修正）时递增，供依赖库存数量的缓存判断是否失效
+     */
+    private volatile long quantityVersion;
+
+    public StockView(
+            InventoryMapper inventoryMapper,
+            @Value("${inventory.stock-view.enabled:true}") boolean enabled,
+            @Value("${inventory.stock-view.reconcile-batch-size:1000}") int batchSize,
+            InvalidationBus invalidationBus) {
+        this.inventoryMapper = inventoryMapper;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        // 本节点的变更已在提交后按增量应用，只需处理其他节点的变更
+        invalidationBus.subscribeRemote(Resource.INVENTORY, this::refresh);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            // 加载失败不影响启动，读取回退到数据库，由下一次对账重试
+            log.error("库存读模型加载失败", e);
+        }
+    }
+
+    /**
+     * 读模型是否可用；不可用时调用方应查询数据库
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 库存数量版本；读模型不可用时版本不再变化，调用方不应据此缓存
+     */
+    public long getQuantityVersion() {
+        return quantityVersion;
+    }
+
+    /**
+     * 可用库存（库存数量 - 预占数量）
+     *
+     * @return 可用库存；无库存记录时返回 {@link #MISSING}
+     */
+    public int getAvailable(long productId, long warehouseId) {
+        long key = pack(productId, warehouseId);
+        if (key < 0) {
+            return MISSING;
+        }
+        long stamp = lock.tryOptimisticRead();
+        int available = readAvailable(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                available = readAvailable(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return available;
+    }
+
+    /**
+     * 跨仓库存合计
+     *
+     * @return 库存合计；无库存记录时返回 {@link #MISSING}
+     */
+    public int getTotal(long productId) {
+        long stamp = lock.tryOptimisticRead();
+        int total = readTotal(productId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                total = readTotal(productId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 预警值
+     *
+     * @return 预警值；无库存记录时返回 {@link #MISSING}
+     */
+    public int getWarningStock(long productId, long warehouseId) {
+        long key = pack(productId, warehouseId);
+        if (key < 0) {
+            return MISSING;
+        }
+        long stamp = lock.readLock();
+        try {
+            int slot = stock.indexOf(key);
+            return slot < 0 ? MISSING : stock.values[WARNING][slot];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 低库存记录（库存数量 <= 预警值），按缺货数量从多到少、商品ID、仓库ID排序
+     *
+     * @param warehouseId 仓库ID，为 null 时查询全部仓库
+     * @param limit 最多返回条数，为 null 时返回全部
+     * @return 低库存记录
+     */
+    public List<LowStock> getLowStock(Long warehouseId, Integer limit) {
+        int max = limit != null ? limit : Integer.MAX_VALUE;
+        long stamp = lock.readLock();
+        try {
+            NavigableSet<LowStockEntry> entries = warehouseId == null ? lowStock : lowStockByWarehouse.get(warehouseId);
+            if (entries == null || max <= 0) {
+                return Collections.emptyList();
+            }
+            List<LowStock> result = new ArrayList<>(Math.min(max, entries.size()));
+            for (LowStockEntry entry : entries) {
+                if (result.size() >= max) {
+                    break;
+                }
+                int slot = stock.indexOf(entry.key);
+                result.add(new LowStock(entry.key >>> WAREHOUSE_BITS, entry.key & WAREHOUSE_MASK,
+                        stock.values[QUANTITY][slot], stock.values[WARNING][slot]));
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 有低库存记录的商品，按该商品最大缺货数量从多到少排序
+     *
+     * @param limit 最多返回商品数，为 null 时返回全部
+     * @return 商品ID
+     */
+    public List<Long> getLowStockProductIds(Integer limit) {
+        int max = limit != null ? limit : Integer.MAX_VALUE;
+        long stamp = lock.readLock();
+        try {
+            // 同一商品多个仓库低库存时，首次出现的位置即最大缺货数量
+            Set<Long> productIds = new LinkedHashSet<>();
+            for (LowStockEntry entry : lowStock) {
+                if (productIds.size() >= max) {
+                    break;
+                }
+                productIds.add(entry.key >>> WAREHOUSE_BITS);
+            }
+            return new ArrayList<>(productIds);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 当前事务提交后应用库存增量；无事务时立即应用
+     *
+     * @param quantityDelta 库存数量增量
+     * @param reservedDelta 预占数量增量
+     */
+    public void applyAfterCommit(Long productId, Long warehouseId, int quantityDelta, int reservedDelta) {
+        if (!enabled || (quantityDelta == 0 && reservedDelta == 0)) {
+            return;
+        }
+        long key = pack(productId, warehouseId);
+        if (key < 0) {
+            ready = false;
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (mark(key)) {
+                unmark(key, quantityDelta, reservedDelta);
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean marked;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // 提交前标记为未决，防止对账用已提交的新值覆盖后再叠加一次增量
+                marked = mark(key);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (marked) {
+                    unmark(key, status == STATUS_COMMITTED ? quantityDelta : 0,
+                            status == STATUS_COMMITTED ? reservedDelta : 0);
+                }
+            }
+        });
+    }
+
+    /**
+     * 当前事务提交后写入新建的库存记录；无事务时立即写入
+     */
+    public void putAfterCommit(Inventory inventory) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(inventory);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(inventory);
+            }
+        });
+    }
+
+    /**
+     * 重新加载指定商品的库存记录（其他节点提交的库存变更）
+     *
+     * 与对账相同，加载期间被本节点修改过或有未决变更的键跳过，留待下一次刷新或对账。
+     *
+     * @param productIds 商品ID，为 null 时全量对账
+     */
+    public void refresh(Set<Long> productIds) {
+        if (!enabled || !ready) {
+            return;
+        }
+        if (productIds == null) {
+            reconcile();
+            return;
+        }
+        if (productIds.isEmpty()) {
+            return;
+        }
+        long startSeq;
+        long stamp = lock.writeLock();
+        try {
+            startSeq = mutationSeq;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        List<Inventory> rows = inventoryMapper.selectList(new LambdaQueryWrapper<Inventory>()
+                .in(Inventory::getProductId, productIds));
+        stamp = lock.writeLock();
+        try {
+            boolean changed = false;
+            for (Inventory inventory : rows) {
+                long key = pack(inventory.getProductId(), inventory.getWarehouseId());
+                if (key < 0) {
+                    ready = false;
+                    return;
+                }
+                int slot = stock.indexOf(key);
+                int before = slot < 0 ? 0 : stock.values[QUANTITY][slot];
+                if (store(key, inventory, startSeq) || slot < 0) {
+                    addTotal(inventory.getProductId(), stock.values[QUANTITY][stock.indexOf(key)] - before);
+                    changed = true;
+                }
+            }
+            if (changed) {
+                quantityVersion++;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 按批扫描 t_inventory 修正内存偏差
+     */
+    @Scheduled(fixedDelayString = "${inventory.stock-view.reconcile-interval-ms:300000}",
+            initialDelayString = "${inventory.stock-view.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        long startSeq;
+        long stamp = lock.writeLock();
+        try {
+            startSeq = mutationSeq;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        int rows = 0;
+        int corrected = 0;
+        long afterId = 0L;
+        while (true) {
+            List<Inventory> batch = inventoryMapper.selectList(new LambdaQueryWrapper<Inventory>()
+                    .gt(Inventory::getId, afterId)
+                    .orderByAsc(Inventory::getId)
+                    .last("LIMIT " + batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            stamp = lock.writeLock();
+            try {
+                for (Inventory inventory : batch) {
+                    long key = pack(inventory.getProductId(), inventory.getWarehouseId());
+                    if (key < 0) {
+                        ready = false;
+                        log.warn("库存记录ID超出读模型范围，读模型停用，productId={}, warehouseId={}",
+                                inventory.getProductId(), inventory.getWarehouseId());
+                        return;
+                    }
+                    if (store(key, inventory, startSeq)) {
+                        corrected++;
+                    }
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            rows += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+
+        stamp = lock.writeLock();
+        try {
+            rebuildTotals();
+            if (corrected > 0) {
+                quantityVersion++;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (ready && corrected > 0) {
+            log.warn("库存读模型对账修正 {} 条，扫描 {} 条", corrected, rows);
+        } else {
+            log.debug("库存读模型对账完成，扫描 {} 条", rows);
+        }
+        ready = true;
+    }
+
+    private int readAvailable(long key) {
+        Table table = stock;
+        int slot = table.indexOf(key);
+        if (slot < 0) {
+            return MISSING;
+        }
+        return table.values[QUANTITY][slot] - table.values[RESERVED][slot];
+    }
+
+    private int readTotal(long productId) {
+        Table table = totals;
+        int slot = table.indexOf(productId);
+        return slot < 0 ? MISSING : table.values[0][slot];
+    }
+
+    private boolean mark(long key) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = stock.indexOf(key);
+            if (slot < 0) {
+                // 内存中尚无该记录，本次增量由下一次对账补齐
+                return false;
+            }
+            stock.values[PENDING][slot]++;
+            stock.seq[slot] = ++mutationSeq;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void unmark(long key, int quantityDelta, int reservedDelta) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = stock.indexOf(key);
+            stock.values[PENDING][slot]--;
+            stock.values[QUANTITY][slot] += quantityDelta;
+            stock.values[RESERVED][slot] += reservedDelta;
+            stock.seq[slot] = ++mutationSeq;
+            if (quantityDelta != 0) {
+                addTotal(key >>> WAREHOUSE_BITS, quantityDelta);
+                indexLowStock(slot);
+                quantityVersion++;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void put(Inventory inventory) {
+        long key = pack(inventory.getProductId(), inventory.getWarehouseId());
+        if (key < 0) {
+            ready = false;
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotFor(key);
+            int before = stock.values[QUANTITY][slot];
+            setValues(slot, inventory);
+            stock.seq[slot] = ++mutationSeq;
+            addTotal(key >>> WAREHOUSE_BITS, stock.values[QUANTITY][slot] - before);
+            quantityVersion++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 对账写入一条库存记录，需持有写锁
+     *
+     * @param startSeq 对账开始序号，键在此之后被修改过或有未决变更时不覆盖
+     * @return 是否修正了已有的值
+     */
+    private boolean store(long key, Inventory inventory, long startSeq) {
+        int slot = stock.indexOf(key);
+        if (slot < 0) {
+            setValues(slotFor(key), inventory);
+            quantityVersion++;
+            return false;
+        }
+        if (stock.seq[slot] > startSeq || stock.values[PENDING][slot] > 0) {
+            return false;
+        }
+        int quantity = stock.values[QUANTITY][slot];
+        int reserved = stock.values[RESERVED][slot];
+        int warning = stock.values[WARNING][slot];
+        setValues(slot, inventory);
+        return quantity != stock.values[QUANTITY][slot] || reserved != stock.values[RESERVED][slot]
+                || warning != stock.values[WARNING][slot];
+    }
+
+    private int slotFor(long key) {
+        int slot = stock.indexOf(key);
+        if (slot >= 0) {
+            return slot;
+        }
+        if (stock.needsResize()) {
+            stock = stock.resize();
+        }
+        return stock.insert(key);
+    }
+
+    private void setValues(int slot, Inventory inventory) {
+        stock.values[QUANTITY][slot] = inventory.getQuantity() != null ? inventory.getQuantity() : 0;
+        stock.values[RESERVED][slot] = inventory.getReservedQuantity() != null ? inventory.getReservedQuantity() : 0;
+        stock.values[WARNING][slot] = inventory.getWarningStock() != null ? inventory.getWarningStock() : 0;
+        indexLowStock(slot);
+    }
+
+    /**
+     * 按记录当前的库存数量和预警值更新低库存索引，需持有写锁
+     */
+    private void indexLowStock(int slot) {
+        long key = stock.keys[slot];
+        int quantity = stock.values[QUANTITY][slot];
+        int warning = stock.values[WARNING][slot];
+        boolean low = quantity <= warning;
+        long shortage = (long) warning - quantity;
+
+        LowStockEntry old = lowStockEntries.get(key);
+        if (old != null) {
+            if (low && old.shortage == shortage) {
+                return;
+            }
+            lowStockEntries.remove(key);
+            lowStock.remove(old);
+            lowStockByWarehouse.get(key & WAREHOUSE_MASK).remove(old);
+        }
+        if (low) {
+            LowStockEntry entry = new LowStockEntry(key, shortage);
+            lowStockEntries.put(key, entry);
+            lowStock.add(entry);
+            lowStockByWarehouse.computeIfAbsent(key & WAREHOUSE_MASK, k -> new TreeSet<>()).add(entry);
+        }
+    }
+
+    private void addTotal(long productId, int delta) {
+        int slot = totals.indexOf(productId);
+        if (slot < 0) {
+            if (totals.needsResize()) {
+                totals = totals.resize();
+            }
+            slot = totals.insert(productId);
+        }
+        totals.values[0][slot] += delta;
+    }
+
+    private void rebuildTotals() {
+        Table rebuilt = new Table(1, totals.keys.length);
+        for (int slot = 0; slot < stock.keys.length; slot++) {
+            long key = stock.keys[slot];
+            if (key == Table.EMPTY) {
+                continue;
+            }
+            long productId = key >>> WAREHOUSE_BITS;
+            int target = rebuilt.indexOf(productId);
+            if (target < 0) {
+                if (rebuilt.needsResize()) {
+                    rebuilt = rebuilt.resize();
+                }
+                target = rebuilt.insert(productId);
+            }
+            rebuilt.values[0][target] += stock.values[QUANTITY][slot];
+        }
+        totals = rebuilt;
+    }
+
+    /**
+     * 打包 (商品ID, 仓库ID)，超出范围时返回 -1
+     */
+    private static long pack(Long productId, Long warehouseId) {
+        if (productId == null || warehouseId == null) {
+            return -1L;
+        }
+        return pack(productId.longValue(), warehouseId.longValue());
+    }
+
+    private static long pack(long productId, long warehouseId) {
+        if (productId < 0 || productId >>> PRODUCT_BITS != 0 || warehouseId < 0 || warehouseId >>> WAREHOUSE_BITS != 0) {
+            return -1L;
+        }
+        return productId << WAREHOUSE_BITS | warehouseId;
+    }
+
+    /**
+     * 低库存记录
+     */
+    @Getter
+    public static final class LowStock {
+
+        private final long productId;
+        private final long warehouseId;
+        private final int quantity;
+        private final int warningStock;
+
+        private LowStock(long productId, long warehouseId, int quantity, int warningStock) {
+            this.productId = productId;
+            this.warehouseId = warehouseId;
+            this.quantity = quantity;
+            this.warningStock = warningStock;
+        }
+
+        /**
+         * 缺货数量（预警值 - 库存数量）
+         */
+        public int getShortage() {
+            return warningStock - quantity;
+        }
+    }
+
+    /**
+     * 低库存索引条目：缺货数量多的在前，相同时按键（商品ID、仓库ID）升序
+     */
+    private static final class LowStockEntry implements Comparable<LowStockEntry> {
+
+        private final long key;
+        private final long shortage;
+
+        private LowStockEntry(long key, long shortage) {
+            this.key = key;
+            this.shortage = shortage;
+        }
+
+        @Override
+        public int compareTo(LowStockEntry other) {
+            int byShortage = Long.compare(other.shortage, shortage);
+            return byShortage != 0 ? byShortage : Long.compare(key, other.key);
+        }
+    }
+
+    /**
+     * long 键开放寻址表（线性探测，不删除），值按列存放在 int 数组中
+     *
+     * 扩容时生成新表整体替换引用，乐观读拿到的表对象内部数组始终一致。
+     */
+    private static final class Table {
+
+        private static final long EMPTY = -1L;
+
+        private final long[] keys;
+        private final int[][] values;
+        private final long[] seq;
+        private final int mask;
+        private int size;
+
+        private Table(int columns, int capacity) {
+            int length = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+            this.keys = new long[length];
+            Arrays.fill(keys, EMPTY);
+            this.values = new int[columns][length];
+            this.seq = new long[length];
+            this.mask = length - 1;
+        }
+
+        private int indexOf(long key) {
+            int slot = hash(key) & mask;
+            while (true) {
+                long current = keys[slot];
+                if (current == key) {
+                    return slot;
+                }
+                if (current == EMPTY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private int insert(long key) {
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            size++;
+            return slot;
+        }
+
+        private boolean needsResize() {
+            return (size + 1) * 4 > keys.length * 3;
+        }
+
+        private Table resize() {
+            Table bigger = new Table(values.length, keys.length * 2);
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] == EMPTY) {
+                    continue;
+                }
+                int target = bigger.insert(keys[slot]);
+                for (int column = 0; column < values.length; column++) {
+                    bigger.values[column][target] = values[column][slot];
+                }
+                bigger.seq[target] = seq[slot];
+            }
+            return bigger;
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,545 @@
+package com.inventory.component;
+
+import com.inventory.component.ResourceVersions.Resource;
+import com.inventory.entity.Inventory;
+import com.inventory.entity.InventoryTxn;
+import com.inventory.entity.StockDelta;
+import com.inventory.exception.BusinessException;
+import com.inventory.exception.ServiceBusyException;
+import com.inventory.mapper.InventoryMapper;
+import com.inventory.mapper.StockDeltaMapper;
+import com.inventory.service.InventoryLedgerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 热点商品库存写入合并器
+ *
+ * 写线程在短窗口内收集同一商品的增减请求，每个窗口只写一次库存行：
+ * 1. 开批：扣减合计一条条件预占（预占不足时锁定库存行按到达顺序判定），入库只核对库存记录存在；
+ *    每个窗口写入一条批次行（t_stock_delta），按内存中的判定结果唤醒调用方。
+ * 2. 调用方在自己的事务中写入本次变动的流水（带批次ID），流水随调用方事务提交或回滚。
+ * 3. 结算：调用方事务结束后，写线程把窗口内提交与回滚的份额合并为每商品一条 UPDATE，
+ *    库存数量加已提交的净增量并释放扣减部分的预占，同时累加跨仓合计与看板统计。
+ *
+ * 库存数量只在调用方提交之后变更，预占只影响可用数量。结算不一致（库存记录被删除等）的批次
+ * 转为搁置状态并记录错误日志，不再重试。提交后进程退出等情况下遗留的批次由定时恢复处理：
+ * 以批次下已提交的流水为准补做结算，hold-ttl-ms 须大于调用方事务的最长耗时。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Slf4j
+@Component
+public class StockWriteCoalescer {
+
+    private final InventoryMapper inventoryMapper;
+    private final StockDeltaMapper stockDeltaMapper;
+    private final InventoryLedgerService inventoryLedgerService;
+    private final StockView stockView;
+    private final InvalidationBus invalidationBus;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int stripeCount;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+    private final long holdTtlMillis;
+    private final int recoverBatchSize;
+
+    private final List<BlockingQueue<Request>> queues = new ArrayList<>();
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    public StockWriteCoalescer(
+            InventoryMapper inventoryMapper,
+            StockDeltaMapper stockDeltaMapper,
+            InventoryLedgerService inventoryLedgerService,
+            StockView stockView,
+            InvalidationBus invalidationBus,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.coalesce.enabled:false}") boolean enabled,
+            @Value("${inventory.coalesce.stripes:8}") int stripeCount,
+            @Value("${inventory.coalesce.window-ms:2}") long windowMillis,
+            @Value("${inventory.coalesce.max-batch-size:512}") int maxBatchSize,
+            @Value("${inventory.coalesce.timeout-ms:1000}") long timeoutMillis,
+            @Value("${inventory.coalesce.hold-ttl-ms:30000}") long holdTtlMillis,
+            @Value("${inventory.coalesce.recover-batch-size:500}") int recoverBatchSize) {
+        this.inventoryMapper = inventoryMapper;
+        this.stockDeltaMapper = stockDeltaMapper;
+        this.inventoryLedgerService = inventoryLedgerService;
+        this.stockView = stockView;
+        this.invalidationBus = invalidationBus;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.stripeCount = stripeCount;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMillis = timeoutMillis;
+        this.holdTtlMillis = holdTtlMillis;
+        this.recoverBatchSize = recoverBatchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger threadNo = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(stripeCount, r -> {
+            Thread t = new Thread(r, "stock-coalescer-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        running = true;
+        for (int i = 0; i < stripeCount; i++) {
+            BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+            queues.add(queue);
+            workers.execute(() -> runStripe(queue));
+        }
+        log.info("库存写入合并器已启动，stripes={}, windowMs={}", stripeCount, windowMillis);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (workers != null) {
+            workers.shutdown();
+            try {
+                workers.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 是否启用写入合并
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 在调用方事务中登记库存变动，调用方事务提交后合并应用
+     *
+     * 等待写线程开批（扣减时即完成预占），随后在调用方事务中写入流水；调用方事务回滚时份额由写线程释放。
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param delta 变动数量，正数为入库，负数为出库
+     * @param reason 变动原因（记入流水）
+     * @return true-成功，false-库存不足
+     */
+    public boolean apply(Long productId, Long warehouseId, int delta, String reason) {
+        if (!running) {
+            throw new IllegalStateException("库存写入合并器未启用");
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("库存合并写入必须在事务中调用");
+        }
+        Long batchId = await(enqueue(Request.open(productId, warehouseId, delta)));
+        if (batchId == null) {
+            return false;
+        }
+
+        // 先登记结算回调再写流水：写流水失败导致回滚时份额同样释放
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_UNKNOWN) {
+                    log.warn("调用方事务结果未知，批次留待恢复，batchId={}", batchId);
+                    return;
+                }
+                enqueue(Request.settle(productId, warehouseId, batchId, delta, status == STATUS_COMMITTED));
+            }
+        });
+        inventoryLedgerService.recordCoalesced(productId, warehouseId,
+                delta > 0 ? InventoryTxn.TYPE_INBOUND : InventoryTxn.TYPE_OUTBOUND, delta, reason, batchId);
+        return true;
+    }
+
+    /**
+     * 定时恢复遗留的批次：以批次下已提交的流水为准补做结算
+     */
+    @Scheduled(fixedDelayString = "${inventory.coalesce.recover-interval-ms:10000}")
+    public void recover() {
+        try {
+            List<Long> ids = stockDeltaMapper.selectStaleIds(
+                    LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(holdTtlMillis)), recoverBatchSize);
+            if (ids.isEmpty()) {
+                return;
+            }
+            log.warn("补做结算遗留的库存合并批次，count={}", ids.size());
+            transactionTemplate.executeWithoutResult(status -> {
+                List<StockDelta> rows = stockDeltaMapper.selectOpenForUpdate(ids);
+                Map<Long, int[]> amounts = new HashMap<>();
+                for (StockDelta row : rows) {
+                    int committed = inventoryLedgerService.sumBatchDelta(row.getId());
+                    amounts.put(row.getId(), new int[]{committed - row.getApplied(),
+                            row.getQuantity() - committed - row.getReleased()});
+                }
+                settleRows(rows, amounts);
+            });
+        } catch (RuntimeException e) {
+            log.error("库存合并批次恢复失败", e);
+        }
+    }
+
+    private Request enqueue(Request request) {
+        if (!running) {
+            // 停止期间的结算交由定时恢复处理
+            if (request.kind == Request.SETTLE) {
+                log.warn("库存写入合并器已停止，批次留待恢复，batchId={}", request.batchId);
+                return request;
+            }
+            throw new IllegalStateException("库存写入合并器未启用");
+        }
+        queues.get(Math.floorMod(request.productId.hashCode(), stripeCount)).add(request);
+        return request;
+    }
+
+    /**
+     * 等待开批结果，最长等待一个超时周期
+     */
+    private Long await(Request request) {
+        try {
+            return request.future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(request);
+            throw new ServiceBusyException("库存写入繁忙，请稍后重试", 1);
+        } catch (InterruptedException e) {
+            abandon(request);
+            Thread.currentThread().interrupt();
+            throw new BusinessException("库存写入被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BusinessException) {
+                throw (BusinessException) e.getCause();
+            }
+            throw new BusinessException("库存写入失败", e.getCause());
+        }
+    }
+
+    /**
+     * 放弃等待：尚未被写线程认领则撤销，已认领的份额在开批完成后立即释放
+     */
+    private void abandon(Request request) {
+        if (request.cancel()) {
+            return;
+        }
+        request.future.thenAccept(batchId -> {
+            if (batchId != null) {
+                enqueue(Request.settle(request.productId, request.warehouseId, batchId, request.delta, false));
+            }
+        });
+    }
+
+    private void runStripe(BlockingQueue<Request> queue) {
+        List<Request> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collectWindow(queue, batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("库存合并写入异常", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 在合并窗口内继续收集请求；写入进行期间到达的请求自然进入下一批
+     */
+    private void collectWindow(BlockingQueue<Request> queue, List<Request> batch) throws InterruptedException {
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            Request next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    private void flush(List<Request> batch) {
+        List<Request> settles = new ArrayList<>();
+        // 开批按商品+仓库+方向分组，保持到达顺序
+        Map<String, List<Request>> opens = new LinkedHashMap<>();
+        for (Request request : batch) {
+            if (request.kind == Request.SETTLE) {
+                settles.add(request);
+            } else {
+                opens.computeIfAbsent(request.productId + ":" + request.warehouseId + ":" + (request.delta > 0),
+                        k -> new ArrayList<>()).add(request);
+            }
+        }
+
+        // 先结算，释放的预占可用于本批新的扣减
+        if (!settles.isEmpty()) {
+            try {
+                settle(settles);
+            } catch (RuntimeException e) {
+                log.error("库存合并批次结算失败，留待恢复，batchIds={}",
+                        settles.stream().map(r -> r.batchId).collect(Collectors.toList()), e);
+            }
+        }
+        for (List<Request> group : opens.values()) {
+            openGroup(group);
+        }
+    }
+
+    private void openGroup(List<Request> group) {
+        List<Request> claimed = new ArrayList<>(group.size());
+        Long[] batchIds = new Long[group.size()];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // 事务（连接）就绪后再认领，已超时撤销的请求直接跳过
+                for (Request request : group) {
+                    if (request.claim()) {
+                        claimed.add(request);
+                    }
+                }
+                if (!claimed.isEmpty()) {
+                    openClaimed(claimed, batchIds);
+                }
+            });
+        } catch (RuntimeException e) {
+            for (Request request : claimed) {
+                request.future.completeExceptionally(e);
+            }
+            return;
+        }
+        for (int i = 0; i < claimed.size(); i++) {
+            claimed.get(i).future.complete(batchIds[i]);
+        }
+        if (log.isDebugEnabled() && claimed.size() > 1) {
+            log.debug("合并库存写入，productId={}, requests={}", claimed.get(0).productId, claimed.size());
+        }
+    }
+
+    private void openClaimed(List<Request> claimed, Long[] batchIds) {
+        Long productId = claimed.get(0).productId;
+        Long warehouseId = claimed.get(0).warehouseId;
+        int total = 0;
+        for (Request request : claimed) {
+            total += request.delta;
+        }
+
+        boolean[] accepted = new boolean[claimed.size()];
+        int quantity = total;
+        if (total > 0) {
+            // 入库：提交后才应用，此处只核对库存记录存在
+            if (inventoryMapper.countByProductAndWarehouse(productId, warehouseId) == 0) {
+                throw new BusinessException("库存记录不存在");
+            }
+            Arrays.fill(accepted, true);
+        } else if (inventoryMapper.reserveQuantity(productId, warehouseId, -total) > 0) {
+            // 扣减：合计数量一条条件预占
+            Arrays.fill(accepted, true);
+        } else {
+            // 预占不足：锁定库存行，按到达顺序逐个判定
+            Inventory inventory = inventoryMapper.selectByProductAndWarehouseForUpdate(productId, warehouseId);
+            if (inventory == null) {
+                throw new BusinessException("库存记录不存在");
+            }
+            int available = inventory.getAvailableQuantity();
+            quantity = 0;
+            for (int i = 0; i < claimed.size(); i++) {
+                int required = -claimed.get(i).delta;
+                if (required <= available) {
+                    available -= required;
+                    quantity -= required;
+                    accepted[i] = true;
+                }
+            }
+            if (quantity == 0) {
+                return;
+            }
+            inventoryMapper.reserveQuantity(productId, warehouseId, -quantity);
+        }
+
+        StockDelta row = new StockDelta();
+        row.setProductId(productId);
+        row.setWarehouseId(warehouseId);
+        row.setQuantity(quantity);
+        row.setApplied(0);
+        row.setReleased(0);
+        row.setStatus(StockDelta.STATUS_OPEN);
+        row.setCreatedAt(LocalDateTime.now());
+        row.setUpdatedAt(row.getCreatedAt());
+        stockDeltaMapper.insert(row);
+        for (int i = 0; i < claimed.size(); i++) {
+            if (accepted[i]) {
+                batchIds[i] = row.getId();
+            }
+        }
+        if (quantity < 0) {
+            stockView.applyAfterCommit(productId, warehouseId, 0, -quantity);
+            invalidationBus.publishAfterCommit(Resource.INVENTORY, Collections.singleton(productId));
+        }
+    }
+
+    /**
+     * 结算调用方已结束的份额：按批次汇总提交与回滚数量后合并应用
+     */
+    private void settle(List<Request> settles) {
+        Map<Long, int[]> amounts = new HashMap<>();
+        for (Request request : settles) {
+            int[] amount = amounts.computeIfAbsent(request.batchId, k -> new int[2]);
+            amount[request.committed ? 0 : 1] += request.delta;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // 已被定时恢复结算或已搁置的批次不再返回
+            List<StockDelta> rows = stockDeltaMapper.selectOpenForUpdate(amounts.keySet());
+            if (rows.size() < amounts.size()) {
+                Set<Long> found = rows.stream().map(StockDelta::getId).collect(Collectors.toSet());
+                log.warn("库存合并批次已结算或已搁置，跳过，batchIds={}", amounts.keySet().stream()
+                        .filter(id -> !found.contains(id)).collect(Collectors.toList()));
+            }
+            settleRows(rows, amounts);
+        });
+    }
+
+    /**
+     * 按商品+仓库各一条 UPDATE 应用批次份额：库存数量加已提交的净增量，释放扣减批次结算部分的预占
+     *
+     * @param rows 已加锁的批次行
+     * @param amounts 批次ID → {本次提交数量, 本次回滚数量}（与批次数量同号）
+     */
+    private void settleRows(List<StockDelta> rows, Map<Long, int[]> amounts) {
+        Set<Long> productIds = new TreeSet<>();
+        groupByStock(rows).forEach((key, group) -> {
+            Long productId = group.get(0).getProductId();
+            Long warehouseId = group.get(0).getWarehouseId();
+            int net = 0;
+            int released = 0;
+            for (StockDelta row : group) {
+                int[] amount = amounts.get(row.getId());
+                net += amount[0];
+                if (row.getQuantity() < 0) {
+                    released -= amount[0] + amount[1];
+                }
+            }
+            if ((net != 0 || released != 0)
+                    && inventoryMapper.applyDelta(productId, warehouseId, net, released) == 0) {
+                // 不一致的批次不再重试，流水已按批次ID记录，人工核对后处理
+                List<Long> ids = group.stream().map(StockDelta::getId).collect(Collectors.toList());
+                stockDeltaMapper.park(ids);
+                log.error("库存记录与合并批次不一致，批次已搁置，productId={}, warehouseId={}, net={}, released={}, " +
+                        "batchIds={}", productId, warehouseId, net, released, ids);
+                return;
+            }
+            if (net != 0) {
+                inventoryLedgerService.applyTotals(productId, warehouseId, net);
+            }
+            if (released != 0) {
+                stockView.applyAfterCommit(productId, warehouseId, 0, -released);
+                productIds.add(productId);
+            }
+
+            for (StockDelta row : group) {
+                int[] amount = amounts.get(row.getId());
+                if (row.getApplied() + amount[0] + row.getReleased() + amount[1] == row.getQuantity()) {
+                    stockDeltaMapper.deleteById(row.getId());
+                } else {
+                    stockDeltaMapper.settle(row.getId(), amount[0], amount[1]);
+                }
+            }
+        });
+        if (!productIds.isEmpty()) {
+            invalidationBus.publishAfterCommit(Resource.INVENTORY, productIds);
+        }
+    }
+
+    /**
+     * 按商品ID、仓库ID排序分组，多行更新按固定顺序加锁，避免死锁
+     */
+    private Map<String, List<StockDelta>> groupByStock(List<StockDelta> rows) {
+        Map<String, List<StockDelta>> groups = new TreeMap<>();
+        for (StockDelta row : rows) {
+            groups.computeIfAbsent(String.format("%019d:%019d", row.getProductId(), row.getWarehouseId()),
+                    k -> new ArrayList<>()).add(row);
+        }
+        return groups;
+    }
+
+    /**
+     * 写线程请求：开批或结算
+     */
+    private static final class Request {
+
+        private static final int OPEN = 0;
+        private static final int SETTLE = 1;
+
+        private static final int PENDING = 0;
+        private static final int CLAIMED = 1;
+        private static final int CANCELLED = 2;
+
+        private final int kind;
+        private final Long productId;
+        private final Long warehouseId;
+        private final int delta;
+        private final Long batchId;
+        private final boolean committed;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        private Request(int kind, Long productId, Long warehouseId, int delta, Long batchId, boolean committed) {
+            this.kind = kind;
+            this.productId = productId;
+            this.warehouseId = warehouseId;
+            this.delta = delta;
+            this.batchId = batchId;
+            this.committed = committed;
+        }
+
+        private static Request open(Long productId, Long warehouseId, int delta) {
+            return new Request(OPEN, productId, warehouseId, delta, null, false);
+        }
+
+        private static Request settle(Long productId, Long warehouseId, Long batchId, int delta, boolean committed) {
+            return new Request(SETTLE, productId, warehouseId, delta, batchId, committed);
+        }
+
+        private boolean claim() {
+            return state.compareAndSet(PENDING, CLAIMED);
+        }
+
+        private boolean cancel() {
+            if (state.compareAndSet(PENDING, CANCELLED)) {
+                future.cancel(false);
+                return true;
+            }
+            return false;
+        }
+    }
+}
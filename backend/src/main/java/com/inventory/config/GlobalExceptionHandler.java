@@ -1,7 +1,9 @@
 package com.inventory.config;
 
 import com.inventory.exception.BusinessException;
+import com.inventory.exception.ServiceBusyException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindException;
@@ -36,6 +38,21 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(result);
     }
 
+    /**
+     * 服务繁忙异常处理（背压拒绝，客户端按 Retry-After 重试）
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceBusyException(ServiceBusyException e) {
+        log.warn("服务繁忙: {}", e.getMessage());
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 429);
+        result.put("message", e.getMessage());
+        result.put("data", null);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(result);
+    }
+
     /**
      * 参数校验异常处理
      */
@@ -19,13 +19,20 @@ import java.time.LocalDateTime;
 @Configuration
 public class MybatisPlusConfig {
 
+    /**
+     * 每页大小上限，分页插件和游标分页共用；超过时按上限查询
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
     /**
      * 分页插件
      */
     @Bean
     public MybatisPlusInterceptor mybatisPlusInterceptor() {
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
-        interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
+        PaginationInnerInterceptor pagination = new PaginationInnerInterceptor(DbType.MYSQL);
+        pagination.setMaxLimit((long) MAX_PAGE_SIZE);
+        interceptor.addInnerInterceptor(pagination);
         return interceptor;
     }
 
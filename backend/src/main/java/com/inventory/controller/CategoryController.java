@@ -1,5 +1,7 @@
 package com.inventory.controller;
 
+import com.inventory.component.ResourceVersions;
+import com.inventory.component.ResourceVersions.Resource;
 import com.inventory.dto.CategoryDTO;
 import com.inventory.entity.Category;
 import com.inventory.service.CategoryService;
@@ -12,6 +14,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import springfox.documentation.annotations.ApiIgnore;
 
 import java.util.HashMap;
 import java.util.List;
@@ -32,6 +36,9 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     /**
      * 创建分类
      */
@@ -85,8 +92,13 @@ public class CategoryController {
      */
     @ApiOperation("获取分类详情")
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getById(@ApiParam("分类ID") @PathVariable Long id) {
+    public ResponseEntity<Map<String, Object>> getById(
+            @ApiParam("分类ID") @PathVariable Long id,
+            @ApiIgnore WebRequest webRequest) {
         log.info("获取分类详情，id={}", id);
+        if (webRequest.checkNotModified(resourceVersions.etag(Resource.CATEGORY))) {
+            return null;
+        }
         CategoryVO category = categoryService.getById(id);
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
@@ -100,8 +112,11 @@ public class CategoryController {
      */
     @ApiOperation("获取分类树")
     @GetMapping("/tree")
-    public ResponseEntity<Map<String, Object>> getTree() {
+    public ResponseEntity<Map<String, Object>> getTree(@ApiIgnore WebRequest webRequest) {
         log.info("获取分类树");
+        if (webRequest.checkNotModified(resourceVersions.etag(Resource.CATEGORY))) {
+            return null;
+        }
         List<CategoryVO> tree = categoryService.getTree();
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
@@ -115,8 +130,11 @@ public class CategoryController {
      */
     @ApiOperation("获取启用的分类树")
     @GetMapping("/tree/enabled")
-    public ResponseEntity<Map<String, Object>> getEnabledTree() {
+    public ResponseEntity<Map<String, Object>> getEnabledTree(@ApiIgnore WebRequest webRequest) {
         log.info("获取启用的分类树");
+        if (webRequest.checkNotModified(resourceVersions.etag(Resource.CATEGORY))) {
+            return null;
+        }
         List<CategoryVO> tree = categoryService.getEnabledTree();
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
@@ -133,8 +151,12 @@ public class CategoryController {
     public ResponseEntity<Map<String, Object>> getList(
             @ApiParam("分类名称（模糊搜索）") @RequestParam(required = false) String name,
             @ApiParam("层级") @RequestParam(required = false) Integer level,
-            @ApiParam("状态") @RequestParam(required = false) Integer status) {
+            @ApiParam("状态") @RequestParam(required = false) Integer status,
+            @ApiIgnore WebRequest webRequest) {
         log.info("获取分类列表，name={}, level={}, status={}", name, level, status);
+        if (webRequest.checkNotModified(resourceVersions.etag(Resource.CATEGORY))) {
+            return null;
+        }
 
         List<CategoryVO> list;
         if (name != null && !name.isEmpty()) {
@@ -158,8 +180,12 @@ public class CategoryController {
     @ApiOperation("获取子分类")
     @GetMapping("/children/{parentId}")
     public ResponseEntity<Map<String, Object>> getChildren(
-            @ApiParam("父分类ID") @PathVariable Long parentId) {
+            @ApiParam("父分类ID") @PathVariable Long parentId,
+            @ApiIgnore WebRequest webRequest) {
         log.info("获取子分类，parentId={}", parentId);
+        if (webRequest.checkNotModified(resourceVersions.etag(Resource.CATEGORY))) {
+            return null;
+        }
         List<CategoryVO> children = categoryService.getChildren(parentId);
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
@@ -193,8 +219,12 @@ public class CategoryController {
     public ResponseEntity<Map<String, Object>> checkNameDuplicate(
             @ApiParam("分类名称") @RequestParam String name,
             @ApiParam("父分类ID") @RequestParam(required = false) Long parentId,
-            @ApiParam("排除的分类ID") @RequestParam(required = false) Long excludeId) {
+            @ApiParam("排除的分类ID") @RequestParam(required = false) Long excludeId,
+            @ApiIgnore WebRequest webRequest) {
         log.info("检查分类名称，name={}, parentId={}, excludeId={}", name, parentId, excludeId);
+        if (webRequest.checkNotModified(resourceVersions.etag(Resource.CATEGORY))) {
+            return null;
+        }
         boolean duplicate = categoryService.isNameDuplicate(name, parentId, excludeId);
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
@@ -208,8 +238,13 @@ public class CategoryController {
      */
     @ApiOperation("检查是否可以删除分类")
     @GetMapping("/{id}/can-delete")
-    public ResponseEntity<Map<String, Object>> canDelete(@ApiParam("分类ID") @PathVariable Long id) {
+    public ResponseEntity<Map<String, Object>> canDelete(
+            @ApiParam("分类ID") @PathVariable Long id,
+            @ApiIgnore WebRequest webRequest) {
         log.info("检查是否可以删除分类，id={}", id);
+        if (webRequest.checkNotModified(resourceVersions.etag(Resource.CATEGORY, Resource.PRODUCT))) {
+            return null;
+        }
         boolean canDelete = categoryService.canDelete(id);
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
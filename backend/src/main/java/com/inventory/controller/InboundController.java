@@ -1,19 +1,35 @@
 package com.inventory.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.inventory.component.AsyncApprovalQueue;
+import com.inventory.component.ExportWriter;
+import com.inventory.component.OrderNoGenerator.OrderType;
 import com.inventory.dto.InboundDTO;
+import com.inventory.dto.InboundDocumentDTO;
 import com.inventory.service.InboundService;
+import com.inventory.vo.ApprovalTicketVO;
+import com.inventory.vo.BatchApproveResultVO;
+import com.inventory.vo.CursorPageVO;
+import com.inventory.vo.ImportResultVO;
 import com.inventory.vo.InboundVO;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -31,6 +47,9 @@ public class InboundController {
     @Autowired
     private InboundService inboundService;
 
+    @Autowired
+    private AsyncApprovalQueue asyncApprovalQueue;
+
     /**
      * 创建入库单
      */
@@ -48,6 +67,42 @@ public class InboundController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * 创建多行入库单
+     */
+    @ApiOperation("创建多行入库单（审核时全部明细在同一事务中生效）")
+    @PostMapping("/document")
+    public ResponseEntity<Map<String, Object>> createDocument(@Validated @RequestBody InboundDocumentDTO dto) {
+        log.info("创建多行入库单，dto={}", dto);
+
+        Long id = inboundService.createDocument(dto);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("message", "入库单创建成功");
+        result.put("data", Map.of("id", id));
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 批量导入入库单
+     */
+    @ApiOperation("批量导入入库单（请求体为 UTF-8 的 CSV 或 NDJSON 文件，逐行处理，返回逐行错误）")
+    @PostMapping("/import")
+    public ResponseEntity<Map<String, Object>> importInbound(
+            @ApiParam("文件格式：csv（首行为表头）或 ndjson") @RequestParam(defaultValue = "csv") String format,
+            InputStream body) {
+        log.info("导入入库单，format={}", format);
+
+        ImportResultVO data = inboundService.importInbound(body, format);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("message", "入库单导入完成");
+        result.put("data", data);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * 获取入库单详情
      */
@@ -95,6 +150,57 @@ public class InboundController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * 导出入库单
+     */
+    @ApiOperation("导出入库单（CSV 或 NDJSON，条件同列表查询，边查询边输出）")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @ApiParam("商品ID") @RequestParam(required = false) Long productId,
+            @ApiParam("状态") @RequestParam(required = false) Integer status,
+            @ApiParam("开始日期") @RequestParam(required = false) String startDate,
+            @ApiParam("结束日期") @RequestParam(required = false) String endDate,
+            @ApiParam("导出格式：csv 或 ndjson") @RequestParam(defaultValue = "csv") String format) {
+        log.info("导出入库单，productId={}, status={}, startDate={}, endDate={}, format={}",
+                productId, status, startDate, endDate, format);
+
+        // 格式在开始输出前校验，错误仍按统一格式返回
+        ExportWriter.Format exportFormat = ExportWriter.Format.of(format);
+        StreamingResponseBody body = out ->
+                inboundService.exportInbound(productId, status, startDate, endDate, exportFormat, out);
+
+        String fileName = "inbound-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"))
+                + "." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+                .body(body);
+    }
+
+    /**
+     * 游标分页获取入库单列表
+     */
+    @ApiOperation("游标分页获取入库单列表（深分页不退化，不返回总数）")
+    @GetMapping("/cursor")
+    public ResponseEntity<Map<String, Object>> pageByCursor(
+            @ApiParam("商品ID") @RequestParam(required = false) Long productId,
+            @ApiParam("状态") @RequestParam(required = false) Integer status,
+            @ApiParam("开始日期") @RequestParam(required = false) String startDate,
+            @ApiParam("结束日期") @RequestParam(required = false) String endDate,
+            @ApiParam("上一页返回的游标，不传查询第一页") @RequestParam(required = false) String cursor,
+            @ApiParam("每页大小") @RequestParam(defaultValue = "10") int size) {
+        log.info("游标分页查询入库单，productId={}, status={}, startDate={}, endDate={}, cursor={}, size={}",
+                productId, status, startDate, endDate, cursor, size);
+
+        CursorPageVO<InboundVO> pageResult = inboundService.pageByCursor(productId, status, startDate, endDate, cursor, size);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("message", "success");
+        result.put("data", pageResult);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * 更新入库单
      */
@@ -152,6 +258,67 @@ public class InboundController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * 异步审核入库单
+     */
+    @ApiOperation("异步审核入库单（进入审核队列，与其他审核请求合并提交；立即返回审核凭证，队列已满时拒绝）")
+    @PatchMapping("/{id}/approve-async")
+    public ResponseEntity<Map<String, Object>> approveAsync(
+            @ApiParam("入库单ID") @PathVariable Long id,
+            @ApiParam("审核人") @RequestParam(defaultValue = "system") String approvedBy) {
+        log.info("异步审核入库单，id={}, approvedBy={}", id, approvedBy);
+
+        ApprovalTicketVO ticket = asyncApprovalQueue.submit(OrderType.INBOUND, id, approvedBy);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 202);
+        result.put("message", "入库单已提交审核");
+        result.put("data", ticket);
+        return ResponseEntity.accepted().body(result);
+    }
+
+    /**
+     * 查询异步审核结果
+     */
+    @ApiOperation("查询入库单异步审核结果（waitMs 大于 0 时等待审核完成或超时后返回，等待期间不占用请求线程）")
+    @GetMapping("/approvals/{ticket}")
+    public DeferredResult<ResponseEntity<Map<String, Object>>> approvalResult(
+            @ApiParam("审核凭证") @PathVariable String ticket,
+            @ApiParam("最长等待毫秒数，0 为立即返回") @RequestParam(defaultValue = "0") long waitMs) {
+        ApprovalTicketVO current = asyncApprovalQueue.get(OrderType.INBOUND, ticket);
+
+        long timeout = Math.min(waitMs, asyncApprovalQueue.getMaxWaitMillis());
+        if (current.getDone() || timeout <= 0) {
+            DeferredResult<ResponseEntity<Map<String, Object>>> deferred = new DeferredResult<>();
+            deferred.setResult(approvalResponse(current));
+            return deferred;
+        }
+        // 超时返回排队中的状态，调用方可继续等待
+        DeferredResult<ResponseEntity<Map<String, Object>>> deferred =
+                new DeferredResult<>(timeout, approvalResponse(current));
+        asyncApprovalQueue.await(OrderType.INBOUND, ticket).thenAccept(vo -> deferred.setResult(approvalResponse(vo)));
+        return deferred;
+    }
+
+    /**
+     * 批量审核入库单
+     */
+    @ApiOperation("批量审核入库单")
+    @PatchMapping("/approve-batch")
+    public ResponseEntity<Map<String, Object>> approveBatch(
+            @RequestBody List<Long> ids,
+            @ApiParam("审核人") @RequestParam(defaultValue = "system") String approvedBy) {
+        log.info("批量审核入库单，ids={}, approvedBy={}", ids, approvedBy);
+
+        BatchApproveResultVO data = inboundService.approveBatch(ids, approvedBy);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("message", "批量审核完成");
+        result.put("data", data);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * 作废入库单
      */
@@ -168,4 +335,12 @@ public class InboundController {
         result.put("message", "入库单作废成功");
         return ResponseEntity.ok(result);
     }
+
+    private ResponseEntity<Map<String, Object>> approvalResponse(ApprovalTicketVO ticket) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("message", "success");
+        result.put("data", ticket);
+        return ResponseEntity.ok(result);
+    }
 }
@@ -2,17 +2,24 @@ package com.inventory.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.inventory.dto.InventoryAdjustDTO;
+import com.inventory.dto.StockCheckDTO;
+import com.inventory.entity.Inventory;
+import com.inventory.service.InventoryLedgerService;
 import com.inventory.service.InventoryService;
+import com.inventory.vo.CursorPageVO;
 import com.inventory.vo.InventoryVO;
+import com.inventory.vo.StockCheckResultVO;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +39,9 @@ public class InventoryController {
     @Autowired
     private InventoryService inventoryService;
 
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
     /**
      * 获取库存列表（分页）
      */
@@ -40,13 +50,14 @@ public class InventoryController {
     public ResponseEntity<Map<String, Object>> page(
             @ApiParam("商品名称") @RequestParam(required = false) String productName,
             @ApiParam("分类ID") @RequestParam(required = false) Long categoryId,
+            @ApiParam("仓库ID，不传查询全部仓库") @RequestParam(required = false) Long warehouseId,
             @ApiParam("是否只查低库存") @RequestParam(required = false) Boolean lowStock,
             @ApiParam("页码") @RequestParam(defaultValue = "1") int page,
             @ApiParam("每页大小") @RequestParam(defaultValue = "10") int size) {
-        log.info("分页查询库存，productName={}, categoryId={}, lowStock={}, page={}, size={}",
-                productName, categoryId, lowStock, page, size);
+        log.info("分页查询库存，productName={}, categoryId={}, warehouseId={}, lowStock={}, page={}, size={}",
+                productName, categoryId, warehouseId, lowStock, page, size);
 
-        IPage<InventoryVO> pageResult = inventoryService.page(productName, categoryId, lowStock, page, size);
+        IPage<InventoryVO> pageResult = inventoryService.page(productName, categoryId, warehouseId, lowStock, page, size);
 
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
@@ -60,16 +71,42 @@ public class InventoryController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * 游标分页获取库存列表
+     */
+    @ApiOperation("游标分页获取库存列表（深分页不退化，不返回总数）")
+    @GetMapping("/cursor")
+    public ResponseEntity<Map<String, Object>> pageByCursor(
+            @ApiParam("商品名称") @RequestParam(required = false) String productName,
+            @ApiParam("分类ID") @RequestParam(required = false) Long categoryId,
+            @ApiParam("仓库ID，不传查询全部仓库") @RequestParam(required = false) Long warehouseId,
+            @ApiParam("是否只查低库存") @RequestParam(required = false) Boolean lowStock,
+            @ApiParam("上一页返回的游标，不传查询第一页") @RequestParam(required = false) String cursor,
+            @ApiParam("每页大小") @RequestParam(defaultValue = "10") int size) {
+        log.info("游标分页查询库存，productName={}, categoryId={}, warehouseId={}, lowStock={}, cursor={}, size={}",
+                productName, categoryId, warehouseId, lowStock, cursor, size);
+
+        CursorPageVO<InventoryVO> pageResult =
+                inventoryService.pageByCursor(productName, categoryId, warehouseId, lowStock, cursor, size);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("message", "success");
+        result.put("data", pageResult);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * 获取商品库存
      */
     @ApiOperation("获取商品库存")
     @GetMapping("/product/{productId}")
     public ResponseEntity<Map<String, Object>> getByProductId(
-            @ApiParam("商品ID") @PathVariable Long productId) {
-        log.info("获取商品库存，productId={}", productId);
+            @ApiParam("商品ID") @PathVariable Long productId,
+            @ApiParam("仓库ID") @RequestParam(defaultValue = "1") Long warehouseId) {
+        log.info("获取商品库存，productId={}, warehouseId={}", productId, warehouseId);
 
-        var inventory = inventoryService.getByProductId(productId);
+        Inventory inventory = inventoryService.getByProductAndWarehouse(productId, warehouseId);
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
         result.put("message", "success");
@@ -77,6 +114,53 @@ public class InventoryController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * 获取商品跨仓库存合计
+     */
+    @ApiOperation("获取商品跨仓库存合计")
+    @GetMapping("/product/{productId}/total")
+    public ResponseEntity<Map<String, Object>> getTotalQuantity(
+            @ApiParam("商品ID") @PathVariable Long productId) {
+        log.info("获取商品跨仓库存合计，productId={}", productId);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("productId", productId);
+        data.put("quantity", inventoryService.getTotalQuantity(productId));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("message", "success");
+        result.put("data", data);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 查询商品在指定时间点的库存
+     */
+    @ApiOperation("查询商品历史时间点库存")
+    @GetMapping("/product/{productId}/as-of")
+    public ResponseEntity<Map<String, Object>> getQuantityAsOf(
+            @ApiParam("商品ID") @PathVariable Long productId,
+            @ApiParam("仓库ID") @RequestParam(defaultValue = "1") Long warehouseId,
+            @ApiParam("时间点，格式 yyyy-MM-dd HH:mm:ss")
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime time) {
+        log.info("查询历史库存，productId={}, warehouseId={}, time={}", productId, warehouseId, time);
+
+        Integer quantity = inventoryLedgerService.getQuantityAsOf(productId, warehouseId, time);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("productId", productId);
+        data.put("warehouseId", warehouseId);
+        data.put("time", time);
+        data.put("quantity", quantity);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("message", "success");
+        result.put("data", data);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * 调整库存
      */
@@ -101,10 +185,12 @@ public class InventoryController {
      */
     @ApiOperation("获取低库存商品列表")
     @GetMapping("/low-stock")
-    public ResponseEntity<Map<String, Object>> getLowStockList() {
-        log.info("获取低库存商品列表");
+    public ResponseEntity<Map<String, Object>> getLowStockList(
+            @ApiParam("仓库ID，不传查询全部仓库") @RequestParam(required = false) Long warehouseId,
+            @ApiParam("最多返回条数（按缺货数量从多到少），不传返回全部") @RequestParam(required = false) Integer limit) {
+        log.info("获取低库存商品列表，warehouseId={}, limit={}", warehouseId, limit);
 
-        List<InventoryVO> list = inventoryService.getLowStockList();
+        List<InventoryVO> list = inventoryService.getLowStockList(warehouseId, limit);
 
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
@@ -120,10 +206,11 @@ public class InventoryController {
     @PostMapping("/check")
     public ResponseEntity<Map<String, Object>> checkStock(
             @ApiParam("商品ID") @RequestParam Long productId,
+            @ApiParam("仓库ID") @RequestParam(defaultValue = "1") Long warehouseId,
             @ApiParam("需要数量") @RequestParam Integer quantity) {
-        log.info("检查库存充足性，productId={}, quantity={}", productId, quantity);
+        log.info("检查库存充足性，productId={}, warehouseId={}, quantity={}", productId, warehouseId, quantity);
 
-        boolean sufficient = inventoryService.checkStock(productId, quantity);
+        boolean sufficient = inventoryService.checkStock(productId, warehouseId, quantity);
 
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
@@ -132,6 +219,23 @@ public class InventoryController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * 批量检查库存是否充足
+     */
+    @ApiOperation("批量检查库存是否充足")
+    @PostMapping("/check-batch")
+    public ResponseEntity<Map<String, Object>> checkStockBatch(@Validated @RequestBody StockCheckDTO dto) {
+        log.info("批量检查库存充足性，warehouseId={}, lines={}", dto.getWarehouseId(), dto.getItems().size());
+
+        StockCheckResultVO data = inventoryService.checkStockBatch(dto.getWarehouseId(), dto.getItems());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("message", "success");
+        result.put("data", data);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * 获取库存汇总统计
      */
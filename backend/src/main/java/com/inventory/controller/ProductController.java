@@ -1,6 +1,8 @@
 package com.inventory.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.inventory.component.ResourceVersions;
+import com.inventory.component.ResourceVersions.Resource;
 import com.inventory.dto.ProductDTO;
 import com.inventory.service.ProductService;
 import com.inventory.vo.ProductVO;
@@ -12,6 +14,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import springfox.documentation.annotations.ApiIgnore;
 
 import java.util.HashMap;
 import java.util.List;
@@ -32,6 +36,9 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     /**
      * 创建商品
      */
@@ -101,8 +108,13 @@ public class ProductController {
      */
     @ApiOperation("获取商品详情")
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getById(@ApiParam("商品ID") @PathVariable Long id) {
+    public ResponseEntity<Map<String, Object>> getById(
+            @ApiParam("商品ID") @PathVariable Long id,
+            @ApiIgnore WebRequest webRequest) {
         log.info("获取商品详情，id={}", id);
+        if (webRequest.checkNotModified(resourceVersions.etag(Resource.PRODUCT, Resource.CATEGORY, Resource.INVENTORY))) {
+            return null;
+        }
         ProductVO product = productService.getById(id);
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
@@ -122,9 +134,13 @@ public class ProductController {
             @ApiParam("分类ID") @RequestParam(required = false) Long categoryId,
             @ApiParam("状态") @RequestParam(required = false) Integer status,
             @ApiParam("页码") @RequestParam(defaultValue = "1") int page,
-            @ApiParam("每页大小") @RequestParam(defaultValue = "10") int size) {
+            @ApiParam("每页大小") @RequestParam(defaultValue = "10") int size,
+            @ApiIgnore WebRequest webRequest) {
         log.info("分页查询商品，name={}, sku={}, categoryId={}, status={}, page={}, size={}",
                 name, sku, categoryId, status, page, size);
+        if (webRequest.checkNotModified(resourceVersions.etag(Resource.PRODUCT, Resource.CATEGORY, Resource.INVENTORY))) {
+            return null;
+        }
 
         IPage<ProductVO> pageResult = productService.page(name, sku, categoryId, status, page, size);
 
@@ -146,8 +162,12 @@ public class ProductController {
     @ApiOperation("搜索商品")
     @GetMapping("/search")
     public ResponseEntity<Map<String, Object>> search(
-            @ApiParam("关键词") @RequestParam String keyword) {
+            @ApiParam("关键词") @RequestParam String keyword,
+            @ApiIgnore WebRequest webRequest) {
         log.info("搜索商品，keyword={}", keyword);
+        if (webRequest.checkNotModified(resourceVersions.etag(Resource.PRODUCT, Resource.CATEGORY, Resource.INVENTORY))) {
+            return null;
+        }
         List<ProductVO> list = productService.search(keyword);
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
@@ -180,8 +200,12 @@ public class ProductController {
     @GetMapping("/check-sku")
     public ResponseEntity<Map<String, Object>> checkSku(
             @ApiParam("SKU") @RequestParam String sku,
-            @ApiParam("排除的商品ID") @RequestParam(required = false) Long excludeId) {
+            @ApiParam("排除的商品ID") @RequestParam(required = false) Long excludeId,
+            @ApiIgnore WebRequest webRequest) {
         log.info("检查SKU，sku={}, excludeId={}", sku, excludeId);
+        if (webRequest.checkNotModified(resourceVersions.etag(Resource.PRODUCT))) {
+            return null;
+        }
         boolean exists = productService.checkSkuExists(sku, excludeId);
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
@@ -195,9 +219,14 @@ public class ProductController {
      */
     @ApiOperation("获取低库存商品列表")
     @GetMapping("/low-stock")
-    public ResponseEntity<Map<String, Object>> getLowStockProducts() {
-        log.info("获取低库存商品列表");
-        List<ProductVO> list = productService.getLowStockProducts();
+    public ResponseEntity<Map<String, Object>> getLowStockProducts(
+            @ApiParam("最多返回商品数（按缺货数量从多到少），不传返回全部") @RequestParam(required = false) Integer limit,
+            @ApiIgnore WebRequest webRequest) {
+        log.info("获取低库存商品列表，limit={}", limit);
+        if (webRequest.checkNotModified(resourceVersions.etag(Resource.PRODUCT, Resource.CATEGORY, Resource.INVENTORY))) {
+            return null;
+        }
+        List<ProductVO> list = productService.getLowStockProducts(limit);
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
         result.put("message", "success");
@@ -1,15 +1,23 @@
 package com.inventory.controller;
 
+import com.inventory.component.ReferenceDataCache;
+import com.inventory.component.ResourceVersions;
+import com.inventory.component.ResourceVersions.Resource;
 import com.inventory.service.StatisticsService;
+import com.inventory.task.DailyMovementBackfillTask;
 import com.inventory.vo.*;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import springfox.documentation.annotations.ApiIgnore;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,13 +37,25 @@ public class StatisticsController {
     @Autowired
     private StatisticsService statisticsService;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private DailyMovementBackfillTask dailyMovementBackfillTask;
+
     /**
      * 获取数据看板
      */
     @ApiOperation("获取数据看板")
     @GetMapping("/dashboard")
-    public ResponseEntity<Map<String, Object>> getDashboard() {
+    public ResponseEntity<Map<String, Object>> getDashboard(@ApiIgnore WebRequest webRequest) {
         log.info("获取数据看板");
+        if (webRequest.checkNotModified(resourceVersions.etag(Resource.PRODUCT, Resource.INVENTORY))) {
+            return null;
+        }
 
         DashboardVO dashboard = statisticsService.getDashboard();
 
@@ -46,14 +66,35 @@ public class StatisticsController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * 重建看板汇总
+     */
+    @ApiOperation("重建看板汇总")
+    @PostMapping("/dashboard/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildDashboard() {
+        log.info("重建看板汇总");
+
+        DashboardVO dashboard = statisticsService.rebuildDashboard();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("message", "重建成功");
+        result.put("data", dashboard);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * 获取出入库趋势
      */
     @ApiOperation("获取出入库趋势")
     @GetMapping("/trend")
     public ResponseEntity<Map<String, Object>> getTrend(
-            @ApiParam("天数") @RequestParam(defaultValue = "30") int days) {
+            @ApiParam("天数") @RequestParam(defaultValue = "30") int days,
+            @ApiIgnore WebRequest webRequest) {
         log.info("获取出入库趋势，days={}", days);
+        if (webRequest.checkNotModified(resourceVersions.etag(LocalDate.now(), Resource.INVENTORY))) {
+            return null;
+        }
 
         TrendVO trend = statisticsService.getTrend(days);
 
@@ -64,15 +105,39 @@ public class StatisticsController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * 回填每日出入库汇总
+     */
+    @ApiOperation("回填每日出入库汇总")
+    @PostMapping("/daily-movement/backfill")
+    public ResponseEntity<Map<String, Object>> backfillDailyMovement(
+            @ApiParam("开始日期") @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate startDate,
+            @ApiParam("结束日期") @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate) {
+        log.info("回填每日出入库汇总，startDate={}, endDate={}", startDate, endDate);
+
+        int days = dailyMovementBackfillTask.backfill(startDate, endDate);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("message", "回填成功");
+        result.put("data", days);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * 获取库存分类分布
      */
     @ApiOperation("获取库存分类分布")
     @GetMapping("/category-distribution")
-    public ResponseEntity<Map<String, Object>> getCategoryDistribution() {
-        log.info("获取库存分类分布");
+    public ResponseEntity<Map<String, Object>> getCategoryDistribution(
+            @ApiParam("分类层级（1-3，1 为仅顶级分类），为空时按直属分类统计") @RequestParam(required = false) Integer level,
+            @ApiIgnore WebRequest webRequest) {
+        log.info("获取库存分类分布，level={}", level);
+        if (webRequest.checkNotModified(resourceVersions.etag(Resource.PRODUCT, Resource.CATEGORY, Resource.INVENTORY))) {
+            return null;
+        }
 
-        List<CategoryDistributionVO> distribution = statisticsService.getCategoryDistribution();
+        List<CategoryDistributionVO> distribution = statisticsService.getCategoryDistribution(level);
 
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
@@ -86,10 +151,15 @@ public class StatisticsController {
      */
     @ApiOperation("获取低库存列表")
     @GetMapping("/low-stock")
-    public ResponseEntity<Map<String, Object>> getLowStockList() {
-        log.info("获取低库存列表");
+    public ResponseEntity<Map<String, Object>> getLowStockList(
+            @ApiParam("最多返回条数（按缺货数量从多到少），不传返回全部") @RequestParam(required = false) Integer limit,
+            @ApiIgnore WebRequest webRequest) {
+        log.info("获取低库存列表，limit={}", limit);
+        if (webRequest.checkNotModified(resourceVersions.etag(Resource.PRODUCT, Resource.INVENTORY))) {
+            return null;
+        }
 
-        List<LowStockVO> lowStockList = statisticsService.getLowStockList();
+        List<LowStockVO> lowStockList = statisticsService.getLowStockList(limit);
 
         Map<String, Object> result = new HashMap<>();
         result.put("code", 200);
@@ -97,4 +167,17 @@ public class StatisticsController {
         result.put("data", lowStockList);
         return ResponseEntity.ok(result);
     }
+
+    /**
+     * 获取商品/分类引用缓存统计
+     */
+    @ApiOperation("获取商品/分类引用缓存统计")
+    @GetMapping("/reference-cache")
+    public ResponseEntity<Map<String, Object>> getReferenceCacheStats() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("message", "success");
+        result.put("data", referenceDataCache.getStats());
+        return ResponseEntity.ok(result);
+    }
 }
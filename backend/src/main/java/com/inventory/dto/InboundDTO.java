@@ -24,6 +24,9 @@ public class InboundDTO implements Serializable {
     @NotNull(message = "商品ID不能为空")
     private Long productId;
 
+    @ApiModelProperty(value = "仓库ID，不填为默认仓库")
+    private Long warehouseId;
+
     @ApiModelProperty(value = "入库数量", required = true)
     @NotNull(message = "入库数量不能为空")
     @Min(value = 1, message = "入库数量必须大于0")
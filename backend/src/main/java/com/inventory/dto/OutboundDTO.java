@@ -30,6 +30,12 @@ public class OutboundDTO implements Serializable {
     @ApiModelProperty(value = "商品ID", required = true, example = "1")
     private Long productId;
 
+    /**
+     * 仓库ID（不填为默认仓库）
+     */
+    @ApiModelProperty(value = "仓库ID，不填为默认仓库", example = "1")
+    private Long warehouseId;
+
     /**
      * 出库数量
      */
@@ -0,0 +1,91 @@
+package com.inventory.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 多行出库单数据传输对象
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@ApiModel(value = "OutboundDocumentDTO对象", description = "多行出库单数据传输对象")
+public class OutboundDocumentDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 仓库ID（不填为默认仓库）
+     */
+    @ApiModelProperty(value = "仓库ID，不填为默认仓库", example = "1")
+    private Long warehouseId;
+
+    /**
+     * 收货人
+     */
+    @NotBlank(message = "收货人不能为空")
+    @ApiModelProperty(value = "收货人", required = true, example = "客户A")
+    private String receiver;
+
+    /**
+     * 收货人电话
+     */
+    @ApiModelProperty(value = "收货人电话", example = "13800138000")
+    private String receiverPhone;
+
+    /**
+     * 出库日期
+     */
+    @NotNull(message = "出库日期不能为空")
+    @ApiModelProperty(value = "出库日期", required = true, example = "2026-01-04T10:00:00")
+    private LocalDateTime outboundDate;
+
+    /**
+     * 备注
+     */
+    @ApiModelProperty(value = "备注")
+    private String remark;
+
+    /**
+     * 出库明细（同一商品只能出现一行）
+     */
+    @NotEmpty(message = "出库明细不能为空")
+    @Size(max = 500, message = "出库明细不能超过500行")
+    @Valid
+    @ApiModelProperty(value = "出库明细，同一商品只能出现一行", required = true)
+    private List<Line> lines;
+
+    /**
+     * 出库明细行
+     */
+    @Data
+    @ApiModel(value = "OutboundDocumentDTO.Line对象", description = "出库明细行")
+    public static class Line implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 商品ID
+         */
+        @NotNull(message = "商品ID不能为空")
+        @ApiModelProperty(value = "商品ID", required = true, example = "1")
+        private Long productId;
+
+        /**
+         * 出库数量
+         */
+        @NotNull(message = "出库数量不能为空")
+        @Min(value = 1, message = "出库数量必须大于0")
+        @Max(value = 999999, message = "出库数量不能超过999999")
+        @ApiModelProperty(value = "出库数量", required = true, example = "50")
+        private Integer quantity;
+    }
+}
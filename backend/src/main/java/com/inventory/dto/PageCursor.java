@@ -0,0 +1,63 @@
+package com.inventory.dto;
+
+import com.inventory.exception.BusinessException;
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 游标分页位置
+ *
+ * 记录上一页最后一行的 (排序时间, ID)，编码为不透明的字符串交给调用方；
+ * 下一页以 (time, id) 之后的行继续按索引范围扫描，无需 OFFSET 与 COUNT。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Getter
+public class PageCursor {
+
+    private final LocalDateTime time;
+
+    private final Long id;
+
+    public PageCursor(LocalDateTime time, Long id) {
+        this.time = time;
+        this.id = id;
+    }
+
+    /**
+     * 编码游标
+     *
+     * @param time 排序时间
+     * @param id 记录ID
+     * @return 游标字符串
+     */
+    public static String encode(LocalDateTime time, Long id) {
+        String raw = time + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param cursor 游标字符串
+     * @return 游标位置，为空时返回 null（查询第一页）
+     */
+    public static PageCursor decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(',');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, split)), Long.valueOf(raw.substring(split + 1)));
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException("无效的分页游标");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.inventory.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.*;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量库存检查数据传输对象
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@ApiModel(value = "StockCheckDTO对象", description = "批量库存检查数据传输对象")
+public class StockCheckDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty(value = "仓库ID，不填为默认仓库")
+    private Long warehouseId;
+
+    @ApiModelProperty(value = "检查明细，同一商品可出现多行，按合计数量检查", required = true)
+    @NotEmpty(message = "检查明细不能为空")
+    @Size(max = 500, message = "检查明细不能超过500行")
+    @Valid
+    private List<Item> items;
+
+    /**
+     * 检查明细行
+     */
+    @Data
+    @ApiModel(value = "StockCheckDTO.Item对象", description = "库存检查明细行")
+    public static class Item implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @ApiModelProperty(value = "商品ID", required = true)
+        @NotNull(message = "商品ID不能为空")
+        private Long productId;
+
+        @ApiModelProperty(value = "需要数量", required = true)
+        @NotNull(message = "需要数量不能为空")
+        @Min(value = 1, message = "需要数量必须大于0")
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,58 @@
+package com.inventory.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 缓存失效事件实体
+ *
+ * 数据库轮询方式的缓存失效广播：写入事务中插入，提交后对其他节点可见，各节点定时拉取最近的事件。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@TableName("t_cache_invalidation")
+@ApiModel(value = "CacheInvalidation对象", description = "缓存失效事件")
+public class CacheInvalidation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 事件ID
+     */
+    @TableId(type = IdType.AUTO)
+    @ApiModelProperty(value = "事件ID", example = "1")
+    private Long id;
+
+    /**
+     * 发布节点ID
+     */
+    @ApiModelProperty(value = "发布节点ID")
+    private String nodeId;
+
+    /**
+     * 资源类别：CATEGORY、PRODUCT、INVENTORY
+     */
+    @ApiModelProperty(value = "资源类别", example = "PRODUCT")
+    private String resource;
+
+    /**
+     * 失效的ID（逗号分隔），为空表示该类别全部失效
+     */
+    @ApiModelProperty(value = "失效的ID（逗号分隔），为空表示全部", example = "1,2,3")
+    private String ids;
+
+    /**
+     * 创建时间（数据库时间）
+     */
+    @ApiModelProperty(value = "创建时间")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,56 @@
+package com.inventory.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 每日出入库汇总实体
+ *
+ * 按 (日期, 商品ID) 汇总已审核入库单、出库单的数量，日期取单据的入库/出库日期。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@TableName("t_daily_movement")
+@ApiModel(value = "DailyMovement对象", description = "每日出入库汇总")
+public class DailyMovement implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 日期
+     */
+    @ApiModelProperty(value = "日期", example = "2026-01-04")
+    private LocalDate movementDate;
+
+    /**
+     * 商品ID
+     */
+    @ApiModelProperty(value = "商品ID", example = "1")
+    private Long productId;
+
+    /**
+     * 入库数量
+     */
+    @ApiModelProperty(value = "入库数量", example = "100")
+    private Integer inboundQuantity;
+
+    /**
+     * 出库数量
+     */
+    @ApiModelProperty(value = "出库数量", example = "50")
+    private Integer outboundQuantity;
+
+    /**
+     * 更新时间
+     */
+    @ApiModelProperty(value = "更新时间")
+    private LocalDateTime updatedAt;
+}
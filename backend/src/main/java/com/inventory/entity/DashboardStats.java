@@ -0,0 +1,78 @@
+package com.inventory.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 看板汇总实体
+ *
+ * 汇总值分散在固定数量的槽位行中，按商品ID取模选择槽位，避免所有库存变动争抢同一行；
+ * 看板读取时对全部槽位求和。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@TableName("t_dashboard_stats")
+@ApiModel(value = "DashboardStats对象", description = "看板汇总")
+public class DashboardStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 槽位数量
+     */
+    public static final int SLOTS = 16;
+
+    /**
+     * 槽位（0 ~ SLOTS-1）
+     */
+    @TableId(type = IdType.INPUT)
+    @ApiModelProperty(value = "槽位", example = "0")
+    private Integer slot;
+
+    /**
+     * 库存数量合计
+     */
+    @ApiModelProperty(value = "库存数量合计", example = "1000")
+    private Long totalQuantity;
+
+    /**
+     * 库存成本总额
+     */
+    @ApiModelProperty(value = "库存成本总额", example = "5000.00")
+    private BigDecimal totalCostValue;
+
+    /**
+     * 低库存记录数
+     */
+    @ApiModelProperty(value = "低库存记录数", example = "3")
+    private Integer lowStockCount;
+
+    /**
+     * 启用商品数
+     */
+    @ApiModelProperty(value = "启用商品数", example = "20")
+    private Integer activeProductCount;
+
+    /**
+     * 更新时间
+     */
+    @ApiModelProperty(value = "更新时间")
+    private LocalDateTime updatedAt;
+
+    /**
+     * 商品对应的槽位
+     */
+    public static int slotOf(Long productId) {
+        return productId == null ? 0 : (int) Math.floorMod(productId, (long) SLOTS);
+    }
+}
@@ -33,9 +33,15 @@ public class Inbound implements Serializable {
     @ApiModelProperty("商品ID")
     private Long productId;
 
-    @ApiModelProperty("入库数量")
+    @ApiModelProperty("仓库ID")
+    private Long warehouseId;
+
+    @ApiModelProperty("入库数量（多行入库单为各行合计）")
     private Integer quantity;
 
+    @ApiModelProperty("明细行数（1 为单行入库单，商品和数量即表头字段，不写明细表）")
+    private Integer lineCount;
+
     @ApiModelProperty("供应商")
     private String supplier;
 
@@ -77,6 +83,13 @@ public class Inbound implements Serializable {
         return STATUS_PENDING == this.status;
     }
 
+    /**
+     * 判断是否为多行入库单
+     */
+    public boolean isMultiLine() {
+        return this.lineCount != null && this.lineCount > 1;
+    }
+
     /**
      * 判断是否为已审核状态
      */
@@ -0,0 +1,44 @@
+package com.inventory.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 入库单明细实体
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@TableName("t_inbound_line")
+@ApiModel(value = "InboundLine对象", description = "入库单明细")
+public class InboundLine implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty("主键")
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    @ApiModelProperty("入库单ID")
+    private Long inboundId;
+
+    @ApiModelProperty("行号")
+    private Integer lineNo;
+
+    @ApiModelProperty("商品ID")
+    private Long productId;
+
+    @ApiModelProperty("入库数量")
+    private Integer quantity;
+
+    @ApiModelProperty("创建时间")
+    private LocalDateTime createdAt;
+}
@@ -21,6 +21,11 @@ public class Inventory implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * 默认仓库ID（未指定仓库的单据与接口使用）
+     */
+    public static final Long DEFAULT_WAREHOUSE_ID = 1L;
+
     /**
      * 主键ID
      */
@@ -46,6 +51,12 @@ public class Inventory implements Serializable {
     @ApiModelProperty(value = "库存数量", example = "100")
     private Integer quantity;
 
+    /**
+     * 预占数量（待审核出库单占用）
+     */
+    @ApiModelProperty(value = "预占数量", example = "0")
+    private Integer reservedQuantity;
+
     /**
      * 预警值
      */
@@ -65,4 +76,13 @@ public class Inventory implements Serializable {
     @TableField(fill = FieldFill.INSERT_UPDATE)
     @ApiModelProperty(value = "更新时间")
     private LocalDateTime updatedAt;
+
+    /**
+     * 可用库存 = 库存数量 - 预占数量
+     */
+    @ApiModelProperty(value = "可用库存", hidden = true)
+    public int getAvailableQuantity() {
+        int reserved = this.reservedQuantity != null ? this.reservedQuantity : 0;
+        return (this.quantity != null ? this.quantity : 0) - reserved;
+    }
 }
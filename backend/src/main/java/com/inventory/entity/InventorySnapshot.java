@@ -0,0 +1,62 @@
+package com.inventory.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 库存快照实体
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@TableName("t_inventory_snapshot")
+@ApiModel(value = "InventorySnapshot对象", description = "库存快照")
+public class InventorySnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    @ApiModelProperty(value = "主键ID", example = "1")
+    private Long id;
+
+    /**
+     * 商品ID
+     */
+    @ApiModelProperty(value = "商品ID", example = "1")
+    private Long productId;
+
+    /**
+     * 仓库ID
+     */
+    @ApiModelProperty(value = "仓库ID", example = "1")
+    private Long warehouseId;
+
+    /**
+     * 截止时间的库存数量
+     */
+    @ApiModelProperty(value = "库存数量", example = "100")
+    private Integer quantity;
+
+    /**
+     * 快照截止时间（不含），快照包含此前发生的全部流水
+     */
+    @ApiModelProperty(value = "快照截止时间")
+    private LocalDateTime snapshotAt;
+
+    /**
+     * 创建时间
+     */
+    @ApiModelProperty(value = "创建时间")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,44 @@
+package com.inventory.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 商品跨仓库存合计实体
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@TableName("t_inventory_total")
+@ApiModel(value = "InventoryTotal对象", description = "商品跨仓库存合计")
+public class InventoryTotal implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 商品ID
+     */
+    @TableId(type = IdType.INPUT)
+    @ApiModelProperty(value = "商品ID", example = "1")
+    private Long productId;
+
+    /**
+     * 各仓库存数量合计
+     */
+    @ApiModelProperty(value = "各仓库存数量合计", example = "300")
+    private Integer quantity;
+
+    /**
+     * 更新时间
+     */
+    @ApiModelProperty(value = "更新时间")
+    private LocalDateTime updatedAt;
+}
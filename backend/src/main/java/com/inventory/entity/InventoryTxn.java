@@ -0,0 +1,81 @@
+package com.inventory.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 库存流水实体（只追加，不修改、不删除）
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@TableName("t_inventory_txn")
+@ApiModel(value = "InventoryTxn对象", description = "库存流水")
+public class InventoryTxn implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 变动类型常量
+     */
+    public static final int TYPE_INBOUND = 1;    // 入库
+    public static final int TYPE_OUTBOUND = 2;   // 出库
+    public static final int TYPE_ADJUST = 3;     // 调整
+
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    @ApiModelProperty(value = "主键ID", example = "1")
+    private Long id;
+
+    /**
+     * 商品ID
+     */
+    @ApiModelProperty(value = "商品ID", example = "1")
+    private Long productId;
+
+    /**
+     * 仓库ID
+     */
+    @ApiModelProperty(value = "仓库ID", example = "1")
+    private Long warehouseId;
+
+    /**
+     * 变动类型：1-入库，2-出库，3-调整
+     */
+    @ApiModelProperty(value = "变动类型：1-入库，2-出库，3-调整", example = "1")
+    private Integer changeType;
+
+    /**
+     * 变动数量（正数增加，负数减少）
+     */
+    @ApiModelProperty(value = "变动数量", example = "50")
+    private Integer delta;
+
+    /**
+     * 变动原因
+     */
+    @ApiModelProperty(value = "变动原因")
+    private String reason;
+
+    /**
+     * 合并写入批次ID，直接写入时为空
+     */
+    @ApiModelProperty(value = "合并写入批次ID", example = "1")
+    private Long batchId;
+
+    /**
+     * 发生时间
+     */
+    @ApiModelProperty(value = "发生时间")
+    private LocalDateTime createdAt;
+}
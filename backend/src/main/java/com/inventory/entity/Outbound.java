@@ -48,11 +48,23 @@ public class Outbound implements Serializable {
     private Long productId;
 
     /**
-     * 出库数量
+     * 仓库ID
      */
-    @ApiModelProperty(value = "出库数量", required = true, example = "50")
+    @ApiModelProperty(value = "仓库ID", example = "1")
+    private Long warehouseId;
+
+    /**
+     * 出库数量（多行出库单为各行合计）
+     */
+    @ApiModelProperty(value = "出库数量（多行出库单为各行合计）", required = true, example = "50")
     private Integer quantity;
 
+    /**
+     * 明细行数（1 为单行出库单，商品和数量即表头字段，不写明细表）
+     */
+    @ApiModelProperty(value = "明细行数", example = "1")
+    private Integer lineCount;
+
     /**
      * 收货人
      */
@@ -124,6 +136,15 @@ public class Outbound implements Serializable {
         return this.status != null && this.status == STATUS_PENDING;
     }
 
+    /**
+     * 是否为多行出库单
+     */
+    @TableField(exist = false)
+    @ApiModelProperty(value = "是否为多行出库单", hidden = true)
+    public boolean isMultiLine() {
+        return this.lineCount != null && this.lineCount > 1;
+    }
+
     /**
      * 是否已审核
      */
@@ -0,0 +1,60 @@
+package com.inventory.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 出库单明细实体
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@TableName("t_outbound_line")
+@ApiModel(value = "OutboundLine对象", description = "出库单明细")
+public class OutboundLine implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 明细ID
+     */
+    @TableId(type = IdType.AUTO)
+    @ApiModelProperty(value = "明细ID", example = "1")
+    private Long id;
+
+    /**
+     * 出库单ID
+     */
+    @ApiModelProperty(value = "出库单ID", required = true, example = "1")
+    private Long outboundId;
+
+    /**
+     * 行号
+     */
+    @ApiModelProperty(value = "行号", required = true, example = "1")
+    private Integer lineNo;
+
+    /**
+     * 商品ID
+     */
+    @ApiModelProperty(value = "商品ID", required = true, example = "1")
+    private Long productId;
+
+    /**
+     * 出库数量
+     */
+    @ApiModelProperty(value = "出库数量", required = true, example = "50")
+    private Integer quantity;
+
+    /**
+     * 创建时间
+     */
+    @ApiModelProperty(value = "创建时间")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,86 @@
+package com.inventory.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 库存合并写入批次实体
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@TableName("t_stock_delta")
+@ApiModel(value = "StockDelta对象", description = "库存合并写入批次")
+public class StockDelta implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 状态常量
+     */
+    public static final int STATUS_OPEN = 0;      // 进行中
+    public static final int STATUS_PARKED = 1;    // 已搁置（应用失败，待人工处理）
+
+    /**
+     * 批次ID
+     */
+    @TableId(type = IdType.AUTO)
+    @ApiModelProperty(value = "批次ID", example = "1")
+    private Long id;
+
+    /**
+     * 商品ID
+     */
+    @ApiModelProperty(value = "商品ID", example = "1")
+    private Long productId;
+
+    /**
+     * 仓库ID
+     */
+    @ApiModelProperty(value = "仓库ID", example = "1")
+    private Long warehouseId;
+
+    /**
+     * 本批受理的增量合计，正数为入库，负数为出库（已预占）
+     */
+    @ApiModelProperty(value = "本批受理的增量合计，正数为入库，负数为出库（已预占）", example = "-20")
+    private Integer quantity;
+
+    /**
+     * 已应用的增量（调用方已提交）
+     */
+    @ApiModelProperty(value = "已应用的增量", example = "-15")
+    private Integer applied;
+
+    /**
+     * 已释放的增量（调用方已回滚）
+     */
+    @ApiModelProperty(value = "已释放的增量", example = "-5")
+    private Integer released;
+
+    /**
+     * 状态：0-进行中，1-已搁置
+     */
+    @ApiModelProperty(value = "状态：0-进行中，1-已搁置", example = "0")
+    private Integer status;
+
+    /**
+     * 创建时间
+     */
+    @ApiModelProperty(value = "创建时间")
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间
+     */
+    @ApiModelProperty(value = "更新时间")
+    private LocalDateTime updatedAt;
+}
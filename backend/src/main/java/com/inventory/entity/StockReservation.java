@@ -0,0 +1,88 @@
+package com.inventory.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 库存预占实体
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@TableName("t_stock_reservation")
+@ApiModel(value = "StockReservation对象", description = "库存预占")
+public class StockReservation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 预占状态常量
+     */
+    public static final int STATUS_ACTIVE = 0;     // 预占中
+    public static final int STATUS_CONSUMED = 1;   // 已扣减
+    public static final int STATUS_RELEASED = 2;   // 已释放
+    public static final int STATUS_EXPIRED = 3;    // 已过期
+
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    @ApiModelProperty(value = "主键ID", example = "1")
+    private Long id;
+
+    /**
+     * 出库单ID
+     */
+    @ApiModelProperty(value = "出库单ID", example = "1")
+    private Long outboundId;
+
+    /**
+     * 商品ID
+     */
+    @ApiModelProperty(value = "商品ID", example = "1")
+    private Long productId;
+
+    /**
+     * 仓库ID
+     */
+    @ApiModelProperty(value = "仓库ID", example = "1")
+    private Long warehouseId;
+
+    /**
+     * 预占数量
+     */
+    @ApiModelProperty(value = "预占数量", example = "50")
+    private Integer quantity;
+
+    /**
+     * 状态：0-预占中，1-已扣减，2-已释放，3-已过期
+     */
+    @ApiModelProperty(value = "状态：0-预占中，1-已扣减，2-已释放，3-已过期", example = "0")
+    private Integer status;
+
+    /**
+     * 过期时间
+     */
+    @ApiModelProperty(value = "过期时间")
+    private LocalDateTime expireAt;
+
+    /**
+     * 创建时间
+     */
+    @TableField(fill = FieldFill.INSERT)
+    @ApiModelProperty(value = "创建时间")
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间
+     */
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    @ApiModelProperty(value = "更新时间")
+    private LocalDateTime updatedAt;
+}
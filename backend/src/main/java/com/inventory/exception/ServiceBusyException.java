@@ -0,0 +1,26 @@
+package com.inventory.exception;
+
+/**
+ * 服务繁忙异常（请求被背压拒绝，稍后重试即可）
+ *
+ * 由全局异常处理器转换为 429 Too Many Requests，并通过 Retry-After 告知客户端重试间隔。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+public class ServiceBusyException extends BusinessException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * 建议的重试间隔（秒）
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
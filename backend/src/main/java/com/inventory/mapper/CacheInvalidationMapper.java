@@ -0,0 +1,56 @@
+package com.inventory.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.inventory.entity.CacheInvalidation;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 缓存失效事件 Mapper 接口
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Mapper
+public interface CacheInvalidationMapper extends BaseMapper<CacheInvalidation> {
+
+    /**
+     * 查询水位之后的事件，以及最近几秒内创建的事件
+     *
+     * 事件ID按插入顺序分配而提交顺序不定，只按ID水位拉取会漏掉较晚提交的小ID事件，
+     * 因此同时按数据库时间重叠读取最近 overlapSeconds 内的事件，由调用方按ID去重。
+     * 两个条件分别走主键与 created_at 索引。
+     *
+     * @param afterId 已拉取的最大事件ID
+     * @param overlapSeconds 重叠秒数
+     * @return 事件列表（按ID升序）
+     */
+    @Select("SELECT id, node_id, resource, ids, created_at FROM t_cache_invalidation " +
+            "WHERE id > #{afterId} OR created_at >= TIMESTAMPADD(SECOND, -#{overlapSeconds}, NOW()) ORDER BY id")
+    List<CacheInvalidation> selectSince(@Param("afterId") long afterId, @Param("overlapSeconds") int overlapSeconds);
+
+    /**
+     * 查询最近一段时间内已提交的事件（首次拉取或拉取中断后恢复时使用）
+     *
+     * @param lookbackSeconds 回看秒数
+     * @return 事件列表（按ID升序）
+     */
+    @Select("SELECT id, node_id, resource, ids, created_at FROM t_cache_invalidation " +
+            "WHERE created_at >= TIMESTAMPADD(SECOND, -#{lookbackSeconds}, NOW()) ORDER BY id")
+    List<CacheInvalidation> selectRecent(@Param("lookbackSeconds") int lookbackSeconds);
+
+    /**
+     * 删除过期事件
+     *
+     * @param retentionSeconds 保留秒数
+     * @param limit 单次删除上限
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM t_cache_invalidation " +
+            "WHERE created_at < TIMESTAMPADD(SECOND, -#{retentionSeconds}, NOW()) LIMIT #{limit}")
+    int deleteExpired(@Param("retentionSeconds") int retentionSeconds, @Param("limit") int limit);
+}
@@ -0,0 +1,114 @@
+package com.inventory.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.inventory.entity.DailyMovement;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 每日出入库汇总 Mapper 接口
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Mapper
+public interface DailyMovementMapper extends BaseMapper<DailyMovement> {
+
+    /**
+     * 累加入库数量（记录不存在时插入）
+     *
+     * @param date 入库日期
+     * @param productId 商品ID
+     * @param quantity 入库数量
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO t_daily_movement (movement_date, product_id, inbound_quantity, outbound_quantity, updated_at) " +
+            "VALUES (#{date}, #{productId}, #{quantity}, 0, NOW()) " +
+            "ON DUPLICATE KEY UPDATE inbound_quantity = inbound_quantity + #{quantity}, updated_at = NOW()")
+    int addInbound(@Param("date") LocalDate date, @Param("productId") Long productId, @Param("quantity") int quantity);
+
+    /**
+     * 累加出库数量（记录不存在时插入）
+     *
+     * @param date 出库日期
+     * @param productId 商品ID
+     * @param quantity 出库数量
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO t_daily_movement (movement_date, product_id, inbound_quantity, outbound_quantity, updated_at) " +
+            "VALUES (#{date}, #{productId}, 0, #{quantity}, NOW()) " +
+            "ON DUPLICATE KEY UPDATE outbound_quantity = outbound_quantity + #{quantity}, updated_at = NOW()")
+    int addOutbound(@Param("date") LocalDate date, @Param("productId") Long productId, @Param("quantity") int quantity);
+
+    /**
+     * 按日期汇总全部商品的出入库数量
+     *
+     * @param startDate 开始日期（含）
+     * @param endDate 结束日期（含）
+     * @return 每日一条（productId 为空），无出入库的日期不返回
+     */
+    @Select("SELECT movement_date, SUM(inbound_quantity) AS inbound_quantity, " +
+            "SUM(outbound_quantity) AS outbound_quantity " +
+            "FROM t_daily_movement " +
+            "WHERE movement_date BETWEEN #{startDate} AND #{endDate} " +
+            "GROUP BY movement_date")
+    List<DailyMovement> selectDailyTotals(@Param("startDate") LocalDate startDate,
+                                          @Param("endDate") LocalDate endDate);
+
+    /**
+     * 删除某日的汇总
+     *
+     * @param date 日期
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM t_daily_movement WHERE movement_date = #{date}")
+    int deleteByDate(@Param("date") LocalDate date);
+
+    /**
+     * 从已审核入库单重建某日的入库汇总，须先删除当日汇总
+     * 单行入库单按表头统计，多行入库单按明细统计（表头只记首行商品和各行合计）
+     *
+     * @param date 日期
+     * @param start 当日开始时间（含）
+     * @param end 次日开始时间（不含）
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO t_daily_movement (movement_date, product_id, inbound_quantity, outbound_quantity, updated_at) " +
+            "SELECT #{date}, product_id, SUM(quantity), 0, NOW() FROM (" +
+            "SELECT product_id, quantity FROM t_inbound " +
+            "WHERE status = 1 AND line_count = 1 AND inbound_date >= #{start} AND inbound_date < #{end} " +
+            "UNION ALL " +
+            "SELECT l.product_id, l.quantity FROM t_inbound_line l JOIN t_inbound i ON i.id = l.inbound_id " +
+            "WHERE i.status = 1 AND i.line_count > 1 AND i.inbound_date >= #{start} AND i.inbound_date < #{end}" +
+            ") t GROUP BY product_id")
+    int rebuildInbound(@Param("date") LocalDate date, @Param("start") LocalDateTime start,
+                       @Param("end") LocalDateTime end);
+
+    /**
+     * 从已审核出库单重建某日的出库汇总，在 {@link #rebuildInbound} 之后执行
+     * 单行出库单按表头统计，多行出库单按明细统计
+     *
+     * @param date 日期
+     * @param start 当日开始时间（含）
+     * @param end 次日开始时间（不含）
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO t_daily_movement (movement_date, product_id, inbound_quantity, outbound_quantity, updated_at) " +
+            "SELECT #{date}, product_id, 0, SUM(quantity), NOW() FROM (" +
+            "SELECT product_id, quantity FROM t_outbound " +
+            "WHERE status = 1 AND line_count = 1 AND outbound_date >= #{start} AND outbound_date < #{end} " +
+            "UNION ALL " +
+            "SELECT l.product_id, l.quantity FROM t_outbound_line l JOIN t_outbound o ON o.id = l.outbound_id " +
+            "WHERE o.status = 1 AND o.line_count > 1 AND o.outbound_date >= #{start} AND o.outbound_date < #{end}" +
+            ") t GROUP BY product_id " +
+            "ON DUPLICATE KEY UPDATE outbound_quantity = VALUES(outbound_quantity), updated_at = NOW()")
+    int rebuildOutbound(@Param("date") LocalDate date, @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end);
+}
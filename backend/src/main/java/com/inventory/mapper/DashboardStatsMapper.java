@@ -0,0 +1,129 @@
+package com.inventory.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.inventory.entity.DashboardStats;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 看板汇总 Mapper 接口
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Mapper
+public interface DashboardStatsMapper extends BaseMapper<DashboardStats> {
+
+    /**
+     * 累加一次库存变动：数量、成本额（按商品当前成本价）、低库存记录数（按变动前后是否不高于预警值）
+     *
+     * 须在库存行更新之后、同一事务中调用，库存行上的值即为变动后的数量。
+     *
+     * @param slot 槽位
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param delta 变动数量
+     * @return 影响行数
+     */
+    @Update("UPDATE t_dashboard_stats SET " +
+            "total_quantity = total_quantity + #{delta}, " +
+            "total_cost_value = total_cost_value + #{delta} * " +
+            "COALESCE((SELECT p.cost_price FROM t_product p WHERE p.id = #{productId}), 0), " +
+            "low_stock_count = low_stock_count + COALESCE((SELECT " +
+            "CASE WHEN i.quantity <= i.warning_stock THEN 1 ELSE 0 END - " +
+            "CASE WHEN i.quantity - #{delta} <= i.warning_stock THEN 1 ELSE 0 END " +
+            "FROM t_inventory i WHERE i.product_id = #{productId} AND i.warehouse_id = #{warehouseId}), 0), " +
+            "updated_at = NOW() " +
+            "WHERE slot = #{slot}")
+    int applyStockDelta(@Param("slot") int slot, @Param("productId") Long productId,
+                        @Param("warehouseId") Long warehouseId, @Param("delta") int delta);
+
+    /**
+     * 商品成本价变动：按商品各仓库存合计累加成本额差值
+     *
+     * @param slot 槽位
+     * @param productId 商品ID
+     * @param costDelta 成本价差值（新 - 旧）
+     * @return 影响行数
+     */
+    @Update("UPDATE t_dashboard_stats SET " +
+            "total_cost_value = total_cost_value + #{costDelta} * " +
+            "COALESCE((SELECT t.quantity FROM t_inventory_total t WHERE t.product_id = #{productId}), 0), " +
+            "updated_at = NOW() " +
+            "WHERE slot = #{slot}")
+    int addCostValue(@Param("slot") int slot, @Param("productId") Long productId,
+                     @Param("costDelta") BigDecimal costDelta);
+
+    /**
+     * 累加启用商品数
+     *
+     * @param slot 槽位
+     * @param delta 变动数
+     * @return 影响行数
+     */
+    @Update("UPDATE t_dashboard_stats SET active_product_count = active_product_count + #{delta}, " +
+            "updated_at = NOW() WHERE slot = #{slot}")
+    int addActiveProducts(@Param("slot") int slot, @Param("delta") int delta);
+
+    /**
+     * 累加低库存记录数
+     *
+     * @param slot 槽位
+     * @param delta 变动数
+     * @return 影响行数
+     */
+    @Update("UPDATE t_dashboard_stats SET low_stock_count = low_stock_count + #{delta}, " +
+            "updated_at = NOW() WHERE slot = #{slot}")
+    int addLowStock(@Param("slot") int slot, @Param("delta") int delta);
+
+    /**
+     * 全部槽位求和
+     *
+     * @return 汇总值（slot 为空）
+     */
+    @Select("SELECT COALESCE(SUM(total_quantity), 0) AS total_quantity, " +
+            "COALESCE(SUM(total_cost_value), 0) AS total_cost_value, " +
+            "COALESCE(SUM(low_stock_count), 0) AS low_stock_count, " +
+            "COALESCE(SUM(active_product_count), 0) AS active_product_count, " +
+            "MAX(updated_at) AS updated_at " +
+            "FROM t_dashboard_stats")
+    DashboardStats selectSummary();
+
+    /**
+     * 锁定全部槽位（重建时阻塞并发累加）
+     *
+     * @return 已存在的槽位
+     */
+    @Select("SELECT slot FROM t_dashboard_stats ORDER BY slot FOR UPDATE")
+    List<Integer> selectSlotsForUpdate();
+
+    /**
+     * 清零全部槽位
+     *
+     * @return 影响行数
+     */
+    @Update("UPDATE t_dashboard_stats SET total_quantity = 0, total_cost_value = 0, " +
+            "low_stock_count = 0, active_product_count = 0, updated_at = NOW()")
+    int resetAll();
+
+    /**
+     * 从库存表、商品表重新计算汇总值并写入指定槽位
+     *
+     * @param slot 槽位
+     * @return 影响行数
+     */
+    @Update("UPDATE t_dashboard_stats SET " +
+            "total_quantity = (SELECT COALESCE(SUM(i.quantity), 0) FROM t_inventory i), " +
+            "total_cost_value = (SELECT COALESCE(SUM(i.quantity * p.cost_price), 0) " +
+            "FROM t_inventory i INNER JOIN t_product p ON p.id = i.product_id), " +
+            "low_stock_count = (SELECT COUNT(*) FROM t_inventory i WHERE i.quantity <= i.warning_stock), " +
+            "active_product_count = (SELECT COUNT(*) FROM t_product p WHERE p.status = 1), " +
+            "updated_at = NOW() " +
+            "WHERE slot = #{slot}")
+    int rebuildSlot(@Param("slot") int slot);
+}
@@ -0,0 +1,48 @@
+package com.inventory.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.inventory.entity.InboundLine;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 入库单明细Mapper
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Mapper
+public interface InboundLineMapper extends BaseMapper<InboundLine> {
+
+    /**
+     * 批量插入入库单明细（一条多行 INSERT）
+     *
+     * @param lines 明细列表
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO t_inbound_line (inbound_id, line_no, product_id, quantity, created_at) VALUES " +
+            "<foreach collection='lines' item='l' separator=','>" +
+            "(#{l.inboundId}, #{l.lineNo}, #{l.productId}, #{l.quantity}, #{l.createdAt})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("lines") List<InboundLine> lines);
+
+    /**
+     * 批量获取入库单的明细（按入库单ID、行号排序）
+     *
+     * @param inboundIds 入库单ID集合
+     * @return 明细列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM t_inbound_line WHERE inbound_id IN " +
+            "<foreach collection='inboundIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            " ORDER BY inbound_id, line_no" +
+            "</script>")
+    List<InboundLine> selectByInboundIds(@Param("inboundIds") Collection<Long> inboundIds);
+}
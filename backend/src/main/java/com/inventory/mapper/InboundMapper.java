@@ -2,7 +2,19 @@ package com.inventory.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.inventory.entity.Inbound;
+import com.inventory.vo.InboundVO;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 入库单Mapper
@@ -12,4 +24,70 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface InboundMapper extends BaseMapper<Inbound> {
+
+    /**
+     * 批量审核入库单（仅更新待审核状态的记录）
+     *
+     * @param ids 入库单ID列表
+     * @param approvedBy 审核人
+     * @param approvedAt 审核时间
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE t_inbound SET status = 1, approved_by = #{approvedBy}, " +
+            "approved_at = #{approvedAt}, updated_at = #{approvedAt} " +
+            "WHERE status = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int approveBatch(@Param("ids") List<Long> ids,
+                     @Param("approvedBy") String approvedBy,
+                     @Param("approvedAt") LocalDateTime approvedAt);
+
+    /**
+     * 批量插入入库单（一条多行 INSERT）
+     *
+     * @param inbounds 入库单列表
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO t_inbound (inbound_no, product_id, warehouse_id, quantity, supplier, inbound_date, " +
+            "status, remark, created_by, created_at) VALUES " +
+            "<foreach collection='inbounds' item='i' separator=','>" +
+            "(#{i.inboundNo}, #{i.productId}, #{i.warehouseId}, #{i.quantity}, #{i.supplier}, #{i.inboundDate}, " +
+            "#{i.status}, #{i.remark}, #{i.createdBy}, #{i.createdAt})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("inbounds") List<Inbound> inbounds);
+
+    /**
+     * 按分页查询的条件导出入库单，商品名称、SKU 在 SQL 中关联；
+     * 逐行回调，结果集按 fetchSize 分批从服务端读取（需连接参数 useCursorFetch=true），不整体加载
+     *
+     * @param productId 商品ID
+     * @param status 状态
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param handler 逐行回调
+     */
+    @Select("<script>" +
+            "SELECT i.id, i.inbound_no, i.product_id, i.warehouse_id, p.name AS product_name, p.sku AS product_sku, " +
+            "i.quantity, i.line_count, i.supplier, i.inbound_date, i.status, " +
+            "CASE i.status WHEN 0 THEN '待审核' WHEN 1 THEN '已审核' WHEN 2 THEN '已作废' ELSE '未知' END AS status_desc, " +
+            "i.remark, i.created_by, i.created_at, i.approved_by, i.approved_at " +
+            "FROM t_inbound i LEFT JOIN t_product p ON p.id = i.product_id " +
+            "<where>" +
+            "<if test='productId != null'>AND i.product_id = #{productId}</if>" +
+            "<if test='status != null'>AND i.status = #{status}</if>" +
+            "<if test='startDate != null'>AND i.inbound_date &gt;= #{startDate}</if>" +
+            "<if test='endDate != null'>AND i.inbound_date &lt;= #{endDate}</if>" +
+            "</where>" +
+            "ORDER BY i.created_at DESC, i.id DESC" +
+            "</script>")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(InboundVO.class)
+    void exportInbound(@Param("productId") Long productId,
+                       @Param("status") Integer status,
+                       @Param("startDate") String startDate,
+                       @Param("endDate") String endDate,
+                       ResultHandler<InboundVO> handler);
 }
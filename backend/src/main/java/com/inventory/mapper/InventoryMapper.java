@@ -1,10 +1,20 @@
 package com.inventory.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.inventory.entity.Inventory;
+import com.inventory.vo.CategoryDistributionVO;
+import com.inventory.vo.InventoryVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 库存 Mapper 接口
@@ -16,13 +26,124 @@ import org.apache.ibatis.annotations.Select;
 public interface InventoryMapper extends BaseMapper<Inventory> {
 
     /**
-     * 根据商品ID获取库存
+     * 根据商品和仓库获取库存
      *
      * @param productId 商品ID
+     * @param warehouseId 仓库ID
      * @return 库存对象
      */
-    @Select("SELECT * FROM t_inventory WHERE product_id = #{productId} AND warehouse_id = 1")
-    Inventory selectByProductId(@Param("productId") Long productId);
+    @Select("SELECT * FROM t_inventory WHERE product_id = #{productId} AND warehouse_id = #{warehouseId}")
+    Inventory selectByProductAndWarehouse(@Param("productId") Long productId,
+                                          @Param("warehouseId") Long warehouseId);
+
+    /**
+     * 库存列表查询列（关联商品与分类，可用库存、低库存标记与金额由数据库计算）
+     */
+    String INVENTORY_LIST_SELECT =
+            "SELECT i.id, i.product_id, i.warehouse_id, i.quantity, i.reserved_quantity, " +
+            "i.quantity - i.reserved_quantity AS available_quantity, i.warning_stock, " +
+            "i.quantity &lt;= i.warning_stock AS is_low_stock, i.created_at, i.updated_at, " +
+            "p.sku AS product_sku, p.name AS product_name, p.category_id, c.name AS category_name, " +
+            "p.price * i.quantity AS amount " +
+            "FROM t_inventory i " +
+            "LEFT JOIN t_product p ON p.id = i.product_id " +
+            "LEFT JOIN t_category c ON c.id = p.category_id ";
+
+    /**
+     * 库存列表筛选条件
+     */
+    String INVENTORY_LIST_FILTER =
+            "<if test='warehouseId != null'>AND i.warehouse_id = #{warehouseId} </if>" +
+            "<if test='productName != null'>AND p.name LIKE CONCAT('%', #{productName}, '%') </if>" +
+            "<if test='categoryId != null'>AND p.category_id = #{categoryId} </if>" +
+            "<if test='lowStock'>AND i.quantity &lt;= i.warning_stock </if>";
+
+    /**
+     * 分页查询库存（关联商品与分类，筛选与金额计算均在 SQL 中完成）
+     *
+     * @param page 分页对象
+     * @param productName 商品名称（可选，模糊匹配）
+     * @param categoryId 分类ID（可选）
+     * @param warehouseId 仓库ID（可选）
+     * @param lowStock 是否只查低库存
+     * @return 分页结果
+     */
+    @Select("<script>" + INVENTORY_LIST_SELECT +
+            "<where>" + INVENTORY_LIST_FILTER + "</where>" +
+            "ORDER BY i.updated_at DESC, i.id DESC" +
+            "</script>")
+    IPage<InventoryVO> selectInventoryPage(Page<InventoryVO> page,
+                                           @Param("productName") String productName,
+                                           @Param("categoryId") Long categoryId,
+                                           @Param("warehouseId") Long warehouseId,
+                                           @Param("lowStock") boolean lowStock);
+
+    /**
+     * 游标分页查询库存：从 (updatedAt, id) 之后按 idx_inventory_updated 范围扫描，不执行 COUNT
+     *
+     * @param productName 商品名称（可选，模糊匹配）
+     * @param categoryId 分类ID（可选）
+     * @param warehouseId 仓库ID（可选）
+     * @param lowStock 是否只查低库存
+     * @param updatedAt 上一页最后一行的更新时间（为空时查询第一页）
+     * @param id 上一页最后一行的库存ID
+     * @param limit 最大返回条数
+     * @return 库存列表
+     */
+    @Select("<script>" + INVENTORY_LIST_SELECT +
+            "<where>" + INVENTORY_LIST_FILTER +
+            "<if test='updatedAt != null'>" +
+            "AND (i.updated_at &lt; #{updatedAt} OR (i.updated_at = #{updatedAt} AND i.id &lt; #{id})) " +
+            "</if>" +
+            "</where>" +
+            "ORDER BY i.updated_at DESC, i.id DESC LIMIT #{limit}" +
+            "</script>")
+    List<InventoryVO> selectInventoryAfter(@Param("productName") String productName,
+                                           @Param("categoryId") Long categoryId,
+                                           @Param("warehouseId") Long warehouseId,
+                                           @Param("lowStock") boolean lowStock,
+                                           @Param("updatedAt") LocalDateTime updatedAt,
+                                           @Param("id") Long id,
+                                           @Param("limit") int limit);
+
+    /**
+     * 批量获取多个商品在指定仓库的库存（一次 IN 查询）
+     *
+     * @param productIds 商品ID集合
+     * @param warehouseId 仓库ID
+     * @return 库存列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM t_inventory WHERE warehouse_id = #{warehouseId} AND product_id IN " +
+            "<foreach collection='productIds' item='productId' open='(' separator=',' close=')'>#{productId}</foreach>" +
+            "</script>")
+    List<Inventory> selectByProductIds(@Param("productIds") Collection<Long> productIds,
+                                       @Param("warehouseId") Long warehouseId);
+
+    /**
+     * 按商品所属分类汇总库存数量（各仓合计）
+     *
+     * @return 每个分类一条（categoryId、quantity）；商品不存在的库存归入 categoryId 为空的一条
+     */
+    @Select("SELECT p.category_id, SUM(i.quantity) AS quantity " +
+            "FROM t_inventory i LEFT JOIN t_product p ON p.id = i.product_id " +
+            "GROUP BY p.category_id")
+    List<CategoryDistributionVO> selectQuantityByCategory();
+
+    /**
+     * 查询低库存记录（库存数量不超过预警值），按缺货数量从多到少排序；库存读模型不可用时使用
+     *
+     * @param warehouseId 仓库ID（可选）
+     * @param limit 最多返回条数（可选，不传返回全部）
+     * @return 库存列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM t_inventory WHERE quantity &lt;= warning_stock " +
+            "<if test='warehouseId != null'>AND warehouse_id = #{warehouseId} </if>" +
+            "ORDER BY warning_stock - quantity DESC, product_id, warehouse_id" +
+            "<if test='limit != null'> LIMIT #{limit}</if>" +
+            "</script>")
+    List<Inventory> selectLowStock(@Param("warehouseId") Long warehouseId, @Param("limit") Integer limit);
 
     /**
      * 检查库存记录是否已存在
@@ -33,4 +154,241 @@ public interface InventoryMapper extends BaseMapper<Inventory> {
      */
     @Select("SELECT COUNT(*) FROM t_inventory WHERE product_id = #{productId} AND warehouse_id = #{warehouseId}")
     int countByProductAndWarehouse(@Param("productId") Long productId, @Param("warehouseId") Long warehouseId);
+
+    /**
+     * 根据ID获取库存并加行锁（须在事务中调用）
+     *
+     * @param id 库存ID
+     * @return 库存对象
+     */
+    @Select("SELECT * FROM t_inventory WHERE id = #{id} FOR UPDATE")
+    Inventory selectByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * 根据商品和仓库获取库存并加行锁（须在事务中调用）
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @return 库存对象
+     */
+    @Select("SELECT * FROM t_inventory WHERE product_id = #{productId} AND warehouse_id = #{warehouseId} FOR UPDATE")
+    Inventory selectByProductAndWarehouseForUpdate(@Param("productId") Long productId,
+                                                   @Param("warehouseId") Long warehouseId);
+
+    /**
+     * 增加库存（单条语句原子累加）
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param quantity 增加数量
+     * @return 影响行数，0 表示库存记录不存在
+     */
+    @Update("UPDATE t_inventory SET quantity = quantity + #{quantity}, updated_at = NOW() " +
+            "WHERE product_id = #{productId} AND warehouse_id = #{warehouseId}")
+    int increaseQuantity(@Param("productId") Long productId,
+                         @Param("warehouseId") Long warehouseId,
+                         @Param("quantity") Integer quantity);
+
+    /**
+     * 扣减库存（条件更新，可用库存不足时不修改任何行；已被预占的部分不可扣减）
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param quantity 扣减数量
+     * @return 影响行数，0 表示库存记录不存在或可用库存不足
+     */
+    @Update("UPDATE t_inventory SET quantity = quantity - #{quantity}, updated_at = NOW() " +
+            "WHERE product_id = #{productId} AND warehouse_id = #{warehouseId} " +
+            "AND quantity - reserved_quantity >= #{quantity}")
+    int decreaseQuantity(@Param("productId") Long productId,
+                         @Param("warehouseId") Long warehouseId,
+                         @Param("quantity") Integer quantity);
+
+    /**
+     * 预占库存（条件更新，可用库存不足时不修改任何行）
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param quantity 预占数量
+     * @return 影响行数，0 表示库存记录不存在或可用库存不足
+     */
+    @Update("UPDATE t_inventory SET reserved_quantity = reserved_quantity + #{quantity}, updated_at = NOW() " +
+            "WHERE product_id = #{productId} AND warehouse_id = #{warehouseId} " +
+            "AND quantity - reserved_quantity >= #{quantity}")
+    int reserveQuantity(@Param("productId") Long productId,
+                        @Param("warehouseId") Long warehouseId,
+                        @Param("quantity") Integer quantity);
+
+    /**
+     * 释放预占库存
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param quantity 释放数量
+     * @return 影响行数，0 表示库存记录不存在或预占数量不足
+     */
+    @Update("UPDATE t_inventory SET reserved_quantity = reserved_quantity - #{quantity}, updated_at = NOW() " +
+            "WHERE product_id = #{productId} AND warehouse_id = #{warehouseId} " +
+            "AND reserved_quantity >= #{quantity}")
+    int releaseReserved(@Param("productId") Long productId,
+                        @Param("warehouseId") Long warehouseId,
+                        @Param("quantity") Integer quantity);
+
+    /**
+     * 预占转扣减：同时减少库存数量与预占数量
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param quantity 扣减数量
+     * @return 影响行数，0 表示库存记录不存在或预占数量不足
+     */
+    @Update("UPDATE t_inventory SET quantity = quantity - #{quantity}, " +
+            "reserved_quantity = reserved_quantity - #{quantity}, updated_at = NOW() " +
+            "WHERE product_id = #{productId} AND warehouse_id = #{warehouseId} " +
+            "AND reserved_quantity >= #{quantity} AND quantity >= #{quantity}")
+    int consumeReserved(@Param("productId") Long productId,
+                        @Param("warehouseId") Long warehouseId,
+                        @Param("quantity") Integer quantity);
+
+    /**
+     * 应用合并写入的增量：库存数量加净增量，同时释放其中扣减部分的预占
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param delta 净增量
+     * @param released 释放的预占数量（扣减部分之和）
+     * @return 影响行数，0 表示库存记录不存在或与预占不一致
+     */
+    @Update("UPDATE t_inventory SET quantity = quantity + #{delta}, " +
+            "reserved_quantity = reserved_quantity - #{released}, updated_at = NOW() " +
+            "WHERE product_id = #{productId} AND warehouse_id = #{warehouseId} " +
+            "AND reserved_quantity >= #{released} AND quantity + #{delta} >= 0")
+    int applyDelta(@Param("productId") Long productId,
+                   @Param("warehouseId") Long warehouseId,
+                   @Param("delta") int delta,
+                   @Param("released") int released);
+
+    /**
+     * 批量变更的每商品数量：CASE product_id WHEN 商品ID THEN 数量 END
+     */
+    String BATCH_QUANTITY =
+            "CASE product_id " +
+            "<foreach collection='quantities' index='productId' item='quantity'>" +
+            "WHEN #{productId} THEN #{quantity} " +
+            "</foreach>END";
+
+    /**
+     * 批量变更的行范围（同一仓库的多个商品）
+     */
+    String BATCH_WHERE =
+            "WHERE warehouse_id = #{warehouseId} AND product_id IN " +
+            "<foreach collection='quantities' index='productId' open='(' separator=',' close=')'>#{productId}</foreach> ";
+
+    /**
+     * 批量增加同一仓库多个商品的库存（一条语句）
+     *
+     * 各商品行按 uk_inventory_product_warehouse 顺序（商品ID升序）加锁，多张单据并发审核时加锁顺序一致。
+     *
+     * @param warehouseId 仓库ID
+     * @param quantities 商品ID → 增加数量
+     * @return 影响行数，小于商品数表示部分库存记录不存在
+     */
+    @Update("<script>" +
+            "UPDATE t_inventory SET quantity = quantity + " + BATCH_QUANTITY + ", updated_at = NOW() " +
+            BATCH_WHERE +
+            "</script>")
+    int increaseQuantityBatch(@Param("warehouseId") Long warehouseId,
+                              @Param("quantities") Map<Long, Integer> quantities);
+
+    /**
+     * 批量扣减同一仓库多个商品的库存（一条条件更新，可用库存不足的商品不修改）
+     *
+     * @param warehouseId 仓库ID
+     * @param quantities 商品ID → 扣减数量
+     * @return 影响行数，小于商品数表示部分库存记录不存在或可用库存不足
+     */
+    @Update("<script>" +
+            "UPDATE t_inventory SET quantity = quantity - " + BATCH_QUANTITY + ", updated_at = NOW() " +
+            BATCH_WHERE +
+            "AND quantity - reserved_quantity >= " + BATCH_QUANTITY +
+            "</script>")
+    int decreaseQuantityBatch(@Param("warehouseId") Long warehouseId,
+                              @Param("quantities") Map<Long, Integer> quantities);
+
+    /**
+     * 批量预占同一仓库多个商品的库存（一条条件更新，可用库存不足的商品不修改）
+     *
+     * @param warehouseId 仓库ID
+     * @param quantities 商品ID → 预占数量
+     * @return 影响行数，小于商品数表示部分库存记录不存在或可用库存不足
+     */
+    @Update("<script>" +
+            "UPDATE t_inventory SET reserved_quantity = reserved_quantity + " + BATCH_QUANTITY + ", " +
+            "updated_at = NOW() " +
+            BATCH_WHERE +
+            "AND quantity - reserved_quantity >= " + BATCH_QUANTITY +
+            "</script>")
+    int reserveQuantityBatch(@Param("warehouseId") Long warehouseId,
+                             @Param("quantities") Map<Long, Integer> quantities);
+
+    /**
+     * 批量预占转扣减同一仓库多个商品的库存（一条条件更新）
+     *
+     * @param warehouseId 仓库ID
+     * @param quantities 商品ID → 扣减数量
+     * @return 影响行数，小于商品数表示部分库存记录不存在或预占数量不足
+     */
+    @Update("<script>" +
+            "UPDATE t_inventory SET quantity = quantity - " + BATCH_QUANTITY + ", " +
+            "reserved_quantity = reserved_quantity - " + BATCH_QUANTITY + ", updated_at = NOW() " +
+            BATCH_WHERE +
+            "AND reserved_quantity >= " + BATCH_QUANTITY + " AND quantity >= " + BATCH_QUANTITY +
+            "</script>")
+    int consumeReservedBatch(@Param("warehouseId") Long warehouseId,
+                             @Param("quantities") Map<Long, Integer> quantities);
+
+    /**
+     * 设置库存数量
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param quantity 新的库存数量
+     * @return 影响行数，0 表示库存记录不存在
+     */
+    @Update("UPDATE t_inventory SET quantity = #{quantity}, updated_at = NOW() " +
+            "WHERE product_id = #{productId} AND warehouse_id = #{warehouseId}")
+    int updateQuantity(@Param("productId") Long productId,
+                       @Param("warehouseId") Long warehouseId,
+                       @Param("quantity") Integer quantity);
+
+    /**
+     * 根据库存ID增加库存
+     *
+     * @param id 库存ID
+     * @param quantity 增加数量
+     * @return 影响行数，0 表示库存记录不存在
+     */
+    @Update("UPDATE t_inventory SET quantity = quantity + #{quantity}, updated_at = NOW() WHERE id = #{id}")
+    int increaseQuantityById(@Param("id") Long id, @Param("quantity") Integer quantity);
+
+    /**
+     * 根据库存ID扣减库存（条件更新，已预占的数量不可扣减）
+     *
+     * @param id 库存ID
+     * @param quantity 扣减数量
+     * @return 影响行数，0 表示库存记录不存在或可用库存不足
+     */
+    @Update("UPDATE t_inventory SET quantity = quantity - #{quantity}, updated_at = NOW() " +
+            "WHERE id = #{id} AND quantity - reserved_quantity >= #{quantity}")
+    int decreaseQuantityById(@Param("id") Long id, @Param("quantity") Integer quantity);
+
+    /**
+     * 根据库存ID设置库存数量
+     *
+     * @param id 库存ID
+     * @param quantity 新的库存数量
+     * @return 影响行数，0 表示库存记录不存在
+     */
+    @Update("UPDATE t_inventory SET quantity = #{quantity}, updated_at = NOW() WHERE id = #{id}")
+    int updateQuantityById(@Param("id") Long id, @Param("quantity") Integer quantity);
 }
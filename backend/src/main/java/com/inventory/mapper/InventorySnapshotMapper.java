@@ -0,0 +1,34 @@
+package com.inventory.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.inventory.entity.InventorySnapshot;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+
+/**
+ * 库存快照 Mapper 接口
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Mapper
+public interface InventorySnapshotMapper extends BaseMapper<InventorySnapshot> {
+
+    /**
+     * 获取指定时间（含）之前最近的一份快照
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param time 时间
+     * @return 快照，不存在时返回 null
+     */
+    @Select("SELECT * FROM t_inventory_snapshot " +
+            "WHERE product_id = #{productId} AND warehouse_id = #{warehouseId} AND snapshot_at <= #{time} " +
+            "ORDER BY snapshot_at DESC LIMIT 1")
+    InventorySnapshot selectLatestBefore(@Param("productId") Long productId,
+                                         @Param("warehouseId") Long warehouseId,
+                                         @Param("time") LocalDateTime time);
+}
@@ -0,0 +1,28 @@
+package com.inventory.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.inventory.entity.InventoryTotal;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 商品跨仓库存合计 Mapper 接口
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Mapper
+public interface InventoryTotalMapper extends BaseMapper<InventoryTotal> {
+
+    /**
+     * 累加商品库存合计（记录不存在时插入）
+     *
+     * @param productId 商品ID
+     * @param delta 变动数量
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO t_inventory_total (product_id, quantity, updated_at) VALUES (#{productId}, #{delta}, NOW()) " +
+            "ON DUPLICATE KEY UPDATE quantity = quantity + #{delta}, updated_at = NOW()")
+    int addQuantity(@Param("productId") Long productId, @Param("delta") int delta);
+}
@@ -0,0 +1,48 @@
+package com.inventory.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.inventory.entity.InventoryTxn;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+
+/**
+ * 库存流水 Mapper 接口
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Mapper
+public interface InventoryTxnMapper extends BaseMapper<InventoryTxn> {
+
+    /**
+     * 汇总时间范围内的流水变动量，走 (product_id, warehouse_id, created_at) 索引
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param from 起始时间（含），为空表示不限
+     * @param to 结束时间（不含），为空表示不限
+     * @return 变动量合计，无流水时为 0
+     */
+    @Select("<script>" +
+            "SELECT COALESCE(SUM(delta), 0) FROM t_inventory_txn " +
+            "WHERE product_id = #{productId} AND warehouse_id = #{warehouseId} " +
+            "<if test='from != null'>AND created_at &gt;= #{from} </if>" +
+            "<if test='to != null'>AND created_at &lt; #{to} </if>" +
+            "</script>")
+    int sumDelta(@Param("productId") Long productId,
+                 @Param("warehouseId") Long warehouseId,
+                 @Param("from") LocalDateTime from,
+                 @Param("to") LocalDateTime to);
+
+    /**
+     * 汇总合并写入批次下已提交的流水变动量
+     *
+     * @param batchId 批次ID
+     * @return 变动量合计，无流水时为 0
+     */
+    @Select("SELECT COALESCE(SUM(delta), 0) FROM t_inventory_txn WHERE batch_id = #{batchId}")
+    int sumDeltaByBatch(@Param("batchId") Long batchId);
+}
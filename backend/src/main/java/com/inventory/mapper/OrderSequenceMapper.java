@@ -0,0 +1,51 @@
+package com.inventory.mapper;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDate;
+
+/**
+ * 单号序号 Mapper 接口
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Mapper
+public interface OrderSequenceMapper {
+
+    /**
+     * 预留一段序号：下一个可用序号加上段长（行锁保证各节点预留的序号段互不重叠）
+     *
+     * @param name 序号名称
+     * @param date 日期
+     * @param blockSize 段长
+     * @return 影响行数，当天序号行不存在时为 0
+     */
+    @Update("UPDATE t_order_sequence SET next_value = next_value + #{blockSize} " +
+            "WHERE seq_name = #{name} AND seq_date = #{date}")
+    int advance(@Param("name") String name, @Param("date") LocalDate date, @Param("blockSize") int blockSize);
+
+    /**
+     * 查询下一个可用序号；在 {@link #advance} 之后、同一事务中调用
+     *
+     * @param name 序号名称
+     * @param date 日期
+     * @return 下一个可用序号
+     */
+    @Select("SELECT next_value FROM t_order_sequence WHERE seq_name = #{name} AND seq_date = #{date}")
+    Long selectNextValue(@Param("name") String name, @Param("date") LocalDate date);
+
+    /**
+     * 创建当天的序号行（已存在时忽略）
+     *
+     * @param name 序号名称
+     * @param date 日期
+     * @return 影响行数
+     */
+    @Insert("INSERT IGNORE INTO t_order_sequence (seq_name, seq_date, next_value) VALUES (#{name}, #{date}, 1)")
+    int insertIfAbsent(@Param("name") String name, @Param("date") LocalDate date);
+}
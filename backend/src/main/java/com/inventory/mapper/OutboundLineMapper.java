@@ -0,0 +1,48 @@
+package com.inventory.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.inventory.entity.OutboundLine;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 出库单明细Mapper
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Mapper
+public interface OutboundLineMapper extends BaseMapper<OutboundLine> {
+
+    /**
+     * 批量插入出库单明细（一条多行 INSERT）
+     *
+     * @param lines 明细列表
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO t_outbound_line (outbound_id, line_no, product_id, quantity, created_at) VALUES " +
+            "<foreach collection='lines' item='l' separator=','>" +
+            "(#{l.outboundId}, #{l.lineNo}, #{l.productId}, #{l.quantity}, #{l.createdAt})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("lines") List<OutboundLine> lines);
+
+    /**
+     * 批量获取出库单的明细（按出库单ID、行号排序）
+     *
+     * @param outboundIds 出库单ID集合
+     * @return 明细列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM t_outbound_line WHERE outbound_id IN " +
+            "<foreach collection='outboundIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            " ORDER BY outbound_id, line_no" +
+            "</script>")
+    List<OutboundLine> selectByOutboundIds(@Param("outboundIds") Collection<Long> outboundIds);
+}
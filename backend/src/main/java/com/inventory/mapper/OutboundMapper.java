@@ -2,7 +2,18 @@ package com.inventory.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.inventory.entity.Outbound;
+import com.inventory.vo.OutboundVO;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 出库单Mapper
@@ -12,4 +23,69 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface OutboundMapper extends BaseMapper<Outbound> {
+
+    /**
+     * 审核出库单（仅待审核状态可更新，并发重复审核时只有一个成功）
+     *
+     * @param id 出库单ID
+     * @param approvedBy 审核人
+     * @param approvedAt 审核时间
+     * @return 影响行数，0 表示出库单不存在或已不是待审核状态
+     */
+    @Update("UPDATE t_outbound SET status = 1, approved_by = #{approvedBy}, " +
+            "approved_at = #{approvedAt}, updated_at = #{approvedAt} " +
+            "WHERE id = #{id} AND status = 0")
+    int approve(@Param("id") Long id,
+                @Param("approvedBy") String approvedBy,
+                @Param("approvedAt") LocalDateTime approvedAt);
+
+    /**
+     * 批量审核出库单（仅更新待审核状态的记录）
+     *
+     * @param ids 出库单ID列表
+     * @param approvedBy 审核人
+     * @param approvedAt 审核时间
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE t_outbound SET status = 1, approved_by = #{approvedBy}, " +
+            "approved_at = #{approvedAt}, updated_at = #{approvedAt} " +
+            "WHERE status = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int approveBatch(@Param("ids") List<Long> ids,
+                     @Param("approvedBy") String approvedBy,
+                     @Param("approvedAt") LocalDateTime approvedAt);
+
+    /**
+     * 按分页查询的条件导出出库单，商品名称、SKU 在 SQL 中关联；
+     * 逐行回调，结果集按 fetchSize 分批从服务端读取（需连接参数 useCursorFetch=true），不整体加载
+     *
+     * @param productId 商品ID
+     * @param status 状态
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param handler 逐行回调
+     */
+    @Select("<script>" +
+            "SELECT o.id, o.outbound_no, o.product_id, o.warehouse_id, p.name AS product_name, p.sku AS product_sku, " +
+            "o.quantity, o.line_count, o.receiver, o.receiver_phone, o.outbound_date, o.status, " +
+            "CASE o.status WHEN 0 THEN '待审核' WHEN 1 THEN '已审核' WHEN 2 THEN '已作废' ELSE '未知' END AS status_text, " +
+            "o.remark, o.created_by, o.created_at, o.updated_at, o.approved_by, o.approved_at " +
+            "FROM t_outbound o LEFT JOIN t_product p ON p.id = o.product_id " +
+            "<where>" +
+            "<if test='productId != null'>AND o.product_id = #{productId}</if>" +
+            "<if test='status != null'>AND o.status = #{status}</if>" +
+            "<if test='startDate != null'>AND o.outbound_date &gt;= #{startDate}</if>" +
+            "<if test='endDate != null'>AND o.outbound_date &lt;= #{endDate}</if>" +
+            "</where>" +
+            "ORDER BY o.created_at DESC, o.id DESC" +
+            "</script>")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(OutboundVO.class)
+    void exportOutbound(@Param("productId") Long productId,
+                        @Param("status") Integer status,
+                        @Param("startDate") String startDate,
+                        @Param("endDate") String endDate,
+                        ResultHandler<OutboundVO> handler);
 }
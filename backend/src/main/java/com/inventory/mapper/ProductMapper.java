@@ -38,6 +38,26 @@ public interface ProductMapper extends BaseMapper<Product> {
     @Select("SELECT * FROM t_product WHERE sku = #{sku} AND id != #{excludeId}")
     Product selectBySkuExcludeId(@Param("sku") String sku, @Param("excludeId") Long excludeId);
 
+    /**
+     * 按ID顺序分批查询商品编码（构建 SKU 过滤器）
+     *
+     * @param afterId 上一批最后一个商品ID
+     * @param limit 批大小
+     * @return 商品列表（仅 id、sku）
+     */
+    @Select("SELECT id, sku FROM t_product WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<Product> selectSkuBatch(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * 按ID顺序分批查询商品状态（批量导入预加载）
+     *
+     * @param afterId 上一批最后一个商品ID
+     * @param limit 批大小
+     * @return 商品列表（仅 id、status）
+     */
+    @Select("SELECT id, status FROM t_product WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<Product> selectStatusBatch(@Param("afterId") Long afterId, @Param("limit") int limit);
+
     /**
      * 根据分类ID查询商品列表
      *
@@ -67,20 +87,28 @@ public interface ProductMapper extends BaseMapper<Product> {
 
     /**
      * 检查商品是否有入库记录
+     * 多行入库单的表头只记首行商品，其余行的商品从明细中统计
      *
      * @param productId 商品ID
-     * @return 入库记录数量
+     * @return 引用该商品的入库单数量
      */
-    @Select("SELECT COUNT(*) FROM t_inbound WHERE product_id = #{productId}")
+    @Select("SELECT COUNT(*) FROM (" +
+            "SELECT id FROM t_inbound WHERE product_id = #{productId} " +
+            "UNION " +
+            "SELECT inbound_id FROM t_inbound_line WHERE product_id = #{productId}) t")
     int countInboundRecords(@Param("productId") Long productId);
 
     /**
      * 检查商品是否有出库记录
+     * 多行出库单的表头只记首行商品，其余行的商品从明细中统计
      *
      * @param productId 商品ID
-     * @return 出库记录数量
+     * @return 引用该商品的出库单数量
      */
-    @Select("SELECT COUNT(*) FROM t_outbound WHERE product_id = #{productId}")
+    @Select("SELECT COUNT(*) FROM (" +
+            "SELECT id FROM t_outbound WHERE product_id = #{productId} " +
+            "UNION " +
+            "SELECT outbound_id FROM t_outbound_line WHERE product_id = #{productId}) t")
     int countOutboundRecords(@Param("productId") Long productId);
 
     /**
@@ -102,13 +130,17 @@ public interface ProductMapper extends BaseMapper<Product> {
     );
 
     /**
-     * 查询低库存商品
+     * 查询低库存商品（任一仓库存不超过该库存记录的预警值），按最大缺货数量从多到少排序；库存读模型不可用时使用
      *
+     * @param limit 最多返回商品数（可选，不传返回全部）
      * @return 低库存商品列表
      */
-    @Select("SELECT p.* FROM t_product p " +
-            "INNER JOIN t_inventory i ON p.id = i.product_id " +
-            "WHERE i.quantity <= p.warning_stock " +
-            "ORDER BY (i.quantity - p.warning_stock) ASC")
-    List<Product> selectLowStockProducts();
+    @Select("<script>" +
+            "SELECT p.* FROM t_product p " +
+            "INNER JOIN (SELECT product_id, MAX(warning_stock - quantity) AS shortage FROM t_inventory " +
+            "WHERE quantity &lt;= warning_stock GROUP BY product_id) low ON low.product_id = p.id " +
+            "ORDER BY low.shortage DESC, p.id" +
+            "<if test='limit != null'> LIMIT #{limit}</if>" +
+            "</script>")
+    List<Product> selectLowStockProducts(@Param("limit") Integer limit);
 }
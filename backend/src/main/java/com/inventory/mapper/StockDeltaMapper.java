@@ -0,0 +1,69 @@
+package com.inventory.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.inventory.entity.StockDelta;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 库存合并写入批次 Mapper 接口
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Mapper
+public interface StockDeltaMapper extends BaseMapper<StockDelta> {
+
+    /**
+     * 按ID获取进行中的批次并加行锁（须在事务中调用；已结清删除或已搁置的批次不再返回）
+     *
+     * @param ids 批次ID集合
+     * @return 批次列表（按ID升序）
+     */
+    @Select("<script>" +
+            "SELECT * FROM t_stock_delta WHERE status = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            " ORDER BY id FOR UPDATE" +
+            "</script>")
+    List<StockDelta> selectOpenForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 累加批次已应用、已释放的增量
+     *
+     * @param id 批次ID
+     * @param applied 本次应用的增量
+     * @param released 本次释放的增量
+     * @return 影响行数
+     */
+    @Update("UPDATE t_stock_delta SET applied = applied + #{applied}, released = released + #{released}, " +
+            "updated_at = NOW() WHERE id = #{id}")
+    int settle(@Param("id") Long id, @Param("applied") int applied, @Param("released") int released);
+
+    /**
+     * 搁置批次（应用失败，不再自动重试）
+     *
+     * @param ids 批次ID集合
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE t_stock_delta SET status = 1, updated_at = NOW() WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int park(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 获取创建时间早于指定时间、仍在进行中的批次ID（定时恢复）
+     *
+     * @param before 创建时间早于该时间
+     * @param limit 最大条数
+     * @return 批次ID列表
+     */
+    @Select("SELECT id FROM t_stock_delta WHERE status = 0 AND created_at < #{before} ORDER BY created_at LIMIT #{limit}")
+    List<Long> selectStaleIds(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
@@ -0,0 +1,88 @@
+package com.inventory.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.inventory.entity.StockReservation;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 库存预占 Mapper 接口
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Mapper
+public interface StockReservationMapper extends BaseMapper<StockReservation> {
+
+    /**
+     * 获取出库单的有效预占（多行出库单每个商品一条）
+     *
+     * @param outboundId 出库单ID
+     * @return 预占记录列表，不存在或已失效时为空
+     */
+    @Select("SELECT * FROM t_stock_reservation WHERE outbound_id = #{outboundId} AND status = 0")
+    List<StockReservation> selectActiveByOutboundId(@Param("outboundId") Long outboundId);
+
+    /**
+     * 批量获取出库单的有效预占
+     *
+     * @param outboundIds 出库单ID集合
+     * @return 预占记录列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM t_stock_reservation WHERE status = 0 AND outbound_id IN " +
+            "<foreach collection='outboundIds' item='outboundId' open='(' separator=',' close=')'>#{outboundId}</foreach>" +
+            "</script>")
+    List<StockReservation> selectActiveByOutboundIds(@Param("outboundIds") Collection<Long> outboundIds);
+
+    /**
+     * 获取已过期但仍处于预占中的记录（按过期时间顺序取 limit 条，并带上这些出库单的其余过期预占，
+     * 多行出库单的各行预占总是一起释放，审核时不会只剩部分预占）
+     *
+     * @param now 当前时间
+     * @param limit 最大条数（多行出库单可能略超）
+     * @return 预占记录列表
+     */
+    @Select("SELECT * FROM t_stock_reservation WHERE status = 0 AND expire_at < #{now} AND outbound_id IN (" +
+            "SELECT outbound_id FROM (SELECT outbound_id FROM t_stock_reservation " +
+            "WHERE status = 0 AND expire_at < #{now} ORDER BY expire_at LIMIT #{limit}) t) " +
+            "ORDER BY expire_at, id")
+    List<StockReservation> selectExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * 批量插入预占记录（一条多行 INSERT）
+     *
+     * @param reservations 预占记录列表
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO t_stock_reservation (outbound_id, product_id, warehouse_id, quantity, status, expire_at, " +
+            "created_at, updated_at) VALUES " +
+            "<foreach collection='reservations' item='r' separator=','>" +
+            "(#{r.outboundId}, #{r.productId}, #{r.warehouseId}, #{r.quantity}, #{r.status}, #{r.expireAt}, " +
+            "#{r.createdAt}, #{r.updatedAt})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("reservations") List<StockReservation> reservations);
+
+    /**
+     * 将预占中的记录变更为终态（仅预占中可变更，并发处理同一预占时只有一个成功）
+     *
+     * @param ids 预占ID集合
+     * @param status 目标状态
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE t_stock_reservation SET status = #{status}, updated_at = NOW() " +
+            "WHERE status = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int finish(@Param("ids") Collection<Long> ids, @Param("status") int status);
+}
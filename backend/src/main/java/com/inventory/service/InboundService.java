@@ -2,10 +2,20 @@ package com.inventory.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.inventory.component.ExportWriter;
 import com.inventory.dto.InboundDTO;
+import com.inventory.dto.InboundDocumentDTO;
 import com.inventory.entity.Inbound;
+import com.inventory.vo.BatchApproveResultVO;
+import com.inventory.vo.CursorPageVO;
+import com.inventory.vo.ImportResultVO;
 import com.inventory.vo.InboundVO;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
 /**
  * 入库单服务
  *
@@ -22,6 +32,23 @@ public interface InboundService extends IService<Inbound> {
      */
     Long create(InboundDTO dto);
 
+    /**
+     * 创建多行入库单（表头与明细在同一事务中写入，明细一条多行 INSERT）
+     *
+     * @param dto 多行入库单数据
+     * @return 入库单ID
+     */
+    Long createDocument(InboundDocumentDTO dto);
+
+    /**
+     * 批量导入入库单（逐行流式处理，校验通过的行按批写入，不整体回滚）
+     *
+     * @param input 导入文件（UTF-8）
+     * @param format 文件格式：csv 或 ndjson
+     * @return 导入结果（含逐行错误）
+     */
+    ImportResultVO importInbound(InputStream input, String format);
+
     /**
      * 更新入库单
      *
@@ -40,6 +67,16 @@ public interface InboundService extends IService<Inbound> {
      */
     boolean approve(Long id, String approvedBy);
 
+    /**
+     * 批量审核入库单
+     * 一次加载、一条语句更新状态，按商品汇总后每个商品只增加一次库存，全部在同一事务中完成
+     *
+     * @param ids        入库单ID列表
+     * @param approvedBy 审核人
+     * @return 逐单审核结果
+     */
+    BatchApproveResultVO approveBatch(List<Long> ids, String approvedBy);
+
     /**
      * 作废入库单
      *
@@ -68,4 +105,31 @@ public interface InboundService extends IService<Inbound> {
      * @return 分页结果
      */
     IPage<InboundVO> page(Long productId, Integer status, String startDate, String endDate, int page, int size);
+
+    /**
+     * 游标分页查询入库单（按创建时间倒序，不统计总数）
+     *
+     * @param productId  商品ID
+     * @param status     状态
+     * @param startDate  开始日期
+     * @param endDate    结束日期
+     * @param cursor     上一页返回的游标，为空时查询第一页
+     * @param size       每页大小
+     * @return 分页结果
+     */
+    CursorPageVO<InboundVO> pageByCursor(Long productId, Integer status, String startDate, String endDate,
+                                        String cursor, int size);
+
+    /**
+     * 按分页查询的条件导出入库单（按创建时间倒序，逐行查询、逐行写出，不整体加载）
+     *
+     * @param productId  商品ID
+     * @param status     状态
+     * @param startDate  开始日期
+     * @param endDate    结束日期
+     * @param format     导出格式
+     * @param out        输出流（由调用方关闭）
+     */
+    void exportInbound(Long productId, Integer status, String startDate, String endDate,
+                       ExportWriter.Format format, OutputStream out) throws IOException;
 }
@@ -0,0 +1,80 @@
+package com.inventory.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.inventory.entity.InventoryTxn;
+
+import java.time.LocalDateTime;
+
+/**
+ * 库存流水服务接口
+ *
+ * 每次库存变动在同一事务中追加一条流水并累加商品跨仓库存合计，定期为每个商品生成快照。
+ * 查询历史时间点的库存只需读取一份快照加上其后一小段流水。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+public interface InventoryLedgerService extends IService<InventoryTxn> {
+
+    /**
+     * 追加库存流水并累加商品跨仓库存合计（须与库存更新在同一事务中调用）
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param changeType 变动类型，见 {@link InventoryTxn} 常量
+     * @param delta 变动数量（正数增加，负数减少）
+     * @param reason 变动原因
+     */
+    void record(Long productId, Long warehouseId, int changeType, int delta, String reason);
+
+    /**
+     * 追加合并写入的库存流水（须在调用方事务中调用）
+     *
+     * 库存数量由合并写入器在调用方提交后按批次应用，跨仓合计随之由 {@link #applyTotals} 累加，此处只写流水。
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param changeType 变动类型，见 {@link InventoryTxn} 常量
+     * @param delta 变动数量（正数增加，负数减少）
+     * @param reason 变动原因
+     * @param batchId 合并写入批次ID
+     */
+    void recordCoalesced(Long productId, Long warehouseId, int changeType, int delta, String reason, Long batchId);
+
+    /**
+     * 累加商品跨仓库存合计与看板统计（须与库存更新在同一事务中调用）
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param delta 变动数量（正数增加，负数减少）
+     */
+    void applyTotals(Long productId, Long warehouseId, int delta);
+
+    /**
+     * 汇总合并写入批次下已提交的流水变动量
+     *
+     * @param batchId 批次ID
+     * @return 变动量合计
+     */
+    int sumBatchDelta(Long batchId);
+
+    /**
+     * 查询商品在指定仓库、指定时间点的库存
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param time 时间点，结果包含该时间之前（不含）发生的全部变动
+     * @return 库存数量，库存记录不存在时返回 null
+     */
+    Integer getQuantityAsOf(Long productId, Long warehouseId, LocalDateTime time);
+
+    /**
+     * 为一批库存记录生成快照
+     *
+     * @param afterInventoryId 从该库存ID之后开始，首批传 0
+     * @param limit 本批最大处理条数
+     * @param cutoff 快照截止时间（不含）
+     * @return 本批最后处理的库存ID，没有更多记录时返回 null
+     */
+    Long snapshotBatch(Long afterInventoryId, int limit, LocalDateTime cutoff);
+}
@@ -4,22 +4,29 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.inventory.dto.InventoryAdjustDTO;
+import com.inventory.dto.StockCheckDTO;
 import com.inventory.entity.Inventory;
+import com.inventory.vo.CursorPageVO;
 import com.inventory.vo.InventoryVO;
+import com.inventory.vo.StockCheckResultVO;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
 /**
  * 库存服务接口
  *
+ * 库存按商品+仓库维护，未指定仓库的方法作用于默认仓库；
+ * 商品跨仓库存合计由 t_inventory_total 随库存流水同步维护。
+ *
  * @author inventory-system
  * @since 2026-01-04
  */
 public interface InventoryService extends IService<Inventory> {
 
     /**
-     * 初始化库存
+     * 初始化库存（默认仓库）
      *
      * @param productId 商品ID
      * @param quantity 初始数量
@@ -27,7 +34,16 @@ public interface InventoryService extends IService<Inventory> {
     void initInventory(Long productId, Integer quantity);
 
     /**
-     * 增加库存
+     * 初始化指定仓库的库存
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param quantity 初始数量
+     */
+    void initInventory(Long productId, Long warehouseId, Integer quantity);
+
+    /**
+     * 增加库存（默认仓库）
      *
      * @param productId 商品ID
      * @param quantity 增加数量
@@ -35,7 +51,24 @@ public interface InventoryService extends IService<Inventory> {
     void addStock(Long productId, Integer quantity);
 
     /**
-     * 减少库存
+     * 增加指定仓库的库存
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param quantity 增加数量
+     */
+    void addStock(Long productId, Long warehouseId, Integer quantity);
+
+    /**
+     * 批量增加同一仓库多个商品的库存（一条语句，按商品ID顺序加锁）
+     *
+     * @param warehouseId 仓库ID
+     * @param quantities 商品ID → 增加数量
+     */
+    void addStockBatch(Long warehouseId, Map<Long, Integer> quantities);
+
+    /**
+     * 减少库存（默认仓库）
      *
      * @param productId 商品ID
      * @param quantity 减少数量
@@ -43,7 +76,24 @@ public interface InventoryService extends IService<Inventory> {
     void reduceStock(Long productId, Integer quantity);
 
     /**
-     * 调整库存
+     * 减少指定仓库的库存
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param quantity 减少数量
+     */
+    void reduceStock(Long productId, Long warehouseId, Integer quantity);
+
+    /**
+     * 批量减少同一仓库多个商品的库存（一条条件更新，按商品ID顺序加锁；任一商品不足时整体失败）
+     *
+     * @param warehouseId 仓库ID
+     * @param quantities 商品ID → 减少数量
+     */
+    void reduceStockBatch(Long warehouseId, Map<Long, Integer> quantities);
+
+    /**
+     * 调整库存（默认仓库）
      *
      * @param productId 商品ID
      * @param quantity 新的库存数量
@@ -51,6 +101,16 @@ public interface InventoryService extends IService<Inventory> {
      */
     void adjustStock(Long productId, Integer quantity, String reason);
 
+    /**
+     * 调整指定仓库的库存
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param quantity 新的库存数量
+     * @param reason 调整原因
+     */
+    void adjustStock(Long productId, Long warehouseId, Integer quantity, String reason);
+
     /**
      * 调整库存（使用DTO）
      *
@@ -61,7 +121,7 @@ public interface InventoryService extends IService<Inventory> {
     Map<String, Object> adjustInventory(Long inventoryId, InventoryAdjustDTO dto);
 
     /**
-     * 根据商品ID获取库存
+     * 根据商品ID获取默认仓库的库存
      *
      * @param productId 商品ID
      * @return 库存对象
@@ -69,7 +129,49 @@ public interface InventoryService extends IService<Inventory> {
     Inventory getByProductId(Long productId);
 
     /**
-     * 检查库存是否充足
+     * 根据商品和仓库获取库存
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @return 库存对象
+     */
+    Inventory getByProductAndWarehouse(Long productId, Long warehouseId);
+
+    /**
+     * 批量获取商品在默认仓库的可用库存（库存数量 - 预占数量）
+     *
+     * @param productIds 商品ID集合
+     * @return 商品ID -> 可用库存，无库存记录的商品不包含在内
+     */
+    Map<Long, Integer> getQuantityMap(Collection<Long> productIds);
+
+    /**
+     * 批量获取商品在指定仓库的可用库存（库存数量 - 预占数量）
+     *
+     * @param productIds 商品ID集合
+     * @param warehouseId 仓库ID
+     * @return 商品ID -> 可用库存，无库存记录的商品不包含在内
+     */
+    Map<Long, Integer> getQuantityMap(Collection<Long> productIds, Long warehouseId);
+
+    /**
+     * 获取商品跨仓库存合计
+     *
+     * @param productId 商品ID
+     * @return 各仓库存数量合计，无库存记录时为 0
+     */
+    int getTotalQuantity(Long productId);
+
+    /**
+     * 批量获取商品跨仓库存合计（一次主键 IN 查询）
+     *
+     * @param productIds 商品ID集合
+     * @return 商品ID -> 各仓库存数量合计，无库存记录的商品不包含在内
+     */
+    Map<Long, Integer> getTotalQuantityMap(Collection<Long> productIds);
+
+    /**
+     * 检查默认仓库库存是否充足
      *
      * @param productId 商品ID
      * @param quantity 需要的数量
@@ -77,24 +179,60 @@ public interface InventoryService extends IService<Inventory> {
      */
     boolean checkStock(Long productId, Integer quantity);
 
+    /**
+     * 检查指定仓库库存是否充足
+     *
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param quantity 需要的数量
+     * @return 是否充足
+     */
+    boolean checkStock(Long productId, Long warehouseId, Integer quantity);
+
+    /**
+     * 批量检查库存是否充足（一次 IN 查询，同一商品多行按合计数量检查）
+     *
+     * @param warehouseId 仓库ID（为空时为默认仓库）
+     * @param items 检查明细
+     * @return 逐商品检查结果
+     */
+    StockCheckResultVO checkStockBatch(Long warehouseId, List<StockCheckDTO.Item> items);
+
     /**
      * 分页查询库存列表
      *
      * @param productName 商品名称（可选）
      * @param categoryId 分类ID（可选）
+     * @param warehouseId 仓库ID（可选，不传查询全部仓库）
      * @param lowStock 是否只查低库存（可选）
      * @param page 页码
      * @param size 每页大小
      * @return 分页结果
      */
-    IPage<InventoryVO> page(String productName, Long categoryId, Boolean lowStock, int page, int size);
+    IPage<InventoryVO> page(String productName, Long categoryId, Long warehouseId, Boolean lowStock, int page, int size);
+
+    /**
+     * 游标分页查询库存列表（按更新时间倒序，不统计总数）
+     *
+     * @param productName 商品名称（可选）
+     * @param categoryId 分类ID（可选）
+     * @param warehouseId 仓库ID（可选，不传查询全部仓库）
+     * @param lowStock 是否只查低库存（可选）
+     * @param cursor 上一页返回的游标，为空时查询第一页
+     * @param size 每页大小
+     * @return 分页结果
+     */
+    CursorPageVO<InventoryVO> pageByCursor(String productName, Long categoryId, Long warehouseId, Boolean lowStock,
+                                           String cursor, int size);
 
     /**
-     * 获取低库存商品列表
+     * 获取低库存商品列表（按缺货数量从多到少）
      *
+     * @param warehouseId 仓库ID（可选，不传查询全部仓库）
+     * @param limit 最多返回条数（可选，不传返回全部）
      * @return 低库存商品列表
      */
-    List<InventoryVO> getLowStockList();
+    List<InventoryVO> getLowStockList(Long warehouseId, Integer limit);
 
     /**
      * 获取库存汇总统计
@@ -2,10 +2,18 @@ package com.inventory.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.inventory.component.ExportWriter;
 import com.inventory.dto.OutboundDTO;
+import com.inventory.dto.OutboundDocumentDTO;
 import com.inventory.entity.Outbound;
+import com.inventory.vo.BatchApproveResultVO;
+import com.inventory.vo.CursorPageVO;
 import com.inventory.vo.OutboundVO;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
 /**
  * 出库单服务
  *
@@ -22,6 +30,14 @@ public interface OutboundService extends IService<Outbound> {
      */
     Long create(OutboundDTO dto);
 
+    /**
+     * 创建多行出库单（表头与明细在同一事务中写入，明细一条多行 INSERT）
+     *
+     * @param dto 多行出库单数据
+     * @return 出库单ID
+     */
+    Long createDocument(OutboundDocumentDTO dto);
+
     /**
      * 更新出库单
      *
@@ -40,6 +56,19 @@ public interface OutboundService extends IService<Outbound> {
      */
     boolean approve(Long id, String approvedBy);
 
+    /**
+     * 批量审核出库单
+     * 持有有效预占的单据将预占转为扣减；其余单据按商品汇总需求量，一次查询核对可用库存，
+     * 每个商品只执行一次条件扣减
+     *
+     * @param ids          出库单ID列表
+     * @param approvedBy   审核人
+     * @param allowPartial 是否允许部分审核：false-任一商品库存不足则整批拒绝；
+     *                     true-按出库日期先后依次审核，库存用尽后的单据记为失败
+     * @return 逐单审核结果
+     */
+    BatchApproveResultVO approveBatch(List<Long> ids, String approvedBy, boolean allowPartial);
+
     /**
      * 作废出库单
      *
@@ -67,4 +96,31 @@ public interface OutboundService extends IService<Outbound> {
      * @return 分页结果
      */
     IPage<OutboundVO> page(Long productId, Integer status, String startDate, String endDate, int page, int size);
+
+    /**
+     * 游标分页查询出库单（按创建时间倒序，不统计总数）
+     *
+     * @param productId  商品ID
+     * @param status     状态
+     * @param startDate  开始日期
+     * @param endDate    结束日期
+     * @param cursor     上一页返回的游标，为空时查询第一页
+     * @param size       每页大小
+     * @return 分页结果
+     */
+    CursorPageVO<OutboundVO> pageByCursor(Long productId, Integer status, String startDate, String endDate,
+                                        String cursor, int size);
+
+    /**
+     * 按分页查询的条件导出出库单（按创建时间倒序，逐行查询、逐行写出，不整体加载）
+     *
+     * @param productId  商品ID
+     * @param status     状态
+     * @param startDate  开始日期
+     * @param endDate    结束日期
+     * @param format     导出格式
+     * @param out        输出流（由调用方关闭）
+     */
+    void exportOutbound(Long productId, Integer status, String startDate, String endDate,
+                        ExportWriter.Format format, OutputStream out) throws IOException;
 }
@@ -104,9 +104,10 @@ public interface ProductService extends IService<Product> {
     boolean canDelete(Long id);
 
     /**
-     * 获取低库存商品列表
+     * 获取低库存商品列表（任一仓库存低于预警值，按最大缺货数量从多到少）
      *
+     * @param limit 最多返回商品数（可选，不传返回全部）
      * @return 低库存商品列表
      */
-    List<ProductVO> getLowStockProducts();
+    List<ProductVO> getLowStockProducts(Integer limit);
 }
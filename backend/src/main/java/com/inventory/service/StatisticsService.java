@@ -2,6 +2,7 @@ package com.inventory.service;
 
 import com.inventory.vo.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -19,6 +20,13 @@ public interface StatisticsService {
      */
     DashboardVO getDashboard();
 
+    /**
+     * 从库存表、商品表重新计算看板汇总，修复累加偏差
+     *
+     * @return 重建后的看板数据
+     */
+    DashboardVO rebuildDashboard();
+
     /**
      * 获取出入库趋势
      *
@@ -27,6 +35,13 @@ public interface StatisticsService {
      */
     TrendVO getTrend(int days);
 
+    /**
+     * 从已审核的入库单、出库单重建某日的每日出入库汇总
+     *
+     * @param date 日期
+     */
+    void rebuildDailyMovement(LocalDate date);
+
     /**
      * 获取库存分类分布
      *
@@ -35,9 +50,18 @@ public interface StatisticsService {
     List<CategoryDistributionVO> getCategoryDistribution();
 
     /**
-     * 获取低库存列表
+     * 获取库存分类分布，按分类树逐层汇总（分类数量 = 本分类及全部子分类商品的库存）
+     *
+     * @param level 分类层级（1-3，1 为仅顶级分类）；为空时按商品直属分类统计，不向上汇总
+     * @return 分类分布数据
+     */
+    List<CategoryDistributionVO> getCategoryDistribution(Integer level);
+
+    /**
+     * 获取低库存列表（按缺货数量从多到少）
      *
+     * @param limit 最多返回条数（可选，不传返回全部）
      * @return 低库存列表
      */
-    List<LowStockVO> getLowStockList();
+    List<LowStockVO> getLowStockList(Integer limit);
 }
@@ -0,0 +1,70 @@
+package com.inventory.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.inventory.entity.StockReservation;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 库存预占服务接口
+ *
+ * 待审核出库单创建时预占库存，审核时将预占转为扣减，作废时释放，
+ * 超过有效期仍未审核的预占由后台任务批量释放。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+public interface StockReservationService extends IService<StockReservation> {
+
+    /**
+     * 为出库单预占库存
+     *
+     * @param outboundId 出库单ID
+     * @param productId 商品ID
+     * @param warehouseId 仓库ID
+     * @param quantity 预占数量
+     */
+    void reserve(Long outboundId, Long productId, Long warehouseId, Integer quantity);
+
+    /**
+     * 为多行出库单预占库存：一条语句预占全部商品，每个商品记录一条预占
+     *
+     * @param outboundId 出库单ID
+     * @param warehouseId 仓库ID
+     * @param quantities 商品ID → 预占数量
+     */
+    void reserve(Long outboundId, Long warehouseId, Map<Long, Integer> quantities);
+
+    /**
+     * 将出库单的预占转为库存扣减（多行出库单的全部预占一起扣减）
+     *
+     * @param outboundId 出库单ID
+     * @return true-已按预占扣减；false-无有效预占（已过期或历史单据），需按普通出库扣减
+     */
+    boolean confirm(Long outboundId);
+
+    /**
+     * 批量将出库单的预占转为库存扣减，每个商品只执行一次更新
+     *
+     * @param outboundIds 出库单ID集合
+     * @return 已按预占扣减的出库单ID
+     */
+    Set<Long> confirmBatch(Collection<Long> outboundIds);
+
+    /**
+     * 释放出库单的预占
+     *
+     * @param outboundId 出库单ID
+     */
+    void release(Long outboundId);
+
+    /**
+     * 释放一批已过期的预占
+     *
+     * @param limit 本批最大处理条数
+     * @return 实际释放的条数
+     */
+    int expireBatch(int limit);
+}
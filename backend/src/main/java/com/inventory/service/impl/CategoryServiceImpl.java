@@ -2,6 +2,8 @@ package com.inventory.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.inventory.component.InvalidationBus;
+import com.inventory.component.ResourceVersions.Resource;
 import com.inventory.dto.CategoryDTO;
 import com.inventory.entity.Category;
 import com.inventory.exception.BusinessException;
@@ -10,17 +12,25 @@ import com.inventory.service.CategoryService;
 import com.inventory.vo.CategoryVO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.PostConstruct;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
  * 商品分类服务实现
  *
+ * 分类树以不可变快照缓存在内存中：首次读取时构建，分类的增删改、状态切换发布失效事件，
+ * 本节点在事务提交后、其他节点在拉取到事件后递增版本号使快照失效，下一次读取重新构建并整体替换。
+ * 读取直接返回快照中的共享列表，调用方不得修改返回的 VO。
+ *
  * @author inventory-system
  * @since 2026-01-04
  */
@@ -31,6 +41,21 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryMapper, Category>
 
     private static final int MAX_LEVEL = 3;
 
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    /**
+     * 分类数据版本号，本节点写入提交后、收到其他节点的失效事件时递增
+     */
+    private final AtomicLong treeVersion = new AtomicLong();
+
+    private volatile TreeSnapshot treeSnapshot;
+
+    @PostConstruct
+    public void subscribeInvalidation() {
+        invalidationBus.subscribe(Resource.CATEGORY, categoryIds -> treeVersion.incrementAndGet());
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Long create(CategoryDTO dto) {
@@ -56,6 +81,7 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryMapper, Category>
             throw new BusinessException("分类创建失败");
         }
 
+        invalidationBus.publishAfterCommit(Resource.CATEGORY, Collections.singleton(category.getId()));
         log.info("创建分类成功，name={}, level={}, id={}", category.getName(), level, category.getId());
         return category.getId();
     }
@@ -93,6 +119,7 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryMapper, Category>
         }
 
         boolean updated = this.updateById(category);
+        invalidationBus.publishAfterCommit(Resource.CATEGORY, Collections.singleton(category.getId()));
         log.info("更新分类成功，id={}, name={}", category.getId(), category.getName());
         return updated;
     }
@@ -115,6 +142,7 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryMapper, Category>
         }
 
         boolean deleted = this.removeById(id);
+        invalidationBus.publishAfterCommit(Resource.CATEGORY, Collections.singleton(id));
         log.info("删除分类成功，id={}, name={}", id, category.getName());
         return deleted;
     }
@@ -130,14 +158,12 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryMapper, Category>
 
     @Override
     public List<CategoryVO> getTree() {
-        List<Category> allCategories = this.baseMapper.selectAllCategories();
-        return buildTree(allCategories);
+        return currentTree().getTree();
     }
 
     @Override
     public List<CategoryVO> getEnabledTree() {
-        List<Category> enabledCategories = this.baseMapper.selectEnabledCategories();
-        return buildTree(enabledCategories);
+        return currentTree().getEnabledTree();
     }
 
     @Override
@@ -197,6 +223,7 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryMapper, Category>
 
         category.setStatus(status);
         boolean updated = this.updateById(category);
+        invalidationBus.publishAfterCommit(Resource.CATEGORY, Collections.singleton(id));
         log.info("切换分类状态成功，id={}, status={}", id, status);
         return updated;
     }
@@ -283,6 +310,43 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryMapper, Category>
         return roots;
     }
 
+    /**
+     * 获取当前版本的分类树快照，版本过期时重新构建
+     */
+    private TreeSnapshot currentTree() {
+        TreeSnapshot snapshot = this.treeSnapshot;
+        if (snapshot != null && snapshot.getVersion() == treeVersion.get()) {
+            return snapshot;
+        }
+        synchronized (treeVersion) {
+            long version = treeVersion.get();
+            snapshot = this.treeSnapshot;
+            if (snapshot != null && snapshot.getVersion() == version) {
+                return snapshot;
+            }
+            // 一次查询同时构建完整树与启用树
+            List<Category> allCategories = this.baseMapper.selectAllCategories();
+            List<Category> enabledCategories = allCategories.stream()
+                    .filter(c -> Integer.valueOf(1).equals(c.getStatus()))
+                    .collect(Collectors.toList());
+            snapshot = new TreeSnapshot(version, freeze(buildTree(allCategories)), freeze(buildTree(enabledCategories)));
+            // 构建期间有写入提交时版本已变化，该快照只用于本次返回，下次读取重新构建
+            this.treeSnapshot = snapshot;
+            log.debug("分类树快照已重建，version={}, categories={}", version, allCategories.size());
+            return snapshot;
+        }
+    }
+
+    /**
+     * 递归将子分类列表替换为只读列表
+     */
+    private List<CategoryVO> freeze(List<CategoryVO> nodes) {
+        for (CategoryVO node : nodes) {
+            node.setChildren(freeze(node.getChildren()));
+        }
+        return Collections.unmodifiableList(nodes);
+    }
+
     /**
      * 递归设置子分类
      */
@@ -295,4 +359,32 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryMapper, Category>
             }
         }
     }
+
+    /**
+     * 分类树快照（不可变）
+     */
+    private static final class TreeSnapshot {
+
+        private final long version;
+        private final List<CategoryVO> tree;
+        private final List<CategoryVO> enabledTree;
+
+        private TreeSnapshot(long version, List<CategoryVO> tree, List<CategoryVO> enabledTree) {
+            this.version = version;
+            this.tree = tree;
+            this.enabledTree = enabledTree;
+        }
+
+        private long getVersion() {
+            return version;
+        }
+
+        private List<CategoryVO> getTree() {
+            return tree;
+        }
+
+        private List<CategoryVO> getEnabledTree() {
+            return enabledTree;
+        }
+    }
 }
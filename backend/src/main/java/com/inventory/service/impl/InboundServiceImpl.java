@@ -4,25 +4,54 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.inventory.component.InboundImportParser;
+import com.inventory.component.ExportWriter;
+import com.inventory.component.ExportWriter.Column;
+import com.inventory.component.OrderNoGenerator;
+import com.inventory.component.OrderNoGenerator.OrderType;
+import com.inventory.component.ReferenceDataCache;
+import com.inventory.component.ReferenceDataCache.ProductRef;
+import com.inventory.config.MybatisPlusConfig;
 import com.inventory.dto.InboundDTO;
+import com.inventory.dto.InboundDocumentDTO;
+import com.inventory.dto.PageCursor;
 import com.inventory.entity.Inbound;
-import com.inventory.entity.InboundSequence;
+import com.inventory.entity.InboundLine;
+import com.inventory.entity.Inventory;
 import com.inventory.entity.Product;
 import com.inventory.exception.BusinessException;
+import com.inventory.mapper.DailyMovementMapper;
+import com.inventory.mapper.InboundLineMapper;
 import com.inventory.mapper.InboundMapper;
-import com.inventory.mapper.InboundSequenceMapper;
 import com.inventory.mapper.ProductMapper;
 import com.inventory.service.InboundService;
 import com.inventory.service.InventoryService;
+import com.inventory.vo.BatchApproveItemVO;
+import com.inventory.vo.BatchApproveResultVO;
+import com.inventory.vo.CursorPageVO;
+import com.inventory.vo.DocumentLineVO;
+import com.inventory.vo.ImportErrorVO;
+import com.inventory.vo.ImportResultVO;
 import com.inventory.vo.InboundVO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 入库单服务实现
@@ -35,15 +64,65 @@ import java.time.format.DateTimeFormatter;
 public class InboundServiceImpl extends ServiceImpl<InboundMapper, Inbound> implements InboundService {
 
     @Autowired
-    private InboundSequenceMapper sequenceMapper;
+    private OrderNoGenerator orderNoGenerator;
+
+    @Autowired
+    private InboundLineMapper inboundLineMapper;
 
     @Autowired
     private ProductMapper productMapper;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     @Autowired
     private InventoryService inventoryService;
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+    @Autowired
+    private DailyMovementMapper dailyMovementMapper;
+
+    @Autowired
+    private ExportWriter exportWriter;
+
+    /**
+     * 导出 CSV 的列
+     */
+    private static final List<Column<InboundVO>> EXPORT_COLUMNS = Arrays.asList(
+            Column.of("id", InboundVO::getId),
+            Column.of("inboundNo", InboundVO::getInboundNo),
+            Column.of("productId", InboundVO::getProductId),
+            Column.of("productSku", InboundVO::getProductSku),
+            Column.of("productName", InboundVO::getProductName),
+            Column.of("warehouseId", InboundVO::getWarehouseId),
+            Column.of("quantity", InboundVO::getQuantity),
+            Column.of("lineCount", InboundVO::getLineCount),
+            Column.of("supplier", InboundVO::getSupplier),
+            Column.of("inboundDate", InboundVO::getInboundDate),
+            Column.of("status", InboundVO::getStatus),
+            Column.of("statusDesc", InboundVO::getStatusDesc),
+            Column.of("remark", InboundVO::getRemark),
+            Column.of("createdBy", InboundVO::getCreatedBy),
+            Column.of("createdAt", InboundVO::getCreatedAt),
+            Column.of("approvedBy", InboundVO::getApprovedBy),
+            Column.of("approvedAt", InboundVO::getApprovedAt));
+
+    @Autowired
+    private InboundImportParser inboundImportParser;
+
+    @Autowired
+    private Validator validator;
+
+    /**
+     * 导入时每批写入的行数（一条多行 INSERT、一次单号预留）
+     */
+    @Value("${inventory.inbound-import.batch-size:1000}")
+    private int importBatchSize = 1000;
+
+    /**
+     * 导入结果最多返回的错误明细条数
+     */
+    @Value("${inventory.inbound-import.max-errors:1000}")
+    private int importMaxErrors = 1000;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -58,19 +137,20 @@ public class InboundServiceImpl extends ServiceImpl<InboundMapper, Inbound> impl
         }
 
         // 2. 生成入库单号
-        String inboundNo = generateInboundNo();
+        String inboundNo = orderNoGenerator.next(OrderType.INBOUND);
 
         // 3. 创建入库单
         Inbound inbound = new Inbound();
         inbound.setInboundNo(inboundNo);
         inbound.setProductId(dto.getProductId());
+        inbound.setWarehouseId(dto.getWarehouseId() != null ? dto.getWarehouseId() : Inventory.DEFAULT_WAREHOUSE_ID);
         inbound.setQuantity(dto.getQuantity());
         inbound.setSupplier(dto.getSupplier());
         inbound.setInboundDate(dto.getInboundDate());
         inbound.setStatus(Inbound.STATUS_PENDING);
         inbound.setRemark(dto.getRemark());
         inbound.setCreatedAt(LocalDateTime.now());
-        inbound.setCreatedBy("system"); // TODO: 从当前登录用户获取
+        inbound.setCreatedBy(Operators.current());
 
         this.save(inbound);
         log.info("创建入库单成功，id={}, inboundNo={}", inbound.getId(), inbound.getInboundNo());
@@ -78,6 +158,105 @@ public class InboundServiceImpl extends ServiceImpl<InboundMapper, Inbound> impl
         return inbound.getId();
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Long createDocument(InboundDocumentDTO dto) {
+        List<InboundDocumentDTO.Line> lines = dto.getLines();
+        if (lines == null || lines.isEmpty()) {
+            throw new BusinessException("入库明细不能为空");
+        }
+
+        // 1. 同一商品只能出现一行，审核时每个商品对应一条库存变动
+        Set<Long> productIds = new HashSet<>();
+        for (InboundDocumentDTO.Line line : lines) {
+            if (!productIds.add(line.getProductId())) {
+                throw new BusinessException("同一商品只能出现一行，商品ID：" + line.getProductId());
+            }
+        }
+
+        // 2. 一次 IN 查询验证商品存在且启用
+        Map<Long, Product> products = productMapper.selectBatchIds(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (InboundDocumentDTO.Line line : lines) {
+            Product product = products.get(line.getProductId());
+            if (product == null) {
+                throw new BusinessException("商品不存在，商品ID：" + line.getProductId());
+            }
+            if (!product.isEnabled()) {
+                throw new BusinessException("商品已禁用，无法创建入库单，商品ID：" + line.getProductId());
+            }
+        }
+
+        // 3. 创建表头：商品为首行商品，数量为各行合计
+        Inbound inbound = new Inbound();
+        inbound.setInboundNo(orderNoGenerator.next(OrderType.INBOUND));
+        inbound.setProductId(lines.get(0).getProductId());
+        inbound.setWarehouseId(dto.getWarehouseId() != null ? dto.getWarehouseId() : Inventory.DEFAULT_WAREHOUSE_ID);
+        inbound.setQuantity(lines.stream().mapToInt(InboundDocumentDTO.Line::getQuantity).sum());
+        inbound.setLineCount(lines.size());
+        inbound.setSupplier(dto.getSupplier());
+        inbound.setInboundDate(dto.getInboundDate());
+        inbound.setStatus(Inbound.STATUS_PENDING);
+        inbound.setRemark(dto.getRemark());
+        inbound.setCreatedAt(LocalDateTime.now());
+        inbound.setCreatedBy(Operators.current());
+        this.save(inbound);
+
+        // 4. 明细一条多行 INSERT 写入（单行入库单的商品和数量即表头，不写明细）
+        if (inbound.isMultiLine()) {
+            List<InboundLine> rows = new ArrayList<>(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                InboundLine row = new InboundLine();
+                row.setInboundId(inbound.getId());
+                row.setLineNo(i + 1);
+                row.setProductId(lines.get(i).getProductId());
+                row.setQuantity(lines.get(i).getQuantity());
+                row.setCreatedAt(inbound.getCreatedAt());
+                rows.add(row);
+            }
+            inboundLineMapper.insertBatch(rows);
+        }
+
+        log.info("创建入库单成功，id={}, inboundNo={}, 行数={}", inbound.getId(), inbound.getInboundNo(), lines.size());
+        return inbound.getId();
+    }
+
+    @Override
+    public ImportResultVO importInbound(InputStream input, String format) {
+        // 1. 预加载商品状态，逐行校验不再查库
+        Map<Long, Boolean> productEnabled = loadProductEnabled();
+
+        // 2. 逐行解析、校验，校验通过的行攒满一批后写入（每批独立提交）
+        ImportResultVO result = new ImportResultVO();
+        List<Inbound> batch = new ArrayList<>(importBatchSize);
+        List<Integer> batchLines = new ArrayList<>(importBatchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            InboundImportParser.Cursor cursor = inboundImportParser.open(reader, format);
+            for (InboundImportParser.Line line = cursor.next(); line != null; line = cursor.next()) {
+                String error = line.getError() != null ? line.getError() : validateImport(line.getDto(), productEnabled);
+                if (error != null) {
+                    result.addError(line.getLineNo(), error, importMaxErrors);
+                    continue;
+                }
+                batch.add(toInbound(line.getDto()));
+                batchLines.add(line.getLineNo());
+                if (batch.size() >= importBatchSize) {
+                    flushImport(batch, batchLines, result);
+                }
+            }
+            flushImport(batch, batchLines, result);
+        } catch (IOException e) {
+            // 已写入的批次不回滚，告知已写入行数，以便从中断处重新导入
+            log.error("读取入库单导入文件失败，已写入={}", result.getSuccessCount(), e);
+            throw new BusinessException("读取导入文件失败，已成功导入" + result.getSuccessCount() + "行");
+        }
+
+        result.getErrors().sort(Comparator.comparing(ImportErrorVO::getLine));
+        log.info("导入入库单完成，总行数={}, 成功={}, 失败={}",
+                result.getTotalCount(), result.getSuccessCount(), result.getFailCount());
+        return result;
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean update(Long id, InboundDTO dto) {
@@ -87,10 +266,13 @@ public class InboundServiceImpl extends ServiceImpl<InboundMapper, Inbound> impl
             throw new BusinessException("入库单不存在");
         }
 
-        // 2. 只有待审核状态可以修改
+        // 2. 只有待审核状态可以修改，多行入库单不能按单行修改
         if (!inbound.isPending()) {
             throw new BusinessException("只有待审核状态的入库单可以修改");
         }
+        if (inbound.isMultiLine()) {
+            throw new BusinessException("多行入库单不能按单行修改，请作废后重新创建");
+        }
 
         // 3. 验证商品存在且启用
         Product product = productMapper.selectById(dto.getProductId());
@@ -103,6 +285,7 @@ public class InboundServiceImpl extends ServiceImpl<InboundMapper, Inbound> impl
 
         // 4. 更新入库单
         inbound.setProductId(dto.getProductId());
+        inbound.setWarehouseId(dto.getWarehouseId() != null ? dto.getWarehouseId() : Inventory.DEFAULT_WAREHOUSE_ID);
         inbound.setQuantity(dto.getQuantity());
         inbound.setSupplier(dto.getSupplier());
         inbound.setInboundDate(dto.getInboundDate());
@@ -135,13 +318,90 @@ public class InboundServiceImpl extends ServiceImpl<InboundMapper, Inbound> impl
         inbound.setUpdatedAt(LocalDateTime.now());
         this.updateById(inbound);
 
-        // 4. 增加库存
-        inventoryService.addStock(inbound.getProductId(), inbound.getQuantity());
+        // 4. 增加库存：多行入库单按商品ID顺序一条语句增加全部明细（固定加锁顺序，避免死锁）
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (InboundLine line : getLines(Collections.singletonList(inbound)).get(inbound.getId())) {
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        if (inbound.isMultiLine()) {
+            inventoryService.addStockBatch(inbound.getWarehouseId(), quantities);
+        } else {
+            inventoryService.addStock(inbound.getProductId(), inbound.getWarehouseId(), inbound.getQuantity());
+        }
+
+        // 5. 累加每日出入库汇总
+        LocalDate date = inbound.getInboundDate().toLocalDate();
+        quantities.forEach((productId, quantity) -> dailyMovementMapper.addInbound(date, productId, quantity));
 
         log.info("审核入库单成功，id={}, inboundNo={}, quantity={}", id, inbound.getInboundNo(), inbound.getQuantity());
         return true;
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public BatchApproveResultVO approveBatch(List<Long> ids, String approvedBy) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BusinessException("入库单ID列表不能为空");
+        }
+        List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+
+        // 1. 一次 IN 查询加载全部入库单
+        Map<Long, Inbound> inboundMap = this.listByIds(distinctIds).stream()
+                .collect(Collectors.toMap(Inbound::getId, Function.identity()));
+
+        // 2. 校验状态，不存在或非待审核的单据记为失败
+        Map<Long, BatchApproveItemVO> items = new LinkedHashMap<>();
+        List<Inbound> approvable = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Inbound inbound = inboundMap.get(id);
+            if (inbound == null) {
+                items.put(id, BatchApproveItemVO.failure(id, null, "入库单不存在"));
+            } else if (!inbound.isPending()) {
+                items.put(id, BatchApproveItemVO.failure(id, inbound.getInboundNo(), "只有待审核状态的入库单可以审核"));
+            } else {
+                items.put(id, null);
+                approvable.add(inbound);
+            }
+        }
+
+        if (!approvable.isEmpty()) {
+            // 3. 一条 UPDATE 批量更新状态（带状态条件，并发变更时整体回滚）
+            List<Long> approvableIds = approvable.stream().map(Inbound::getId).collect(Collectors.toList());
+            int rows = this.baseMapper.approveBatch(approvableIds, approvedBy, LocalDateTime.now());
+            if (rows != approvableIds.size()) {
+                throw new BusinessException("部分入库单状态已变更，请刷新后重试");
+            }
+
+            // 4. 按仓库、商品汇总全部明细的入库数量，每个仓库一条语句按商品ID顺序增加库存（固定加锁顺序，避免死锁）
+            Map<Long, List<InboundLine>> lines = getLines(approvable);
+            Map<Long, Map<Long, Integer>> deltas = new TreeMap<>();
+            Map<LocalDate, Map<Long, Integer>> movements = new TreeMap<>();
+            for (Inbound inbound : approvable) {
+                for (InboundLine line : lines.get(inbound.getId())) {
+                    deltas.computeIfAbsent(inbound.getWarehouseId(), k -> new TreeMap<>())
+                            .merge(line.getProductId(), line.getQuantity(), Integer::sum);
+                    movements.computeIfAbsent(inbound.getInboundDate().toLocalDate(), k -> new TreeMap<>())
+                            .merge(line.getProductId(), line.getQuantity(), Integer::sum);
+                }
+            }
+            deltas.forEach(inventoryService::addStockBatch);
+
+            // 5. 按日期、商品汇总后累加每日出入库汇总（同样按固定顺序）
+            movements.forEach((date, products) -> products.forEach(
+                    (productId, quantity) -> dailyMovementMapper.addInbound(date, productId, quantity)));
+
+            for (Inbound inbound : approvable) {
+                items.put(inbound.getId(), BatchApproveItemVO.success(inbound.getId(), inbound.getInboundNo()));
+            }
+        }
+
+        BatchApproveResultVO result = new BatchApproveResultVO();
+        items.values().forEach(result::addItem);
+
+        log.info("批量审核入库单完成，成功={}, 失败={}", result.getSuccessCount(), result.getFailCount());
+        return result;
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void voidInbound(Long id) {
@@ -171,26 +431,27 @@ public class InboundServiceImpl extends ServiceImpl<InboundMapper, Inbound> impl
             throw new BusinessException("入库单不存在");
         }
 
-        InboundVO vo = InboundVO.fromEntity(inbound);
-
-        // 查询商品信息
-        Product product = productMapper.selectById(inbound.getProductId());
-        if (product != null) {
-            vo.setProductName(product.getName());
-            vo.setProductSku(product.getSku());
-        }
-
+        // 详情带出明细，商品信息随明细一起从引用缓存批量获取
+        List<InboundLine> lines = getLines(Collections.singletonList(inbound)).get(inbound.getId());
+        Map<Long, ProductRef> products = referenceDataCache.getProducts(
+                lines.stream().map(InboundLine::getProductId).collect(Collectors.toList()));
+        InboundVO vo = toVO(inbound, products);
+        vo.setLines(lines.stream().map(line -> {
+            DocumentLineVO lineVO = DocumentLineVO.of(line.getLineNo(), line.getProductId(), line.getQuantity());
+            ProductRef product = products.get(line.getProductId());
+            if (product != null) {
+                lineVO.setProductName(product.getName());
+                lineVO.setProductSku(product.getSku());
+            }
+            return lineVO;
+        }).collect(Collectors.toList()));
         return vo;
     }
 
     @Override
     public IPage<InboundVO> page(Long productId, Integer status, String startDate, String endDate, int page, int size) {
         // 构建查询条件
-        LambdaQueryWrapper<Inbound> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(productId != null, Inbound::getProductId, productId)
-                .eq(status != null, Inbound::getStatus, status)
-                .ge(startDate != null, Inbound::getInboundDate, startDate)
-                .le(endDate != null, Inbound::getInboundDate, endDate)
+        LambdaQueryWrapper<Inbound> wrapper = buildQueryWrapper(productId, status, startDate, endDate)
                 .orderByDesc(Inbound::getCreatedAt);
 
         // 分页查询
@@ -198,49 +459,181 @@ public class InboundServiceImpl extends ServiceImpl<InboundMapper, Inbound> impl
         IPage<Inbound> pageResult = this.page(pageParam, wrapper);
 
         // 转换为VO
-        Page<InboundVO> voPage = new Page<>(page, size, pageResult.getTotal());
-        voPage.setRecords(pageResult.getRecords().stream().map(inbound -> {
-            InboundVO vo = InboundVO.fromEntity(inbound);
-            Product product = productMapper.selectById(inbound.getProductId());
-            if (product != null) {
-                vo.setProductName(product.getName());
-                vo.setProductSku(product.getSku());
-            }
-            return vo;
-        }).toList());
+        Page<InboundVO> voPage = new Page<>(page, pageResult.getSize(), pageResult.getTotal());
+        voPage.setRecords(toVOList(pageResult.getRecords()));
 
         return voPage;
     }
 
+    @Override
+    public CursorPageVO<InboundVO> pageByCursor(Long productId, Integer status, String startDate, String endDate,
+                                               String cursor, int size) {
+        if (size <= 0) {
+            throw new BusinessException("每页大小必须大于0");
+        }
+        // 与偏移分页相同的上限，避免一次读取过多行
+        size = Math.min(size, MybatisPlusConfig.MAX_PAGE_SIZE);
+        LambdaQueryWrapper<Inbound> wrapper = buildQueryWrapper(productId, status, startDate, endDate);
+
+        // 从上一页最后一行 (created_at, id) 之后继续，按 idx_inbound_created 范围扫描
+        PageCursor position = PageCursor.decode(cursor);
+        if (position != null) {
+            wrapper.and(w -> w.lt(Inbound::getCreatedAt, position.getTime())
+                    .or(o -> o.eq(Inbound::getCreatedAt, position.getTime()).lt(Inbound::getId, position.getId())));
+        }
+        // 多取一行判断是否有下一页，不执行 COUNT
+        wrapper.orderByDesc(Inbound::getCreatedAt).orderByDesc(Inbound::getId)
+                .last("LIMIT " + (size + 1));
+
+        List<Inbound> rows = this.list(wrapper);
+        Map<Long, ProductRef> products = getProductRefs(rows);
+        return CursorPageVO.of(rows, size, row -> toVO(row, products),
+                inbound -> PageCursor.encode(inbound.getCreatedAt(), inbound.getId()));
+    }
+
+    @Override
+    public void exportInbound(Long productId, Integer status, String startDate, String endDate,
+                              ExportWriter.Format format, OutputStream out) throws IOException {
+        ExportWriter.Sink<InboundVO> sink = exportWriter.open(out, format, EXPORT_COLUMNS);
+        // 逐行回调写出，商品名称、SKU 已在 SQL 中关联，不逐行查询商品
+        this.baseMapper.exportInbound(productId, status, startDate, endDate, context -> sink.write(context.getResultObject()));
+        long rows = sink.finish();
+        log.info("导出入库单完成，productId={}, status={}, startDate={}, endDate={}, format={}, rows={}",
+                productId, status, startDate, endDate, format, rows);
+    }
+
+    private LambdaQueryWrapper<Inbound> buildQueryWrapper(Long productId, Integer status, String startDate, String endDate) {
+        LambdaQueryWrapper<Inbound> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(productId != null, Inbound::getProductId, productId)
+                .eq(status != null, Inbound::getStatus, status)
+                .ge(startDate != null, Inbound::getInboundDate, startDate)
+                .le(endDate != null, Inbound::getInboundDate, endDate);
+        return wrapper;
+    }
+
+    private List<InboundVO> toVOList(List<Inbound> rows) {
+        Map<Long, ProductRef> products = getProductRefs(rows);
+        return rows.stream().map(row -> toVO(row, products)).collect(Collectors.toList());
+    }
+
     /**
-     * 生成入库单号
-     * 格式：IN + yyyyMMdd + 4位序号
+     * 一批单据涉及的商品信息，从引用缓存批量获取
      */
-    private String generateInboundNo() {
-        LocalDate today = LocalDate.now();
-        String dateStr = today.format(DATE_FORMATTER);
-
-        // 查询今天的序号
-        InboundSequence sequence = sequenceMapper.selectById(today);
-        int seqValue;
-        if (sequence == null) {
-            // 今天第一次创建，从1开始
-            seqValue = 1;
-            sequence = new InboundSequence();
-            sequence.setSeqDate(today);
-            sequence.setSeqValue(seqValue);
-            sequenceMapper.insert(sequence);
-        } else {
-            // 递增序号
-            seqValue = sequence.getSeqValue() + 1;
-            if (seqValue > 9999) {
-                throw new BusinessException("今日入库单数量已达上限");
+    private Map<Long, ProductRef> getProductRefs(List<Inbound> rows) {
+        return referenceDataCache.getProducts(rows.stream().map(Inbound::getProductId).collect(Collectors.toList()));
+    }
+
+    private InboundVO toVO(Inbound inbound, Map<Long, ProductRef> products) {
+        InboundVO vo = InboundVO.fromEntity(inbound);
+        ProductRef product = products.get(inbound.getProductId());
+        if (product != null) {
+            vo.setProductName(product.getName());
+            vo.setProductSku(product.getSku());
+        }
+        return vo;
+    }
+
+    /**
+     * 一批入库单的明细：多行入库单一次 IN 查询明细表，单行入库单的明细即表头商品和数量
+     *
+     * @return 入库单ID → 明细（按行号排序）
+     */
+    private Map<Long, List<InboundLine>> getLines(List<Inbound> inbounds) {
+        List<Long> multiLineIds = inbounds.stream().filter(Inbound::isMultiLine).map(Inbound::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<InboundLine>> lines = multiLineIds.isEmpty()
+                ? new HashMap<>()
+                : inboundLineMapper.selectByInboundIds(multiLineIds).stream()
+                        .collect(Collectors.groupingBy(InboundLine::getInboundId));
+        for (Inbound inbound : inbounds) {
+            if (!inbound.isMultiLine()) {
+                InboundLine line = new InboundLine();
+                line.setInboundId(inbound.getId());
+                line.setLineNo(1);
+                line.setProductId(inbound.getProductId());
+                line.setQuantity(inbound.getQuantity());
+                lines.put(inbound.getId(), Collections.singletonList(line));
+            } else if (!lines.containsKey(inbound.getId())) {
+                throw new BusinessException("入库单明细不存在，inboundNo=" + inbound.getInboundNo());
             }
-            sequence.setSeqValue(seqValue);
-            sequenceMapper.updateById(sequence);
         }
+        return lines;
+    }
 
-        // 生成单号：IN + yyyyMMdd + 4位序号
-        return String.format("IN%s%04d", dateStr, seqValue);
+    /**
+     * 按批扫描商品状态：商品ID → 是否启用
+     */
+    private Map<Long, Boolean> loadProductEnabled() {
+        Map<Long, Boolean> productEnabled = new HashMap<>();
+        long afterId = 0L;
+        while (true) {
+            List<Product> products = productMapper.selectStatusBatch(afterId, 5000);
+            if (products.isEmpty()) {
+                return productEnabled;
+            }
+            for (Product product : products) {
+                productEnabled.put(product.getId(), product.isEnabled());
+            }
+            afterId = products.get(products.size() - 1).getId();
+        }
+    }
+
+    /**
+     * 校验导入行，规则与创建入库单相同
+     *
+     * @return 错误说明，校验通过时返回 null
+     */
+    private String validateImport(InboundDTO dto, Map<Long, Boolean> productEnabled) {
+        Set<ConstraintViolation<InboundDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("；"));
+        }
+        Boolean enabled = productEnabled.get(dto.getProductId());
+        if (enabled == null) {
+            return "商品不存在";
+        }
+        if (!enabled) {
+            return "商品已禁用，无法创建入库单";
+        }
+        return null;
+    }
+
+    private Inbound toInbound(InboundDTO dto) {
+        Inbound inbound = new Inbound();
+        inbound.setProductId(dto.getProductId());
+        inbound.setWarehouseId(dto.getWarehouseId() != null ? dto.getWarehouseId() : Inventory.DEFAULT_WAREHOUSE_ID);
+        inbound.setQuantity(dto.getQuantity());
+        inbound.setSupplier(dto.getSupplier());
+        inbound.setInboundDate(dto.getInboundDate());
+        inbound.setStatus(Inbound.STATUS_PENDING);
+        inbound.setRemark(dto.getRemark());
+        inbound.setCreatedAt(LocalDateTime.now());
+        inbound.setCreatedBy(Operators.current());
+        return inbound;
+    }
+
+    /**
+     * 为一批导入行预留单号并写入；写入失败时整批记为失败
+     */
+    private void flushImport(List<Inbound> batch, List<Integer> batchLines, ImportResultVO result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<String> orderNos = orderNoGenerator.reserve(OrderType.INBOUND, batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setInboundNo(orderNos.get(i));
+            }
+            this.baseMapper.insertBatch(batch);
+            result.addSuccess(batch.size());
+        } catch (RuntimeException e) {
+            log.error("导入入库单写入失败，行号={}~{}", batchLines.get(0), batchLines.get(batchLines.size() - 1), e);
+            String message = e instanceof BusinessException ? e.getMessage() : "写入失败";
+            for (Integer line : batchLines) {
+                result.addError(line, message, importMaxErrors);
+            }
+        }
+        batch.clear();
+        batchLines.clear();
     }
 }
@@ -0,0 +1,156 @@
+package com.inventory.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.inventory.component.InvalidationBus;
+import com.inventory.component.ResourceVersions.Resource;
+import com.inventory.component.StockView;
+import com.inventory.entity.DashboardStats;
+import com.inventory.entity.Inventory;
+import com.inventory.entity.InventorySnapshot;
+import com.inventory.entity.InventoryTxn;
+import com.inventory.mapper.DashboardStatsMapper;
+import com.inventory.mapper.InventoryMapper;
+import com.inventory.mapper.InventorySnapshotMapper;
+import com.inventory.mapper.InventoryTotalMapper;
+import com.inventory.mapper.InventoryTxnMapper;
+import com.inventory.service.InventoryLedgerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 库存流水服务实现
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Slf4j
+@Service
+public class InventoryLedgerServiceImpl extends ServiceImpl<InventoryTxnMapper, InventoryTxn>
+        implements InventoryLedgerService {
+
+    @Autowired
+    private InventorySnapshotMapper snapshotMapper;
+
+    @Autowired
+    private InventoryMapper inventoryMapper;
+
+    @Autowired
+    private InventoryTotalMapper inventoryTotalMapper;
+
+    @Autowired
+    private StockView stockView;
+
+    @Autowired
+    private DashboardStatsMapper dashboardStatsMapper;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Override
+    public void record(Long productId, Long warehouseId, int changeType, int delta, String reason) {
+        if (delta == 0) {
+            return;
+        }
+        insertTxn(productId, warehouseId, changeType, delta, reason, null);
+        applyTotals(productId, warehouseId, delta);
+    }
+
+    @Override
+    public void recordCoalesced(Long productId, Long warehouseId, int changeType, int delta, String reason,
+                                Long batchId) {
+        insertTxn(productId, warehouseId, changeType, delta, reason, batchId);
+    }
+
+    @Override
+    public void applyTotals(Long productId, Long warehouseId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        // 跨仓合计随流水在同一事务中累加，查询商品总库存无需按仓库汇总
+        inventoryTotalMapper.addQuantity(productId, delta);
+        dashboardStatsMapper.applyStockDelta(DashboardStats.slotOf(productId), productId, warehouseId, delta);
+        stockView.applyAfterCommit(productId, warehouseId, delta, 0);
+        invalidationBus.publishAfterCommit(Resource.INVENTORY, Collections.singleton(productId));
+    }
+
+    @Override
+    public int sumBatchDelta(Long batchId) {
+        return this.baseMapper.sumDeltaByBatch(batchId);
+    }
+
+    @Override
+    public Integer getQuantityAsOf(Long productId, Long warehouseId, LocalDateTime time) {
+        // 1. 最近一份快照 + 快照之后到目标时间的流水
+        InventorySnapshot snapshot = snapshotMapper.selectLatestBefore(productId, warehouseId, time);
+        if (snapshot != null) {
+            return snapshot.getQuantity()
+                    + this.baseMapper.sumDelta(productId, warehouseId, snapshot.getSnapshotAt(), time);
+        }
+
+        // 2. 尚无快照：当前库存倒推目标时间之后的流水
+        Inventory inventory = inventoryMapper.selectByProductAndWarehouse(productId, warehouseId);
+        if (inventory == null) {
+            return null;
+        }
+        return inventory.getQuantity() - this.baseMapper.sumDelta(productId, warehouseId, time, null);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Long snapshotBatch(Long afterInventoryId, int limit, LocalDateTime cutoff) {
+        List<Inventory> inventories = inventoryMapper.selectList(new LambdaQueryWrapper<Inventory>()
+                .gt(Inventory::getId, afterInventoryId)
+                .orderByAsc(Inventory::getId)
+                .last("LIMIT " + limit));
+        if (inventories.isEmpty()) {
+            return null;
+        }
+
+        int created = 0;
+        for (Inventory inventory : inventories) {
+            Long productId = inventory.getProductId();
+            Long warehouseId = inventory.getWarehouseId();
+            InventorySnapshot previous = snapshotMapper.selectLatestBefore(productId, warehouseId, cutoff);
+            if (previous != null && !previous.getSnapshotAt().isBefore(cutoff)) {
+                continue; // 重复执行时跳过已生成的快照
+            }
+
+            // 有上一份快照时只累加两次快照之间的流水；首次快照由当前库存倒推
+            // （同一事务内的一致性读保证库存与流水对应同一时刻）
+            int quantity = previous != null
+                    ? previous.getQuantity() + this.baseMapper.sumDelta(productId, warehouseId, previous.getSnapshotAt(), cutoff)
+                    : inventory.getQuantity() - this.baseMapper.sumDelta(productId, warehouseId, cutoff, null);
+
+            InventorySnapshot snapshot = new InventorySnapshot();
+            snapshot.setProductId(productId);
+            snapshot.setWarehouseId(warehouseId);
+            snapshot.setQuantity(quantity);
+            snapshot.setSnapshotAt(cutoff);
+            snapshot.setCreatedAt(LocalDateTime.now());
+            snapshotMapper.insert(snapshot);
+            created++;
+        }
+
+        log.info("生成库存快照，cutoff={}, 本批={}, 新建={}", cutoff, inventories.size(), created);
+        return inventories.get(inventories.size() - 1).getId();
+    }
+
+    private void insertTxn(Long productId, Long warehouseId, int changeType, int delta, String reason, Long batchId) {
+        InventoryTxn txn = new InventoryTxn();
+        txn.setProductId(productId);
+        txn.setWarehouseId(warehouseId);
+        txn.setChangeType(changeType);
+        txn.setDelta(delta);
+        txn.setReason(reason);
+        txn.setBatchId(batchId);
+        txn.setCreatedAt(LocalDateTime.now());
+        this.baseMapper.insert(txn);
+    }
+}
@@ -4,23 +4,45 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.inventory.component.InvalidationBus;
+import com.inventory.component.ReferenceDataCache;
+import com.inventory.component.ReferenceDataCache.CategoryRef;
+import com.inventory.component.ReferenceDataCache.ProductRef;
+import com.inventory.component.ResourceVersions.Resource;
+import com.inventory.component.StockView;
+import com.inventory.component.StockWriteCoalescer;
+import com.inventory.config.MybatisPlusConfig;
 import com.inventory.dto.InventoryAdjustDTO;
-import com.inventory.entity.Category;
+import com.inventory.dto.PageCursor;
+import com.inventory.dto.StockCheckDTO;
+import com.inventory.entity.DashboardStats;
 import com.inventory.entity.Inventory;
-import com.inventory.entity.Product;
+import com.inventory.entity.InventoryTotal;
+import com.inventory.entity.InventoryTxn;
 import com.inventory.exception.BusinessException;
+import com.inventory.mapper.DashboardStatsMapper;
 import com.inventory.mapper.InventoryMapper;
+import com.inventory.mapper.InventoryTotalMapper;
 import com.inventory.service.*;
+import com.inventory.vo.CursorPageVO;
 import com.inventory.vo.InventoryVO;
+import com.inventory.vo.StockCheckResultVO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -35,124 +57,261 @@ public class InventoryServiceImpl extends ServiceImpl<InventoryMapper, Inventory
         implements InventoryService {
 
     private final ProductService productService;
-    private final CategoryService categoryService;
-
-    private static final Long DEFAULT_WAREHOUSE_ID = 1L;
+    private final StockWriteCoalescer stockWriteCoalescer;
+    private final InventoryLedgerService inventoryLedgerService;
+    private final InventoryTotalMapper inventoryTotalMapper;
+    private final ReferenceDataCache referenceDataCache;
+    private final StockView stockView;
+    private final DashboardStatsMapper dashboardStatsMapper;
+    private final InvalidationBus invalidationBus;
 
     public InventoryServiceImpl(
             ProductService productService,
-            CategoryService categoryService) {
+            StockWriteCoalescer stockWriteCoalescer,
+            InventoryLedgerService inventoryLedgerService,
+            InventoryTotalMapper inventoryTotalMapper,
+            ReferenceDataCache referenceDataCache,
+            StockView stockView,
+            DashboardStatsMapper dashboardStatsMapper,
+            InvalidationBus invalidationBus) {
         this.productService = productService;
-        this.categoryService = categoryService;
+        this.stockWriteCoalescer = stockWriteCoalescer;
+        this.inventoryLedgerService = inventoryLedgerService;
+        this.inventoryTotalMapper = inventoryTotalMapper;
+        this.referenceDataCache = referenceDataCache;
+        this.stockView = stockView;
+        this.dashboardStatsMapper = dashboardStatsMapper;
+        this.invalidationBus = invalidationBus;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void initInventory(Long productId, Integer quantity) {
+        initInventory(productId, Inventory.DEFAULT_WAREHOUSE_ID, quantity);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void initInventory(Long productId, Long warehouseId, Integer quantity) {
         // 检查是否已存在
-        int count = this.baseMapper.countByProductAndWarehouse(productId, DEFAULT_WAREHOUSE_ID);
+        int count = this.baseMapper.countByProductAndWarehouse(productId, warehouseId);
         if (count > 0) {
             throw new BusinessException("库存记录已存在");
         }
 
         Inventory inventory = new Inventory();
         inventory.setProductId(productId);
-        inventory.setWarehouseId(DEFAULT_WAREHOUSE_ID);
+        inventory.setWarehouseId(warehouseId);
         inventory.setQuantity(quantity != null ? quantity : 0);
+        inventory.setReservedQuantity(0);
         inventory.setWarningStock(10); // 默认预警值
 
         this.save(inventory);
-        log.info("初始化库存成功，productId={}, quantity={}", productId, quantity);
+        inventoryLedgerService.record(productId, warehouseId, InventoryTxn.TYPE_ADJUST,
+                inventory.getQuantity(), "初始化库存");
+        // 流水按"变动前数量为 0"累加低库存数（0 <= 预警值即为低库存），新记录变动前并不存在，这里补回
+        if (inventory.getWarningStock() >= 0) {
+            dashboardStatsMapper.addLowStock(DashboardStats.slotOf(productId), 1);
+        }
+        stockView.putAfterCommit(inventory);
+        // 数量为 0 时流水不记录，新记录仍会出现在低库存等查询结果中
+        invalidationBus.publishAfterCommit(Resource.INVENTORY, Collections.singleton(productId));
+        log.info("初始化库存成功，productId={}, warehouseId={}, quantity={}", productId, warehouseId, quantity);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void addStock(Long productId, Integer quantity) {
-        Inventory inventory = getByProductId(productId);
-        if (inventory == null) {
+        addStock(productId, Inventory.DEFAULT_WAREHOUSE_ID, quantity);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void addStock(Long productId, Long warehouseId, Integer quantity) {
+        // 热点商品写入合并：同一商品的并发增减合并为一条 UPDATE（流水在本事务中写入）
+        if (stockWriteCoalescer.isEnabled()) {
+            stockWriteCoalescer.apply(productId, warehouseId, quantity, "入库");
+            log.info("增加库存成功（合并写入），productId={}, warehouseId={}, +{}", productId, warehouseId, quantity);
+            return;
+        }
+
+        int rows = this.baseMapper.increaseQuantity(productId, warehouseId, quantity);
+        if (rows == 0) {
             throw new BusinessException("库存记录不存在");
         }
+        inventoryLedgerService.record(productId, warehouseId, InventoryTxn.TYPE_INBOUND, quantity, "入库");
+
+        log.info("增加库存成功，productId={}, warehouseId={}, +{}", productId, warehouseId, quantity);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void addStockBatch(Long warehouseId, Map<Long, Integer> quantities) {
+        Map<Long, Integer> sorted = new TreeMap<>(quantities);
+        // 单个商品或热点合并开启时逐商品写入（合并器按商品合并，不支持多商品语句）
+        if (sorted.size() <= 1 || stockWriteCoalescer.isEnabled()) {
+            sorted.forEach((productId, quantity) -> addStock(productId, warehouseId, quantity));
+            return;
+        }
 
-        Integer oldQuantity = inventory.getQuantity();
-        inventory.setQuantity(oldQuantity + quantity);
-        this.updateById(inventory);
+        if (this.baseMapper.increaseQuantityBatch(warehouseId, sorted) != sorted.size()) {
+            Set<Long> existing = this.baseMapper.selectByProductIds(sorted.keySet(), warehouseId).stream()
+                    .map(Inventory::getProductId)
+                    .collect(Collectors.toSet());
+            Long missing = sorted.keySet().stream().filter(id -> !existing.contains(id)).findFirst().orElse(null);
+            throw new BusinessException("库存记录不存在，商品ID：" + missing);
+        }
+        sorted.forEach((productId, quantity) ->
+                inventoryLedgerService.record(productId, warehouseId, InventoryTxn.TYPE_INBOUND, quantity, "入库"));
 
-        log.info("增加库存成功，productId={}, {} -> {}",
-                productId, oldQuantity, inventory.getQuantity());
+        log.info("批量增加库存成功，warehouseId={}, 商品数={}, +{}", warehouseId, sorted.size(),
+                sorted.values().stream().mapToInt(Integer::intValue).sum());
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void reduceStock(Long productId, Integer quantity) {
-        Inventory inventory = getByProductId(productId);
-        if (inventory == null) {
-            throw new BusinessException("库存记录不存在");
+        reduceStock(productId, Inventory.DEFAULT_WAREHOUSE_ID, quantity);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void reduceStock(Long productId, Long warehouseId, Integer quantity) {
+        if (stockWriteCoalescer.isEnabled()) {
+            if (!stockWriteCoalescer.apply(productId, warehouseId, -quantity, "出库")) {
+                throw new BusinessException(String.format("库存不足，需要：%d", quantity));
+            }
+            log.info("减少库存成功（合并写入），productId={}, warehouseId={}, -{}", productId, warehouseId, quantity);
+            return;
         }
 
-        if (inventory.getQuantity() < quantity) {
+        // 条件更新：库存充足时一条语句完成扣减，避免先查后改丢失并发更新
+        int rows = this.baseMapper.decreaseQuantity(productId, warehouseId, quantity);
+        if (rows == 0) {
+            // 仅在失败时回查，用于区分记录不存在和库存不足
+            Inventory inventory = getByProductAndWarehouse(productId, warehouseId);
+            if (inventory == null) {
+                throw new BusinessException("库存记录不存在");
+            }
             throw new BusinessException(
-                    String.format("库存不足，当前库存：%d，需要：%d",
-                            inventory.getQuantity(), quantity));
+                    String.format("库存不足，当前库存：%d，可用库存：%d，需要：%d",
+                            inventory.getQuantity(), inventory.getAvailableQuantity(), quantity));
         }
+        inventoryLedgerService.record(productId, warehouseId, InventoryTxn.TYPE_OUTBOUND, -quantity, "出库");
 
-        Integer oldQuantity = inventory.getQuantity();
-        inventory.setQuantity(oldQuantity - quantity);
-        this.updateById(inventory);
-
-        log.info("减少库存成功，productId={}, {} -> {}",
-                productId, oldQuantity, inventory.getQuantity());
+        log.info("减少库存成功，productId={}, warehouseId={}, -{}", productId, warehouseId, quantity);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public void adjustStock(Long productId, Integer quantity, String reason) {
-        Inventory inventory = getByProductId(productId);
-        if (inventory == null) {
-            throw new BusinessException("库存记录不存在");
+    public void reduceStockBatch(Long warehouseId, Map<Long, Integer> quantities) {
+        Map<Long, Integer> sorted = new TreeMap<>(quantities);
+        if (sorted.size() <= 1 || stockWriteCoalescer.isEnabled()) {
+            sorted.forEach((productId, quantity) -> reduceStock(productId, warehouseId, quantity));
+            return;
         }
 
-        Integer oldQuantity = inventory.getQuantity();
-        inventory.setQuantity(quantity);
-        this.updateById(inventory);
+        // 1. 一次 IN 查询核对可用库存，不足时指出具体商品（语句部分生效后无法区分哪些商品不足）
+        Map<Long, Inventory> inventories = this.baseMapper.selectByProductIds(sorted.keySet(), warehouseId).stream()
+                .collect(Collectors.toMap(Inventory::getProductId, Function.identity()));
+        sorted.forEach((productId, quantity) -> {
+            Inventory inventory = inventories.get(productId);
+            if (inventory == null) {
+                throw new BusinessException("库存记录不存在，商品ID：" + productId);
+            }
+            if (inventory.getAvailableQuantity() < quantity) {
+                throw new BusinessException(String.format("库存不足，商品ID：%d，可用库存：%d，需要：%d",
+                        productId, inventory.getAvailableQuantity(), quantity));
+            }
+        });
+
+        // 2. 一条条件更新扣减全部商品；核对后库存被并发扣减时条件不满足，整体回滚
+        if (this.baseMapper.decreaseQuantityBatch(warehouseId, sorted) != sorted.size()) {
+            throw new BusinessException("库存已变更，请刷新后重试");
+        }
+        sorted.forEach((productId, quantity) ->
+                inventoryLedgerService.record(productId, warehouseId, InventoryTxn.TYPE_OUTBOUND, -quantity, "出库"));
 
-        log.info("调整库存成功，productId={}, {} -> {}, reason={}",
-                productId, oldQuantity, quantity, reason);
+        log.info("批量减少库存成功，warehouseId={}, 商品数={}, -{}", warehouseId, sorted.size(),
+                sorted.values().stream().mapToInt(Integer::intValue).sum());
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public Map<String, Object> adjustInventory(Long inventoryId, InventoryAdjustDTO dto) {
-        Inventory inventory = this.getById(inventoryId);
+    public void adjustStock(Long productId, Integer quantity, String reason) {
+        adjustStock(productId, Inventory.DEFAULT_WAREHOUSE_ID, quantity, reason);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void adjustStock(Long productId, Long warehouseId, Integer quantity, String reason) {
+        // 加锁读取原数量，用于计算流水变动量
+        Inventory inventory = this.baseMapper.selectByProductAndWarehouseForUpdate(productId, warehouseId);
         if (inventory == null) {
             throw new BusinessException("库存记录不存在");
         }
+        checkNotBelowReserved(inventory, quantity);
+        this.baseMapper.updateQuantity(productId, warehouseId, quantity);
+        inventoryLedgerService.record(productId, warehouseId, InventoryTxn.TYPE_ADJUST,
+                quantity - inventory.getQuantity(), reason);
+
+        log.info("调整库存成功，productId={}, warehouseId={}, -> {}, reason={}", productId, warehouseId, quantity, reason);
+    }
 
-        Integer oldQuantity = inventory.getQuantity();
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Map<String, Object> adjustInventory(Long inventoryId, InventoryAdjustDTO dto) {
+        Integer oldQuantity;
         Integer newQuantity;
+        Inventory current;
 
         switch (dto.getType()) {
-            case "add":
-                newQuantity = oldQuantity + dto.getQuantity();
+            case "add": {
+                if (this.baseMapper.increaseQuantityById(inventoryId, dto.getQuantity()) == 0) {
+                    throw new BusinessException("库存记录不存在");
+                }
+                // 更新后行锁由本事务持有，回读结果即为本次调整后的数量
+                current = this.getById(inventoryId);
+                newQuantity = current.getQuantity();
+                oldQuantity = newQuantity - dto.getQuantity();
                 break;
-            case "reduce":
-                newQuantity = oldQuantity - dto.getQuantity();
-                if (newQuantity < 0) {
-                    throw new BusinessException(
-                            String.format("库存不足，当前库存：%d，要减少：%d", oldQuantity, dto.getQuantity()));
+            }
+            case "reduce": {
+                if (this.baseMapper.decreaseQuantityById(inventoryId, dto.getQuantity()) == 0) {
+                    Inventory inventory = this.getById(inventoryId);
+                    if (inventory == null) {
+                        throw new BusinessException("库存记录不存在");
+                    }
+                    throw new BusinessException(String.format("库存不足，当前库存：%d，已预占：%d，要减少：%d",
+                            inventory.getQuantity(), inventory.getQuantity() - inventory.getAvailableQuantity(),
+                            dto.getQuantity()));
                 }
+                current = this.getById(inventoryId);
+                newQuantity = current.getQuantity();
+                oldQuantity = newQuantity + dto.getQuantity();
                 break;
-            case "set":
-                newQuantity = dto.getQuantity();
-                if (newQuantity < 0) {
+            }
+            case "set": {
+                if (dto.getQuantity() < 0) {
                     throw new BusinessException("库存数量不能为负数");
                 }
+                Inventory inventory = this.baseMapper.selectByIdForUpdate(inventoryId);
+                if (inventory == null) {
+                    throw new BusinessException("库存记录不存在");
+                }
+                checkNotBelowReserved(inventory, dto.getQuantity());
+                oldQuantity = inventory.getQuantity();
+                newQuantity = dto.getQuantity();
+                this.baseMapper.updateQuantityById(inventoryId, newQuantity);
+                current = inventory;
                 break;
+            }
             default:
                 throw new BusinessException("无效的调整类型");
         }
 
-        inventory.setQuantity(newQuantity);
-        this.updateById(inventory);
+        inventoryLedgerService.record(current.getProductId(), current.getWarehouseId(), InventoryTxn.TYPE_ADJUST,
+                newQuantity - oldQuantity, dto.getReason());
 
         log.info("调整库存成功，inventoryId={}, {} -> {}, type={}, reason={}",
                 inventoryId, oldQuantity, newQuantity, dto.getType(), dto.getReason());
@@ -163,112 +322,183 @@ public class InventoryServiceImpl extends ServiceImpl<InventoryMapper, Inventory
         return result;
     }
 
+    /**
+     * 设置后的库存数量不能小于已预占数量（须在行锁下调用）
+     */
+    private void checkNotBelowReserved(Inventory inventory, int quantity) {
+        int reserved = inventory.getQuantity() - inventory.getAvailableQuantity();
+        if (quantity < reserved) {
+            throw new BusinessException(String.format("库存数量不能小于已预占数量：%d", reserved));
+        }
+    }
+
     @Override
     public Inventory getByProductId(Long productId) {
-        return this.baseMapper.selectByProductId(productId);
+        return getByProductAndWarehouse(productId, Inventory.DEFAULT_WAREHOUSE_ID);
     }
 
     @Override
-    public boolean checkStock(Long productId, Integer quantity) {
-        Inventory inventory = getByProductId(productId);
-        if (inventory == null) {
-            return false;
-        }
-        return inventory.getQuantity() >= quantity;
+    public Inventory getByProductAndWarehouse(Long productId, Long warehouseId) {
+        return this.baseMapper.selectByProductAndWarehouse(productId, warehouseId);
     }
 
     @Override
-    public IPage<InventoryVO> page(String productName, Long categoryId, Boolean lowStock, int page, int size) {
-        Page<Inventory> pageParam = new Page<>(page, size);
-
-        // 构建查询条件
-        LambdaQueryWrapper<Inventory> wrapper = new LambdaQueryWrapper<>();
+    public Map<Long, Integer> getQuantityMap(Collection<Long> productIds) {
+        return getQuantityMap(productIds, Inventory.DEFAULT_WAREHOUSE_ID);
+    }
 
-        // 低库存筛选
-        if (lowStock != null && lowStock) {
-            wrapper.apply("quantity <= warning_stock");
+    @Override
+    public Map<Long, Integer> getQuantityMap(Collection<Long> productIds, Long warehouseId) {
+        if (productIds == null || productIds.isEmpty()) {
+            return Collections.emptyMap();
         }
+        return this.baseMapper.selectByProductIds(productIds, warehouseId).stream()
+                .collect(Collectors.toMap(Inventory::getProductId, Inventory::getAvailableQuantity));
+    }
 
-        wrapper.orderByDesc(Inventory::getUpdatedAt);
-
-        IPage<Inventory> inventoryPage = this.page(pageParam, wrapper);
-
-        // 转换为 VO 并填充商品信息
-        IPage<InventoryVO> voPage = new Page<>(inventoryPage.getCurrent(), inventoryPage.getSize(), inventoryPage.getTotal());
-        List<InventoryVO> records = inventoryPage.getRecords().stream()
-                .map(inv -> {
-                    InventoryVO vo = InventoryVO.fromEntity(inv);
+    @Override
+    public int getTotalQuantity(Long productId) {
+        if (stockView.isReady()) {
+            int total = stockView.getTotal(productId);
+            return total != StockView.MISSING ? total : 0;
+        }
+        InventoryTotal total = inventoryTotalMapper.selectById(productId);
+        return total != null && total.getQuantity() != null ? total.getQuantity() : 0;
+    }
 
-                    // 获取商品信息
-                    Product product = productService.getById(inv.getProductId());
-                    if (product != null) {
-                        vo.setProductId(product.getId());
-                        vo.setProductSku(product.getSku());
-                        vo.setProductName(product.getName());
-                        vo.setCategoryId(product.getCategoryId());
+    @Override
+    public Map<Long, Integer> getTotalQuantityMap(Collection<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (stockView.isReady()) {
+            Map<Long, Integer> totals = new HashMap<>();
+            for (Long productId : productIds) {
+                int total = stockView.getTotal(productId);
+                if (total != StockView.MISSING) {
+                    totals.put(productId, total);
+                }
+            }
+            return totals;
+        }
+        return inventoryTotalMapper.selectBatchIds(productIds).stream()
+                .collect(Collectors.toMap(InventoryTotal::getProductId, InventoryTotal::getQuantity));
+    }
 
-                        // 获取分类信息
-                        Category category = categoryService.getById(product.getCategoryId());
-                        if (category != null) {
-                            vo.setCategoryName(category.getName());
-                        }
+    @Override
+    public boolean checkStock(Long productId, Integer quantity) {
+        return checkStock(productId, Inventory.DEFAULT_WAREHOUSE_ID, quantity);
+    }
 
-                        // 计算库存金额
-                        if (inv.getQuantity() != null && product.getPrice() != null) {
-                            vo.setAmount(product.getPrice().multiply(new BigDecimal(inv.getQuantity())));
-                        }
+    @Override
+    public boolean checkStock(Long productId, Long warehouseId, Integer quantity) {
+        // 读模型可用时直接读内存，无库存记录视为不足
+        if (stockView.isReady()) {
+            int available = stockView.getAvailable(productId, warehouseId);
+            return available != StockView.MISSING && available >= quantity;
+        }
+        Inventory inventory = getByProductAndWarehouse(productId, warehouseId);
+        if (inventory == null) {
+            return false;
+        }
+        // 可用库存 = 库存数量 - 预占数量，预占数量随库存行维护，无需扫描出库单
+        return inventory.getAvailableQuantity() >= quantity;
+    }
 
-                        // 判断是否低库存
-                        vo.setIsLowStock(inv.getQuantity() <= (inv.getWarningStock() != null ? inv.getWarningStock() : 0));
-                    }
+    @Override
+    public StockCheckResultVO checkStockBatch(Long warehouseId, List<StockCheckDTO.Item> items) {
+        if (items == null || items.isEmpty()) {
+            throw new BusinessException("检查明细不能为空");
+        }
 
-                    return vo;
-                })
-                .collect(Collectors.toList());
+        // 1. 同一商品多行合并，保持首次出现顺序
+        Map<Long, Integer> requested = new LinkedHashMap<>();
+        for (StockCheckDTO.Item item : items) {
+            requested.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
 
-        // 按商品名称和分类过滤
-        if (StringUtils.hasText(productName) || categoryId != null) {
-            records = records.stream()
-                    .filter(vo -> {
-                        boolean match = true;
+        // 2. 读模型可用时逐个读内存，否则一次 IN 查询获取全部商品的可用库存
+        Long targetWarehouseId = warehouseId != null ? warehouseId : Inventory.DEFAULT_WAREHOUSE_ID;
+        boolean fromView = stockView.isReady();
+        Map<Long, Integer> available = fromView
+                ? Collections.emptyMap()
+                : getQuantityMap(requested.keySet(), targetWarehouseId);
+
+        // 3. 逐商品计算缺口
+        StockCheckResultVO result = new StockCheckResultVO();
+        requested.forEach((productId, quantity) -> {
+            int stock = fromView
+                    ? viewAvailable(productId, targetWarehouseId)
+                    : available.getOrDefault(productId, 0);
+            StockCheckResultVO.Item item = new StockCheckResultVO.Item();
+            item.setProductId(productId);
+            item.setRequested(quantity);
+            item.setAvailable(stock);
+            item.setShortage(Math.max(quantity - stock, 0));
+            item.setSufficient(stock >= quantity);
+            result.addItem(item);
+        });
+        return result;
+    }
 
-                        if (StringUtils.hasText(productName)) {
-                            match = match && (vo.getProductName() != null &&
-                                    vo.getProductName().toLowerCase().contains(productName.toLowerCase()));
-                        }
+    /**
+     * 从读模型读取可用库存，无库存记录视为 0
+     */
+    private int viewAvailable(Long productId, Long warehouseId) {
+        int available = stockView.getAvailable(productId, warehouseId);
+        return available != StockView.MISSING ? available : 0;
+    }
 
-                        if (categoryId != null) {
-                            match = match && categoryId.equals(vo.getCategoryId());
-                        }
+    @Override
+    public IPage<InventoryVO> page(String productName, Long categoryId, Long warehouseId, Boolean lowStock,
+                                   int page, int size) {
+        // 关联商品与分类的单条分页查询：筛选作用于全部数据，总数准确，金额由数据库计算
+        return this.baseMapper.selectInventoryPage(new Page<>(page, size),
+                StringUtils.hasText(productName) ? productName.trim() : null,
+                categoryId, warehouseId, Boolean.TRUE.equals(lowStock));
+    }
 
-                        return match;
-                    })
-                    .collect(Collectors.toList());
+    @Override
+    public CursorPageVO<InventoryVO> pageByCursor(String productName, Long categoryId, Long warehouseId,
+                                                  Boolean lowStock, String cursor, int size) {
+        if (size <= 0) {
+            throw new BusinessException("每页大小必须大于0");
         }
-
-        voPage.setRecords(records);
-        return voPage;
+        // 与偏移分页相同的上限，避免一次读取过多行
+        size = Math.min(size, MybatisPlusConfig.MAX_PAGE_SIZE);
+        PageCursor position = PageCursor.decode(cursor);
+        // 多取一行判断是否有下一页，不执行 COUNT
+        List<InventoryVO> rows = this.baseMapper.selectInventoryAfter(
+                StringUtils.hasText(productName) ? productName.trim() : null,
+                categoryId, warehouseId, Boolean.TRUE.equals(lowStock),
+                position != null ? position.getTime() : null,
+                position != null ? position.getId() : null,
+                size + 1);
+        return CursorPageVO.of(rows, size, Function.identity(),
+                vo -> PageCursor.encode(vo.getUpdatedAt(), vo.getId()));
     }
 
     @Override
-    public List<InventoryVO> getLowStockList() {
-        LambdaQueryWrapper<Inventory> wrapper = new LambdaQueryWrapper<>();
-        wrapper.apply("quantity <= warning_stock");
-        wrapper.orderByAsc(Inventory::getQuantity);
-
-        List<Inventory> inventories = this.list(wrapper);
+    public List<InventoryVO> getLowStockList(Long warehouseId, Integer limit) {
+        List<Inventory> inventories = stockView.isReady()
+                ? loadLowStock(stockView.getLowStock(warehouseId, limit))
+                : this.baseMapper.selectLowStock(warehouseId, limit);
+        Map<Long, ProductRef> products = referenceDataCache.getProducts(
+                inventories.stream().map(Inventory::getProductId).collect(Collectors.toList()));
+        Map<Long, CategoryRef> categories = referenceDataCache.getCategories(
+                products.values().stream().map(ProductRef::getCategoryId).collect(Collectors.toList()));
 
         return inventories.stream()
                 .map(inv -> {
                     InventoryVO vo = InventoryVO.fromEntity(inv);
 
-                    Product product = productService.getById(inv.getProductId());
+                    ProductRef product = products.get(inv.getProductId());
                     if (product != null) {
                         vo.setProductSku(product.getSku());
                         vo.setProductName(product.getName());
                         vo.setCategoryId(product.getCategoryId());
 
-                        Category category = categoryService.getById(product.getCategoryId());
+                        CategoryRef category = categories.get(product.getCategoryId());
                         if (category != null) {
                             vo.setCategoryName(category.getName());
                         }
@@ -281,13 +511,37 @@ public class InventoryServiceImpl extends ServiceImpl<InventoryMapper, Inventory
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 按低库存索引的顺序加载库存记录（只查询索引中的商品）
+     */
+    private List<Inventory> loadLowStock(List<StockView.LowStock> lowStock) {
+        if (lowStock.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, Inventory> rows = this.list(new LambdaQueryWrapper<Inventory>()
+                        .in(Inventory::getProductId, lowStock.stream()
+                                .map(StockView.LowStock::getProductId).collect(Collectors.toSet())))
+                .stream()
+                .collect(Collectors.toMap(inv -> lowStockKey(inv.getProductId(), inv.getWarehouseId()),
+                        Function.identity()));
+        return lowStock.stream()
+                .map(low -> rows.get(lowStockKey(low.getProductId(), low.getWarehouseId())))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private static String lowStockKey(long productId, long warehouseId) {
+        return productId + ":" + warehouseId;
+    }
+
     @Override
     public Map<String, Object> getSummary() {
         // 总商品数
         long totalProducts = productService.count();
 
         // 总库存数量
-        long totalQuantity = this.list().stream()
+        List<Inventory> inventories = this.list();
+        long totalQuantity = inventories.stream()
                 .mapToLong(inv -> inv.getQuantity() != null ? inv.getQuantity() : 0L)
                 .sum();
 
@@ -296,9 +550,11 @@ public class InventoryServiceImpl extends ServiceImpl<InventoryMapper, Inventory
                 .apply("quantity <= warning_stock"));
 
         // 库存总金额
-        BigDecimal totalAmount = this.list().stream()
+        Map<Long, ProductRef> products = referenceDataCache.getProducts(
+                inventories.stream().map(Inventory::getProductId).collect(Collectors.toList()));
+        BigDecimal totalAmount = inventories.stream()
                 .map(inv -> {
-                    Product product = productService.getById(inv.getProductId());
+                    ProductRef product = products.get(inv.getProductId());
                     if (product != null && product.getPrice() != null && inv.getQuantity() != null) {
                         return product.getPrice().multiply(new BigDecimal(inv.getQuantity()));
                     }
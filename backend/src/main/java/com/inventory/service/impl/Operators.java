@@ -0,0 +1,24 @@
+package com.inventory.service.impl;
+
+/**
+ * 操作人
+ *
+ * 入库单、出库单（含批量导入）的创建人统一从这里取得。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+final class Operators {
+
+    private Operators() {
+    }
+
+    /**
+     * 当前操作人
+     *
+     * @return 操作人名称
+     */
+    static String current() {
+        return "system"; // TODO: 从当前登录用户获取
+    }
+}
@@ -4,26 +4,45 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.inventory.component.ExportWriter;
+import com.inventory.component.ExportWriter.Column;
+import com.inventory.component.OrderNoGenerator;
+import com.inventory.component.OrderNoGenerator.OrderType;
+import com.inventory.component.ReferenceDataCache;
+import com.inventory.component.ReferenceDataCache.ProductRef;
+import com.inventory.config.MybatisPlusConfig;
 import com.inventory.dto.OutboundDTO;
+import com.inventory.dto.OutboundDocumentDTO;
+import com.inventory.dto.PageCursor;
 import com.inventory.entity.Inventory;
 import com.inventory.entity.Outbound;
-import com.inventory.entity.OutboundSequence;
+import com.inventory.entity.OutboundLine;
 import com.inventory.entity.Product;
 import com.inventory.exception.BusinessException;
+import com.inventory.mapper.DailyMovementMapper;
+import com.inventory.mapper.OutboundLineMapper;
 import com.inventory.mapper.OutboundMapper;
-import com.inventory.mapper.OutboundSequenceMapper;
 import com.inventory.mapper.ProductMapper;
 import com.inventory.service.InventoryService;
 import com.inventory.service.OutboundService;
+import com.inventory.service.StockReservationService;
+import com.inventory.vo.BatchApproveItemVO;
+import com.inventory.vo.BatchApproveResultVO;
+import com.inventory.vo.CursorPageVO;
+import com.inventory.vo.DocumentLineVO;
 import com.inventory.vo.OutboundVO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 出库单服务实现
@@ -36,15 +55,52 @@ import java.time.format.DateTimeFormatter;
 public class OutboundServiceImpl extends ServiceImpl<OutboundMapper, Outbound> implements OutboundService {
 
     @Autowired
-    private OutboundSequenceMapper sequenceMapper;
+    private OrderNoGenerator orderNoGenerator;
+
+    @Autowired
+    private OutboundLineMapper outboundLineMapper;
 
     @Autowired
     private ProductMapper productMapper;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     @Autowired
     private InventoryService inventoryService;
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private DailyMovementMapper dailyMovementMapper;
+
+    @Autowired
+    private ExportWriter exportWriter;
+
+    /**
+     * 导出 CSV 的列
+     */
+    private static final List<Column<OutboundVO>> EXPORT_COLUMNS = Arrays.asList(
+            Column.of("id", OutboundVO::getId),
+            Column.of("outboundNo", OutboundVO::getOutboundNo),
+            Column.of("productId", OutboundVO::getProductId),
+            Column.of("productSku", OutboundVO::getProductSku),
+            Column.of("productName", OutboundVO::getProductName),
+            Column.of("warehouseId", OutboundVO::getWarehouseId),
+            Column.of("quantity", OutboundVO::getQuantity),
+            Column.of("lineCount", OutboundVO::getLineCount),
+            Column.of("receiver", OutboundVO::getReceiver),
+            Column.of("receiverPhone", OutboundVO::getReceiverPhone),
+            Column.of("outboundDate", OutboundVO::getOutboundDate),
+            Column.of("status", OutboundVO::getStatus),
+            Column.of("statusText", OutboundVO::getStatusText),
+            Column.of("remark", OutboundVO::getRemark),
+            Column.of("createdBy", OutboundVO::getCreatedBy),
+            Column.of("createdAt", OutboundVO::getCreatedAt),
+            Column.of("updatedAt", OutboundVO::getUpdatedAt),
+            Column.of("approvedBy", OutboundVO::getApprovedBy),
+            Column.of("approvedAt", OutboundVO::getApprovedAt));
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -59,12 +115,13 @@ public class OutboundServiceImpl extends ServiceImpl<OutboundMapper, Outbound> i
         }
 
         // 2. 生成出库单号
-        String outboundNo = generateOutboundNo();
+        String outboundNo = orderNoGenerator.next(OrderType.OUTBOUND);
 
         // 3. 创建出库单
         Outbound outbound = new Outbound();
         outbound.setOutboundNo(outboundNo);
         outbound.setProductId(dto.getProductId());
+        outbound.setWarehouseId(resolveWarehouseId(dto));
         outbound.setQuantity(dto.getQuantity());
         outbound.setReceiver(dto.getReceiver());
         outbound.setReceiverPhone(dto.getReceiverPhone());
@@ -72,14 +129,85 @@ public class OutboundServiceImpl extends ServiceImpl<OutboundMapper, Outbound> i
         outbound.setStatus(Outbound.STATUS_PENDING);
         outbound.setRemark(dto.getRemark());
         outbound.setCreatedAt(LocalDateTime.now());
-        outbound.setCreatedBy("system"); // TODO: 从当前登录用户获取
+        outbound.setCreatedBy(Operators.current());
 
         this.save(outbound);
+
+        // 4. 预占库存，避免多个待审核出库单承诺同一批库存
+        stockReservationService.reserve(outbound.getId(), outbound.getProductId(), outbound.getWarehouseId(),
+                outbound.getQuantity());
         log.info("创建出库单成功，id={}, outboundNo={}", outbound.getId(), outbound.getOutboundNo());
 
         return outbound.getId();
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Long createDocument(OutboundDocumentDTO dto) {
+        List<OutboundDocumentDTO.Line> lines = dto.getLines();
+        if (lines == null || lines.isEmpty()) {
+            throw new BusinessException("出库明细不能为空");
+        }
+
+        // 1. 同一商品只能出现一行，每个商品对应一条预占
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OutboundDocumentDTO.Line line : lines) {
+            if (quantities.putIfAbsent(line.getProductId(), line.getQuantity()) != null) {
+                throw new BusinessException("同一商品只能出现一行，商品ID：" + line.getProductId());
+            }
+        }
+
+        // 2. 一次 IN 查询验证商品存在且启用
+        Map<Long, Product> products = productMapper.selectBatchIds(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (Long productId : quantities.keySet()) {
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new BusinessException("商品不存在，商品ID：" + productId);
+            }
+            if (!product.isEnabled()) {
+                throw new BusinessException("商品已禁用，无法创建出库单，商品ID：" + productId);
+            }
+        }
+
+        // 3. 创建表头：商品为首行商品，数量为各行合计
+        Outbound outbound = new Outbound();
+        outbound.setOutboundNo(orderNoGenerator.next(OrderType.OUTBOUND));
+        outbound.setProductId(lines.get(0).getProductId());
+        outbound.setWarehouseId(dto.getWarehouseId() != null ? dto.getWarehouseId() : Inventory.DEFAULT_WAREHOUSE_ID);
+        outbound.setQuantity(lines.stream().mapToInt(OutboundDocumentDTO.Line::getQuantity).sum());
+        outbound.setLineCount(lines.size());
+        outbound.setReceiver(dto.getReceiver());
+        outbound.setReceiverPhone(dto.getReceiverPhone());
+        outbound.setOutboundDate(dto.getOutboundDate());
+        outbound.setStatus(Outbound.STATUS_PENDING);
+        outbound.setRemark(dto.getRemark());
+        outbound.setCreatedAt(LocalDateTime.now());
+        outbound.setCreatedBy(Operators.current());
+        this.save(outbound);
+
+        // 4. 明细一条多行 INSERT 写入（单行出库单的商品和数量即表头，不写明细）
+        if (outbound.isMultiLine()) {
+            List<OutboundLine> rows = new ArrayList<>(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                OutboundLine row = new OutboundLine();
+                row.setOutboundId(outbound.getId());
+                row.setLineNo(i + 1);
+                row.setProductId(lines.get(i).getProductId());
+                row.setQuantity(lines.get(i).getQuantity());
+                row.setCreatedAt(outbound.getCreatedAt());
+                rows.add(row);
+            }
+            outboundLineMapper.insertBatch(rows);
+        }
+
+        // 5. 一条语句预占全部商品
+        stockReservationService.reserve(outbound.getId(), outbound.getWarehouseId(), quantities);
+        log.info("创建出库单成功，id={}, outboundNo={}, 行数={}", outbound.getId(), outbound.getOutboundNo(), lines.size());
+
+        return outbound.getId();
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean update(Long id, OutboundDTO dto) {
@@ -89,10 +217,13 @@ public class OutboundServiceImpl extends ServiceImpl<OutboundMapper, Outbound> i
             throw new BusinessException("出库单不存在");
         }
 
-        // 2. 只有待审核状态可以修改
+        // 2. 只有待审核状态可以修改，多行出库单不能按单行修改
         if (!outbound.isPending()) {
             throw new BusinessException("只有待审核状态的出库单可以修改");
         }
+        if (outbound.isMultiLine()) {
+            throw new BusinessException("多行出库单不能按单行修改，请作废后重新创建");
+        }
 
         // 3. 验证商品存在且启用
         Product product = productMapper.selectById(dto.getProductId());
@@ -103,8 +234,18 @@ public class OutboundServiceImpl extends ServiceImpl<OutboundMapper, Outbound> i
             throw new BusinessException("商品已禁用");
         }
 
-        // 4. 更新出库单
+        // 4. 商品、仓库或数量变化时重新预占
+        Long warehouseId = resolveWarehouseId(dto);
+        if (!dto.getProductId().equals(outbound.getProductId())
+                || !warehouseId.equals(outbound.getWarehouseId())
+                || !dto.getQuantity().equals(outbound.getQuantity())) {
+            stockReservationService.release(id);
+            stockReservationService.reserve(id, dto.getProductId(), warehouseId, dto.getQuantity());
+        }
+
+        // 5. 更新出库单
         outbound.setProductId(dto.getProductId());
+        outbound.setWarehouseId(warehouseId);
         outbound.setQuantity(dto.getQuantity());
         outbound.setReceiver(dto.getReceiver());
         outbound.setReceiverPhone(dto.getReceiverPhone());
@@ -131,27 +272,157 @@ public class OutboundServiceImpl extends ServiceImpl<OutboundMapper, Outbound> i
             throw new BusinessException("只有待审核状态的出库单可以审核");
         }
 
-        // 3. 验证库存充足
-        Inventory inventory = inventoryService.getByProductId(outbound.getProductId());
-        if (inventory == null || inventory.getQuantity() < outbound.getQuantity()) {
-            int currentStock = inventory != null ? inventory.getQuantity() : 0;
-            throw new BusinessException("库存不足，当前库存为" + currentStock);
+        // 3. 扣减库存：有效预占直接转为扣减；预占已过期时按可用库存条件扣减，不足时抛出异常
+        //    （多行出库单按商品ID顺序一条语句扣减全部明细，固定加锁顺序，避免死锁）
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OutboundLine line : getLines(Collections.singletonList(outbound)).get(id)) {
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        if (!stockReservationService.confirm(id)) {
+            if (outbound.isMultiLine()) {
+                inventoryService.reduceStockBatch(outbound.getWarehouseId(), quantities);
+            } else {
+                inventoryService.reduceStock(outbound.getProductId(), outbound.getWarehouseId(), outbound.getQuantity());
+            }
         }
 
-        // 4. 更新状态
-        outbound.setStatus(Outbound.STATUS_APPROVED);
-        outbound.setApprovedBy(approvedBy);
-        outbound.setApprovedAt(LocalDateTime.now());
-        outbound.setUpdatedAt(LocalDateTime.now());
-        this.updateById(outbound);
+        // 4. 更新状态（带状态条件，防止并发重复审核导致重复扣减）
+        if (this.baseMapper.approve(id, approvedBy, LocalDateTime.now()) == 0) {
+            throw new BusinessException("出库单状态已变更，请刷新后重试");
+        }
 
-        // 5. 减少库存
-        inventoryService.reduceStock(outbound.getProductId(), outbound.getQuantity());
+        // 5. 累加每日出入库汇总
+        LocalDate date = outbound.getOutboundDate().toLocalDate();
+        quantities.forEach((productId, quantity) -> dailyMovementMapper.addOutbound(date, productId, quantity));
 
         log.info("审核出库单成功，id={}, outboundNo={}, quantity={}", id, outbound.getOutboundNo(), outbound.getQuantity());
         return true;
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public BatchApproveResultVO approveBatch(List<Long> ids, String approvedBy, boolean allowPartial) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BusinessException("出库单ID列表不能为空");
+        }
+        List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+
+        // 1. 一次 IN 查询加载全部出库单
+        Map<Long, Outbound> outboundMap = this.listByIds(distinctIds).stream()
+                .collect(Collectors.toMap(Outbound::getId, Function.identity()));
+
+        // 2. 校验状态，不存在或非待审核的单据记为失败
+        Map<Long, BatchApproveItemVO> items = new LinkedHashMap<>();
+        List<Outbound> candidates = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Outbound outbound = outboundMap.get(id);
+            if (outbound == null) {
+                items.put(id, BatchApproveItemVO.failure(id, null, "出库单不存在"));
+            } else if (!outbound.isPending()) {
+                items.put(id, BatchApproveItemVO.failure(id, outbound.getOutboundNo(), "只有待审核状态的出库单可以审核"));
+            } else {
+                items.put(id, null);
+                candidates.add(outbound);
+            }
+        }
+
+        // 3. 持有有效预占的单据直接将预占转为扣减（每个商品一次更新），无需再占用可用库存
+        Set<Long> reserved = stockReservationService.confirmBatch(
+                candidates.stream().map(Outbound::getId).collect(Collectors.toList()));
+
+        // 4. 每个仓库一次查询获取其余单据全部明细商品的可用库存
+        Map<Long, List<OutboundLine>> lines = getLines(candidates);
+        Map<Long, Set<Long>> productIds = new HashMap<>();
+        for (Outbound outbound : candidates) {
+            if (!reserved.contains(outbound.getId())) {
+                for (OutboundLine line : lines.get(outbound.getId())) {
+                    productIds.computeIfAbsent(outbound.getWarehouseId(), k -> new HashSet<>()).add(line.getProductId());
+                }
+            }
+        }
+        Map<Long, Map<Long, Integer>> stockMap = new HashMap<>();
+        Map<Long, Map<Long, Integer>> available = new HashMap<>();
+        productIds.forEach((warehouseId, warehouseProductIds) -> {
+            Map<Long, Integer> stock = inventoryService.getQuantityMap(warehouseProductIds, warehouseId);
+            stockMap.put(warehouseId, stock);
+            available.put(warehouseId, new HashMap<>(stock));
+        });
+
+        // 5. 其余单据按出库日期先后（同日按单据ID）分配所在仓库的可用库存，全部明细都满足的单据可审核
+        candidates.sort(Comparator.comparing(Outbound::getOutboundDate, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Outbound::getId));
+        Map<Long, Map<Long, Integer>> demand = new TreeMap<>();
+        List<Outbound> approvable = new ArrayList<>();
+        for (Outbound outbound : candidates) {
+            if (reserved.contains(outbound.getId())) {
+                approvable.add(outbound);
+                continue;
+            }
+            Long warehouseId = outbound.getWarehouseId();
+            Map<Long, Integer> warehouseAvailable = available.get(warehouseId);
+            OutboundLine shortLine = lines.get(outbound.getId()).stream()
+                    .filter(line -> warehouseAvailable.getOrDefault(line.getProductId(), 0) < line.getQuantity())
+                    .findFirst()
+                    .orElse(null);
+            if (shortLine == null) {
+                for (OutboundLine line : lines.get(outbound.getId())) {
+                    warehouseAvailable.merge(line.getProductId(), -line.getQuantity(), Integer::sum);
+                    demand.computeIfAbsent(warehouseId, k -> new TreeMap<>())
+                            .merge(line.getProductId(), line.getQuantity(), Integer::sum);
+                }
+                approvable.add(outbound);
+            } else if (!allowPartial) {
+                Long productId = shortLine.getProductId();
+                int total = candidates.stream()
+                        .filter(o -> o.getWarehouseId().equals(warehouseId) && !reserved.contains(o.getId()))
+                        .flatMap(o -> lines.get(o.getId()).stream())
+                        .filter(line -> line.getProductId().equals(productId))
+                        .mapToInt(OutboundLine::getQuantity)
+                        .sum();
+                throw new BusinessException(String.format("库存不足，商品ID：%d，仓库ID：%d，可用库存：%d，批量需要：%d",
+                        productId, warehouseId, stockMap.get(warehouseId).getOrDefault(productId, 0), total));
+            } else {
+                items.put(outbound.getId(), BatchApproveItemVO.failure(outbound.getId(), outbound.getOutboundNo(),
+                        String.format("库存不足，商品ID：%d，剩余可用：%d，需要：%d", shortLine.getProductId(),
+                                warehouseAvailable.getOrDefault(shortLine.getProductId(), 0), shortLine.getQuantity())));
+            }
+        }
+
+        if (!approvable.isEmpty()) {
+            // 6. 一条 UPDATE 批量更新状态（带状态条件，并发变更时整体回滚）
+            List<Long> approvableIds = approvable.stream().map(Outbound::getId).collect(Collectors.toList());
+            int rows = this.baseMapper.approveBatch(approvableIds, approvedBy, LocalDateTime.now());
+            if (rows != approvableIds.size()) {
+                throw new BusinessException("部分出库单状态已变更，请刷新后重试");
+            }
+
+            // 7. 无预占的需求每个仓库一条条件扣减（按商品ID顺序加锁）；期间库存被并发扣减时条件不满足，整批回滚
+            demand.forEach(inventoryService::reduceStockBatch);
+
+            // 8. 按日期、商品汇总全部明细后累加每日出入库汇总（同样按固定顺序）
+            Map<LocalDate, Map<Long, Integer>> movements = new TreeMap<>();
+            for (Outbound outbound : approvable) {
+                for (OutboundLine line : lines.get(outbound.getId())) {
+                    movements.computeIfAbsent(outbound.getOutboundDate().toLocalDate(), k -> new TreeMap<>())
+                            .merge(line.getProductId(), line.getQuantity(), Integer::sum);
+                }
+            }
+            movements.forEach((date, products) -> products.forEach(
+                    (productId, quantity) -> dailyMovementMapper.addOutbound(date, productId, quantity)));
+
+            for (Outbound outbound : approvable) {
+                items.put(outbound.getId(), BatchApproveItemVO.success(outbound.getId(), outbound.getOutboundNo()));
+            }
+        }
+
+        BatchApproveResultVO result = new BatchApproveResultVO();
+        items.values().forEach(result::addItem);
+
+        log.info("批量审核出库单完成，allowPartial={}, 成功={}, 失败={}, 涉及仓库={}",
+                allowPartial, result.getSuccessCount(), result.getFailCount(), demand.size());
+        return result;
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void voidOutbound(Long id) {
@@ -171,6 +442,9 @@ public class OutboundServiceImpl extends ServiceImpl<OutboundMapper, Outbound> i
         outbound.setUpdatedAt(LocalDateTime.now());
         this.updateById(outbound);
 
+        // 4. 释放预占
+        stockReservationService.release(id);
+
         log.info("作废出库单成功，id={}, outboundNo={}", id, outbound.getOutboundNo());
     }
 
@@ -181,26 +455,27 @@ public class OutboundServiceImpl extends ServiceImpl<OutboundMapper, Outbound> i
             throw new BusinessException("出库单不存在");
         }
 
-        OutboundVO vo = OutboundVO.fromEntity(outbound);
-
-        // 查询商品信息
-        Product product = productMapper.selectById(outbound.getProductId());
-        if (product != null) {
-            vo.setProductName(product.getName());
-            vo.setProductSku(product.getSku());
-        }
-
+        // 详情带出明细，商品信息随明细一起从引用缓存批量获取
+        List<OutboundLine> lines = getLines(Collections.singletonList(outbound)).get(outbound.getId());
+        Map<Long, ProductRef> products = referenceDataCache.getProducts(
+                lines.stream().map(OutboundLine::getProductId).collect(Collectors.toList()));
+        OutboundVO vo = toVO(outbound, products);
+        vo.setLines(lines.stream().map(line -> {
+            DocumentLineVO lineVO = DocumentLineVO.of(line.getLineNo(), line.getProductId(), line.getQuantity());
+            ProductRef product = products.get(line.getProductId());
+            if (product != null) {
+                lineVO.setProductName(product.getName());
+                lineVO.setProductSku(product.getSku());
+            }
+            return lineVO;
+        }).collect(Collectors.toList()));
         return vo;
     }
 
     @Override
     public IPage<OutboundVO> page(Long productId, Integer status, String startDate, String endDate, int page, int size) {
         // 构建查询条件
-        LambdaQueryWrapper<Outbound> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(productId != null, Outbound::getProductId, productId)
-                .eq(status != null, Outbound::getStatus, status)
-                .ge(startDate != null, Outbound::getOutboundDate, startDate)
-                .le(endDate != null, Outbound::getOutboundDate, endDate)
+        LambdaQueryWrapper<Outbound> wrapper = buildQueryWrapper(productId, status, startDate, endDate)
                 .orderByDesc(Outbound::getCreatedAt);
 
         // 分页查询
@@ -208,49 +483,111 @@ public class OutboundServiceImpl extends ServiceImpl<OutboundMapper, Outbound> i
         IPage<Outbound> pageResult = this.page(pageParam, wrapper);
 
         // 转换为VO
-        Page<OutboundVO> voPage = new Page<>(page, size, pageResult.getTotal());
-        voPage.setRecords(pageResult.getRecords().stream().map(outbound -> {
-            OutboundVO vo = OutboundVO.fromEntity(outbound);
-            Product product = productMapper.selectById(outbound.getProductId());
-            if (product != null) {
-                vo.setProductName(product.getName());
-                vo.setProductSku(product.getSku());
-            }
-            return vo;
-        }).toList());
+        Page<OutboundVO> voPage = new Page<>(page, pageResult.getSize(), pageResult.getTotal());
+        voPage.setRecords(toVOList(pageResult.getRecords()));
 
         return voPage;
     }
 
+    @Override
+    public CursorPageVO<OutboundVO> pageByCursor(Long productId, Integer status, String startDate, String endDate,
+                                               String cursor, int size) {
+        if (size <= 0) {
+            throw new BusinessException("每页大小必须大于0");
+        }
+        // 与偏移分页相同的上限，避免一次读取过多行
+        size = Math.min(size, MybatisPlusConfig.MAX_PAGE_SIZE);
+        LambdaQueryWrapper<Outbound> wrapper = buildQueryWrapper(productId, status, startDate, endDate);
+
+        // 从上一页最后一行 (created_at, id) 之后继续，按 idx_outbound_created 范围扫描
+        PageCursor position = PageCursor.decode(cursor);
+        if (position != null) {
+            wrapper.and(w -> w.lt(Outbound::getCreatedAt, position.getTime())
+                    .or(o -> o.eq(Outbound::getCreatedAt, position.getTime()).lt(Outbound::getId, position.getId())));
+        }
+        // 多取一行判断是否有下一页，不执行 COUNT
+        wrapper.orderByDesc(Outbound::getCreatedAt).orderByDesc(Outbound::getId)
+                .last("LIMIT " + (size + 1));
+
+        List<Outbound> rows = this.list(wrapper);
+        Map<Long, ProductRef> products = getProductRefs(rows);
+        return CursorPageVO.of(rows, size, row -> toVO(row, products),
+                outbound -> PageCursor.encode(outbound.getCreatedAt(), outbound.getId()));
+    }
+
+    @Override
+    public void exportOutbound(Long productId, Integer status, String startDate, String endDate,
+                               ExportWriter.Format format, OutputStream out) throws IOException {
+        ExportWriter.Sink<OutboundVO> sink = exportWriter.open(out, format, EXPORT_COLUMNS);
+        // 逐行回调写出，商品名称、SKU 已在 SQL 中关联，不逐行查询商品
+        this.baseMapper.exportOutbound(productId, status, startDate, endDate, context -> sink.write(context.getResultObject()));
+        long rows = sink.finish();
+        log.info("导出出库单完成，productId={}, status={}, startDate={}, endDate={}, format={}, rows={}",
+                productId, status, startDate, endDate, format, rows);
+    }
+
+    private LambdaQueryWrapper<Outbound> buildQueryWrapper(Long productId, Integer status, String startDate, String endDate) {
+        LambdaQueryWrapper<Outbound> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(productId != null, Outbound::getProductId, productId)
+                .eq(status != null, Outbound::getStatus, status)
+                .ge(startDate != null, Outbound::getOutboundDate, startDate)
+                .le(endDate != null, Outbound::getOutboundDate, endDate);
+        return wrapper;
+    }
+
+    private List<OutboundVO> toVOList(List<Outbound> rows) {
+        Map<Long, ProductRef> products = getProductRefs(rows);
+        return rows.stream().map(row -> toVO(row, products)).collect(Collectors.toList());
+    }
+
     /**
-     * 生成出库单号
-     * 格式：OUT + yyyyMMdd + 4位序号
+     * 一批单据涉及的商品信息，从引用缓存批量获取
      */
-    private String generateOutboundNo() {
-        LocalDate today = LocalDate.now();
-        String dateStr = today.format(DATE_FORMATTER);
-
-        // 查询今天的序号
-        OutboundSequence sequence = sequenceMapper.selectById(today);
-        int seqValue;
-        if (sequence == null) {
-            // 今天第一次创建，从1开始
-            seqValue = 1;
-            sequence = new OutboundSequence();
-            sequence.setSeqDate(today);
-            sequence.setSeqValue(seqValue);
-            sequenceMapper.insert(sequence);
-        } else {
-            // 递增序号
-            seqValue = sequence.getSeqValue() + 1;
-            if (seqValue > 9999) {
-                throw new BusinessException("今日出库单数量已达上限");
+    private Map<Long, ProductRef> getProductRefs(List<Outbound> rows) {
+        return referenceDataCache.getProducts(rows.stream().map(Outbound::getProductId).collect(Collectors.toList()));
+    }
+
+    /**
+     * 一批出库单的明细：多行出库单一次 IN 查询明细表，单行出库单的明细即表头商品和数量
+     *
+     * @return 出库单ID → 明细（按行号排序）
+     */
+    private Map<Long, List<OutboundLine>> getLines(List<Outbound> outbounds) {
+        List<Long> multiLineIds = outbounds.stream().filter(Outbound::isMultiLine).map(Outbound::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<OutboundLine>> lines = multiLineIds.isEmpty()
+                ? new HashMap<>()
+                : outboundLineMapper.selectByOutboundIds(multiLineIds).stream()
+                        .collect(Collectors.groupingBy(OutboundLine::getOutboundId));
+        for (Outbound outbound : outbounds) {
+            if (!outbound.isMultiLine()) {
+                OutboundLine line = new OutboundLine();
+                line.setOutboundId(outbound.getId());
+                line.setLineNo(1);
+                line.setProductId(outbound.getProductId());
+                line.setQuantity(outbound.getQuantity());
+                lines.put(outbound.getId(), Collections.singletonList(line));
+            } else if (!lines.containsKey(outbound.getId())) {
+                throw new BusinessException("出库单明细不存在，outboundNo=" + outbound.getOutboundNo());
             }
-            sequence.setSeqValue(seqValue);
-            sequenceMapper.updateById(sequence);
         }
+        return lines;
+    }
+
+    private OutboundVO toVO(Outbound outbound, Map<Long, ProductRef> products) {
+        OutboundVO vo = OutboundVO.fromEntity(outbound);
+        ProductRef product = products.get(outbound.getProductId());
+        if (product != null) {
+            vo.setProductName(product.getName());
+            vo.setProductSku(product.getSku());
+        }
+        return vo;
+    }
 
-        // 生成单号：OUT + yyyyMMdd + 4位序号
-        return String.format("OUT%s%04d", dateStr, seqValue);
+    /**
+     * 出库单所在仓库，未指定时为默认仓库
+     */
+    private Long resolveWarehouseId(OutboundDTO dto) {
+        return dto.getWarehouseId() != null ? dto.getWarehouseId() : Inventory.DEFAULT_WAREHOUSE_ID;
     }
 }
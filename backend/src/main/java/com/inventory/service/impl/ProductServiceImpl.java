@@ -4,11 +4,18 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.inventory.component.ReferenceDataCache;
+import com.inventory.component.ReferenceDataCache.CategoryRef;
+import com.inventory.component.InvalidationBus;
+import com.inventory.component.ResourceVersions.Resource;
+import com.inventory.component.SkuFilter;
+import com.inventory.component.StockView;
 import com.inventory.dto.ProductDTO;
 import com.inventory.entity.Category;
-import com.inventory.entity.Inventory;
+import com.inventory.entity.DashboardStats;
 import com.inventory.entity.Product;
 import com.inventory.exception.BusinessException;
+import com.inventory.mapper.DashboardStatsMapper;
 import com.inventory.mapper.ProductMapper;
 import com.inventory.service.*;
 import com.inventory.vo.ProductVO;
@@ -18,8 +25,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -35,12 +47,27 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product>
 
     private final CategoryService categoryService;
     private final InventoryService inventoryService;
+    private final ReferenceDataCache referenceDataCache;
+    private final DashboardStatsMapper dashboardStatsMapper;
+    private final InvalidationBus invalidationBus;
+    private final SkuFilter skuFilter;
+    private final StockView stockView;
 
     public ProductServiceImpl(
             CategoryService categoryService,
-            InventoryService inventoryService) {
+            InventoryService inventoryService,
+            ReferenceDataCache referenceDataCache,
+            DashboardStatsMapper dashboardStatsMapper,
+            InvalidationBus invalidationBus,
+            SkuFilter skuFilter,
+            StockView stockView) {
         this.categoryService = categoryService;
         this.inventoryService = inventoryService;
+        this.referenceDataCache = referenceDataCache;
+        this.dashboardStatsMapper = dashboardStatsMapper;
+        this.invalidationBus = invalidationBus;
+        this.skuFilter = skuFilter;
+        this.stockView = stockView;
     }
 
     @Override
@@ -73,10 +100,15 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product>
         BeanUtils.copyProperties(dto, product);
         product.setStatus(dto.getStatus() != null ? dto.getStatus() : 1);
 
+        // 写入前加入 SKU 过滤器，保证提交后的校验不会漏判
+        skuFilter.add(product.getSku());
         boolean saved = this.save(product);
         if (!saved) {
             throw new BusinessException("商品创建失败");
         }
+        if (isActive(product.getStatus())) {
+            dashboardStatsMapper.addActiveProducts(DashboardStats.slotOf(product.getId()), 1);
+        }
 
         // 5. 初始化库存记录
         try {
@@ -86,6 +118,7 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product>
             throw new BusinessException("商品创建成功，但库存初始化失败");
         }
 
+        invalidationBus.publishAfterCommit(Resource.PRODUCT, Collections.singleton(product.getId()));
         log.info("创建商品成功，sku={}, id={}", product.getSku(), product.getId());
         return product.getId();
     }
@@ -128,7 +161,11 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product>
         BeanUtils.copyProperties(dto, product);
         product.setId(dto.getId());
 
+        // 看板汇总先于商品行更新，与库存变动（先库存合计、后商品）保持一致的加锁顺序
+        updateDashboardStats(exist, product);
+        skuFilter.add(product.getSku());
         boolean updated = this.updateById(product);
+        invalidationBus.publishAfterCommit(Resource.PRODUCT, Collections.singleton(product.getId()));
         log.info("更新商品成功，id={}, sku={}", product.getId(), product.getSku());
         return updated;
     }
@@ -151,6 +188,10 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product>
         }
 
         boolean deleted = this.removeById(id);
+        if (deleted && isActive(product.getStatus())) {
+            dashboardStatsMapper.addActiveProducts(DashboardStats.slotOf(id), -1);
+        }
+        invalidationBus.publishAfterCommit(Resource.PRODUCT, Collections.singleton(id));
         log.info("删除商品成功，id={}, sku={}", id, product.getSku());
         return deleted;
     }
@@ -164,12 +205,19 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product>
 
         int deletedCount = 0;
         int cannotDeleteCount = 0;
+        List<Long> activeIds = this.listByIds(ids).stream()
+                .filter(product -> isActive(product.getStatus()))
+                .map(Product::getId)
+                .collect(Collectors.toList());
 
         for (Long id : ids) {
             try {
                 if (canDelete(id)) {
                     if (this.removeById(id)) {
                         deletedCount++;
+                        if (activeIds.contains(id)) {
+                            dashboardStatsMapper.addActiveProducts(DashboardStats.slotOf(id), -1);
+                        }
                     }
                 } else {
                     cannotDeleteCount++;
@@ -180,6 +228,7 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product>
             }
         }
 
+        invalidationBus.publishAfterCommit(Resource.PRODUCT, ids);
         log.info("批量删除商品完成，成功={}, 无法删除={}", deletedCount, cannotDeleteCount);
 
         if (cannotDeleteCount > 0) {
@@ -202,18 +251,13 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product>
         }
 
         // 获取分类名称
-        Category category = categoryService.getById(product.getCategoryId());
+        CategoryRef category = referenceDataCache.getCategory(product.getCategoryId());
         if (category != null) {
             product.setCategoryName(category.getName());
         }
 
-        // 获取当前库存
-        Inventory inventory = inventoryService.getByProductId(id);
-        if (inventory != null) {
-            product.setStockQuantity(inventory.getQuantity());
-        } else {
-            product.setStockQuantity(0);
-        }
+        // 获取各仓库存合计
+        product.setStockQuantity(inventoryService.getTotalQuantity(id));
 
         return ProductVO.fromEntity(product);
     }
@@ -245,21 +289,7 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product>
 
         // 转换为 VO
         IPage<ProductVO> voPage = new Page<>(productPage.getCurrent(), productPage.getSize(), productPage.getTotal());
-        List<ProductVO> records = productPage.getRecords().stream()
-                .map(p -> {
-                    // 设置分类名称
-                    Category category = categoryService.getById(p.getCategoryId());
-                    if (category != null) {
-                        p.setCategoryName(category.getName());
-                    }
-                    // 设置库存
-                    Inventory inventory = inventoryService.getByProductId(p.getId());
-                    p.setStockQuantity(inventory != null ? inventory.getQuantity() : 0);
-                    return ProductVO.fromEntity(p);
-                })
-                .collect(Collectors.toList());
-
-        voPage.setRecords(records);
+        voPage.setRecords(toVOList(productPage.getRecords()));
         return voPage;
     }
 
@@ -274,19 +304,7 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product>
                 .or()
                 .like(Product::getName, keyword));
 
-        List<Product> products = this.list(wrapper);
-
-        return products.stream()
-                .map(p -> {
-                    Category category = categoryService.getById(p.getCategoryId());
-                    if (category != null) {
-                        p.setCategoryName(category.getName());
-                    }
-                    Inventory inventory = inventoryService.getByProductId(p.getId());
-                    p.setStockQuantity(inventory != null ? inventory.getQuantity() : 0);
-                    return ProductVO.fromEntity(p);
-                })
-                .collect(Collectors.toList());
+        return toVOList(this.list(wrapper));
     }
 
     @Override
@@ -304,8 +322,12 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product>
             throw new BusinessException("商品不存在");
         }
 
+        if (isActive(product.getStatus()) != isActive(status)) {
+            dashboardStatsMapper.addActiveProducts(DashboardStats.slotOf(id), isActive(status) ? 1 : -1);
+        }
         product.setStatus(status);
         boolean updated = this.updateById(product);
+        invalidationBus.publishAfterCommit(Resource.PRODUCT, Collections.singleton(id));
         log.info("切换商品状态成功，id={}, status={}", id, status);
         return updated;
     }
@@ -315,6 +337,10 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product>
         if (!StringUtils.hasText(sku)) {
             return false;
         }
+        // 过滤器判定不存在时无需查询数据库
+        if (!skuFilter.mightContain(sku)) {
+            return false;
+        }
 
         LambdaQueryWrapper<Product> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(Product::getSku, sku);
@@ -350,19 +376,74 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product>
     }
 
     @Override
-    public List<ProductVO> getLowStockProducts() {
-        List<Product> products = this.baseMapper.selectLowStockProducts();
+    public List<ProductVO> getLowStockProducts(Integer limit) {
+        if (!stockView.isReady()) {
+            return toVOList(this.baseMapper.selectLowStockProducts(limit));
+        }
+        List<Long> productIds = stockView.getLowStockProductIds(limit);
+        if (productIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // 按低库存索引的顺序返回
+        Map<Long, Product> products = this.listByIds(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return toVOList(productIds.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * 商品变更同步到看板汇总：成本价变化按库存合计调整成本额，启用状态变化调整启用商品数
+     *
+     * @param exist 变更前的商品
+     * @param product 本次更新内容（null 字段不更新）
+     */
+    private void updateDashboardStats(Product exist, Product product) {
+        int slot = DashboardStats.slotOf(exist.getId());
+        if (product.getCostPrice() != null) {
+            BigDecimal oldCost = exist.getCostPrice() != null ? exist.getCostPrice() : BigDecimal.ZERO;
+            BigDecimal costDelta = product.getCostPrice().subtract(oldCost);
+            if (costDelta.signum() != 0) {
+                dashboardStatsMapper.addCostValue(slot, exist.getId(), costDelta);
+            }
+        }
+        if (product.getStatus() != null && isActive(exist.getStatus()) != isActive(product.getStatus())) {
+            dashboardStatsMapper.addActiveProducts(slot, isActive(product.getStatus()) ? 1 : -1);
+        }
+    }
+
+    private static boolean isActive(Integer status) {
+        return status != null && status == 1;
+    }
+
+    /**
+     * 转换为 VO：分类名称从引用缓存批量获取，库存合计一次查询
+     */
+    private List<ProductVO> toVOList(List<Product> products) {
+        Map<Long, Integer> stockMap = getTotalQuantityMap(products);
+        Map<Long, CategoryRef> categories = referenceDataCache.getCategories(
+                products.stream().map(Product::getCategoryId).collect(Collectors.toList()));
 
         return products.stream()
                 .map(p -> {
-                    Category category = categoryService.getById(p.getCategoryId());
+                    // 设置分类名称
+                    CategoryRef category = categories.get(p.getCategoryId());
                     if (category != null) {
                         p.setCategoryName(category.getName());
                     }
-                    Inventory inventory = inventoryService.getByProductId(p.getId());
-                    p.setStockQuantity(inventory != null ? inventory.getQuantity() : 0);
+                    // 设置各仓库存合计
+                    p.setStockQuantity(stockMap.getOrDefault(p.getId(), 0));
                     return ProductVO.fromEntity(p);
                 })
                 .collect(Collectors.toList());
     }
+
+    /**
+     * 一次查询获取一批商品的跨仓库存合计
+     */
+    private Map<Long, Integer> getTotalQuantityMap(List<Product> products) {
+        return inventoryService.getTotalQuantityMap(
+                products.stream().map(Product::getId).collect(Collectors.toList()));
+    }
 }
@@ -1,20 +1,29 @@
 package com.inventory.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.inventory.component.InvalidationBus;
+import com.inventory.component.ReferenceDataCache;
+import com.inventory.component.ReferenceDataCache.CategoryRef;
+import com.inventory.component.ReferenceDataCache.ProductRef;
+import com.inventory.component.ResourceVersions.Resource;
+import com.inventory.component.StockView;
 import com.inventory.entity.*;
+import com.inventory.exception.BusinessException;
 import com.inventory.mapper.*;
+import com.inventory.service.CategoryService;
 import com.inventory.service.StatisticsService;
 import com.inventory.vo.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -28,51 +37,80 @@ import java.util.stream.Collectors;
 public class StatisticsServiceImpl implements StatisticsService {
 
     @Autowired
-    private ProductMapper productMapper;
+    private InventoryMapper inventoryMapper;
 
     @Autowired
-    private InventoryMapper inventoryMapper;
+    private DailyMovementMapper dailyMovementMapper;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
 
     @Autowired
-    private InboundMapper inboundMapper;
+    private DashboardStatsMapper dashboardStatsMapper;
 
     @Autowired
-    private OutboundMapper outboundMapper;
+    private CategoryService categoryService;
 
     @Autowired
-    private CategoryMapper categoryMapper;
+    private StockView stockView;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    private static final int CATEGORY_MAX_LEVEL = 3;
+
+    /**
+     * 商品变更版本（可能修改了商品分类），本节点事务提交后、收到其他节点事件时递增
+     */
+    private final AtomicLong distributionVersion = new AtomicLong();
+
+    private volatile DistributionSnapshot distributionSnapshot;
+
+    @PostConstruct
+    public void subscribeInvalidation() {
+        invalidationBus.subscribe(Resource.PRODUCT, productIds -> distributionVersion.incrementAndGet());
+    }
 
     @Override
     public DashboardVO getDashboard() {
-        DashboardVO dashboard = new DashboardVO();
+        // 汇总值随库存变动、商品变更累加维护，这里只对固定数量的槽位求和
+        DashboardStats stats = dashboardStatsMapper.selectSummary();
 
-        // 总商品数（启用状态）
-        Long productCount = productMapper.selectCount(
-                new LambdaQueryWrapper<Product>().eq(Product::getStatus, 1)
-        );
-        dashboard.setTotalProducts(productCount.intValue());
-
-        // 总库存量
-        List<Inventory> inventories = inventoryMapper.selectList(null);
-        int totalQuantity = inventories.stream().mapToInt(Inventory::getQuantity).sum();
-        dashboard.setTotalQuantity(totalQuantity);
+        DashboardVO dashboard = new DashboardVO();
+        dashboard.setTotalProducts(stats.getActiveProductCount());
+        dashboard.setTotalQuantity(stats.getTotalQuantity().intValue());
+        dashboard.setTotalAmount(stats.getTotalCostValue().doubleValue());
+        dashboard.setLowStockCount(stats.getLowStockCount());
+        return dashboard;
+    }
 
-        // 库存总额（需要查询商品成本价）
-        double totalAmount = 0.0;
-        for (Inventory inv : inventories) {
-            Product product = productMapper.selectById(inv.getProductId());
-            if (product != null && product.getCostPrice() != null) {
-                totalAmount += inv.getQuantity() * product.getCostPrice().doubleValue();
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public DashboardVO rebuildDashboard() {
+        // 1. 锁定全部槽位，等待进行中的累加提交，并阻塞新的累加直到重建完成
+        List<Integer> slots = dashboardStatsMapper.selectSlotsForUpdate();
+        for (int slot = 0; slot < DashboardStats.SLOTS; slot++) {
+            if (!slots.contains(slot)) {
+                DashboardStats missing = new DashboardStats();
+                missing.setSlot(slot);
+                missing.setTotalQuantity(0L);
+                missing.setTotalCostValue(BigDecimal.ZERO);
+                missing.setLowStockCount(0);
+                missing.setActiveProductCount(0);
+                missing.setUpdatedAt(LocalDateTime.now());
+                dashboardStatsMapper.insert(missing);
             }
         }
-        dashboard.setTotalAmount(totalAmount);
 
-        // 低库存数量
-        long lowStockCount = inventories.stream()
-                .filter(inv -> inv.getQuantity() < inv.getWarningStock())
-                .count();
-        dashboard.setLowStockCount((int) lowStockCount);
+        // 2. 清零后把全量汇总写入槽位 0
+        dashboardStatsMapper.resetAll();
+        dashboardStatsMapper.rebuildSlot(0);
+        invalidationBus.publishAfterCommit(Resource.INVENTORY, Collections.emptyList());
 
+        DashboardVO dashboard = getDashboard();
+        log.info("重建看板汇总完成，totalQuantity={}, totalAmount={}, lowStockCount={}, totalProducts={}",
+                dashboard.getTotalQuantity(), dashboard.getTotalAmount(),
+                dashboard.getLowStockCount(), dashboard.getTotalProducts());
         return dashboard;
     }
 
@@ -82,47 +120,23 @@ public class StatisticsServiceImpl implements StatisticsService {
         if (days < 1) days = 30;
         if (days > 90) days = 90;
 
-        LocalDateTime startDate = LocalDateTime.now().minusDays(days - 1);
-        LocalDateTime endDate = LocalDateTime.now().with(LocalTime.MAX);
-
-        // 获取已审核的入库记录
-        List<Inbound> inboundList = inboundMapper.selectList(
-                new LambdaQueryWrapper<Inbound>()
-                        .eq(Inbound::getStatus, Inbound.STATUS_APPROVED)
-                        .between(Inbound::getInboundDate, startDate, endDate)
-        );
-
-        // 获取已审核的出库记录
-        List<Outbound> outboundList = outboundMapper.selectList(
-                new LambdaQueryWrapper<Outbound>()
-                        .eq(Outbound::getStatus, Outbound.STATUS_APPROVED)
-                        .between(Outbound::getOutboundDate, startDate, endDate)
-        );
-
-        // 按日期聚合入库数据
-        Map<String, Integer> inboundMap = inboundList.stream()
-                .collect(Collectors.groupingBy(
-                        ib -> ib.getInboundDate().toLocalDate().toString(),
-                        Collectors.summingInt(Inbound::getQuantity)
-                ));
-
-        // 按日期聚合出库数据
-        Map<String, Integer> outboundMap = outboundList.stream()
-                .collect(Collectors.groupingBy(
-                        ob -> ob.getOutboundDate().toLocalDate().toString(),
-                        Collectors.summingInt(Outbound::getQuantity)
-                ));
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(days - 1);
+
+        // 每日汇总表按日期求和，每天至多一行
+        Map<LocalDate, DailyMovement> movementMap = dailyMovementMapper.selectDailyTotals(startDate, endDate).stream()
+                .collect(Collectors.toMap(DailyMovement::getMovementDate, m -> m));
 
         // 生成日期列表（按天）
         List<String> dates = new ArrayList<>();
         List<Integer> inboundQuantities = new ArrayList<>();
         List<Integer> outboundQuantities = new ArrayList<>();
 
-        for (int i = days - 1; i >= 0; i--) {
-            String date = LocalDate.now().minusDays(i).toString();
-            dates.add(date);
-            inboundQuantities.add(inboundMap.getOrDefault(date, 0));
-            outboundQuantities.add(outboundMap.getOrDefault(date, 0));
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            DailyMovement movement = movementMap.get(date);
+            dates.add(date.toString());
+            inboundQuantities.add(movement != null ? movement.getInboundQuantity() : 0);
+            outboundQuantities.add(movement != null ? movement.getOutboundQuantity() : 0);
         }
 
         TrendVO trend = new TrendVO();
@@ -133,74 +147,214 @@ public class StatisticsServiceImpl implements StatisticsService {
         return trend;
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void rebuildDailyMovement(LocalDate date) {
+        LocalDateTime start = date.atStartOfDay();
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+
+        dailyMovementMapper.deleteByDate(date);
+        dailyMovementMapper.rebuildInbound(date, start, end);
+        dailyMovementMapper.rebuildOutbound(date, start, end);
+        invalidationBus.publishAfterCommit(Resource.INVENTORY, Collections.emptyList());
+    }
+
     @Override
     public List<CategoryDistributionVO> getCategoryDistribution() {
-        // 获取所有库存
-        List<Inventory> inventories = inventoryMapper.selectList(null);
+        return getCategoryDistribution(null);
+    }
 
-        // 按分类聚合
-        Map<Long, List<Inventory>> categoryMap = new HashMap<>();
+    @Override
+    public List<CategoryDistributionVO> getCategoryDistribution(Integer level) {
+        if (level != null && (level < 1 || level > CATEGORY_MAX_LEVEL)) {
+            throw new BusinessException("分类层级无效");
+        }
+        DistributionSnapshot snapshot = currentDistribution();
+        if (level == null) {
+            return snapshot.direct;
+        }
+        return snapshot.byLevel.getOrDefault(level, Collections.emptyList());
+    }
+
+    @Override
+    public List<LowStockVO> getLowStockList(Integer limit) {
+        // 低库存记录按缺货数量从多到少，优先读低库存索引
+        List<Inventory> inventories = stockView.isReady()
+                ? stockView.getLowStock(null, limit).stream()
+                        .map(StatisticsServiceImpl::toInventory)
+                        .collect(Collectors.toList())
+                : inventoryMapper.selectLowStock(null, limit);
+        Map<Long, ProductRef> products = getProductRefs(inventories);
+        Map<Long, CategoryRef> categories = referenceDataCache.getCategories(
+                products.values().stream().map(ProductRef::getCategoryId).collect(Collectors.toList()));
+
+        List<LowStockVO> result = new ArrayList<>();
         for (Inventory inv : inventories) {
-            Product product = productMapper.selectById(inv.getProductId());
+            ProductRef product = products.get(inv.getProductId());
             if (product != null) {
-                categoryMap.computeIfAbsent(product.getCategoryId(), k -> new ArrayList<>()).add(inv);
+                CategoryRef category = categories.get(product.getCategoryId());
+
+                LowStockVO vo = new LowStockVO();
+                vo.setProductId(product.getId());
+                vo.setProductSku(product.getSku());
+                vo.setProductName(product.getName());
+                vo.setCategoryName(category != null ? category.getName() : "-");
+                vo.setQuantity(inv.getQuantity());
+                vo.setWarningStock(inv.getWarningStock());
+                vo.setShortage(inv.getWarningStock() - inv.getQuantity());
+                result.add(vo);
             }
         }
 
-        // 计算总库存量
-        int totalQuantity = inventories.stream().mapToInt(Inventory::getQuantity).sum();
-
-        // 构建结果
-        List<CategoryDistributionVO> result = new ArrayList<>();
-        for (Map.Entry<Long, List<Inventory>> entry : categoryMap.entrySet()) {
-            Category category = categoryMapper.selectById(entry.getKey());
-            if (category != null) {
-                int quantity = entry.getValue().stream().mapToInt(Inventory::getQuantity).sum();
-                double percentage = totalQuantity > 0
-                        ? BigDecimal.valueOf(quantity * 100.0 / totalQuantity)
-                                .setScale(2, RoundingMode.HALF_UP)
-                                .doubleValue()
-                        : 0.0;
-
-                CategoryDistributionVO vo = new CategoryDistributionVO();
-                vo.setCategoryName(category.getName());
-                vo.setQuantity(quantity);
-                vo.setPercentage(percentage);
-                result.add(vo);
+        return result;
+    }
+
+    /**
+     * 分类分布快照：库存数量、分类树、商品分类均未变化时复用
+     *
+     * 读模型不可用时库存数量版本不再变化，此时每次重新查询，不使用缓存。
+     */
+    private DistributionSnapshot currentDistribution() {
+        List<CategoryVO> tree = categoryService.getTree();
+        DistributionSnapshot snapshot = this.distributionSnapshot;
+        if (snapshot != null && stockView.isReady()
+                && snapshot.matches(tree, stockView.getQuantityVersion(), distributionVersion.get())) {
+            return snapshot;
+        }
+        synchronized (distributionVersion) {
+            // 先取版本再查询：查询期间有变更提交时版本已变化，下次读取重新构建
+            long stockVersion = stockView.getQuantityVersion();
+            long version = distributionVersion.get();
+            snapshot = this.distributionSnapshot;
+            if (snapshot != null && stockView.isReady() && snapshot.matches(tree, stockVersion, version)) {
+                return snapshot;
+            }
+            snapshot = buildDistribution(tree, stockVersion, version);
+            this.distributionSnapshot = snapshot;
+            return snapshot;
+        }
+    }
+
+    /**
+     * 一次分组关联查询得到各分类直属商品的库存，再沿分类树逐层向上汇总
+     */
+    private DistributionSnapshot buildDistribution(List<CategoryVO> tree, long stockVersion, long version) {
+        Map<Long, Integer> direct = new HashMap<>();
+        int totalQuantity = 0;
+        for (CategoryDistributionVO row : inventoryMapper.selectQuantityByCategory()) {
+            int quantity = row.getQuantity() != null ? row.getQuantity() : 0;
+            totalQuantity += quantity;
+            if (row.getCategoryId() != null) {
+                direct.put(row.getCategoryId(), quantity);
             }
         }
 
-        // 按数量降序排序
-        result.sort((a, b) -> b.getQuantity().compareTo(a.getQuantity()));
+        List<CategoryDistributionVO> directList = new ArrayList<>();
+        Map<Integer, List<CategoryDistributionVO>> byLevel = new HashMap<>();
+        for (CategoryVO root : tree) {
+            rollUp(root, 1, direct, totalQuantity, directList, byLevel);
+        }
 
-        return result;
+        Map<Integer, List<CategoryDistributionVO>> frozenLevels = new HashMap<>();
+        byLevel.forEach((level, list) -> frozenLevels.put(level, sortByQuantity(list)));
+        return new DistributionSnapshot(tree, stockVersion, version, sortByQuantity(directList), frozenLevels);
     }
 
-    @Override
-    public List<LowStockVO> getLowStockList() {
-        // 获取所有库存
-        List<Inventory> inventories = inventoryMapper.selectList(null);
-
-        List<LowStockVO> result = new ArrayList<>();
-        for (Inventory inv : inventories) {
-            if (inv.getQuantity() < inv.getWarningStock()) {
-                Product product = productMapper.selectById(inv.getProductId());
-                if (product != null) {
-                    Category category = categoryMapper.selectById(product.getCategoryId());
-
-                    LowStockVO vo = new LowStockVO();
-                    vo.setProductId(product.getId());
-                    vo.setProductSku(product.getSku());
-                    vo.setProductName(product.getName());
-                    vo.setCategoryName(category != null ? category.getName() : "-");
-                    vo.setQuantity(inv.getQuantity());
-                    vo.setWarningStock(inv.getWarningStock());
-                    vo.setShortage(inv.getWarningStock() - inv.getQuantity());
-                    result.add(vo);
-                }
+    /**
+     * 汇总子树库存
+     *
+     * @return 子树库存合计；子树下没有任何库存记录时返回 null
+     */
+    private Integer rollUp(CategoryVO node, int depth, Map<Long, Integer> direct, int totalQuantity,
+                           List<CategoryDistributionVO> directList, Map<Integer, List<CategoryDistributionVO>> byLevel) {
+        Integer own = direct.get(node.getId());
+        Integer subtree = own;
+        for (CategoryVO child : node.getChildren()) {
+            Integer childQuantity = rollUp(child, depth + 1, direct, totalQuantity, directList, byLevel);
+            if (childQuantity != null) {
+                subtree = subtree != null ? subtree + childQuantity : childQuantity;
             }
         }
+        if (own != null) {
+            directList.add(toDistributionVO(node, depth, own, totalQuantity));
+        }
+        if (subtree != null) {
+            byLevel.computeIfAbsent(depth, k -> new ArrayList<>())
+                    .add(toDistributionVO(node, depth, subtree, totalQuantity));
+        }
+        return subtree;
+    }
 
-        return result;
+    private CategoryDistributionVO toDistributionVO(CategoryVO category, int level, int quantity, int totalQuantity) {
+        double percentage = totalQuantity > 0
+                ? BigDecimal.valueOf(quantity * 100.0 / totalQuantity)
+                        .setScale(2, RoundingMode.HALF_UP)
+                        .doubleValue()
+                : 0.0;
+
+        CategoryDistributionVO vo = new CategoryDistributionVO();
+        vo.setCategoryId(category.getId());
+        vo.setCategoryName(category.getName());
+        vo.setLevel(level);
+        vo.setQuantity(quantity);
+        vo.setPercentage(percentage);
+        return vo;
+    }
+
+    /**
+     * 按数量降序排序并转为只读列表
+     */
+    private List<CategoryDistributionVO> sortByQuantity(List<CategoryDistributionVO> list) {
+        list.sort((a, b) -> b.getQuantity().compareTo(a.getQuantity()));
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * 一批库存涉及的商品信息，从引用缓存批量获取
+     */
+    private Map<Long, ProductRef> getProductRefs(List<Inventory> inventories) {
+        return referenceDataCache.getProducts(
+                inventories.stream().map(Inventory::getProductId).collect(Collectors.toList()));
+    }
+
+    /**
+     * 读模型中的低库存条目转为库存对象
+     */
+    private static Inventory toInventory(StockView.LowStock lowStock) {
+        Inventory inventory = new Inventory();
+        inventory.setProductId(lowStock.getProductId());
+        inventory.setWarehouseId(lowStock.getWarehouseId());
+        inventory.setQuantity(lowStock.getQuantity());
+        inventory.setWarningStock(lowStock.getWarningStock());
+        return inventory;
+    }
+
+    /**
+     * 分类分布快照（不可变）
+     */
+    private static final class DistributionSnapshot {
+
+        private final List<CategoryVO> tree;
+        private final long stockVersion;
+        private final long version;
+        private final List<CategoryDistributionVO> direct;
+        private final Map<Integer, List<CategoryDistributionVO>> byLevel;
+
+        private DistributionSnapshot(List<CategoryVO> tree, long stockVersion, long version,
+                                     List<CategoryDistributionVO> direct,
+                                     Map<Integer, List<CategoryDistributionVO>> byLevel) {
+            this.tree = tree;
+            this.stockVersion = stockVersion;
+            this.version = version;
+            this.direct = direct;
+            this.byLevel = byLevel;
+        }
+
+        /**
+         * 分类树快照未重建（同一实例）且库存数量、商品分类未变化
+         */
+        private boolean matches(List<CategoryVO> currentTree, long currentStockVersion, long currentVersion) {
+            return tree == currentTree && stockVersion == currentStockVersion && version == currentVersion;
+        }
     }
 }
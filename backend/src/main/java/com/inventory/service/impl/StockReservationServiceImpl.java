@@ -0,0 +1,258 @@
+package com.inventory.service.impl;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.inventory.component.InvalidationBus;
+import com.inventory.component.ResourceVersions.Resource;
+import com.inventory.component.StockView;
+import com.inventory.entity.Inventory;
+import com.inventory.entity.InventoryTxn;
+import com.inventory.entity.StockReservation;
+import com.inventory.exception.BusinessException;
+import com.inventory.mapper.InventoryMapper;
+import com.inventory.mapper.StockReservationMapper;
+import com.inventory.service.InventoryLedgerService;
+import com.inventory.service.StockReservationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 库存预占服务实现
+ *
+ * 预占记录状态变更均带 status = 0 条件，审核、作废与过期清理并发处理同一预占时
+ * 只有一方成功，随后在同一事务中调整 t_inventory.reserved_quantity。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Slf4j
+@Service
+public class StockReservationServiceImpl extends ServiceImpl<StockReservationMapper, StockReservation>
+        implements StockReservationService {
+
+    @Autowired
+    private InventoryMapper inventoryMapper;
+
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Autowired
+    private StockView stockView;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Value("${inventory.reservation.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void reserve(Long outboundId, Long productId, Long warehouseId, Integer quantity) {
+        // 1. 条件更新预占，可用库存不足时不修改任何行
+        if (inventoryMapper.reserveQuantity(productId, warehouseId, quantity) == 0) {
+            Inventory inventory = inventoryMapper.selectByProductAndWarehouse(productId, warehouseId);
+            if (inventory == null) {
+                throw new BusinessException("库存记录不存在");
+            }
+            throw new BusinessException(
+                    String.format("可用库存不足，可用库存：%d，需要：%d", inventory.getAvailableQuantity(), quantity));
+        }
+        stockView.applyAfterCommit(productId, warehouseId, 0, quantity);
+        invalidationBus.publishAfterCommit(Resource.INVENTORY, Collections.singleton(productId));
+
+        // 2. 记录预占
+        this.save(newReservation(outboundId, productId, warehouseId, quantity, LocalDateTime.now()));
+
+        log.info("预占库存成功，outboundId={}, productId={}, warehouseId={}, quantity={}",
+                outboundId, productId, warehouseId, quantity);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void reserve(Long outboundId, Long warehouseId, Map<Long, Integer> quantities) {
+        if (quantities.size() == 1) {
+            Map.Entry<Long, Integer> entry = quantities.entrySet().iterator().next();
+            reserve(outboundId, entry.getKey(), warehouseId, entry.getValue());
+            return;
+        }
+        Map<Long, Integer> sorted = new TreeMap<>(quantities);
+
+        // 1. 一次 IN 查询核对可用库存，不足时指出具体商品
+        Map<Long, Inventory> inventories = inventoryMapper.selectByProductIds(sorted.keySet(), warehouseId).stream()
+                .collect(Collectors.toMap(Inventory::getProductId, Function.identity()));
+        sorted.forEach((productId, quantity) -> {
+            Inventory inventory = inventories.get(productId);
+            if (inventory == null) {
+                throw new BusinessException("库存记录不存在，商品ID：" + productId);
+            }
+            if (inventory.getAvailableQuantity() < quantity) {
+                throw new BusinessException(String.format("可用库存不足，商品ID：%d，可用库存：%d，需要：%d",
+                        productId, inventory.getAvailableQuantity(), quantity));
+            }
+        });
+
+        // 2. 一条条件更新预占全部商品（按商品ID顺序加锁）；核对后可用库存被并发占用时整单回滚
+        if (inventoryMapper.reserveQuantityBatch(warehouseId, sorted) != sorted.size()) {
+            throw new BusinessException("可用库存已变更，请刷新后重试");
+        }
+        sorted.forEach((productId, quantity) -> stockView.applyAfterCommit(productId, warehouseId, 0, quantity));
+        invalidationBus.publishAfterCommit(Resource.INVENTORY, sorted.keySet());
+
+        // 3. 每个商品一条预占记录，一条多行 INSERT 写入
+        LocalDateTime now = LocalDateTime.now();
+        List<StockReservation> reservations = new ArrayList<>(sorted.size());
+        sorted.forEach((productId, quantity) ->
+                reservations.add(newReservation(outboundId, productId, warehouseId, quantity, now)));
+        this.baseMapper.insertBatch(reservations);
+
+        log.info("预占库存成功，outboundId={}, warehouseId={}, 商品数={}", outboundId, warehouseId, sorted.size());
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean confirm(Long outboundId) {
+        List<StockReservation> reservations = this.baseMapper.selectActiveByOutboundId(outboundId);
+        if (reservations.isEmpty()) {
+            return false;
+        }
+        // 与过期清理竞争，状态已变更说明预占已被释放（多行出库单的各行预占总是一起过期）
+        List<Long> ids = reservations.stream().map(StockReservation::getId).collect(Collectors.toList());
+        int rows = this.baseMapper.finish(ids, StockReservation.STATUS_CONSUMED);
+        if (rows == 0) {
+            return false;
+        }
+        if (rows != ids.size()) {
+            throw new BusinessException("部分预占已变更，请刷新后重试");
+        }
+        consume(reservations);
+
+        log.info("预占转扣减成功，outboundId={}, 商品数={}, quantity={}", outboundId, reservations.size(),
+                reservations.stream().mapToInt(StockReservation::getQuantity).sum());
+        return true;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Set<Long> confirmBatch(Collection<Long> outboundIds) {
+        if (outboundIds == null || outboundIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<StockReservation> reservations = this.baseMapper.selectActiveByOutboundIds(outboundIds);
+        if (reservations.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        List<Long> ids = reservations.stream().map(StockReservation::getId).collect(Collectors.toList());
+        if (this.baseMapper.finish(ids, StockReservation.STATUS_CONSUMED) != ids.size()) {
+            throw new BusinessException("部分预占已变更，请刷新后重试");
+        }
+
+        consume(reservations);
+
+        return reservations.stream().map(StockReservation::getOutboundId).collect(Collectors.toSet());
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void release(Long outboundId) {
+        List<StockReservation> reservations = this.baseMapper.selectActiveByOutboundId(outboundId);
+        if (reservations.isEmpty()) {
+            return;
+        }
+        List<Long> ids = reservations.stream().map(StockReservation::getId).collect(Collectors.toList());
+        int rows = this.baseMapper.finish(ids, StockReservation.STATUS_RELEASED);
+        if (rows == 0) {
+            return;
+        }
+        if (rows != ids.size()) {
+            throw new BusinessException("部分预占已变更，请刷新后重试");
+        }
+        reservations.sort(Comparator.comparing(StockReservation::getProductId));
+        for (StockReservation reservation : reservations) {
+            inventoryMapper.releaseReserved(reservation.getProductId(), reservation.getWarehouseId(), reservation.getQuantity());
+            stockView.applyAfterCommit(reservation.getProductId(), reservation.getWarehouseId(), 0, -reservation.getQuantity());
+        }
+        invalidationBus.publishAfterCommit(Resource.INVENTORY,
+                reservations.stream().map(StockReservation::getProductId).collect(Collectors.toList()));
+
+        log.info("释放预占成功，outboundId={}, 商品数={}, quantity={}", outboundId, reservations.size(),
+                reservations.stream().mapToInt(StockReservation::getQuantity).sum());
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int expireBatch(int limit) {
+        List<StockReservation> expired = this.baseMapper.selectExpired(LocalDateTime.now(), limit);
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        // 逐条带状态条件变更，跳过同时被审核或作废的预占
+        Map<String, Integer> quantities = new TreeMap<>();
+        int count = 0;
+        for (StockReservation reservation : expired) {
+            if (this.baseMapper.finish(Collections.singleton(reservation.getId()), StockReservation.STATUS_EXPIRED) == 1) {
+                quantities.merge(reservation.getProductId() + ":" + reservation.getWarehouseId(),
+                        reservation.getQuantity(), Integer::sum);
+                count++;
+            }
+        }
+
+        // 同一商品的释放合并为一条更新
+        quantities.forEach((key, quantity) -> {
+            String[] parts = key.split(":");
+            inventoryMapper.releaseReserved(Long.valueOf(parts[0]), Long.valueOf(parts[1]), quantity);
+            stockView.applyAfterCommit(Long.valueOf(parts[0]), Long.valueOf(parts[1]), 0, -quantity);
+            invalidationBus.publishAfterCommit(Resource.INVENTORY, Collections.singleton(Long.valueOf(parts[0])));
+        });
+
+        log.info("释放过期预占，count={}, products={}", count, quantities.size());
+        return count;
+    }
+
+    private StockReservation newReservation(Long outboundId, Long productId, Long warehouseId, Integer quantity,
+                                            LocalDateTime now) {
+        StockReservation reservation = new StockReservation();
+        reservation.setOutboundId(outboundId);
+        reservation.setProductId(productId);
+        reservation.setWarehouseId(warehouseId);
+        reservation.setQuantity(quantity);
+        reservation.setStatus(StockReservation.STATUS_ACTIVE);
+        reservation.setExpireAt(now.plusMinutes(ttlMinutes));
+        reservation.setCreatedAt(now);
+        reservation.setUpdatedAt(now);
+        return reservation;
+    }
+
+    /**
+     * 预占转扣减：按仓库、商品汇总，每个仓库一条语句扣减，按仓库ID、商品ID顺序加锁
+     */
+    private void consume(List<StockReservation> reservations) {
+        Map<Long, Map<Long, Integer>> quantities = new TreeMap<>();
+        for (StockReservation reservation : reservations) {
+            quantities.computeIfAbsent(reservation.getWarehouseId(), k -> new TreeMap<>())
+                    .merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+        }
+        quantities.forEach((warehouseId, products) -> {
+            Map.Entry<Long, Integer> first = products.entrySet().iterator().next();
+            int rows = products.size() == 1
+                    ? inventoryMapper.consumeReserved(first.getKey(), warehouseId, first.getValue())
+                    : inventoryMapper.consumeReservedBatch(warehouseId, products);
+            if (rows != products.size()) {
+                throw new BusinessException("预占库存与库存记录不一致，productId=" + products.keySet());
+            }
+            products.forEach((productId, quantity) -> {
+                // 库存数量的变动随流水同步到读模型，这里只同步预占数量
+                stockView.applyAfterCommit(productId, warehouseId, 0, -quantity);
+                inventoryLedgerService.record(productId, warehouseId, InventoryTxn.TYPE_OUTBOUND, -quantity, "出库（预占转扣减）");
+            });
+        });
+    }
+}
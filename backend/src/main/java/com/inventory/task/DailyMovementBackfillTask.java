@@ -0,0 +1,61 @@
+package com.inventory.task;
+
+import com.inventory.exception.BusinessException;
+import com.inventory.service.StatisticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * 每日出入库汇总回填任务
+ *
+ * 审核时已在同一事务中累加汇总；本任务从已审核单据逐日重建汇总，用于首次上线回填历史数据，
+ * 以及每日修复最近若干天（不含当天）可能出现的偏差。每一天单独一个事务，重建期间只锁定当天的汇总行。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Slf4j
+@Component
+public class DailyMovementBackfillTask {
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Value("${inventory.daily-movement.repair-days:7}")
+    private int repairDays;
+
+    @Scheduled(cron = "${inventory.daily-movement.repair-cron:0 30 2 * * ?}")
+    public void repairRecent() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        backfill(yesterday.minusDays(repairDays - 1), yesterday);
+    }
+
+    /**
+     * 逐日重建汇总
+     *
+     * @param startDate 开始日期（含）
+     * @param endDate 结束日期（含）
+     * @return 重建的天数
+     */
+    public int backfill(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new BusinessException("回填日期范围无效");
+        }
+        long start = System.currentTimeMillis();
+
+        int days = 0;
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            statisticsService.rebuildDailyMovement(date);
+            days++;
+        }
+
+        log.info("每日出入库汇总回填完成，{} ~ {}, days={}, 耗时={}ms",
+                startDate, endDate, days, System.currentTimeMillis() - start);
+        return days;
+    }
+}
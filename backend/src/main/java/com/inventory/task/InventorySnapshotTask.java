@@ -0,0 +1,48 @@
+package com.inventory.task;
+
+import com.inventory.service.InventoryLedgerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 库存快照任务
+ *
+ * 定期为每个商品生成截止到某一时刻的库存快照。截止时间比当前时间提前
+ * snapshot-lag-minutes，保证截止时间之前的流水所在事务均已提交。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Slf4j
+@Component
+public class InventorySnapshotTask {
+
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Value("${inventory.ledger.snapshot-lag-minutes:5}")
+    private long lagMinutes;
+
+    @Value("${inventory.ledger.snapshot-batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(cron = "${inventory.ledger.snapshot-cron:0 0 2 * * ?}")
+    public void snapshot() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(lagMinutes).truncatedTo(ChronoUnit.SECONDS);
+        long start = System.currentTimeMillis();
+
+        Long lastId = 0L;
+        int batches = 0;
+        while ((lastId = inventoryLedgerService.snapshotBatch(lastId, batchSize, cutoff)) != null) {
+            batches++;
+        }
+
+        log.info("库存快照任务完成，cutoff={}, batches={}, 耗时={}ms", cutoff, batches, System.currentTimeMillis() - start);
+    }
+}
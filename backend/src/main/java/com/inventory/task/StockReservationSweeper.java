@@ -0,0 +1,47 @@
+package com.inventory.task;
+
+import com.inventory.service.StockReservationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 过期库存预占清理任务
+ *
+ * 定时分批释放超过有效期仍未审核的出库单预占，每批在独立事务中提交，
+ * 避免一次清理持有大量行锁。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Slf4j
+@Component
+public class StockReservationSweeper {
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Value("${inventory.reservation.sweep-batch-size:500}")
+    private int batchSize;
+
+    @Value("${inventory.reservation.sweep-max-batches:20}")
+    private int maxBatches;
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:60000}",
+            initialDelayString = "${inventory.reservation.sweep-interval-ms:60000}")
+    public void sweep() {
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            int released = stockReservationService.expireBatch(batchSize);
+            total += released;
+            if (released < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("过期库存预占清理完成，释放 {} 条", total);
+        }
+    }
+}
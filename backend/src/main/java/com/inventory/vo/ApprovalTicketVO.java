@@ -0,0 +1,45 @@
+package com.inventory.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 异步审核凭证VO
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@ApiModel(value = "ApprovalTicketVO对象", description = "异步审核凭证及结果")
+public class ApprovalTicketVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty("审核凭证")
+    private String ticket;
+
+    @ApiModelProperty("单据ID")
+    private Long id;
+
+    @ApiModelProperty("是否已完成")
+    private Boolean done;
+
+    @ApiModelProperty("单号（完成后返回）")
+    private String orderNo;
+
+    @ApiModelProperty("是否审核成功（未完成时为空）")
+    private Boolean success;
+
+    @ApiModelProperty("结果说明")
+    private String message;
+
+    @ApiModelProperty("提交时间")
+    private LocalDateTime submittedAt;
+
+    @ApiModelProperty("完成时间")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,50 @@
+package com.inventory.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 批量审核单条结果VO
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@ApiModel(value = "BatchApproveItemVO对象", description = "批量审核单条结果")
+public class BatchApproveItemVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty("单据ID")
+    private Long id;
+
+    @ApiModelProperty("单号")
+    private String orderNo;
+
+    @ApiModelProperty("是否审核成功")
+    private Boolean success;
+
+    @ApiModelProperty("结果说明")
+    private String message;
+
+    public static BatchApproveItemVO success(Long id, String orderNo) {
+        BatchApproveItemVO vo = new BatchApproveItemVO();
+        vo.setId(id);
+        vo.setOrderNo(orderNo);
+        vo.setSuccess(true);
+        vo.setMessage("审核成功");
+        return vo;
+    }
+
+    public static BatchApproveItemVO failure(Long id, String orderNo, String message) {
+        BatchApproveItemVO vo = new BatchApproveItemVO();
+        vo.setId(id);
+        vo.setOrderNo(orderNo);
+        vo.setSuccess(false);
+        vo.setMessage(message);
+        return vo;
+    }
+}
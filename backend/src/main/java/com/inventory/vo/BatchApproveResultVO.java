@@ -0,0 +1,43 @@
+package com.inventory.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量审核结果VO
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@ApiModel(value = "BatchApproveResultVO对象", description = "批量审核结果")
+public class BatchApproveResultVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty("成功数量")
+    private Integer successCount = 0;
+
+    @ApiModelProperty("失败数量")
+    private Integer failCount = 0;
+
+    @ApiModelProperty("逐单结果（按请求顺序）")
+    private List<BatchApproveItemVO> items = new ArrayList<>();
+
+    /**
+     * 追加单条结果并更新计数
+     */
+    public void addItem(BatchApproveItemVO item) {
+        items.add(item);
+        if (Boolean.TRUE.equals(item.getSuccess())) {
+            successCount++;
+        } else {
+            failCount++;
+        }
+    }
+}
@@ -18,9 +18,15 @@ public class CategoryDistributionVO implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    @ApiModelProperty("分类ID")
+    private Long categoryId;
+
     @ApiModelProperty("分类名称")
     private String categoryName;
 
+    @ApiModelProperty("分类层级")
+    private Integer level;
+
     @ApiModelProperty("库存数量")
     private Integer quantity;
 
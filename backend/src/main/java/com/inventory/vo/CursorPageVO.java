@@ -0,0 +1,57 @@
+package com.inventory.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 游标分页结果VO
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@ApiModel(value = "CursorPageVO对象", description = "游标分页结果")
+public class CursorPageVO<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty("当前页记录")
+    private List<T> records;
+
+    @ApiModelProperty("每页大小")
+    private Integer size;
+
+    @ApiModelProperty("是否还有下一页")
+    private Boolean hasMore;
+
+    @ApiModelProperty("下一页游标，没有下一页时为空")
+    private String nextCursor;
+
+    /**
+     * 由多查询一行的结果构建分页（查询时 LIMIT size + 1，多出的一行仅用于判断是否有下一页）
+     *
+     * @param rows 查询结果
+     * @param size 每页大小
+     * @param converter 记录转换
+     * @param cursorOf 由本页最后一行生成下一页游标
+     * @return 分页结果
+     */
+    public static <E, T> CursorPageVO<T> of(List<E> rows, int size,
+                                            Function<E, T> converter, Function<E, String> cursorOf) {
+        boolean hasMore = rows.size() > size;
+        List<E> page = hasMore ? rows.subList(0, size) : rows;
+
+        CursorPageVO<T> vo = new CursorPageVO<>();
+        vo.setRecords(page.stream().map(converter).collect(Collectors.toList()));
+        vo.setSize(size);
+        vo.setHasMore(hasMore);
+        vo.setNextCursor(hasMore ? cursorOf.apply(page.get(page.size() - 1)) : null);
+        return vo;
+    }
+}
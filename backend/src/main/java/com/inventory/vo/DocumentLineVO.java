@@ -0,0 +1,46 @@
+package com.inventory.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 出入库单明细行视图对象
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@ApiModel(value = "DocumentLineVO对象", description = "出入库单明细行视图对象")
+public class DocumentLineVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty("行号")
+    private Integer lineNo;
+
+    @ApiModelProperty("商品ID")
+    private Long productId;
+
+    @ApiModelProperty("商品名称")
+    private String productName;
+
+    @ApiModelProperty("商品SKU")
+    private String productSku;
+
+    @ApiModelProperty("数量")
+    private Integer quantity;
+
+    /**
+     * 创建明细行，商品名称、SKU 由调用方补充
+     */
+    public static DocumentLineVO of(Integer lineNo, Long productId, Integer quantity) {
+        DocumentLineVO vo = new DocumentLineVO();
+        vo.setLineNo(lineNo);
+        vo.setProductId(productId);
+        vo.setQuantity(quantity);
+        return vo;
+    }
+}
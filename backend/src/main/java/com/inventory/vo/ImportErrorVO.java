@@ -0,0 +1,30 @@
+package com.inventory.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 导入单行错误VO
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "ImportErrorVO对象", description = "导入单行错误")
+public class ImportErrorVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty("行号（从 1 开始，含表头）")
+    private Integer line;
+
+    @ApiModelProperty("错误说明")
+    private String message;
+}
@@ -0,0 +1,58 @@
+package com.inventory.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果VO
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@ApiModel(value = "ImportResultVO对象", description = "批量导入结果")
+public class ImportResultVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty("数据行数（不含表头和空行）")
+    private Integer totalCount = 0;
+
+    @ApiModelProperty("成功数量")
+    private Integer successCount = 0;
+
+    @ApiModelProperty("失败数量")
+    private Integer failCount = 0;
+
+    @ApiModelProperty("逐行错误（按行号顺序）")
+    private List<ImportErrorVO> errors = new ArrayList<>();
+
+    @ApiModelProperty("错误过多时只返回前若干条")
+    private Boolean errorsTruncated = false;
+
+    /**
+     * 记录成功行数
+     */
+    public void addSuccess(int count) {
+        totalCount += count;
+        successCount += count;
+    }
+
+    /**
+     * 记录失败行；超过上限后只计数不再保留明细
+     */
+    public void addError(int line, String message, int maxErrors) {
+        totalCount++;
+        failCount++;
+        if (errors.size() < maxErrors) {
+            errors.add(new ImportErrorVO(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+}
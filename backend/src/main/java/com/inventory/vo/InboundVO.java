@@ -6,6 +6,7 @@ import lombok.Data;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 入库单视图对象
@@ -28,15 +29,24 @@ public class InboundVO implements Serializable {
     @ApiModelProperty("商品ID")
     private Long productId;
 
+    @ApiModelProperty("仓库ID")
+    private Long warehouseId;
+
     @ApiModelProperty("商品名称")
     private String productName;
 
     @ApiModelProperty("商品SKU")
     private String productSku;
 
-    @ApiModelProperty("入库数量")
+    @ApiModelProperty("入库数量（多行入库单为各行合计）")
     private Integer quantity;
 
+    @ApiModelProperty("明细行数（多行入库单的商品ID、名称为首行商品）")
+    private Integer lineCount;
+
+    @ApiModelProperty("入库明细（仅详情返回）")
+    private List<DocumentLineVO> lines;
+
     @ApiModelProperty("供应商")
     private String supplier;
 
@@ -72,7 +82,9 @@ public class InboundVO implements Serializable {
         vo.setId(inbound.getId());
         vo.setInboundNo(inbound.getInboundNo());
         vo.setProductId(inbound.getProductId());
+        vo.setWarehouseId(inbound.getWarehouseId());
         vo.setQuantity(inbound.getQuantity());
+        vo.setLineCount(inbound.getLineCount() != null ? inbound.getLineCount() : 1);
         vo.setSupplier(inbound.getSupplier());
         vo.setInboundDate(inbound.getInboundDate());
         vo.setStatus(inbound.getStatus());
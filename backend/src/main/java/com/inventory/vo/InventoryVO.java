@@ -45,6 +45,12 @@ public class InventoryVO implements Serializable {
     @ApiModelProperty(value = "库存数量", example = "100")
     private Integer quantity;
 
+    @ApiModelProperty(value = "预占数量", example = "0")
+    private Integer reservedQuantity;
+
+    @ApiModelProperty(value = "可用库存", example = "100")
+    private Integer availableQuantity;
+
     @ApiModelProperty(value = "预警值", example = "10")
     private Integer warningStock;
 
@@ -72,6 +78,8 @@ public class InventoryVO implements Serializable {
         vo.setProductId(inventory.getProductId());
         vo.setWarehouseId(inventory.getWarehouseId());
         vo.setQuantity(inventory.getQuantity());
+        vo.setReservedQuantity(inventory.getReservedQuantity());
+        vo.setAvailableQuantity(inventory.getAvailableQuantity());
         vo.setWarningStock(inventory.getWarningStock());
         vo.setCreatedAt(inventory.getCreatedAt());
         vo.setUpdatedAt(inventory.getUpdatedAt());
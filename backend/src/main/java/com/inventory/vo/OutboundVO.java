@@ -6,6 +6,7 @@ import lombok.Data;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 出库单视图对象
@@ -37,6 +38,12 @@ public class OutboundVO implements Serializable {
     @ApiModelProperty(value = "商品ID", example = "1")
     private Long productId;
 
+    /**
+     * 仓库ID
+     */
+    @ApiModelProperty(value = "仓库ID", example = "1")
+    private Long warehouseId;
+
     /**
      * 商品名称（非数据库字段）
      */
@@ -50,11 +57,23 @@ public class OutboundVO implements Serializable {
     private String productSku;
 
     /**
-     * 出库数量
+     * 出库数量（多行出库单为各行合计）
      */
-    @ApiModelProperty(value = "出库数量", example = "50")
+    @ApiModelProperty(value = "出库数量（多行出库单为各行合计）", example = "50")
     private Integer quantity;
 
+    /**
+     * 明细行数（多行出库单的商品ID、名称为首行商品）
+     */
+    @ApiModelProperty(value = "明细行数", example = "1")
+    private Integer lineCount;
+
+    /**
+     * 出库明细（仅详情返回）
+     */
+    @ApiModelProperty(value = "出库明细（仅详情返回）")
+    private List<DocumentLineVO> lines;
+
     /**
      * 收货人
      */
@@ -129,7 +148,9 @@ public class OutboundVO implements Serializable {
         vo.setId(outbound.getId());
         vo.setOutboundNo(outbound.getOutboundNo());
         vo.setProductId(outbound.getProductId());
+        vo.setWarehouseId(outbound.getWarehouseId());
         vo.setQuantity(outbound.getQuantity());
+        vo.setLineCount(outbound.getLineCount() != null ? outbound.getLineCount() : 1);
         vo.setReceiver(outbound.getReceiver());
         vo.setReceiverPhone(outbound.getReceiverPhone());
         vo.setOutboundDate(outbound.getOutboundDate());
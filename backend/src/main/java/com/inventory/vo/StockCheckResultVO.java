@@ -0,0 +1,63 @@
+package com.inventory.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量库存检查结果VO
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@Data
+@ApiModel(value = "StockCheckResultVO对象", description = "批量库存检查结果")
+public class StockCheckResultVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty("是否全部充足")
+    private Boolean sufficient = true;
+
+    @ApiModelProperty("逐商品结果（重复商品已合并，按首次出现顺序）")
+    private List<Item> items = new ArrayList<>();
+
+    /**
+     * 追加单个商品结果并更新整体结论
+     */
+    public void addItem(Item item) {
+        items.add(item);
+        if (!Boolean.TRUE.equals(item.getSufficient())) {
+            sufficient = false;
+        }
+    }
+
+    /**
+     * 单个商品检查结果
+     */
+    @Data
+    @ApiModel(value = "StockCheckResultVO.Item对象", description = "单个商品库存检查结果")
+    public static class Item implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @ApiModelProperty("商品ID")
+        private Long productId;
+
+        @ApiModelProperty("需要数量（重复行合计）")
+        private Integer requested;
+
+        @ApiModelProperty("可用库存（库存数量 - 预占数量），无库存记录时为 0")
+        private Integer available;
+
+        @ApiModelProperty("缺口数量，充足时为 0")
+        private Integer shortage;
+
+        @ApiModelProperty("是否充足")
+        private Boolean sufficient;
+    }
+}
@@ -1,9 +1,11 @@
 -- 入库单表
 CREATE TABLE IF NOT EXISTS t_inbound (
     id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主键',
-    inbound_no VARCHAR(20) NOT NULL UNIQUE COMMENT '入库单号',
-    product_id BIGINT NOT NULL COMMENT '商品ID',
-    quantity INT NOT NULL COMMENT '入库数量',
+    inbound_no VARCHAR(32) NOT NULL UNIQUE COMMENT '入库单号',
+    product_id BIGINT NOT NULL COMMENT '商品ID（多行单据为首行商品）',
+    warehouse_id BIGINT NOT NULL DEFAULT 1 COMMENT '仓库ID',
+    quantity INT NOT NULL COMMENT '入库数量（多行单据为各行合计）',
+    line_count INT NOT NULL DEFAULT 1 COMMENT '明细行数',
     supplier VARCHAR(100) NOT NULL COMMENT '供应商',
     inbound_date DATETIME NOT NULL COMMENT '入库日期',
     status TINYINT NOT NULL DEFAULT 0 COMMENT '状态：0-待审核 1-已审核 2-已作废',
@@ -25,9 +27,43 @@ CREATE TABLE IF NOT EXISTS t_inbound (
 CREATE INDEX idx_inbound_product_id ON t_inbound(product_id);
 CREATE INDEX idx_inbound_date ON t_inbound(inbound_date);
 CREATE INDEX idx_inbound_status ON t_inbound(status);
+CREATE INDEX idx_inbound_warehouse ON t_inbound(warehouse_id, status);
+-- 游标分页：按 (created_at, id) 倒序范围扫描
+CREATE INDEX idx_inbound_created ON t_inbound(created_at, id);
+
+-- 已有入库单表升级：增加仓库ID列
+-- ALTER TABLE t_inbound ADD COLUMN warehouse_id BIGINT NOT NULL DEFAULT 1 COMMENT '仓库ID' AFTER product_id;
+
+-- 已有入库单表升级：增加明细行数列
+-- ALTER TABLE t_inbound ADD COLUMN line_count INT NOT NULL DEFAULT 1 COMMENT '明细行数' AFTER quantity;
+
+-- 已有入库单表升级：当天序号超过 6 位时单号加长
+-- ALTER TABLE t_inbound MODIFY COLUMN inbound_no VARCHAR(32) NOT NULL COMMENT '入库单号';
+
+-- 入库单明细表（仅多行入库单写入明细；单行入库单的商品和数量即表头的 product_id、quantity）
+CREATE TABLE IF NOT EXISTS t_inbound_line (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主键',
+    inbound_id BIGINT NOT NULL COMMENT '入库单ID',
+    line_no INT NOT NULL COMMENT '行号',
+    product_id BIGINT NOT NULL COMMENT '商品ID',
+    quantity INT NOT NULL COMMENT '入库数量',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+
+    CONSTRAINT fk_inbound_line_inbound FOREIGN KEY (inbound_id)
+        REFERENCES t_inbound(id) ON DELETE CASCADE,
+    CONSTRAINT fk_inbound_line_product FOREIGN KEY (product_id)
+        REFERENCES t_product(id) ON DELETE RESTRICT,
+    CONSTRAINT uk_inbound_line UNIQUE (inbound_id, line_no),
+    CONSTRAINT chk_inbound_line_quantity CHECK (quantity > 0)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='入库单明细表';
+
+-- 单号序号表（入库单、出库单共用，按序号名称和日期各占一行，每次预留一段序号）
+CREATE TABLE IF NOT EXISTS t_order_sequence (
+    seq_name VARCHAR(32) NOT NULL COMMENT '序号名称',
+    seq_date DATE NOT NULL COMMENT '日期',
+    next_value BIGINT NOT NULL DEFAULT 1 COMMENT '下一个可用序号',
+    PRIMARY KEY (seq_name, seq_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='单号序号表';
 
--- 单号序号表（用于生成入库单号）
-CREATE TABLE IF NOT EXISTS t_inbound_sequence (
-    seq_date DATE PRIMARY KEY COMMENT '日期',
-    seq_value INT NOT NULL DEFAULT 0 COMMENT '序号'
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='入库单号序号表';
+-- 已有序号表升级：单号序号改为 6 位，由 t_order_sequence 分配，旧序号表不再使用
+-- DROP TABLE IF EXISTS t_inbound_sequence;
@@ -8,6 +8,7 @@ CREATE TABLE IF NOT EXISTS t_inventory (
     product_id BIGINT NOT NULL COMMENT '商品ID',
     warehouse_id BIGINT NOT NULL DEFAULT 1 COMMENT '仓库ID',
     quantity INT NOT NULL DEFAULT 0 COMMENT '库存数量',
+    reserved_quantity INT NOT NULL DEFAULT 0 COMMENT '预占数量（待审核出库单占用）',
     warning_stock INT NOT NULL DEFAULT 10 COMMENT '预警值',
     created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
@@ -19,4 +20,163 @@ CREATE TABLE IF NOT EXISTS t_inventory (
 
 -- 创建索引
 CREATE INDEX idx_inventory_product ON t_inventory(product_id);
-CREATE INDEX idx_inventory_warehouse ON t_inventory(warehouse_id);
+-- 按仓库分页、低库存查询
+CREATE INDEX idx_inventory_warehouse ON t_inventory(warehouse_id, product_id);
+-- 游标分页：按 (updated_at, id) 倒序范围扫描
+CREATE INDEX idx_inventory_updated ON t_inventory(updated_at, id);
+
+-- 已有库存表升级：增加预占数量列
+-- ALTER TABLE t_inventory ADD COLUMN reserved_quantity INT NOT NULL DEFAULT 0 COMMENT '预占数量（待审核出库单占用）' AFTER quantity;
+
+-- =====================================================
+-- 商品跨仓库存合计表 (Inventory Total)
+-- =====================================================
+
+-- 与库存流水在同一事务中维护，查询商品总库存无需汇总各仓库存
+CREATE TABLE IF NOT EXISTS t_inventory_total (
+    product_id BIGINT PRIMARY KEY COMMENT '商品ID',
+    quantity INT NOT NULL DEFAULT 0 COMMENT '各仓库存数量合计',
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='商品跨仓库存合计表';
+
+-- 已有数据初始化合计
+-- INSERT INTO t_inventory_total (product_id, quantity)
+-- SELECT product_id, SUM(quantity) FROM t_inventory GROUP BY product_id;
+
+-- =====================================================
+-- 库存预占表 (Stock Reservation)
+-- =====================================================
+
+-- 创建库存预占表，每个出库单至多一条预占中的记录
+CREATE TABLE IF NOT EXISTS t_stock_reservation (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主键ID',
+    outbound_id BIGINT NOT NULL COMMENT '出库单ID',
+    product_id BIGINT NOT NULL COMMENT '商品ID',
+    warehouse_id BIGINT NOT NULL DEFAULT 1 COMMENT '仓库ID',
+    quantity INT NOT NULL COMMENT '预占数量',
+    status TINYINT NOT NULL DEFAULT 0 COMMENT '状态：0-预占中 1-已扣减 2-已释放 3-已过期',
+    expire_at DATETIME NOT NULL COMMENT '过期时间',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    CONSTRAINT chk_reservation_quantity CHECK (quantity > 0)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='库存预占表';
+
+CREATE INDEX idx_reservation_outbound ON t_stock_reservation(outbound_id);
+-- 过期清理按 (status, expire_at) 扫描
+CREATE INDEX idx_reservation_status_expire ON t_stock_reservation(status, expire_at);
+
+-- =====================================================
+-- 库存合并写入批次表 (Stock Delta Batch)
+-- =====================================================
+
+-- 热点商品合并写入：写线程把一个窗口内同一商品的请求合并为一条 UPDATE（扣减为预占 reserved_quantity），
+-- 并为该窗口写入一行批次记录；调用方在自身事务中逐笔写入流水（batch_id 指向批次）。
+-- 调用方提交或回滚后，写线程按窗口合并应用或释放，并累加 applied / released，全部结清后删除批次。
+-- 进程崩溃遗留的批次由定时恢复按流水判定：有流水的部分补应用，其余释放。
+-- 应用失败（库存与批次不一致）的批次置为搁置，不再自动重试，待人工处理
+CREATE TABLE IF NOT EXISTS t_stock_delta (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '批次ID',
+    product_id BIGINT NOT NULL COMMENT '商品ID',
+    warehouse_id BIGINT NOT NULL DEFAULT 1 COMMENT '仓库ID',
+    quantity INT NOT NULL COMMENT '本批受理的增量合计，正数为入库，负数为出库（已预占）',
+    applied INT NOT NULL DEFAULT 0 COMMENT '已应用的增量（调用方已提交）',
+    released INT NOT NULL DEFAULT 0 COMMENT '已释放的增量（调用方已回滚）',
+    status TINYINT NOT NULL DEFAULT 0 COMMENT '状态：0-进行中 1-已搁置',
+    created_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间',
+    updated_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '更新时间',
+
+    CONSTRAINT chk_stock_delta CHECK (quantity <> 0)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='库存合并写入批次表';
+
+-- 定时恢复按 (status, created_at) 扫描
+CREATE INDEX idx_stock_delta_status_created ON t_stock_delta(status, created_at);
+
+-- =====================================================
+-- 库存流水表 (Inventory Ledger, 只追加不修改)
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS t_inventory_txn (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主键ID',
+    product_id BIGINT NOT NULL COMMENT '商品ID',
+    warehouse_id BIGINT NOT NULL DEFAULT 1 COMMENT '仓库ID',
+    change_type TINYINT NOT NULL COMMENT '变动类型：1-入库 2-出库 3-调整',
+    delta INT NOT NULL COMMENT '变动数量（正数增加，负数减少）',
+    reason VARCHAR(200) COMMENT '变动原因',
+    batch_id BIGINT COMMENT '合并写入批次ID（t_stock_delta），直接写入时为空',
+    created_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '发生时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='库存流水表';
+
+-- 按商品 + 时间范围汇总流水
+CREATE INDEX idx_txn_product_time ON t_inventory_txn(product_id, warehouse_id, created_at);
+-- 合并写入恢复时按批次汇总流水
+CREATE INDEX idx_txn_batch ON t_inventory_txn(batch_id);
+
+-- =====================================================
+-- 库存快照表 (Inventory Snapshot)
+-- =====================================================
+
+-- 快照数量 = 截止时间（不含）之前所有流水累计后的库存
+CREATE TABLE IF NOT EXISTS t_inventory_snapshot (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主键ID',
+    product_id BIGINT NOT NULL COMMENT '商品ID',
+    warehouse_id BIGINT NOT NULL DEFAULT 1 COMMENT '仓库ID',
+    quantity INT NOT NULL COMMENT '截止时间的库存数量',
+    snapshot_at DATETIME(3) NOT NULL COMMENT '快照截止时间',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+
+    CONSTRAINT uk_snapshot_product_time UNIQUE (product_id, warehouse_id, snapshot_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='库存快照表';
+
+-- =====================================================
+-- 看板汇总表 (Dashboard Stats)
+-- =====================================================
+
+-- 库存变动、商品成本价/状态变更时在同一事务中累加；按商品ID取模分散到 16 个槽位，看板读取时求和
+CREATE TABLE IF NOT EXISTS t_dashboard_stats (
+    slot TINYINT PRIMARY KEY COMMENT '槽位',
+    total_quantity BIGINT NOT NULL DEFAULT 0 COMMENT '库存数量合计',
+    total_cost_value DECIMAL(18,2) NOT NULL DEFAULT 0.00 COMMENT '库存成本总额',
+    low_stock_count INT NOT NULL DEFAULT 0 COMMENT '低库存记录数',
+    active_product_count INT NOT NULL DEFAULT 0 COMMENT '启用商品数',
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='看板汇总表';
+
+INSERT IGNORE INTO t_dashboard_stats (slot) VALUES
+(0), (1), (2), (3), (4), (5), (6), (7), (8), (9), (10), (11), (12), (13), (14), (15);
+
+-- 已有数据初始化汇总：调用 POST /api/statistics/dashboard/rebuild
+
+-- =====================================================
+-- 每日出入库汇总表 (Daily Movement)
+-- =====================================================
+
+-- 入库单、出库单审核时在同一事务中累加，出入库趋势按日期汇总本表，无需扫描单据明细
+CREATE TABLE IF NOT EXISTS t_daily_movement (
+    movement_date DATE NOT NULL COMMENT '日期（入库/出库日期）',
+    product_id BIGINT NOT NULL COMMENT '商品ID',
+    inbound_quantity INT NOT NULL DEFAULT 0 COMMENT '已审核入库数量',
+    outbound_quantity INT NOT NULL DEFAULT 0 COMMENT '已审核出库数量',
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    PRIMARY KEY (movement_date, product_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='每日出入库汇总表';
+
+-- 已有数据初始化汇总：调用 POST /api/statistics/daily-movement/backfill
+
+-- =====================================================
+-- 缓存失效事件表 (Cache Invalidation)
+-- =====================================================
+
+-- 商品、分类写入时在同一事务中插入；库存变更提交后按节点合并，每个拉取周期插入一行。
+-- 各节点定时拉取最近的事件并丢弃本地缓存；过期事件定时清理
+CREATE TABLE IF NOT EXISTS t_cache_invalidation (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '事件ID',
+    node_id VARCHAR(64) NOT NULL COMMENT '发布节点ID',
+    resource VARCHAR(16) NOT NULL COMMENT '资源类别：CATEGORY、PRODUCT、INVENTORY',
+    ids TEXT COMMENT '失效的ID（逗号分隔），为空表示该类别全部失效',
+    created_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='缓存失效事件表';
+
+-- 按创建时间回看最近事件、清理过期事件
+CREATE INDEX idx_cache_invalidation_created ON t_cache_invalidation(created_at);
@@ -1,9 +1,11 @@
 -- 出库单表
 CREATE TABLE IF NOT EXISTS t_outbound (
     id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主键',
-    outbound_no VARCHAR(20) NOT NULL UNIQUE COMMENT '出库单号',
-    product_id BIGINT NOT NULL COMMENT '商品ID',
-    quantity INT NOT NULL COMMENT '出库数量',
+    outbound_no VARCHAR(32) NOT NULL UNIQUE COMMENT '出库单号',
+    product_id BIGINT NOT NULL COMMENT '商品ID（多行单据为首行商品）',
+    warehouse_id BIGINT NOT NULL DEFAULT 1 COMMENT '仓库ID',
+    quantity INT NOT NULL COMMENT '出库数量（多行单据为各行合计）',
+    line_count INT NOT NULL DEFAULT 1 COMMENT '明细行数',
     receiver VARCHAR(100) NOT NULL COMMENT '收货人',
     receiver_phone VARCHAR(20) COMMENT '收货人电话',
     outbound_date DATETIME NOT NULL COMMENT '出库日期',
@@ -26,9 +28,37 @@ CREATE TABLE IF NOT EXISTS t_outbound (
 CREATE INDEX idx_outbound_product_id ON t_outbound(product_id);
 CREATE INDEX idx_outbound_date ON t_outbound(outbound_date);
 CREATE INDEX idx_outbound_status ON t_outbound(status);
+CREATE INDEX idx_outbound_warehouse ON t_outbound(warehouse_id, status);
+-- 游标分页：按 (created_at, id) 倒序范围扫描
+CREATE INDEX idx_outbound_created ON t_outbound(created_at, id);
+
+-- 已有出库单表升级：增加仓库ID列
+-- ALTER TABLE t_outbound ADD COLUMN warehouse_id BIGINT NOT NULL DEFAULT 1 COMMENT '仓库ID' AFTER product_id;
+
+-- 已有出库单表升级：增加明细行数列
+-- ALTER TABLE t_outbound ADD COLUMN line_count INT NOT NULL DEFAULT 1 COMMENT '明细行数' AFTER quantity;
+
+-- 已有出库单表升级：当天序号超过 6 位时单号加长
+-- ALTER TABLE t_outbound MODIFY COLUMN outbound_no VARCHAR(32) NOT NULL COMMENT '出库单号';
+
+-- 出库单明细表（仅多行出库单写入明细；单行出库单的商品和数量即表头的 product_id、quantity）
+CREATE TABLE IF NOT EXISTS t_outbound_line (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主键',
+    outbound_id BIGINT NOT NULL COMMENT '出库单ID',
+    line_no INT NOT NULL COMMENT '行号',
+    product_id BIGINT NOT NULL COMMENT '商品ID',
+    quantity INT NOT NULL COMMENT '出库数量',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+
+    CONSTRAINT fk_outbound_line_outbound FOREIGN KEY (outbound_id)
+        REFERENCES t_outbound(id) ON DELETE CASCADE,
+    CONSTRAINT fk_outbound_line_product FOREIGN KEY (product_id)
+        REFERENCES t_product(id) ON DELETE RESTRICT,
+    CONSTRAINT uk_outbound_line UNIQUE (outbound_id, line_no),
+    CONSTRAINT chk_outbound_line_quantity CHECK (quantity > 0)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='出库单明细表';
+
+-- 出库单号与入库单号共用 t_order_sequence，见 inbound.sql
 
--- 单号序号表（用于生成出库单号）
-CREATE TABLE IF NOT EXISTS t_outbound_sequence (
-    seq_date DATE PRIMARY KEY COMMENT '日期',
-    seq_value INT NOT NULL DEFAULT 0 COMMENT '序号'
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='出库单号序号表';
+-- 已有序号表升级：单号序号改为 6 位，由 t_order_sequence 分配，旧序号表不再使用
+-- DROP TABLE IF EXISTS t_outbound_sequence;
@@ -0,0 +1,202 @@
+package com.inventory.component;
+
+import com.inventory.component.OrderNoGenerator.OrderType;
+import com.inventory.exception.BusinessException;
+import com.inventory.exception.ServiceBusyException;
+import com.inventory.service.InboundService;
+import com.inventory.service.OutboundService;
+import com.inventory.vo.ApprovalTicketVO;
+import com.inventory.vo.BatchApproveItemVO;
+import com.inventory.vo.BatchApproveResultVO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 异步审核队列测试
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("异步审核队列测试 (AsyncApprovalQueueTest)")
+class AsyncApprovalQueueTest {
+
+    private InboundService inboundService;
+    private OutboundService outboundService;
+    private AsyncApprovalQueue approvalQueue;
+
+    @BeforeEach
+    void setUp() {
+        inboundService = mock(InboundService.class);
+        outboundService = mock(OutboundService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (approvalQueue != null) {
+            approvalQueue.stop();
+        }
+    }
+
+    /**
+     * 单工作线程 + 较长窗口，保证测试中提交的请求落入同一批
+     */
+    private void startQueue(int capacity, long windowMillis) {
+        approvalQueue = new AsyncApprovalQueue(inboundService, outboundService, true, 1, capacity, 50, windowMillis, 30000, 600, 1);
+        approvalQueue.start();
+    }
+
+    private BatchApproveResultVO resultOf(BatchApproveItemVO... items) {
+        BatchApproveResultVO result = new BatchApproveResultVO();
+        Arrays.stream(items).forEach(result::addItem);
+        return result;
+    }
+
+    private ApprovalTicketVO awaitResult(OrderType type, ApprovalTicketVO ticket) throws Exception {
+        return approvalQueue.await(type, ticket.getTicket()).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("同一窗口内的审核请求合并为一次批量审核提交")
+    void should_GroupCommitApprovals_IntoSingleBatch() throws Exception {
+        // Arrange
+        startQueue(100, 200);
+        when(outboundService.approveBatch(Arrays.asList(1L, 2L, 3L), "admin", true)).thenReturn(resultOf(
+                BatchApproveItemVO.success(1L, "OUT1"),
+                BatchApproveItemVO.failure(2L, "OUT2", "库存不足，商品ID：1，剩余可用：0，需要：5"),
+                BatchApproveItemVO.success(3L, "OUT3")));
+
+        // Act
+        List<ApprovalTicketVO> tickets = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            tickets.add(approvalQueue.submit(OrderType.OUTBOUND, id, "admin"));
+        }
+
+        // Assert
+        assertThat(tickets).extracting(ApprovalTicketVO::getDone).containsOnly(false);
+        assertThat(awaitResult(OrderType.OUTBOUND, tickets.get(0)).getOrderNo()).isEqualTo("OUT1");
+        ApprovalTicketVO failed = awaitResult(OrderType.OUTBOUND, tickets.get(1));
+        assertThat(failed.getSuccess()).isFalse();
+        assertThat(failed.getMessage()).contains("库存不足");
+        assertThat(awaitResult(OrderType.OUTBOUND, tickets.get(2)).getSuccess()).isTrue();
+        verify(outboundService, times(1)).approveBatch(anyList(), anyString(), anyBoolean());
+        verify(outboundService, never()).approve(anyLong(), anyString());
+    }
+
+    @Test
+    @DisplayName("不同单据类型、审核人分组各自提交")
+    void should_SplitGroups_ByTypeAndApprover() throws Exception {
+        // Arrange
+        startQueue(100, 200);
+        when(inboundService.approveBatch(anyList(), anyString())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return resultOf(ids.stream().map(id -> BatchApproveItemVO.success(id, "IN" + id))
+                    .toArray(BatchApproveItemVO[]::new));
+        });
+        when(outboundService.approveBatch(anyList(), anyString(), eq(true)))
+                .thenReturn(resultOf(BatchApproveItemVO.success(3L, "OUT3")));
+
+        // Act
+        ApprovalTicketVO first = approvalQueue.submit(OrderType.INBOUND, 1L, "admin");
+        ApprovalTicketVO second = approvalQueue.submit(OrderType.INBOUND, 2L, "auditor");
+        ApprovalTicketVO third = approvalQueue.submit(OrderType.OUTBOUND, 3L, "admin");
+
+        // Assert
+        assertThat(awaitResult(OrderType.INBOUND, first).getSuccess()).isTrue();
+        assertThat(awaitResult(OrderType.INBOUND, second).getSuccess()).isTrue();
+        assertThat(awaitResult(OrderType.OUTBOUND, third).getSuccess()).isTrue();
+        verify(inboundService).approveBatch(Arrays.asList(1L), "admin");
+        verify(inboundService).approveBatch(Arrays.asList(2L), "auditor");
+        verify(outboundService).approveBatch(Arrays.asList(3L), "admin", true);
+    }
+
+    @Test
+    @DisplayName("整组提交失败时逐单重新审核，各自得到结果")
+    void should_FallBackToSingleApprovals_When_GroupCommitFails() throws Exception {
+        // Arrange
+        startQueue(100, 200);
+        when(inboundService.approveBatch(anyList(), anyString()))
+                .thenThrow(new BusinessException("部分入库单状态已变更，请刷新后重试"));
+        when(inboundService.approve(1L, "admin")).thenReturn(true);
+        when(inboundService.approve(2L, "admin")).thenThrow(new BusinessException("只有待审核状态的入库单可以审核"));
+
+        // Act
+        ApprovalTicketVO first = approvalQueue.submit(OrderType.INBOUND, 1L, "admin");
+        ApprovalTicketVO second = approvalQueue.submit(OrderType.INBOUND, 2L, "admin");
+
+        // Assert
+        assertThat(awaitResult(OrderType.INBOUND, first).getSuccess()).isTrue();
+        ApprovalTicketVO failed = awaitResult(OrderType.INBOUND, second);
+        assertThat(failed.getSuccess()).isFalse();
+        assertThat(failed.getMessage()).isEqualTo("只有待审核状态的入库单可以审核");
+    }
+
+    @Test
+    @DisplayName("队列已满时拒绝提交")
+    void should_RejectSubmit_When_QueueFull() throws Exception {
+        // Arrange：工作线程阻塞在第一笔审核中，队列容量为 1
+        startQueue(1, 0);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(inboundService.approveBatch(anyList(), anyString())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            List<Long> ids = invocation.getArgument(0);
+            return resultOf(BatchApproveItemVO.success(ids.get(0), null));
+        });
+        ApprovalTicketVO first = approvalQueue.submit(OrderType.INBOUND, 1L, "admin");
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        ApprovalTicketVO queued = approvalQueue.submit(OrderType.INBOUND, 2L, "admin");
+
+        // Act & Assert
+        assertThatThrownBy(() -> approvalQueue.submit(OrderType.INBOUND, 3L, "admin"))
+                .isInstanceOf(ServiceBusyException.class)
+                .hasMessageContaining("审核队列已满");
+
+        release.countDown();
+        assertThat(awaitResult(OrderType.INBOUND, first).getSuccess()).isTrue();
+        assertThat(awaitResult(OrderType.INBOUND, queued).getSuccess()).isTrue();
+    }
+
+    @Test
+    @DisplayName("凭证与单据类型不匹配或不存在时拒绝查询")
+    void should_RejectLookup_When_TicketUnknownOrOtherType() {
+        // Arrange
+        startQueue(100, 200);
+        when(inboundService.approveBatch(anyList(), anyString()))
+                .thenReturn(resultOf(BatchApproveItemVO.success(1L, "IN1")));
+        ApprovalTicketVO ticket = approvalQueue.submit(OrderType.INBOUND, 1L, "admin");
+
+        // Act & Assert
+        assertThatThrownBy(() -> approvalQueue.get(OrderType.OUTBOUND, ticket.getTicket()))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("审核凭证不存在");
+        assertThatThrownBy(() -> approvalQueue.get(OrderType.INBOUND, "missing"))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    @DisplayName("未启用时拒绝提交")
+    void should_RejectSubmit_When_Disabled() {
+        // Arrange
+        approvalQueue = new AsyncApprovalQueue(inboundService, outboundService, false, 1, 100, 50, 5, 30000, 600, 1);
+        approvalQueue.start();
+
+        // Act & Assert
+        assertThatThrownBy(() -> approvalQueue.submit(OrderType.INBOUND, 1L, "admin"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("未启用");
+        verifyNoInteractions(inboundService);
+    }
+}
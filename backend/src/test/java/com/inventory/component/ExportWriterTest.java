@@ -0,0 +1,95 @@
+package com.inventory.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.inventory.component.ExportWriter.Column;
+import com.inventory.exception.BusinessException;
+import com.inventory.vo.InboundVO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 导出文件写入测试
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("导出文件写入测试 (ExportWriterTest)")
+class ExportWriterTest {
+
+    private final ExportWriter exportWriter = new ExportWriter(
+            new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+    private final List<Column<InboundVO>> columns = Arrays.asList(
+            Column.of("inboundNo", InboundVO::getInboundNo),
+            Column.of("quantity", InboundVO::getQuantity),
+            Column.of("supplier", InboundVO::getSupplier),
+            Column.of("inboundDate", InboundVO::getInboundDate),
+            Column.of("remark", InboundVO::getRemark));
+
+    @Test
+    @DisplayName("CSV 带 BOM 与表头，特殊字符转义，公式开头的文本加单引号")
+    void should_WriteCsv() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        ExportWriter.Sink<InboundVO> sink = exportWriter.open(out, ExportWriter.Format.CSV, columns);
+        sink.write(row("华为, \"深圳\"", "=1+1"));
+        sink.write(row("小米", null));
+        long rows = sink.finish();
+
+        // Assert
+        assertThat(rows).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8.name())).isEqualTo("\uFEFF"
+                + "inboundNo,quantity,supplier,inboundDate,remark\r\n"
+                + "IN20260104000001,10,\"华为, \"\"深圳\"\"\",2026-01-04 09:30:00,'=1+1\r\n"
+                + "IN20260104000001,10,小米,2026-01-04 09:30:00,\r\n");
+    }
+
+    @Test
+    @DisplayName("NDJSON 每行一个对象")
+    void should_WriteNdjson() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        ExportWriter.Sink<InboundVO> sink = exportWriter.open(out, ExportWriter.Format.NDJSON, columns);
+        sink.write(row("A", null));
+        sink.write(row("B", null));
+        sink.finish();
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{").contains("\"supplier\":\"A\"").contains("\"inboundDate\":\"2026-01-04T09:30:00\"");
+        assertThat(lines[1]).contains("\"supplier\":\"B\"");
+    }
+
+    @Test
+    @DisplayName("不支持的格式抛出异常")
+    void should_RejectUnknownFormat() {
+        assertThat(ExportWriter.Format.of("NDJSON")).isEqualTo(ExportWriter.Format.NDJSON);
+        assertThatThrownBy(() -> ExportWriter.Format.of("xlsx"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("不支持的导出格式：xlsx");
+    }
+
+    private InboundVO row(String supplier, String remark) {
+        InboundVO vo = new InboundVO();
+        vo.setInboundNo("IN20260104000001");
+        vo.setQuantity(10);
+        vo.setSupplier(supplier);
+        vo.setInboundDate(LocalDateTime.of(2026, 1, 4, 9, 30));
+        vo.setRemark(remark);
+        return vo;
+    }
+}
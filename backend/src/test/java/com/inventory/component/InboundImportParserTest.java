@@ -0,0 +1,90 @@
+package com.inventory.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.exception.BusinessException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 入库单导入文件解析测试
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("入库单导入文件解析测试 (InboundImportParserTest)")
+class InboundImportParserTest {
+
+    private final InboundImportParser parser = new InboundImportParser(new ObjectMapper().findAndRegisterModules());
+
+    @Test
+    @DisplayName("CSV 按表头取列，支持引号字段，格式错误的行带行号返回")
+    void should_ParseCsvByHeader() throws Exception {
+        // Arrange：列顺序与字段不同，含 BOM、空行和多余的列
+        String csv = "\uFEFFsupplier,quantity,productId,inboundDate,note\n"
+                + "\"华为, 深圳\",50,1,2026-01-04 10:30:00,x\n"
+                + "\n"
+                + "\"他说\"\"好\"\"\",abc,2,2026-01-04,\n"
+                + "供应商,5,3,2026-01-04T08:00:00\n";
+
+        // Act
+        List<InboundImportParser.Line> lines = readAll(csv, "csv");
+
+        // Assert
+        assertThat(lines).extracting(InboundImportParser.Line::getLineNo).containsExactly(2, 4, 5);
+        assertThat(lines.get(0).getDto().getSupplier()).isEqualTo("华为, 深圳");
+        assertThat(lines.get(0).getDto().getQuantity()).isEqualTo(50);
+        assertThat(lines.get(0).getDto().getInboundDate()).isEqualTo(LocalDateTime.of(2026, 1, 4, 10, 30));
+        assertThat(lines.get(0).getDto().getWarehouseId()).isNull();
+        assertThat(lines.get(1).getDto()).isNull();
+        assertThat(lines.get(1).getError()).isEqualTo("quantity 不是有效的整数：abc");
+        assertThat(lines.get(2).getDto().getProductId()).isEqualTo(3L);
+        assertThat(lines.get(2).getDto().getInboundDate()).isEqualTo(LocalDateTime.of(2026, 1, 4, 8, 0));
+    }
+
+    @Test
+    @DisplayName("CSV 缺少必填列或格式不支持时整体拒绝")
+    void should_RejectFile_When_HeaderInvalid() {
+        assertThatThrownBy(() -> readAll("productId,quantity,supplier\n1,2,x\n", "csv"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("导入文件缺少列：inboundDate");
+        assertThatThrownBy(() -> readAll("", "xlsx"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("不支持的导入格式：xlsx");
+    }
+
+    @Test
+    @DisplayName("NDJSON 每行一个对象，无法解析的行返回错误")
+    void should_ParseNdjsonLines() throws Exception {
+        // Arrange
+        String ndjson = "{\"productId\":1,\"quantity\":10,\"supplier\":\"A\",\"inboundDate\":\"2026-01-04T09:00:00\"}\n"
+                + "{\"productId\":1,\"quantity\":\n"
+                + "null\n";
+
+        // Act
+        List<InboundImportParser.Line> lines = readAll(ndjson, "ndjson");
+
+        // Assert
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0).getDto().getQuantity()).isEqualTo(10);
+        assertThat(lines.get(0).getDto().getInboundDate()).isEqualTo(LocalDateTime.of(2026, 1, 4, 9, 0));
+        assertThat(lines.get(1).getError()).startsWith("JSON 格式错误");
+        assertThat(lines.get(2).getError()).startsWith("JSON 格式错误");
+    }
+
+    private List<InboundImportParser.Line> readAll(String content, String format) throws Exception {
+        InboundImportParser.Cursor cursor = parser.open(new BufferedReader(new StringReader(content)), format);
+        List<InboundImportParser.Line> lines = new ArrayList<>();
+        for (InboundImportParser.Line line = cursor.next(); line != null; line = cursor.next()) {
+            lines.add(line);
+        }
+        return lines;
+    }
+}
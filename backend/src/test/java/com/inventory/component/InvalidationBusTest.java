@@ -0,0 +1,180 @@
+package com.inventory.component;
+
+import com.inventory.component.ResourceVersions.Resource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 缓存失效广播测试
+ *
+ * 两个广播实例共用一个进程内通道，模拟两个节点。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("缓存失效广播测试 (InvalidationBusTest)")
+class InvalidationBusTest {
+
+    private ResourceVersions versionsA;
+    private ResourceVersions versionsB;
+    private InvalidationBus nodeA;
+    private InvalidationBus nodeB;
+
+    private final List<Set<Long>> receivedA = new ArrayList<>();
+    private final List<Set<Long>> remoteOnlyA = new ArrayList<>();
+    private final List<Set<Long>> receivedB = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        LocalInvalidationTransport.Channel channel = new LocalInvalidationTransport.Channel();
+        versionsA = new ResourceVersions();
+        versionsB = new ResourceVersions();
+        nodeA = new InvalidationBus(new LocalInvalidationTransport(channel), versionsA, 3);
+        nodeB = new InvalidationBus(new LocalInvalidationTransport(channel), versionsB, 3);
+
+        nodeA.subscribe(Resource.PRODUCT, receivedA::add);
+        nodeA.subscribeRemote(Resource.PRODUCT, remoteOnlyA::add);
+        nodeB.subscribe(Resource.PRODUCT, receivedB::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(nodeA);
+    }
+
+    @Test
+    @DisplayName("同一事务内的事件合并，提交后通知本节点，其他节点拉取后收到")
+    void should_MergeAndDeliver_AfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        nodeA.publishAfterCommit(Resource.PRODUCT, Collections.singleton(1L));
+        nodeA.publishAfterCommit(Resource.PRODUCT, Arrays.asList(2L, 1L));
+
+        // Act & Assert：提交前不通知
+        List<TransactionSynchronization> synchronizations = commit();
+        assertThat(synchronizations).isNotEmpty();
+        assertThat(receivedA).containsExactly(new HashSet<>(Arrays.asList(1L, 2L)));
+        assertThat(remoteOnlyA).isEmpty();
+        assertThat(versionsA.get(Resource.PRODUCT)).isEqualTo(1L);
+
+        nodeA.poll();
+        nodeB.poll();
+
+        // Assert：本节点不重复处理自己的事件
+        assertThat(receivedA).hasSize(1);
+        assertThat(receivedB).containsExactly(new HashSet<>(Arrays.asList(1L, 2L)));
+        assertThat(versionsB.get(Resource.PRODUCT)).isEqualTo(1L);
+        assertThat(versionsB.get(Resource.CATEGORY)).isZero();
+    }
+
+    @Test
+    @DisplayName("事务回滚时丢弃事件")
+    void should_DiscardEvents_When_RolledBack() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        nodeA.publishAfterCommit(Resource.PRODUCT, Collections.singleton(1L));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Act
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        nodeB.poll();
+
+        // Assert
+        assertThat(receivedA).isEmpty();
+        assertThat(receivedB).isEmpty();
+        assertThat(versionsA.get(Resource.PRODUCT)).isZero();
+        assertThat(TransactionSynchronizationManager.getResource(nodeA)).isNull();
+    }
+
+    @Test
+    @DisplayName("ID 超过上限时整类失效")
+    void should_InvalidateAll_When_TooManyIds() {
+        // Act：无事务时立即发布
+        nodeA.publishAfterCommit(Resource.PRODUCT, Arrays.asList(1L, 2L, 3L, 4L));
+        nodeB.poll();
+
+        // Assert
+        assertThat(receivedA).containsExactly((Set<Long>) null);
+        assertThat(receivedB).containsExactly((Set<Long>) null);
+    }
+
+    @Test
+    @DisplayName("订阅者异常不影响其他订阅者和版本号")
+    void should_ContinueDispatch_When_SubscriberFails() {
+        // Arrange
+        List<Set<Long>> received = new ArrayList<>();
+        nodeB.subscribe(Resource.CATEGORY, ids -> {
+            throw new IllegalStateException("boom");
+        });
+        nodeB.subscribe(Resource.CATEGORY, received::add);
+
+        // Act
+        nodeA.publishAfterCommit(Resource.CATEGORY, Collections.singleton(5L));
+        nodeB.poll();
+
+        // Assert
+        assertThat(received).containsExactly(Collections.singleton(5L));
+        assertThat(versionsB.get(Resource.CATEGORY)).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("库存事件提交后在本节点合并，每个拉取周期只发布一条")
+    void should_CoalesceInventoryEvents_PerPollInterval() {
+        // Arrange
+        List<Set<Long>> inventoryA = new ArrayList<>();
+        List<Set<Long>> inventoryB = new ArrayList<>();
+        nodeA.subscribe(Resource.INVENTORY, inventoryA::add);
+        nodeB.subscribe(Resource.INVENTORY, inventoryB::add);
+
+        // Act：两笔事务各变更一个商品的库存
+        for (long productId = 1; productId <= 2; productId++) {
+            TransactionSynchronizationManager.initSynchronization();
+            nodeA.publishAfterCommit(Resource.INVENTORY, Collections.singleton(productId));
+            commit();
+        }
+        nodeB.poll();
+
+        // Assert：本节点提交后立即收到，其他节点在发布节点下次拉取前收不到
+        assertThat(inventoryA).containsExactly(Collections.singleton(1L), Collections.singleton(2L));
+        assertThat(inventoryB).isEmpty();
+
+        nodeA.poll();
+        nodeB.poll();
+
+        assertThat(inventoryA).hasSize(2);
+        assertThat(inventoryB).containsExactly(new HashSet<>(Arrays.asList(1L, 2L)));
+        assertThat(versionsB.get(Resource.INVENTORY)).isEqualTo(1L);
+    }
+
+    /**
+     * 按事务管理器的顺序执行提交回调，返回提交时的同步列表
+     */
+    private List<TransactionSynchronization> commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(s -> s.beforeCommit(false));
+        assertThat(receivedA).isEmpty();
+        // 传输层在 beforeCommit 中登记的同步也需执行
+        List<TransactionSynchronization> all = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        all.forEach(TransactionSynchronization::afterCommit);
+        all.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        return all;
+    }
+}
@@ -0,0 +1,247 @@
+package com.inventory.component;
+
+import com.inventory.component.OrderNoGenerator.OrderType;
+import com.inventory.exception.BusinessException;
+import com.inventory.mapper.OrderSequenceMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 单号生成器测试
+ *
+ * 序号表用内存 Map 模拟，每个键对应 t_order_sequence 的一行；
+ * UPDATE 加锁、事务提交时释放，模拟行锁持有到提交。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("单号生成器测试 (OrderNoGeneratorTest)")
+class OrderNoGeneratorTest {
+
+    private OrderSequenceMapper orderSequenceMapper;
+    private final Map<String, Long> rows = new HashMap<>();
+    private final ReentrantLock rowLock = new ReentrantLock();
+    private PlatformTransactionManager transactionManager;
+    private String today;
+
+    @BeforeEach
+    void setUp() {
+        orderSequenceMapper = mock(OrderSequenceMapper.class);
+        today = LocalDate.now().toString().replace("-", "");
+
+        when(orderSequenceMapper.insertIfAbsent(anyString(), any())).thenAnswer(invocation -> {
+            synchronized (rows) {
+                return rows.putIfAbsent(key(invocation.getArgument(0), invocation.getArgument(1)), 1L) == null ? 1 : 0;
+            }
+        });
+        when(orderSequenceMapper.advance(anyString(), any(), anyInt())).thenAnswer(invocation -> {
+            rowLock.lock();
+            synchronized (rows) {
+                String key = key(invocation.getArgument(0), invocation.getArgument(1));
+                int blockSize = invocation.getArgument(2);
+                return rows.computeIfPresent(key, (k, v) -> v + blockSize) == null ? 0 : 1;
+            }
+        });
+        when(orderSequenceMapper.selectNextValue(anyString(), any())).thenAnswer(invocation -> {
+            synchronized (rows) {
+                return rows.get(key(invocation.getArgument(0), invocation.getArgument(1)));
+            }
+        });
+
+        transactionManager = mock(PlatformTransactionManager.class);
+        doAnswer(invocation -> {
+            while (rowLock.isHeldByCurrentThread()) {
+                rowLock.unlock();
+            }
+            return null;
+        }).when(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("单号为前缀 + 日期 + 6 位序号，从 1 开始递增，入库、出库分别计数")
+    void should_GenerateSortableNumbers_PerType() {
+        // Arrange
+        OrderNoGenerator generator = generator(20);
+
+        // Act & Assert
+        assertThat(generator.next(OrderType.INBOUND)).isEqualTo("IN" + today + "000001");
+        assertThat(generator.next(OrderType.INBOUND)).isEqualTo("IN" + today + "000002");
+        assertThat(generator.next(OrderType.OUTBOUND)).isEqualTo("OUT" + today + "000001");
+    }
+
+    @Test
+    @DisplayName("每个序号段只访问一次数据库，用完后预留下一段")
+    void should_ReserveOnePerBlock() {
+        // Arrange
+        OrderNoGenerator generator = generator(5);
+
+        // Act
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            numbers.add(generator.next(OrderType.INBOUND));
+        }
+
+        // Assert：12 个单号用了 3 段，只有第一段需要创建序号行
+        assertThat(numbers).isSorted().doesNotHaveDuplicates();
+        assertThat(numbers.get(11)).isEqualTo("IN" + today + "000012");
+        verify(orderSequenceMapper, times(3)).selectNextValue(eq("INBOUND"), any());
+        verify(orderSequenceMapper, times(1)).insertIfAbsent(eq("INBOUND"), any());
+    }
+
+    @Test
+    @DisplayName("批量预留一次取得整批单号，与逐个取号不重叠")
+    void should_ReserveContiguousNumbers_ForBatch() {
+        // Arrange
+        OrderNoGenerator generator = generator(5);
+        String first = generator.next(OrderType.INBOUND);
+
+        // Act
+        List<String> batch = generator.reserve(OrderType.INBOUND, 3);
+
+        // Assert：逐个取号已预留 1~5，批量从 6 开始
+        assertThat(first).isEqualTo("IN" + today + "000001");
+        assertThat(batch).containsExactly("IN" + today + "000006", "IN" + today + "000007", "IN" + today + "000008");
+        assertThat(generator.next(OrderType.INBOUND)).isEqualTo("IN" + today + "000002");
+        verify(orderSequenceMapper, times(2)).selectNextValue(eq("INBOUND"), any());
+    }
+
+    @Test
+    @DisplayName("两个节点并发取号时单号不重复")
+    void should_NotDuplicate_AcrossNodesAndThreads() throws Exception {
+        // Arrange：两个生成器共用一张序号表，模拟两个节点
+        OrderNoGenerator nodeA = generator(7);
+        OrderNoGenerator nodeB = generator(7);
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            OrderNoGenerator generator = t % 2 == 0 ? nodeA : nodeB;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 250; i++) {
+                    numbers.add(generator.next(OrderType.OUTBOUND));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        assertThat(numbers).hasSize(2000);
+    }
+
+    @Test
+    @DisplayName("当天序号用完时抛出异常")
+    void should_ThrowException_When_DailyLimitReached() {
+        // Arrange：当天序号已分配到上限
+        OrderNoGenerator generator = generator(20);
+        rows.put(key("INBOUND", LocalDate.now()), OrderNoGenerator.MAX_VALUE - 1);
+
+        // Act & Assert：最后两个序号仍可用
+        assertThat(generator.next(OrderType.INBOUND)).isEqualTo("IN" + today + "99999999998");
+        assertThat(generator.next(OrderType.INBOUND)).isEqualTo("IN" + today + "99999999999");
+        assertThatThrownBy(() -> generator.next(OrderType.INBOUND))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("今日入库单数量已达上限");
+    }
+
+    @Test
+    @DisplayName("序号超过 6 位定长范围后改用长度前缀形式，字典序仍为生成顺序")
+    void should_KeepSortable_When_SequenceExceedsSixDigits() {
+        // Arrange：当天序号接近 6 位定长的上限
+        OrderNoGenerator generator = generator(20);
+        rows.put(key("OUTBOUND", LocalDate.now()), OrderNoGenerator.PLAIN_MAX - 1);
+
+        // Act
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            numbers.add(generator.next(OrderType.OUTBOUND));
+        }
+
+        // Assert
+        assertThat(numbers).containsExactly(
+                "OUT" + today + "899998", "OUT" + today + "899999", "OUT" + today + "96900000");
+        List<String> sequences = new ArrayList<>();
+        for (long value : new long[]{1, 899_999, 900_000, 999_999, 1_000_000, 9_999_999, 10_000_000,
+                OrderNoGenerator.MAX_VALUE}) {
+            sequences.add(OrderNoGenerator.formatSequence(value));
+        }
+        assertThat(sequences).isSorted().doesNotHaveDuplicates();
+        assertThat(("OUT" + today + OrderNoGenerator.formatSequence(OrderNoGenerator.MAX_VALUE)).length())
+                .isLessThanOrEqualTo(32);
+    }
+
+    @Test
+    @DisplayName("序号段剩余不足时由后台线程提前预留下一段，取号线程不访问数据库")
+    void should_PrefetchNextBlock_OnBackgroundThread() throws Exception {
+        // Arrange
+        OrderNoGenerator generator = generator(5);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        when(orderSequenceMapper.selectNextValue(anyString(), any())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            synchronized (rows) {
+                return rows.get(key(invocation.getArgument(0), invocation.getArgument(1)));
+            }
+        });
+
+        // Act：取到第 4 个单号时剩余 1 个，触发预留下一段
+        for (int i = 0; i < 4; i++) {
+            generator.next(OrderType.INBOUND);
+        }
+
+        // Assert
+        verify(orderSequenceMapper, timeout(5000).times(2)).selectNextValue(eq("INBOUND"), any());
+        assertThat(generator.next(OrderType.INBOUND)).isEqualTo("IN" + today + "000005");
+        assertThat(generator.next(OrderType.INBOUND)).isEqualTo("IN" + today + "000006");
+        assertThat(threads).containsOnly("order-no-refill");
+    }
+
+    @Test
+    @DisplayName("下一段迟迟未预留到时取号在超时后失败，不无限期等待")
+    void should_FailFast_When_RefillStalls() {
+        // Arrange：序号表更新阻塞（如连接池耗尽）
+        OrderNoGenerator generator = new OrderNoGenerator(orderSequenceMapper, transactionManager, 5, 1, 200);
+        when(orderSequenceMapper.advance(anyString(), any(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return 0;
+        });
+
+        // Act & Assert
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> generator.next(OrderType.INBOUND))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("繁忙");
+        assertThat(System.nanoTime() - started).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        generator.stop();
+    }
+
+    private OrderNoGenerator generator(int blockSize) {
+        return new OrderNoGenerator(orderSequenceMapper, transactionManager, blockSize, 1, 3000);
+    }
+
+    private static String key(String name, LocalDate date) {
+        return name + ":" + date;
+    }
+}
@@ -0,0 +1,142 @@
+package com.inventory.component;
+
+import com.inventory.component.ReferenceDataCache.ProductRef;
+import com.inventory.entity.Category;
+import com.inventory.entity.Product;
+import com.inventory.mapper.CategoryMapper;
+import com.inventory.mapper.ProductMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 商品/分类引用数据缓存测试
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("商品/分类引用数据缓存测试 (ReferenceDataCacheTest)")
+class ReferenceDataCacheTest {
+
+    private ProductMapper productMapper;
+    private CategoryMapper categoryMapper;
+    private ReferenceDataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        productMapper = mock(ProductMapper.class);
+        categoryMapper = mock(CategoryMapper.class);
+        // 按请求的ID返回商品，便于验证每次只加载未命中部分
+        when(productMapper.selectBatchIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<?> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> product((Long) id)).collect(Collectors.toList());
+        });
+
+        cache = new ReferenceDataCache(productMapper, categoryMapper, 3, 10, 600, mock(InvalidationBus.class));
+    }
+
+    @Test
+    @DisplayName("一批商品只查询一次，重复ID与 null 被忽略，再次读取全部命中")
+    void should_LoadMissesInOneQuery_AndHitAfterwards() {
+        // Act
+        Map<Long, ProductRef> first = cache.getProducts(Arrays.asList(1L, 2L, 1L, null));
+        Map<Long, ProductRef> second = cache.getProducts(Arrays.asList(1L, 2L));
+
+        // Assert
+        assertThat(first).containsOnlyKeys(1L, 2L);
+        assertThat(second.get(1L).getSku()).isEqualTo("SKU1");
+        assertThat(second.get(2L).getPrice()).isEqualByComparingTo("20");
+        verify(productMapper, times(1)).selectBatchIds(anyCollection());
+        assertThat(productStats()).containsEntry("hits", 2L).containsEntry("misses", 2L);
+    }
+
+    @Test
+    @DisplayName("部分命中时只加载未命中的ID")
+    void should_LoadOnlyMissingIds_When_PartiallyCached() {
+        // Arrange
+        cache.getProduct(1L);
+
+        // Act
+        cache.getProducts(Arrays.asList(1L, 2L));
+
+        // Assert
+        verify(productMapper).selectBatchIds(Collections.singleton(1L));
+        verify(productMapper).selectBatchIds(Collections.singleton(2L));
+    }
+
+    @Test
+    @DisplayName("超过容量时淘汰最久未访问的条目")
+    void should_EvictLeastRecentlyUsed_When_Full() {
+        // Arrange：容量 3
+        cache.getProducts(Arrays.asList(1L, 2L, 3L));
+        cache.getProduct(1L);
+
+        // Act：加入第 4 个，最久未访问的 2 被淘汰
+        cache.getProduct(4L);
+        cache.getProducts(Arrays.asList(1L, 3L, 4L));
+        cache.getProduct(2L);
+
+        // Assert
+        verify(productMapper).selectBatchIds(Collections.singleton(2L));
+        assertThat(productStats()).containsEntry("size", 3).containsEntry("evictions", 2L);
+    }
+
+    @Test
+    @DisplayName("失效后重新加载最新数据")
+    void should_Reload_When_Evicted() {
+        // Arrange
+        cache.getProduct(1L);
+
+        // Act
+        cache.evictProducts(Collections.singleton(1L));
+        cache.getProduct(1L);
+
+        // Assert
+        verify(productMapper, times(2)).selectBatchIds(Collections.singleton(1L));
+    }
+
+    @Test
+    @DisplayName("分类缓存：不存在的分类不在结果中")
+    void should_ReturnOnlyExistingCategories() {
+        // Arrange
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("电子产品");
+        when(categoryMapper.selectBatchIds(anyCollection())).thenReturn(Collections.singletonList(category));
+
+        // Act
+        Map<Long, ReferenceDataCache.CategoryRef> categories = cache.getCategories(Arrays.asList(1L, 99L));
+
+        // Assert
+        assertThat(categories).containsOnlyKeys(1L);
+        assertThat(cache.getCategory(1L).getName()).isEqualTo("电子产品");
+        verify(categoryMapper, times(1)).selectBatchIds(anyCollection());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> productStats() {
+        return (Map<String, Object>) cache.getStats().get("product");
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setSku("SKU" + id);
+        product.setName("商品" + id);
+        product.setCategoryId(1L);
+        product.setPrice(BigDecimal.valueOf(id * 10));
+        product.setStatus(1);
+        return product;
+    }
+}
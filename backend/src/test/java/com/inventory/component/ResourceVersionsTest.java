@@ -0,0 +1,39 @@
+package com.inventory.component;
+
+import com.inventory.component.ResourceVersions.Resource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 资源版本号测试
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("资源版本号测试 (ResourceVersionsTest)")
+class ResourceVersionsTest {
+
+    private final ResourceVersions versions = new ResourceVersions();
+
+    @Test
+    @DisplayName("只有所依赖类别的版本变化时 ETag 才变化")
+    void should_ChangeETag_OnlyForDependentResources() {
+        // Arrange
+        String category = versions.etag(Resource.CATEGORY);
+        String product = versions.etag(Resource.PRODUCT, Resource.INVENTORY);
+
+        // Act
+        versions.bump(Resource.INVENTORY);
+
+        // Assert
+        assertThat(versions.get(Resource.INVENTORY)).isEqualTo(1L);
+        assertThat(versions.etag(Resource.CATEGORY)).isEqualTo(category);
+        assertThat(versions.etag(Resource.PRODUCT, Resource.INVENTORY)).isNotEqualTo(product).startsWith("W/\"");
+        assertThat(versions.etag(LocalDate.of(2026, 1, 4), Resource.INVENTORY))
+                .isNotEqualTo(versions.etag(LocalDate.of(2026, 1, 5), Resource.INVENTORY));
+    }
+}
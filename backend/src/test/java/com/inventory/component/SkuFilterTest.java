@@ -0,0 +1,118 @@
+package com.inventory.component;
+
+import com.inventory.entity.Product;
+import com.inventory.mapper.ProductMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 商品编码布隆过滤器测试
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("商品编码布隆过滤器测试 (SkuFilterTest)")
+class SkuFilterTest {
+
+    private ProductMapper productMapper;
+    private List<Product> rows;
+    private SkuFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        productMapper = mock(ProductMapper.class);
+        rows = new ArrayList<>(Arrays.asList(product(1L, "SKU001"), product(2L, "SKU002")));
+        when(productMapper.selectCount(any())).thenAnswer(invocation -> (long) rows.size());
+        // 第一批返回全部记录，第二批为空，模拟按ID分批扫描结束
+        when(productMapper.selectSkuBatch(anyLong(), anyInt())).thenAnswer(invocation -> new ArrayList<>(rows))
+                .thenReturn(Collections.emptyList());
+
+        filter = new SkuFilter(productMapper, true, 1000, 0.01, 500, mock(InvalidationBus.class));
+        filter.load();
+    }
+
+    @Test
+    @DisplayName("已有编码可能存在，按数据库规则忽略大小写和末尾空格")
+    void should_ContainLoadedSkus_IgnoringCaseAndTrailingSpaces() {
+        // Assert
+        assertThat(filter.mightContain("SKU001")).isTrue();
+        assertThat(filter.mightContain("sku002  ")).isTrue();
+        assertThat(filter.mightContain("SKU003")).isFalse();
+        // 含非 ASCII 字符时不经过滤器
+        assertThat(filter.mightContain("ＳＫＵ００３")).isTrue();
+    }
+
+    @Test
+    @DisplayName("写入和其他节点的变更加入后可能存在")
+    void should_ContainSkus_AfterAddOrRemoteChange() {
+        // Arrange
+        when(productMapper.selectBatchIds(any())).thenAnswer(invocation -> Collections.singletonList(product(4L, "SKU004")));
+
+        // Act
+        filter.add("SKU003");
+        filter.addProducts(Collections.singleton(4L));
+
+        // Assert
+        assertThat(filter.mightContain("sku003")).isTrue();
+        assertThat(filter.mightContain("SKU004")).isTrue();
+    }
+
+    @Test
+    @DisplayName("重建清除已删除的编码，保留最近写入尚未扫描到的编码")
+    void should_DropDeletedSkus_And_KeepRecentAdds_When_Rebuilt() {
+        // Arrange：SKU001 已删除，SKU009 已写入但扫描时尚未提交
+        filter.add("SKU009");
+        rows.remove(0);
+        when(productMapper.selectSkuBatch(anyLong(), anyInt())).thenAnswer(invocation -> new ArrayList<>(rows))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        filter.rebuild();
+
+        // Assert
+        assertThat(filter.mightContain("SKU001")).isFalse();
+        assertThat(filter.mightContain("SKU002")).isTrue();
+        assertThat(filter.mightContain("SKU009")).isTrue();
+    }
+
+    @Test
+    @DisplayName("误判率接近配置值")
+    void should_KeepFalsePositiveRate_NearConfigured() {
+        // Arrange
+        SkuFilter.Bloom bloom = new SkuFilter.Bloom(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            bloom.put("sku" + i);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 10000; i < 110000; i++) {
+            if (bloom.mightContain("sku" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        for (int i = 0; i < 10000; i++) {
+            assertThat(bloom.mightContain("sku" + i)).isTrue();
+        }
+        assertThat(falsePositives / 100000.0).isLessThan(0.02);
+    }
+
+    private static Product product(Long id, String sku) {
+        Product product = new Product();
+        product.setId(id);
+        product.setSku(sku);
+        return product;
+    }
+}
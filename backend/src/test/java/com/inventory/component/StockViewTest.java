@@ -0,0 +1,189 @@
+package com.inventory.component;
+
+import com.inventory.entity.Inventory;
+import com.inventory.mapper.InventoryMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 库存内存读模型测试
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("库存内存读模型测试 (StockViewTest)")
+class StockViewTest {
+
+    private InventoryMapper inventoryMapper;
+    private List<Inventory> rows;
+    private StockView view;
+
+    @BeforeEach
+    void setUp() {
+        inventoryMapper = mock(InventoryMapper.class);
+        rows = new ArrayList<>(Arrays.asList(
+                inventory(1L, 1L, 1L, 100, 30),
+                inventory(2L, 1L, 2L, 50, 0),
+                inventory(3L, 2L, 1L, 8, 0)));
+        // 第一批返回全部记录，第二批为空，模拟按ID分批扫描结束
+        when(inventoryMapper.selectList(any())).thenAnswer(invocation -> new ArrayList<>(rows))
+                .thenReturn(Collections.emptyList());
+
+        view = new StockView(inventoryMapper, true, 1000, mock(InvalidationBus.class));
+        view.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("启动加载后可用库存与跨仓合计可直接读取")
+    void should_ServeAvailableAndTotals_AfterLoad() {
+        // Assert
+        assertThat(view.isReady()).isTrue();
+        assertThat(view.getAvailable(1L, 1L)).isEqualTo(70);
+        assertThat(view.getAvailable(1L, 2L)).isEqualTo(50);
+        assertThat(view.getTotal(1L)).isEqualTo(150);
+        assertThat(view.getWarningStock(2L, 1L)).isEqualTo(10);
+        assertThat(view.getAvailable(9L, 1L)).isEqualTo(StockView.MISSING);
+        assertThat(view.getTotal(9L)).isEqualTo(StockView.MISSING);
+    }
+
+    @Test
+    @DisplayName("无事务时增量立即生效，库存变动同步到合计")
+    void should_ApplyDeltaImmediately_WithoutTransaction() {
+        // Act
+        view.applyAfterCommit(1L, 1L, -20, 0);
+        view.applyAfterCommit(1L, 1L, 0, 10);
+
+        // Assert
+        assertThat(view.getAvailable(1L, 1L)).isEqualTo(40);
+        assertThat(view.getTotal(1L)).isEqualTo(130);
+    }
+
+    @Test
+    @DisplayName("事务回滚时丢弃增量，提交后才应用")
+    void should_ApplyOnlyOnCommit_When_InTransaction() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        view.applyAfterCommit(1L, 1L, -20, 0);
+        view.applyAfterCommit(2L, 1L, 5, 0);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Act：第一笔提交，第二笔回滚
+        synchronizations.forEach(s -> s.beforeCommit(false));
+        assertThat(view.getAvailable(1L, 1L)).isEqualTo(70);
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        assertThat(view.getAvailable(1L, 1L)).isEqualTo(50);
+        assertThat(view.getAvailable(2L, 1L)).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("对账修正偏差，但跳过有未提交变更的键")
+    void should_SkipPendingKeys_When_Reconciling() {
+        // Arrange：提交前标记 (1,1) 未决，数据库中两条记录都已变化
+        TransactionSynchronizationManager.initSynchronization();
+        view.applyAfterCommit(1L, 1L, -20, 0);
+        TransactionSynchronization pending = TransactionSynchronizationManager.getSynchronizations().get(0);
+        TransactionSynchronizationManager.clearSynchronization();
+        pending.beforeCommit(false);
+
+        rows.set(0, inventory(1L, 1L, 1L, 80, 30));
+        rows.set(2, inventory(3L, 2L, 1L, 3, 0));
+        when(inventoryMapper.selectList(any())).thenAnswer(invocation -> new ArrayList<>(rows))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        view.reconcile();
+        pending.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Assert：未决键保持内存值并叠加一次增量，其他键按数据库修正
+        assertThat(view.getAvailable(1L, 1L)).isEqualTo(50);
+        assertThat(view.getAvailable(2L, 1L)).isEqualTo(3);
+        assertThat(view.getTotal(1L)).isEqualTo(130);
+    }
+
+    @Test
+    @DisplayName("新建库存记录提交后写入读模型")
+    void should_PutNewInventory() {
+        // Act
+        view.putAfterCommit(inventory(4L, 3L, 1L, 12, 0));
+
+        // Assert
+        assertThat(view.getAvailable(3L, 1L)).isEqualTo(12);
+        assertThat(view.getTotal(3L)).isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("其他节点的库存变更按商品重新加载，合计与数量版本随之更新")
+    void should_ReloadProducts_When_RemoteChangeArrives() {
+        // Arrange：其他节点出库 (1,2) 并新建 (1,3)
+        long version = view.getQuantityVersion();
+        when(inventoryMapper.selectList(any())).thenReturn(Arrays.asList(
+                inventory(1L, 1L, 1L, 100, 30),
+                inventory(2L, 1L, 2L, 20, 0),
+                inventory(5L, 1L, 3L, 7, 0)));
+
+        // Act
+        view.refresh(Collections.singleton(1L));
+
+        // Assert
+        assertThat(view.getAvailable(1L, 2L)).isEqualTo(20);
+        assertThat(view.getAvailable(1L, 3L)).isEqualTo(7);
+        assertThat(view.getTotal(1L)).isEqualTo(127);
+        assertThat(view.getQuantityVersion()).isGreaterThan(version);
+    }
+
+    @Test
+    @DisplayName("库存越过预警线时进出低库存索引，按缺货数量从多到少")
+    void should_MaintainLowStockIndex_OrderedByShortage() {
+        // Arrange：加载后只有 (2,1) 低库存，缺货 2
+        assertThat(view.getLowStock(null, null)).extracting(StockView.LowStock::getProductId).containsExactly(2L);
+
+        // Act：(1,2) 降到 5，缺货 5；(2,1) 补到 13，离开索引；再新建低库存记录 (3,2)
+        view.applyAfterCommit(1L, 2L, -45, 0);
+        view.applyAfterCommit(2L, 1L, 5, 0);
+        view.putAfterCommit(inventory(4L, 3L, 2L, 9, 0));
+
+        // Assert
+        List<StockView.LowStock> lowStock = view.getLowStock(null, null);
+        assertThat(lowStock).extracting(StockView.LowStock::getProductId).containsExactly(1L, 3L);
+        assertThat(lowStock).extracting(StockView.LowStock::getShortage).containsExactly(5, 1);
+        assertThat(view.getLowStock(null, 1)).hasSize(1);
+        assertThat(view.getLowStock(1L, null)).isEmpty();
+        assertThat(view.getLowStock(2L, null)).extracting(StockView.LowStock::getWarehouseId).containsOnly(2L);
+        assertThat(view.getLowStockProductIds(null)).containsExactly(1L, 3L);
+    }
+
+    private static Inventory inventory(Long id, Long productId, Long warehouseId, int quantity, int reserved) {
+        Inventory inventory = new Inventory();
+        inventory.setId(id);
+        inventory.setProductId(productId);
+        inventory.setWarehouseId(warehouseId);
+        inventory.setQuantity(quantity);
+        inventory.setReservedQuantity(reserved);
+        inventory.setWarningStock(10);
+        return inventory;
+    }
+}
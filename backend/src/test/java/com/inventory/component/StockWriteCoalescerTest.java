@@ -0,0 +1,384 @@
+package com.inventory.component;
+
+import com.inventory.entity.Inventory;
+import com.inventory.entity.InventoryTxn;
+import com.inventory.entity.StockDelta;
+import com.inventory.exception.BusinessException;
+import com.inventory.exception.ServiceBusyException;
+import com.inventory.mapper.InventoryMapper;
+import com.inventory.mapper.StockDeltaMapper;
+import com.inventory.service.InventoryLedgerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 库存写入合并器测试
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("库存写入合并器测试 (StockWriteCoalescerTest)")
+class StockWriteCoalescerTest {
+
+    private InventoryMapper inventoryMapper;
+    private StockDeltaMapper stockDeltaMapper;
+    private InventoryLedgerService inventoryLedgerService;
+    private PlatformTransactionManager transactionManager;
+    private StockWriteCoalescer coalescer;
+
+    /**
+     * 内存中的批次表
+     */
+    private final Map<Long, StockDelta> batches = new ConcurrentHashMap<>();
+    private final AtomicLong batchIds = new AtomicLong();
+    /**
+     * 已提交的流水：批次ID → 变动量合计
+     */
+    private final Map<Long, Integer> committedTxns = new ConcurrentHashMap<>();
+    /**
+     * 调用方事务中写入的流水，提交时计入已提交流水
+     */
+    private final ThreadLocal<List<InventoryTxn>> pendingTxns = ThreadLocal.withInitial(ArrayList::new);
+
+    @BeforeEach
+    void setUp() {
+        inventoryMapper = mock(InventoryMapper.class);
+        stockDeltaMapper = mock(StockDeltaMapper.class);
+        inventoryLedgerService = mock(InventoryLedgerService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(inventoryMapper.countByProductAndWarehouse(anyLong(), anyLong())).thenReturn(1);
+        when(inventoryMapper.applyDelta(anyLong(), anyLong(), anyInt(), anyInt())).thenReturn(1);
+        fakeBatchTable();
+        fakeLedger();
+
+        // 单分片 + 较长窗口，保证测试中提交的请求落入同一批
+        coalescer = newCoalescer(3000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.stop();
+    }
+
+    private StockWriteCoalescer newCoalescer(long timeoutMillis) {
+        StockWriteCoalescer instance = new StockWriteCoalescer(inventoryMapper, stockDeltaMapper, inventoryLedgerService,
+                mock(StockView.class), mock(InvalidationBus.class), transactionManager,
+                true, 1, 200, 512, timeoutMillis, 30000, 500);
+        instance.start();
+        return instance;
+    }
+
+    private void fakeBatchTable() {
+        when(stockDeltaMapper.insert(any(StockDelta.class))).thenAnswer(invocation -> {
+            StockDelta row = invocation.getArgument(0);
+            row.setId(batchIds.incrementAndGet());
+            batches.put(row.getId(), row);
+            return 1;
+        });
+        when(stockDeltaMapper.selectOpenForUpdate(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(batches::get)
+                    .filter(row -> row != null && row.getStatus() == StockDelta.STATUS_OPEN)
+                    .sorted(Comparator.comparing(StockDelta::getId))
+                    .collect(Collectors.toList());
+        });
+        when(stockDeltaMapper.settle(anyLong(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            StockDelta row = batches.get(invocation.<Long>getArgument(0));
+            row.setApplied(row.getApplied() + invocation.<Integer>getArgument(1));
+            row.setReleased(row.getReleased() + invocation.<Integer>getArgument(2));
+            return 1;
+        });
+        when(stockDeltaMapper.deleteById(anyLong())).thenAnswer(invocation ->
+                batches.remove(invocation.<Long>getArgument(0)) == null ? 0 : 1);
+        when(stockDeltaMapper.park(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            ids.forEach(id -> batches.get(id).setStatus(StockDelta.STATUS_PARKED));
+            return ids.size();
+        });
+        when(stockDeltaMapper.selectStaleIds(any(LocalDateTime.class), anyInt())).thenAnswer(invocation -> {
+            LocalDateTime before = invocation.getArgument(0);
+            return batches.values().stream()
+                    .filter(row -> row.getStatus() == StockDelta.STATUS_OPEN && row.getCreatedAt().isBefore(before))
+                    .map(StockDelta::getId)
+                    .collect(Collectors.toList());
+        });
+    }
+
+    private void fakeLedger() {
+        doAnswer(invocation -> {
+            InventoryTxn txn = new InventoryTxn();
+            txn.setDelta(invocation.getArgument(3));
+            txn.setBatchId(invocation.getArgument(5));
+            pendingTxns.get().add(txn);
+            return null;
+        }).when(inventoryLedgerService).recordCoalesced(anyLong(), anyLong(), anyInt(), anyInt(), anyString(), anyLong());
+        when(inventoryLedgerService.sumBatchDelta(anyLong())).thenAnswer(invocation ->
+                committedTxns.getOrDefault(invocation.<Long>getArgument(0), 0));
+    }
+
+    /**
+     * 模拟调用方事务：执行后按指定结果处理流水并触发事务同步回调
+     */
+    private <T> T inTransaction(boolean commit, Supplier<T> action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            T result = action.get();
+            if (commit) {
+                pendingTxns.get().forEach(txn -> committedTxns.merge(txn.getBatchId(), txn.getDelta(), Integer::sum));
+            }
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            int status = commit ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK;
+            synchronizations.forEach(s -> s.afterCompletion(status));
+            return result;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            pendingTxns.remove();
+        }
+    }
+
+    private Inventory inventory(int quantity) {
+        Inventory inventory = new Inventory();
+        inventory.setProductId(1L);
+        inventory.setWarehouseId(1L);
+        inventory.setQuantity(quantity);
+        inventory.setReservedQuantity(0);
+        return inventory;
+    }
+
+    @Test
+    @DisplayName("同一商品的并发扣减每个窗口一条预占、一条批次行，提交后合并应用，流水逐笔记录")
+    void should_MergeWindow_AndApplyAfterCommit() throws Exception {
+        // Arrange
+        when(inventoryMapper.reserveQuantity(1L, 1L, 20)).thenReturn(1);
+        ExecutorService callers = Executors.newFixedThreadPool(20);
+
+        // Act
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(callers.submit(() -> inTransaction(true, () -> coalescer.apply(1L, 1L, -1, "出库"))));
+        }
+
+        // Assert
+        for (Future<Boolean> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+        callers.shutdown();
+        verify(inventoryMapper, times(1)).reserveQuantity(1L, 1L, 20);
+        verify(stockDeltaMapper, times(1)).insert(any(StockDelta.class));
+        verify(inventoryLedgerService, times(20))
+                .recordCoalesced(eq(1L), eq(1L), eq(InventoryTxn.TYPE_OUTBOUND), eq(-1), eq("出库"), eq(1L));
+        ArgumentCaptor<Integer> delta = ArgumentCaptor.forClass(Integer.class);
+        ArgumentCaptor<Integer> released = ArgumentCaptor.forClass(Integer.class);
+        await(batches::isEmpty);
+        verify(inventoryMapper, atLeastOnce()).applyDelta(eq(1L), eq(1L), delta.capture(), released.capture());
+        assertThat(delta.getAllValues().stream().mapToInt(Integer::intValue).sum()).isEqualTo(-20);
+        assertThat(released.getAllValues().stream().mapToInt(Integer::intValue).sum()).isEqualTo(20);
+        verify(inventoryMapper, never()).decreaseQuantity(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("入库流水在调用方事务中写入，提交后才增加库存与跨仓合计")
+    void should_RecordIncrease_AndApplyAfterCommit() {
+        // Act
+        boolean applied = inTransaction(true, () -> {
+            boolean result = coalescer.apply(1L, 1L, 10, "入库");
+            // 调用方事务提交前库存不变
+            verify(inventoryMapper, never()).applyDelta(anyLong(), anyLong(), anyInt(), anyInt());
+            verify(inventoryLedgerService).recordCoalesced(1L, 1L, InventoryTxn.TYPE_INBOUND, 10, "入库", 1L);
+            return result;
+        });
+
+        // Assert
+        assertThat(applied).isTrue();
+        verify(inventoryMapper, timeout(5000)).applyDelta(1L, 1L, 10, 0);
+        verify(inventoryLedgerService, timeout(5000)).applyTotals(1L, 1L, 10);
+        verify(inventoryMapper, never()).reserveQuantity(anyLong(), anyLong(), anyInt());
+        await(batches::isEmpty);
+    }
+
+    @Test
+    @DisplayName("调用方事务回滚时释放预占，不变更库存数量")
+    void should_ReleaseReservation_When_CallerRollsBack() {
+        // Arrange
+        when(inventoryMapper.reserveQuantity(1L, 1L, 3)).thenReturn(1);
+
+        // Act
+        assertThat(inTransaction(false, () -> coalescer.apply(1L, 1L, -3, "出库"))).isTrue();
+
+        // Assert
+        verify(inventoryMapper, timeout(5000)).applyDelta(1L, 1L, 0, 3);
+        await(batches::isEmpty);
+        verify(inventoryLedgerService, never()).applyTotals(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("预占不足时按到达顺序逐个判定，各自返回结果")
+    void should_CompleteEachCaller_When_StockInsufficient() throws Exception {
+        // Arrange：库存 5，10 个请求各扣减 1
+        when(inventoryMapper.reserveQuantity(1L, 1L, 10)).thenReturn(0);
+        when(inventoryMapper.selectByProductAndWarehouseForUpdate(1L, 1L)).thenReturn(inventory(5));
+        ExecutorService callers = Executors.newFixedThreadPool(10);
+
+        // Act
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(callers.submit(() -> inTransaction(true, () -> coalescer.apply(1L, 1L, -1, "出库"))));
+        }
+
+        // Assert
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            succeeded += result.get(5, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        callers.shutdown();
+        assertThat(succeeded).isEqualTo(5);
+        verify(inventoryMapper, times(1)).reserveQuantity(1L, 1L, 5);
+        verify(stockDeltaMapper, times(1)).insert(any(StockDelta.class));
+    }
+
+    @Test
+    @DisplayName("库存记录不存在时调用方收到业务异常")
+    void should_Fail_When_InventoryNotFound() {
+        // Arrange
+        when(inventoryMapper.reserveQuantity(anyLong(), anyLong(), anyInt())).thenReturn(0);
+        when(inventoryMapper.selectByProductAndWarehouseForUpdate(99L, 1L)).thenReturn(null);
+        when(inventoryMapper.countByProductAndWarehouse(99L, 1L)).thenReturn(0);
+
+        // Act & Assert
+        assertThatThrownBy(() -> inTransaction(true, () -> coalescer.apply(99L, 1L, -1, "出库")))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("库存记录不存在");
+        assertThatThrownBy(() -> inTransaction(true, () -> coalescer.apply(99L, 1L, 1, "入库")))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("库存记录不存在");
+        verify(inventoryLedgerService, never())
+                .recordCoalesced(anyLong(), anyLong(), anyInt(), anyInt(), anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("库存不足时返回 false，不写批次行与流水")
+    void should_ReturnFalse_When_ApplyInsufficient() {
+        // Arrange
+        when(inventoryMapper.reserveQuantity(1L, 1L, 1)).thenReturn(0);
+        when(inventoryMapper.selectByProductAndWarehouseForUpdate(1L, 1L)).thenReturn(inventory(0));
+
+        // Act & Assert
+        assertThat(inTransaction(true, () -> coalescer.apply(1L, 1L, -1, "出库"))).isFalse();
+        verify(stockDeltaMapper, never()).insert(any(StockDelta.class));
+        verify(inventoryLedgerService, never())
+                .recordCoalesced(anyLong(), anyLong(), anyInt(), anyInt(), anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("不在事务中调用时拒绝")
+    void should_Reject_When_NoTransaction() {
+        assertThatThrownBy(() -> coalescer.apply(1L, 1L, -1, "出库")).isInstanceOf(IllegalStateException.class);
+        verifyNoInteractions(inventoryMapper);
+    }
+
+    @Test
+    @DisplayName("等待超过一个超时周期即返回繁忙，迟到的预占随即释放")
+    void should_FailBusyAndRelease_When_OpenTimesOut() {
+        // Arrange：写线程认领后预占耗时超过超时周期
+        coalescer.stop();
+        coalescer = newCoalescer(300);
+        when(inventoryMapper.reserveQuantity(1L, 1L, 2)).thenAnswer(invocation -> {
+            Thread.sleep(1000);
+            return 1;
+        });
+
+        // Act & Assert
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> inTransaction(true, () -> coalescer.apply(1L, 1L, -2, "出库")))
+                .isInstanceOf(ServiceBusyException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(800);
+        verify(inventoryMapper, timeout(5000)).applyDelta(1L, 1L, 0, 2);
+        await(batches::isEmpty);
+        verify(inventoryLedgerService, never())
+                .recordCoalesced(anyLong(), anyLong(), anyInt(), anyInt(), anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("结算与库存记录不一致时批次转为搁置，不再重试")
+    void should_ParkBatch_When_ApplyMismatch() {
+        // Arrange
+        when(inventoryMapper.applyDelta(1L, 1L, 5, 0)).thenReturn(0);
+
+        // Act
+        assertThat(inTransaction(true, () -> coalescer.apply(1L, 1L, 5, "入库"))).isTrue();
+
+        // Assert
+        verify(stockDeltaMapper, timeout(5000)).park(Collections.singletonList(1L));
+        assertThat(batches.get(1L).getStatus()).isEqualTo(StockDelta.STATUS_PARKED);
+        coalescer.recover();
+        verify(inventoryMapper, times(1)).applyDelta(anyLong(), anyLong(), anyInt(), anyInt());
+        verify(inventoryLedgerService, never()).applyTotals(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("定时恢复以已提交流水为准补做结算")
+    void should_RecoverStaleBatches_FromCommittedTxns() {
+        // Arrange：扣减批次 3 件中 2 件已提交；入库批次 4 件全部提交
+        LocalDateTime stale = LocalDateTime.now().minusMinutes(5);
+        batches.put(1L, staleBatch(1L, 1L, -3, stale));
+        batches.put(2L, staleBatch(2L, 2L, 4, stale));
+        committedTxns.put(1L, -2);
+        committedTxns.put(2L, 4);
+
+        // Act
+        coalescer.recover();
+
+        // Assert
+        verify(inventoryMapper).applyDelta(1L, 1L, -2, 3);
+        verify(inventoryMapper).applyDelta(1L, 2L, 4, 0);
+        verify(inventoryLedgerService).applyTotals(1L, 1L, -2);
+        verify(inventoryLedgerService).applyTotals(1L, 2L, 4);
+        assertThat(batches).isEmpty();
+    }
+
+    private StockDelta staleBatch(Long id, Long warehouseId, int quantity, LocalDateTime createdAt) {
+        StockDelta row = new StockDelta();
+        row.setId(id);
+        row.setProductId(1L);
+        row.setWarehouseId(warehouseId);
+        row.setQuantity(quantity);
+        row.setApplied(0);
+        row.setReleased(0);
+        row.setStatus(StockDelta.STATUS_OPEN);
+        row.setCreatedAt(createdAt);
+        row.setUpdatedAt(createdAt);
+        return row;
+    }
+
+    private void await(Supplier<Boolean> condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.get()) {
+            assertThat(System.currentTimeMillis()).as("等待条件成立超时").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.inventory.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.component.ResourceVersions;
 import com.inventory.entity.Category;
 import com.inventory.service.CategoryService;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -39,6 +41,7 @@ import static org.hamcrest.Matchers.*;
  * @since 2026-01-04
  */
 @WebMvcTest(CategoryController.class)
+@Import(ResourceVersions.class)
 @ActiveProfiles("test")
 @DisplayName("商品分类控制器集成测试")
 class CategoryControllerTest {
@@ -618,6 +621,24 @@ class CategoryControllerTest {
                     .andExpect(jsonPath("$.data").isArray())
                     .andExpect(jsonPath("$.data", hasSize(0)));
         }
+
+        @Test
+        @DisplayName("分类未变化时携带 If-None-Match 应返回304且不查询")
+        void shouldReturn304WhenETagMatches() throws Exception {
+            // Arrange
+            when(categoryService.getTree()).thenReturn(Collections.emptyList());
+            String etag = mockMvc.perform(get("/api/categories/tree"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists("ETag"))
+                    .andReturn().getResponse().getHeader("ETag");
+
+            // Act & Assert
+            mockMvc.perform(get("/api/categories/tree").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+
+            verify(categoryService, times(1)).getTree();
+        }
     }
 
     @Nested
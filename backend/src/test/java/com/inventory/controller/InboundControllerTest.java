@@ -1,6 +1,7 @@
 package com.inventory.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.component.AsyncApprovalQueue;
 import com.inventory.entity.Inbound;
 import com.inventory.entity.Product;
 import com.inventory.service.InboundService;
@@ -46,6 +47,9 @@ class InboundControllerTest {
     @MockBean
     private InboundService inboundService;
 
+    @MockBean
+    private AsyncApprovalQueue asyncApprovalQueue;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.inventory.entity.Inventory;
 import com.inventory.entity.Product;
+import com.inventory.service.InventoryLedgerService;
 import com.inventory.service.InventoryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -51,6 +52,9 @@ class InventoryControllerTest {
     @MockBean
     private InventoryService inventoryService;
 
+    @MockBean
+    private InventoryLedgerService inventoryLedgerService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -217,7 +221,7 @@ class InventoryControllerTest {
         void shouldReturn200_whenInventoryExists() throws Exception {
             // Arrange
             Long productId = 1L;
-            when(inventoryService.getByProductId(productId)).thenReturn(testInventory);
+            when(inventoryService.getByProductAndWarehouse(productId, 1L)).thenReturn(testInventory);
 
             // Act & Assert
             mockMvc.perform(get("/api/inventory/product/{productId}", productId))
@@ -234,7 +238,7 @@ class InventoryControllerTest {
         void shouldReturn404_whenInventoryDoesNotExist() throws Exception {
             // Arrange
             Long productId = 999L;
-            when(inventoryService.getByProductId(productId)).thenReturn(null);
+            when(inventoryService.getByProductAndWarehouse(productId, 1L)).thenReturn(null);
 
             // Act & Assert
             mockMvc.perform(get("/api/inventory/product/{productId}", productId))
@@ -245,6 +249,38 @@ class InventoryControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("GET /api/inventory/product/{productId} - 按仓库获取商品库存与跨仓合计")
+    class GetInventoryByWarehouseTests {
+
+        @Test
+        @DisplayName("应按指定仓库查询 - when warehouseId provided")
+        void shouldQueryGivenWarehouse_whenWarehouseIdProvided() throws Exception {
+            // Arrange
+            testInventory.setWarehouseId(2L);
+            when(inventoryService.getByProductAndWarehouse(1L, 2L)).thenReturn(testInventory);
+
+            // Act & Assert
+            mockMvc.perform(get("/api/inventory/product/{productId}", 1L).param("warehouseId", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.warehouseId").value(2));
+            verify(inventoryService, times(1)).getByProductAndWarehouse(1L, 2L);
+        }
+
+        @Test
+        @DisplayName("应返回跨仓库存合计 - when querying total")
+        void shouldReturnTotal_whenQueryingTotal() throws Exception {
+            // Arrange
+            when(inventoryService.getTotalQuantity(1L)).thenReturn(350);
+
+            // Act & Assert
+            mockMvc.perform(get("/api/inventory/product/{productId}/total", 1L))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.code").value(200))
+                    .andExpect(jsonPath("$.data.quantity").value(350));
+        }
+    }
+
     @Nested
     @DisplayName("PUT /api/inventory/{id}/adjust - 调整库存")
     class AdjustInventoryTests {
@@ -503,7 +539,7 @@ class InventoryControllerTest {
             Long productId = 1L;
             Integer quantity = 50;
 
-            when(inventoryService.checkStock(productId, quantity)).thenReturn(true);
+            when(inventoryService.checkStock(productId, 1L, quantity)).thenReturn(true);
 
             // Act & Assert
             mockMvc.perform(post("/api/inventory/check")
@@ -525,7 +561,7 @@ class InventoryControllerTest {
             Long productId = 1L;
             Integer quantity = 150;
 
-            when(inventoryService.checkStock(productId, quantity)).thenReturn(false);
+            when(inventoryService.checkStock(productId, 1L, quantity)).thenReturn(false);
 
             // Act & Assert
             mockMvc.perform(post("/api/inventory/check")
@@ -547,7 +583,7 @@ class InventoryControllerTest {
             Long productId = 999L;
             Integer quantity = 10;
 
-            when(inventoryService.checkStock(productId, quantity)).thenReturn(false);
+            when(inventoryService.checkStock(productId, 1L, quantity)).thenReturn(false);
 
             // Act & Assert
             mockMvc.perform(post("/api/inventory/check")
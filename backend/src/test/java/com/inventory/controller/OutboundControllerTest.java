@@ -2,10 +2,14 @@ package com.inventory.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.component.AsyncApprovalQueue;
+import com.inventory.component.OrderNoGenerator.OrderType;
 import com.inventory.dto.OutboundDTO;
 import com.inventory.entity.Outbound;
 import com.inventory.exception.BusinessException;
+import com.inventory.exception.ServiceBusyException;
 import com.inventory.service.OutboundService;
+import com.inventory.vo.ApprovalTicketVO;
 import com.inventory.vo.OutboundVO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,11 +20,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -41,6 +47,8 @@ import static org.hamcrest.Matchers.*;
  * - PUT /api/outbound/{id} - 更新出库单
  * - DELETE /api/outbound/{id} - 删除出库单
  * - PATCH /api/outbound/{id}/approve - 审核出库单
+ * - PATCH /api/outbound/{id}/approve-async - 异步审核出库单
+ * - GET /api/outbound/approvals/{ticket} - 查询异步审核结果
  * - PATCH /api/outbound/{id}/void - 作废出库单
  *
  * @author inventory-system
@@ -59,6 +67,9 @@ class OutboundControllerTest {
     @MockBean
     private OutboundService outboundService;
 
+    @MockBean
+    private AsyncApprovalQueue asyncApprovalQueue;
+
     private OutboundDTO testOutboundDTO;
     private OutboundVO testOutboundVO;
 
@@ -568,6 +579,110 @@ class OutboundControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("异步审核出库单 - approve-async / approvals")
+    class AsyncApproveOutboundTests {
+
+        private ApprovalTicketVO ticket(boolean done) {
+            ApprovalTicketVO vo = new ApprovalTicketVO();
+            vo.setTicket("t1");
+            vo.setId(1L);
+            vo.setDone(done);
+            if (done) {
+                vo.setSuccess(true);
+                vo.setOrderNo("OUT202601040001");
+                vo.setMessage("审核成功");
+            }
+            return vo;
+        }
+
+        @Test
+        @DisplayName("提交后立即返回202和审核凭证")
+        void should_Return202WithTicket_When_Submitted() throws Exception {
+            // Arrange
+            when(asyncApprovalQueue.submit(OrderType.OUTBOUND, 1L, "admin")).thenReturn(ticket(false));
+
+            // Act & Assert
+            mockMvc.perform(patch("/api/outbound/1/approve-async")
+                            .param("approvedBy", "admin"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.code").value(202))
+                    .andExpect(jsonPath("$.data.ticket").value("t1"))
+                    .andExpect(jsonPath("$.data.done").value(false));
+
+            verify(outboundService, never()).approve(anyLong(), any());
+        }
+
+        @Test
+        @DisplayName("审核队列已满时拒绝提交")
+        void should_Reject_When_QueueFull() throws Exception {
+            // Arrange
+            when(asyncApprovalQueue.submit(OrderType.OUTBOUND, 1L, "system"))
+                    .thenThrow(new ServiceBusyException("审核队列已满，请稍后重试", 1));
+
+            // Act & Assert
+            mockMvc.perform(patch("/api/outbound/1/approve-async"))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.code").value(429))
+                    .andExpect(jsonPath("$.message").value(containsString("审核队列已满")));
+        }
+
+        @Test
+        @DisplayName("轮询立即返回当前状态")
+        void should_ReturnCurrentState_When_Polling() throws Exception {
+            // Arrange
+            when(asyncApprovalQueue.get(OrderType.OUTBOUND, "t1")).thenReturn(ticket(false));
+            when(asyncApprovalQueue.getMaxWaitMillis()).thenReturn(30000L);
+
+            // Act & Assert
+            MvcResult result = mockMvc.perform(get("/api/outbound/approvals/t1"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.done").value(false));
+
+            verify(asyncApprovalQueue, never()).await(any(), any());
+        }
+
+        @Test
+        @DisplayName("长轮询在审核完成时返回结果")
+        void should_ReturnResult_When_LongPollCompletes() throws Exception {
+            // Arrange
+            when(asyncApprovalQueue.get(OrderType.OUTBOUND, "t1")).thenReturn(ticket(false));
+            when(asyncApprovalQueue.getMaxWaitMillis()).thenReturn(30000L);
+            CompletableFuture<ApprovalTicketVO> future = new CompletableFuture<>();
+            when(asyncApprovalQueue.await(OrderType.OUTBOUND, "t1")).thenReturn(future);
+
+            // Act
+            MvcResult result = mockMvc.perform(get("/api/outbound/approvals/t1").param("waitMs", "5000"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            future.complete(ticket(true));
+
+            // Assert
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.done").value(true))
+                    .andExpect(jsonPath("$.data.success").value(true))
+                    .andExpect(jsonPath("$.data.orderNo").value("OUT202601040001"));
+        }
+
+        @Test
+        @DisplayName("凭证不存在时返回错误")
+        void should_ReturnError_When_TicketUnknown() throws Exception {
+            // Arrange
+            when(asyncApprovalQueue.get(OrderType.OUTBOUND, "missing"))
+                    .thenThrow(new BusinessException("审核凭证不存在或已过期"));
+
+            // Act & Assert
+            mockMvc.perform(get("/api/outbound/approvals/missing"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("审核凭证不存在或已过期"));
+        }
+    }
+
     @Nested
     @DisplayName("PATCH /api/outbound/{id}/approve - 审核出库单")
     class ApproveOutboundTests {
@@ -1,6 +1,7 @@
 package com.inventory.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.component.ResourceVersions;
 import com.inventory.entity.Product;
 import com.inventory.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -34,6 +36,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * - 批量操作测试
  */
 @WebMvcTest(ProductController.class)
+@Import(ResourceVersions.class)
 @DisplayName("商品控制器测试 (ProductControllerTest)")
 class ProductControllerTest {
 
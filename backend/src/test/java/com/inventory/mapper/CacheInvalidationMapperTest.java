@@ -0,0 +1,137 @@
+package com.inventory.mapper;
+
+import com.inventory.component.DbInvalidationTransport;
+import com.inventory.component.InvalidationBus.Event;
+import com.inventory.component.ResourceVersions.Resource;
+import com.inventory.entity.CacheInvalidation;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 缓存失效事件测试
+ *
+ * 在 H2 (MySQL 模式) 上执行 CacheInvalidationMapper 的水位查询、回看查询与过期清理，
+ * 并验证数据库传输按事件ID去重。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("缓存失效事件测试 (CacheInvalidationMapperTest)")
+class CacheInvalidationMapperTest {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MapperTestDatabase database = MapperTestDatabase.create("cache_invalidation");
+        // 两小时前的过期事件
+        database.execute("INSERT INTO t_cache_invalidation (node_id, resource, ids, created_at) VALUES " +
+                "('old', 'PRODUCT', '9', TIMESTAMPADD(HOUR, -2, NOW())), " +
+                "('old', 'CATEGORY', NULL, TIMESTAMPADD(HOUR, -2, NOW()))");
+        sqlSessionFactory = database.sessionFactory(CacheInvalidationMapper.class);
+    }
+
+    @Test
+    @DisplayName("回看窗口外的事件不返回，过期事件分批删除")
+    void shouldSelectRecentAndDeleteExpired() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            CacheInvalidationMapper mapper = session.getMapper(CacheInvalidationMapper.class);
+            // Arrange
+            CacheInvalidation row = new CacheInvalidation();
+            row.setNodeId("node-a");
+            row.setResource("PRODUCT");
+            row.setIds("1,2");
+            mapper.insert(row);
+
+            // Act & Assert
+            List<CacheInvalidation> recent = mapper.selectRecent(60);
+            assertThat(recent).extracting(CacheInvalidation::getNodeId).containsExactly("node-a");
+            assertThat(recent.get(0).getCreatedAt()).isNotNull();
+
+            assertThat(mapper.deleteExpired(3600, 1)).isEqualTo(1);
+            assertThat(mapper.deleteExpired(3600, 1)).isEqualTo(1);
+            assertThat(mapper.deleteExpired(3600, 1)).isZero();
+            assertThat(mapper.selectCount(null)).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    @DisplayName("按ID水位拉取，并重叠读取最近创建的小ID事件")
+    void shouldSelectAfterIdWithOverlap() throws Exception {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            CacheInvalidationMapper mapper = session.getMapper(CacheInvalidationMapper.class);
+            // Arrange：水位 10；5 为刚提交的小ID事件，6 创建于重叠窗口之前，11 为水位之后的事件
+            try (Statement stmt = session.getConnection().createStatement()) {
+                stmt.execute("INSERT INTO t_cache_invalidation (id, node_id, resource, ids, created_at) VALUES " +
+                        "(5, 'late', 'PRODUCT', '5', NOW()), " +
+                        "(6, 'old', 'PRODUCT', '6', TIMESTAMPADD(MINUTE, -1, NOW())), " +
+                        "(10, 'seen', 'PRODUCT', '10', TIMESTAMPADD(MINUTE, -1, NOW())), " +
+                        "(11, 'new', 'PRODUCT', '11', TIMESTAMPADD(MINUTE, -1, NOW()))");
+            }
+
+            // Act
+            List<CacheInvalidation> rows = mapper.selectSince(10L, 5);
+
+            // Assert
+            assertThat(rows).extracting(CacheInvalidation::getId).containsExactly(5L, 11L);
+        }
+    }
+
+    @Test
+    @DisplayName("数据库传输拉取到水位之前较晚提交的事件")
+    void shouldPollLateCommittedEvent() throws Exception {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            DbInvalidationTransport transport =
+                    new DbInvalidationTransport(session.getMapper(CacheInvalidationMapper.class), 60, 5, 60);
+            try (Statement stmt = session.getConnection().createStatement()) {
+                stmt.execute("INSERT INTO t_cache_invalidation (id, node_id, resource, ids) " +
+                        "VALUES (20, 'node-a', 'PRODUCT', '20')");
+            }
+            assertThat(transport.poll()).hasSize(1);
+
+            // Act：ID 更小的事件在水位推进之后才提交
+            try (Statement stmt = session.getConnection().createStatement()) {
+                stmt.execute("INSERT INTO t_cache_invalidation (id, node_id, resource, ids) " +
+                        "VALUES (15, 'node-b', 'INVENTORY', '15')");
+            }
+            List<Event> events = transport.poll();
+
+            // Assert
+            assertThat(events).extracting(Event::getResource).containsExactly(Resource.INVENTORY);
+            assertThat(transport.poll()).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("数据库传输发布后可拉取，同一事件只返回一次")
+    void shouldPollEachEventOnce() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            DbInvalidationTransport transport =
+                    new DbInvalidationTransport(session.getMapper(CacheInvalidationMapper.class), 60, 5, 60);
+
+            // Act
+            transport.publish(new Event("node-a", Resource.PRODUCT, new HashSet<>(Arrays.asList(1L, 2L))));
+            transport.publish(new Event("node-a", Resource.CATEGORY, null));
+            List<Event> first = transport.poll();
+            List<Event> second = transport.poll();
+            transport.cleanup();
+
+            // Assert
+            assertThat(first).extracting(Event::getResource).containsExactly(Resource.PRODUCT, Resource.CATEGORY);
+            assertThat(first.get(0).getIds()).containsExactlyInAnyOrder(1L, 2L);
+            assertThat(first.get(1).getIds()).isNull();
+            assertThat(second).isEmpty();
+            assertThat(session.getMapper(CacheInvalidationMapper.class).selectCount(null)).isEqualTo(2L);
+        }
+    }
+}
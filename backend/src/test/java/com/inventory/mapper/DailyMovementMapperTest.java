@@ -0,0 +1,136 @@
+package com.inventory.mapper;
+
+import com.inventory.entity.DailyMovement;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 每日出入库汇总测试
+ *
+ * 在 H2 (MySQL 模式) 上执行 DailyMovementMapper 的累加、按日汇总与重建语句，
+ * 验证审核时累加的结果与从单据重建的结果一致。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("每日出入库汇总测试 (DailyMovementMapperTest)")
+class DailyMovementMapperTest {
+
+    private static final LocalDate DAY1 = LocalDate.of(2026, 1, 3);
+    private static final LocalDate DAY2 = LocalDate.of(2026, 1, 4);
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MapperTestDatabase database = MapperTestDatabase.create("daily_movement");
+        // 已审核单据；待审核、作废单据以及次日零点的单据不计入 DAY1
+        database.execute(
+                "INSERT INTO t_inbound (inbound_no, product_id, quantity, supplier, status, inbound_date) VALUES " +
+                        "('IN1', 1, 10, 'A', 1, '2026-01-03 00:00:00'), ('IN2', 1, 20, 'A', 1, '2026-01-03 23:59:59'), " +
+                        "('IN3', 2, 7, 'A', 1, '2026-01-03 12:00:00'), ('IN4', 1, 99, 'A', 0, '2026-01-03 12:00:00'), " +
+                        "('IN5', 1, 99, 'A', 2, '2026-01-03 12:00:00'), ('IN6', 1, 5, 'A', 1, '2026-01-04 00:00:00')",
+                "INSERT INTO t_outbound (outbound_no, product_id, quantity, receiver, status, outbound_date) VALUES " +
+                        "('OUT1', 1, 4, 'B', 1, '2026-01-03 09:00:00'), ('OUT2', 3, 6, 'B', 1, '2026-01-03 18:00:00'), " +
+                        "('OUT3', 3, 50, 'B', 0, '2026-01-03 18:00:00')");
+        sqlSessionFactory = database.sessionFactory(DailyMovementMapper.class);
+    }
+
+    @Test
+    @DisplayName("审核时逐笔累加，按日期汇总全部商品")
+    void shouldSumPerDay_whenMovementsAccumulated() {
+        // Act
+        List<DailyMovement> totals;
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            DailyMovementMapper mapper = session.getMapper(DailyMovementMapper.class);
+            mapper.addInbound(DAY1, 1L, 10);
+            mapper.addInbound(DAY1, 1L, 20);
+            mapper.addInbound(DAY1, 2L, 7);
+            mapper.addOutbound(DAY1, 1L, 4);
+            mapper.addOutbound(DAY1, 3L, 6);
+            mapper.addInbound(DAY2, 1L, 5);
+            totals = mapper.selectDailyTotals(DAY1, DAY2);
+        }
+
+        // Assert
+        Map<LocalDate, DailyMovement> byDate = totals.stream()
+                .collect(Collectors.toMap(DailyMovement::getMovementDate, Function.identity()));
+        assertThat(byDate).containsOnlyKeys(DAY1, DAY2);
+        assertThat(byDate.get(DAY1).getInboundQuantity()).isEqualTo(37);
+        assertThat(byDate.get(DAY1).getOutboundQuantity()).isEqualTo(10);
+        assertThat(byDate.get(DAY2).getInboundQuantity()).isEqualTo(5);
+        assertThat(byDate.get(DAY2).getOutboundQuantity()).isZero();
+    }
+
+    @Test
+    @DisplayName("重建时多行单据按明细计入各商品，不把合计记到首行商品")
+    void shouldRebuildMultiLineDocumentsFromLines() throws Exception {
+        // Arrange：DAY2 一张两行入库单（商品 4、5）和一张两行出库单（商品 5、6），另有一张待审核的多行入库单
+        try (SqlSession session = sqlSessionFactory.openSession(true);
+             Statement stmt = session.getConnection().createStatement()) {
+            stmt.execute("INSERT INTO t_inbound (id, inbound_no, product_id, quantity, line_count, supplier, status, " +
+                    "inbound_date) VALUES (100, 'IN100', 4, 30, 2, 'A', 1, '2026-01-04 10:00:00'), " +
+                    "(101, 'IN101', 4, 99, 2, 'A', 0, '2026-01-04 10:00:00')");
+            stmt.execute("INSERT INTO t_inbound_line (inbound_id, line_no, product_id, quantity) VALUES " +
+                    "(100, 1, 4, 12), (100, 2, 5, 18), (101, 1, 4, 90), (101, 2, 5, 9)");
+            stmt.execute("INSERT INTO t_outbound (id, outbound_no, product_id, quantity, line_count, receiver, status, " +
+                    "outbound_date) VALUES (100, 'OUT100', 5, 8, 2, 'B', 1, '2026-01-04 11:00:00')");
+            stmt.execute("INSERT INTO t_outbound_line (outbound_id, line_no, product_id, quantity) VALUES " +
+                    "(100, 1, 5, 3), (100, 2, 6, 5)");
+
+            DailyMovementMapper mapper = session.getMapper(DailyMovementMapper.class);
+
+            // Act
+            mapper.deleteByDate(DAY2);
+            mapper.rebuildInbound(DAY2, DAY2.atStartOfDay(), DAY2.plusDays(1).atStartOfDay());
+            mapper.rebuildOutbound(DAY2, DAY2.atStartOfDay(), DAY2.plusDays(1).atStartOfDay());
+
+            // Assert：单行入库单（商品 1，数量 5）按表头，多行单据按明细
+            Map<Long, DailyMovement> byProduct = mapper.selectList(null).stream()
+                    .filter(m -> DAY2.equals(m.getMovementDate()))
+                    .collect(Collectors.toMap(DailyMovement::getProductId, Function.identity()));
+            assertThat(byProduct).containsOnlyKeys(1L, 4L, 5L, 6L);
+            assertThat(byProduct.get(1L).getInboundQuantity()).isEqualTo(5);
+            assertThat(byProduct.get(4L).getInboundQuantity()).isEqualTo(12);
+            assertThat(byProduct.get(5L).getInboundQuantity()).isEqualTo(18);
+            assertThat(byProduct.get(5L).getOutboundQuantity()).isEqualTo(3);
+            assertThat(byProduct.get(6L).getInboundQuantity()).isZero();
+            assertThat(byProduct.get(6L).getOutboundQuantity()).isEqualTo(5);
+        }
+    }
+
+    @Test
+    @DisplayName("重建只统计当日已审核单据，并覆盖已有的偏差")
+    void shouldRebuildFromApprovedDocuments() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            DailyMovementMapper mapper = session.getMapper(DailyMovementMapper.class);
+            // Arrange：当日已有错误的汇总
+            mapper.addInbound(DAY1, 1L, 1000);
+            mapper.addOutbound(DAY1, 9L, 1000);
+
+            // Act
+            mapper.deleteByDate(DAY1);
+            mapper.rebuildInbound(DAY1, DAY1.atStartOfDay(), DAY2.atStartOfDay());
+            mapper.rebuildOutbound(DAY1, DAY1.atStartOfDay(), DAY2.atStartOfDay());
+
+            // Assert
+            List<DailyMovement> totals = mapper.selectDailyTotals(DAY1, DAY1);
+            assertThat(totals).hasSize(1);
+            assertThat(totals.get(0).getInboundQuantity()).isEqualTo(37);
+            assertThat(totals.get(0).getOutboundQuantity()).isEqualTo(10);
+            assertThat(mapper.selectDailyTotals(DAY2, DAY2)).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.inventory.mapper;
+
+import com.inventory.entity.DashboardStats;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 看板汇总累加与重建测试
+ *
+ * 在 H2 (MySQL 模式) 上执行 DashboardStatsMapper 的累加语句，
+ * 验证增量维护的汇总值与从库存表、商品表全量重建的结果一致。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("看板汇总累加与重建测试 (DashboardStatsMapperTest)")
+class DashboardStatsMapperTest {
+
+    private MapperTestDatabase database;
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = MapperTestDatabase.create("dashboard_stats");
+        for (int slot = 0; slot < DashboardStats.SLOTS; slot++) {
+            database.execute("INSERT INTO t_dashboard_stats (slot) VALUES (" + slot + ")");
+        }
+        // 商品 1 成本 5.00，商品 2 成本 2.50，商品 17 与商品 1 落在同一槽位且未设置成本
+        database.execute(
+                "INSERT INTO t_product (id, sku, name, category_id, cost_price, status) VALUES " +
+                        "(1, 'SKU001', 'A', 1, 5.00, 1), (2, 'SKU002', 'B', 1, 2.50, 1), (17, 'SKU017', 'C', 1, NULL, 0)",
+                "INSERT INTO t_inventory (product_id, warehouse_id, quantity) VALUES " +
+                        "(1, 1, 0), (1, 2, 0), (2, 1, 0), (17, 1, 0)",
+                "INSERT INTO t_inventory_total (product_id, quantity) VALUES (1, 0), (2, 0), (17, 0)");
+        sqlSessionFactory = database.sessionFactory(DashboardStatsMapper.class);
+    }
+
+    @Test
+    @DisplayName("逐笔累加的汇总值与全量重建结果一致")
+    void shouldMatchRebuild_whenMaintainedIncrementally() throws Exception {
+        // Arrange：4 条新库存记录均低于预警值
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            DashboardStatsMapper mapper = session.getMapper(DashboardStatsMapper.class);
+            mapper.addLowStock(DashboardStats.slotOf(1L), 2);
+            mapper.addLowStock(DashboardStats.slotOf(2L), 1);
+            mapper.addLowStock(DashboardStats.slotOf(17L), 1);
+            mapper.addActiveProducts(DashboardStats.slotOf(1L), 1);
+            mapper.addActiveProducts(DashboardStats.slotOf(2L), 1);
+        }
+
+        // Act：入库、出库、跨越预警值，再调整成本价
+        applyStock(1L, 1L, 30);
+        applyStock(1L, 2L, 4);
+        applyStock(2L, 1L, 12);
+        applyStock(1L, 1L, -25);
+        applyStock(17L, 1L, 50);
+        execute("UPDATE t_inventory_total SET quantity = 9 WHERE product_id = 1");
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            session.getMapper(DashboardStatsMapper.class)
+                    .addCostValue(DashboardStats.slotOf(1L), 1L, new BigDecimal("1.00"));
+        }
+        execute("UPDATE t_product SET cost_price = 6.00 WHERE id = 1");
+
+        DashboardStats incremental = summary();
+
+        // Assert：数量 9 + 12 + 50，成本 9 * 6.00 + 12 * 2.50，低库存为商品 1 的两个仓库
+        assertThat(incremental.getTotalQuantity()).isEqualTo(71L);
+        assertThat(incremental.getTotalCostValue()).isEqualByComparingTo("84.00");
+        assertThat(incremental.getLowStockCount()).isEqualTo(2);
+        assertThat(incremental.getActiveProductCount()).isEqualTo(2);
+
+        // 重建后结果不变
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            DashboardStatsMapper mapper = session.getMapper(DashboardStatsMapper.class);
+            assertThat(mapper.selectSlotsForUpdate()).hasSize(DashboardStats.SLOTS);
+            mapper.resetAll();
+            mapper.rebuildSlot(0);
+        }
+        DashboardStats rebuilt = summary();
+        assertThat(rebuilt.getTotalQuantity()).isEqualTo(incremental.getTotalQuantity());
+        assertThat(rebuilt.getTotalCostValue()).isEqualByComparingTo(incremental.getTotalCostValue());
+        assertThat(rebuilt.getLowStockCount()).isEqualTo(incremental.getLowStockCount());
+        assertThat(rebuilt.getActiveProductCount()).isEqualTo(incremental.getActiveProductCount());
+    }
+
+    @Test
+    @DisplayName("数量等于预警值时计为低库存，与低库存查询的判定一致")
+    void shouldCountLowStock_whenQuantityEqualsWarningStock() throws Exception {
+        // Arrange：4 条新库存记录数量均为 0，商品 17 预警值为 0，同样计为低库存
+        execute("UPDATE t_inventory SET warning_stock = 0 WHERE product_id = 17");
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            DashboardStatsMapper mapper = session.getMapper(DashboardStatsMapper.class);
+            mapper.addLowStock(DashboardStats.slotOf(1L), 2);
+            mapper.addLowStock(DashboardStats.slotOf(2L), 1);
+            mapper.addLowStock(DashboardStats.slotOf(17L), 1);
+        }
+
+        // Act：商品 1 两个仓库入库至预警值以上，商品 2 入库后回落到正好等于预警值
+        applyStock(1L, 1L, 20);
+        applyStock(1L, 2L, 20);
+        applyStock(2L, 1L, 12);
+        applyStock(2L, 1L, -2);
+
+        // Assert：商品 2（10 <= 10）与商品 17（0 <= 0）
+        assertThat(summary().getLowStockCount()).isEqualTo(2);
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            DashboardStatsMapper mapper = session.getMapper(DashboardStatsMapper.class);
+            mapper.resetAll();
+            mapper.rebuildSlot(0);
+        }
+        assertThat(summary().getLowStockCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("重建修复被篡改的汇总值")
+    void shouldRepairDrift_whenRebuilt() throws Exception {
+        // Arrange
+        execute("UPDATE t_inventory SET quantity = 20 WHERE product_id = 2");
+        execute("UPDATE t_dashboard_stats SET total_quantity = 999, low_stock_count = -3 WHERE slot = 5");
+
+        // Act
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            DashboardStatsMapper mapper = session.getMapper(DashboardStatsMapper.class);
+            mapper.resetAll();
+            mapper.rebuildSlot(0);
+        }
+
+        // Assert
+        DashboardStats stats = summary();
+        assertThat(stats.getTotalQuantity()).isEqualTo(20L);
+        assertThat(stats.getTotalCostValue()).isEqualByComparingTo("50.00");
+        assertThat(stats.getLowStockCount()).isEqualTo(3);
+        assertThat(stats.getActiveProductCount()).isEqualTo(2);
+    }
+
+    /**
+     * 模拟一次库存变动：先更新库存行，再累加汇总（与流水服务的调用顺序一致）
+     */
+    private void applyStock(Long productId, Long warehouseId, int delta) throws Exception {
+        execute("UPDATE t_inventory SET quantity = quantity + " + delta +
+                " WHERE product_id = " + productId + " AND warehouse_id = " + warehouseId);
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            session.getMapper(DashboardStatsMapper.class)
+                    .applyStockDelta(DashboardStats.slotOf(productId), productId, warehouseId, delta);
+        }
+    }
+
+    private DashboardStats summary() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            return session.getMapper(DashboardStatsMapper.class).selectSummary();
+        }
+    }
+
+    private void execute(String sql) throws Exception {
+        database.execute(sql);
+    }
+}
@@ -0,0 +1,151 @@
+package com.inventory.mapper;
+
+import com.inventory.entity.InboundLine;
+import com.inventory.entity.OutboundLine;
+import com.inventory.entity.StockReservation;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 多行单据明细测试
+ *
+ * 在 H2 (MySQL 模式) 上执行明细的多行插入、按单据批量读取，以及多行出库单预占的批量写入与过期扫描。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("多行单据明细测试 (DocumentLineMapperTest)")
+class DocumentLineMapperTest {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sqlSessionFactory = MapperTestDatabase.create("document_line").sessionFactory(InboundLineMapper.class,
+                OutboundLineMapper.class, StockReservationMapper.class, ProductMapper.class);
+    }
+
+    @Test
+    @DisplayName("一条多行 INSERT 写入明细，按单据ID、行号读回")
+    void shouldInsertLinesInOneStatement_andReadByDocument() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            InboundLineMapper mapper = session.getMapper(InboundLineMapper.class);
+            LocalDateTime now = LocalDateTime.of(2026, 1, 4, 10, 0);
+
+            // Act
+            int rows = mapper.insertBatch(Arrays.asList(
+                    inboundLine(2L, 1, 5L, 10, now), inboundLine(1L, 2, 3L, 20, now),
+                    inboundLine(1L, 1, 4L, 30, now), inboundLine(3L, 1, 1L, 1, now)));
+            List<InboundLine> lines = mapper.selectByInboundIds(Arrays.asList(1L, 2L));
+
+            // Assert
+            assertThat(rows).isEqualTo(4);
+            assertThat(lines).extracting(InboundLine::getInboundId).containsExactly(1L, 1L, 2L);
+            assertThat(lines).extracting(InboundLine::getLineNo).containsExactly(1, 2, 1);
+            assertThat(lines).extracting(InboundLine::getProductId).containsExactly(4L, 3L, 5L);
+        }
+    }
+
+    @Test
+    @DisplayName("商品删除检查统计多行单据第二行及以后的商品")
+    void shouldCountDocumentsReferencingProductOnAnyLine() throws Exception {
+        try (SqlSession session = sqlSessionFactory.openSession(true);
+             Statement stmt = session.getConnection().createStatement()) {
+            // Arrange：入库单 1 表头为商品 4，明细含商品 4、5；入库单 2 单行商品 5；出库单 1 第二行为商品 6
+            stmt.execute("INSERT INTO t_inbound (id, inbound_no, product_id, quantity, line_count, supplier, inbound_date) " +
+                    "VALUES (1, 'IN1', 4, 15, 2, 'A', NOW()), (2, 'IN2', 5, 1, 1, 'A', NOW())");
+            stmt.execute("INSERT INTO t_inbound_line (inbound_id, line_no, product_id, quantity) VALUES (1, 1, 4, 10), (1, 2, 5, 5)");
+            stmt.execute("INSERT INTO t_outbound (id, outbound_no, product_id, quantity, line_count, receiver, outbound_date) " +
+                    "VALUES (1, 'OUT1', 4, 5, 2, 'B', NOW())");
+            stmt.execute("INSERT INTO t_outbound_line (outbound_id, line_no, product_id, quantity) VALUES (1, 1, 4, 3), (1, 2, 6, 2)");
+            ProductMapper mapper = session.getMapper(ProductMapper.class);
+
+            // Act & Assert：同一单据的表头与首行重复引用只计一次
+            assertThat(mapper.countInboundRecords(4L)).isEqualTo(1);
+            assertThat(mapper.countInboundRecords(5L)).isEqualTo(2);
+            assertThat(mapper.countInboundRecords(6L)).isZero();
+            assertThat(mapper.countOutboundRecords(6L)).isEqualTo(1);
+            assertThat(mapper.countOutboundRecords(5L)).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("出库单明细同样一条多行 INSERT 写入")
+    void shouldInsertOutboundLinesInOneStatement() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            OutboundLineMapper mapper = session.getMapper(OutboundLineMapper.class);
+            List<OutboundLine> lines = new ArrayList<>();
+            for (int i = 1; i <= 3; i++) {
+                OutboundLine line = new OutboundLine();
+                line.setOutboundId(7L);
+                line.setLineNo(i);
+                line.setProductId((long) (10 - i));
+                line.setQuantity(i * 5);
+                line.setCreatedAt(LocalDateTime.now());
+                lines.add(line);
+            }
+
+            // Act & Assert
+            assertThat(mapper.insertBatch(lines)).isEqualTo(3);
+            assertThat(mapper.selectByOutboundIds(Arrays.asList(7L)))
+                    .extracting(OutboundLine::getQuantity).containsExactly(5, 10, 15);
+        }
+    }
+
+    @Test
+    @DisplayName("多行出库单的预占批量写入，过期扫描时整单一起返回")
+    void shouldReturnWholeOutbound_whenScanningExpiredReservations() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            StockReservationMapper mapper = session.getMapper(StockReservationMapper.class);
+            LocalDateTime now = LocalDateTime.of(2026, 1, 4, 10, 0);
+            mapper.insertBatch(Arrays.asList(
+                    reservation(10L, 1L, now.minusMinutes(30)),
+                    reservation(11L, 1L, now.minusMinutes(20)),
+                    reservation(11L, 2L, now.minusMinutes(20)),
+                    reservation(11L, 3L, now.minusMinutes(20)),
+                    reservation(12L, 1L, now.plusMinutes(10))));
+
+            // Act：只取 2 条，出库单 11 的三行预占一起返回
+            List<StockReservation> expired = mapper.selectExpired(now, 2);
+
+            // Assert
+            assertThat(expired).extracting(StockReservation::getOutboundId).containsExactly(10L, 11L, 11L, 11L);
+            assertThat(mapper.selectActiveByOutboundId(11L)).extracting(StockReservation::getProductId)
+                    .containsExactlyInAnyOrder(1L, 2L, 3L);
+        }
+    }
+
+    private static InboundLine inboundLine(Long inboundId, int lineNo, Long productId, int quantity, LocalDateTime now) {
+        InboundLine line = new InboundLine();
+        line.setInboundId(inboundId);
+        line.setLineNo(lineNo);
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        line.setCreatedAt(now);
+        return line;
+    }
+
+    private static StockReservation reservation(Long outboundId, Long productId, LocalDateTime expireAt) {
+        StockReservation reservation = new StockReservation();
+        reservation.setOutboundId(outboundId);
+        reservation.setProductId(productId);
+        reservation.setWarehouseId(1L);
+        reservation.setQuantity(5);
+        reservation.setStatus(StockReservation.STATUS_ACTIVE);
+        reservation.setExpireAt(expireAt);
+        reservation.setCreatedAt(expireAt.minusMinutes(30));
+        reservation.setUpdatedAt(expireAt.minusMinutes(30));
+        return reservation;
+    }
+}
@@ -0,0 +1,85 @@
+package com.inventory.mapper;
+
+import com.inventory.entity.Inbound;
+import com.inventory.entity.Product;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 入库单批量导入测试
+ *
+ * 在 H2 (MySQL 模式) 上执行导入用到的商品状态分批扫描和入库单多行插入。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("入库单批量导入测试 (InboundMapperImportTest)")
+class InboundMapperImportTest {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MapperTestDatabase database = MapperTestDatabase.create("inbound_import");
+        database.execute("INSERT INTO t_product (id, sku, name, category_id, status) VALUES " +
+                "(1, 'SKU001', 'A', 1, 1), (2, 'SKU002', 'B', 1, 0), (3, 'SKU003', 'C', 1, 1)");
+        sqlSessionFactory = database.sessionFactory(InboundMapper.class, ProductMapper.class);
+    }
+
+    @Test
+    @DisplayName("商品状态按ID分批返回")
+    void shouldScanProductStatusInBatches() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            ProductMapper mapper = session.getMapper(ProductMapper.class);
+
+            // Act
+            List<Product> first = mapper.selectStatusBatch(0L, 2);
+            List<Product> second = mapper.selectStatusBatch(2L, 2);
+
+            // Assert
+            assertThat(first).extracting(Product::getId).containsExactly(1L, 2L);
+            assertThat(first).extracting(Product::isEnabled).containsExactly(true, false);
+            assertThat(second).extracting(Product::getId).containsExactly(3L);
+        }
+    }
+
+    @Test
+    @DisplayName("一条多行 INSERT 写入整批入库单")
+    void shouldInsertBatch() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            InboundMapper mapper = session.getMapper(InboundMapper.class);
+            // Arrange
+            List<Inbound> inbounds = new ArrayList<>();
+            for (int i = 1; i <= 3; i++) {
+                Inbound inbound = new Inbound();
+                inbound.setInboundNo(String.format("IN20260104%06d", i));
+                inbound.setProductId(i == 2 ? 3L : 1L);
+                inbound.setWarehouseId(1L);
+                inbound.setQuantity(i * 10);
+                inbound.setSupplier("供应商" + i);
+                inbound.setInboundDate(LocalDateTime.of(2026, 1, 4, 9, 0));
+                inbound.setStatus(Inbound.STATUS_PENDING);
+                inbound.setCreatedBy("system");
+                inbound.setCreatedAt(LocalDateTime.now());
+                inbounds.add(inbound);
+            }
+
+            // Act
+            int rows = mapper.insertBatch(inbounds);
+
+            // Assert
+            assertThat(rows).isEqualTo(3);
+            assertThat(mapper.selectCount(null)).isEqualTo(3L);
+            assertThat(mapper.selectList(null)).extracting(Inbound::getQuantity).containsExactlyInAnyOrder(10, 20, 30);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.inventory.mapper;
+
+import com.inventory.entity.Inventory;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 库存批量更新测试
+ *
+ * 在 H2 (MySQL 模式) 上执行多行单据审核、预占用到的单语句批量更新。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("库存批量更新测试 (InventoryMapperBatchTest)")
+class InventoryMapperBatchTest {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MapperTestDatabase database = MapperTestDatabase.create("inventory_batch");
+        database.execute("INSERT INTO t_inventory (product_id, warehouse_id, quantity, reserved_quantity) VALUES " +
+                "(1, 1, 100, 0), (2, 1, 50, 10), (3, 1, 20, 0), (1, 2, 100, 0)");
+        sqlSessionFactory = database.sessionFactory(InventoryMapper.class);
+    }
+
+    @Test
+    @DisplayName("一条语句按商品分别增加库存，只影响指定仓库")
+    void shouldIncreaseEachProduct_inOneStatement() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            InventoryMapper mapper = session.getMapper(InventoryMapper.class);
+
+            // Act
+            int rows = mapper.increaseQuantityBatch(1L, quantities(1L, 10, 3L, 5));
+
+            // Assert
+            assertThat(rows).isEqualTo(2);
+            assertThat(quantity(mapper, 1L, 1L)).isEqualTo(110);
+            assertThat(quantity(mapper, 2L, 1L)).isEqualTo(50);
+            assertThat(quantity(mapper, 3L, 1L)).isEqualTo(25);
+            assertThat(quantity(mapper, 1L, 2L)).isEqualTo(100);
+        }
+    }
+
+    @Test
+    @DisplayName("库存记录不存在的商品不计入影响行数")
+    void shouldReportMissingRows_whenIncreasing() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            InventoryMapper mapper = session.getMapper(InventoryMapper.class);
+
+            // Act & Assert
+            assertThat(mapper.increaseQuantityBatch(1L, quantities(1L, 10, 9L, 5))).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("扣减按可用库存（库存 - 预占）逐商品判断，不足的商品不修改")
+    void shouldSkipInsufficientProducts_whenDecreasing() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            InventoryMapper mapper = session.getMapper(InventoryMapper.class);
+
+            // Act：商品2 可用 40，需要 45
+            int rows = mapper.decreaseQuantityBatch(1L, quantities(1L, 30, 2L, 45));
+
+            // Assert
+            assertThat(rows).isEqualTo(1);
+            assertThat(quantity(mapper, 1L, 1L)).isEqualTo(70);
+            assertThat(quantity(mapper, 2L, 1L)).isEqualTo(50);
+        }
+    }
+
+    @Test
+    @DisplayName("批量预占后再批量转扣减，库存与预占数量同时减少")
+    void shouldReserveThenConsume_inOneStatementEach() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            InventoryMapper mapper = session.getMapper(InventoryMapper.class);
+            Map<Long, Integer> quantities = quantities(1L, 30, 2L, 40);
+
+            // Act & Assert
+            assertThat(mapper.reserveQuantityBatch(1L, quantities)).isEqualTo(2);
+            assertThat(mapper.reserveQuantityBatch(1L, quantities(2L, 1))).isZero();
+            assertThat(mapper.consumeReservedBatch(1L, quantities)).isEqualTo(2);
+
+            Inventory first = mapper.selectByProductAndWarehouse(1L, 1L);
+            Inventory second = mapper.selectByProductAndWarehouse(2L, 1L);
+            assertThat(first.getQuantity()).isEqualTo(70);
+            assertThat(first.getReservedQuantity()).isZero();
+            assertThat(second.getQuantity()).isEqualTo(10);
+            assertThat(second.getReservedQuantity()).isEqualTo(10);
+        }
+    }
+
+    @Test
+    @DisplayName("多张单据并发审核同一批商品（明细顺序相反），批量更新按商品ID加锁，无死锁且无丢失更新")
+    void shouldApplyConcurrentDocuments_withoutDeadlock() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                // 单据明细顺序交替，调用方按商品ID排序后提交
+                List<Long> lineOrder = i % 2 == 0 ? Arrays.asList(1L, 2L, 3L) : Arrays.asList(3L, 2L, 1L);
+                futures.add(executor.submit(() -> {
+                    try (SqlSession session = sqlSessionFactory.openSession(false)) {
+                        InventoryMapper mapper = session.getMapper(InventoryMapper.class);
+                        Map<Long, Integer> sorted = new TreeMap<>();
+                        lineOrder.forEach(productId -> sorted.put(productId, 1));
+                        assertThat(mapper.increaseQuantityBatch(1L, sorted)).isEqualTo(3);
+                        session.commit();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            InventoryMapper mapper = session.getMapper(InventoryMapper.class);
+            assertThat(quantity(mapper, 1L, 1L)).isEqualTo(140);
+            assertThat(quantity(mapper, 2L, 1L)).isEqualTo(90);
+            assertThat(quantity(mapper, 3L, 1L)).isEqualTo(60);
+        }
+    }
+
+    private static Map<Long, Integer> quantities(Object... productQuantities) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (int i = 0; i < productQuantities.length; i += 2) {
+            quantities.put((Long) productQuantities[i], (Integer) productQuantities[i + 1]);
+        }
+        return quantities;
+    }
+
+    private static int quantity(InventoryMapper mapper, Long productId, Long warehouseId) {
+        return mapper.selectByProductAndWarehouse(productId, warehouseId).getQuantity();
+    }
+}
@@ -0,0 +1,224 @@
+package com.inventory.mapper;
+
+import com.inventory.entity.Inventory;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 库存原子更新并发测试
+ *
+ * 直接在 H2 (MySQL 模式) 上执行 InventoryMapper 的条件更新语句，
+ * 验证 64 个并发写线程下无丢失更新、无超卖。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("库存原子更新并发测试 (InventoryMapperConcurrencyTest)")
+class InventoryMapperConcurrencyTest {
+
+    private static final int WRITERS = 64;
+    private static final int OPS_PER_WRITER = 50;
+    private static final long PRODUCT_ID = 1L;
+    private static final long WAREHOUSE_ID = 1L;
+
+    private SqlSessionFactory sqlSessionFactory;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sqlSessionFactory = MapperTestDatabase.create("inventory_concurrency").sessionFactory(InventoryMapper.class);
+
+        executor = Executors.newFixedThreadPool(WRITERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("64 个并发写线程交替增减库存，最终数量无丢失更新")
+    void shouldNotLoseUpdates_whenWritersAddAndReduceConcurrently() throws Exception {
+        // Arrange
+        int initial = 1000;
+        insertInventory(initial);
+
+        // Act：偶数线程每次 +2，奇数线程每次 -1
+        runWriters(writer -> {
+            try (SqlSession session = sqlSessionFactory.openSession(true)) {
+                InventoryMapper mapper = session.getMapper(InventoryMapper.class);
+                for (int i = 0; i < OPS_PER_WRITER; i++) {
+                    int rows = writer % 2 == 0
+                            ? mapper.increaseQuantity(PRODUCT_ID, WAREHOUSE_ID, 2)
+                            : mapper.decreaseQuantity(PRODUCT_ID, WAREHOUSE_ID, 1);
+                    assertThat(rows).isEqualTo(1);
+                }
+            }
+        });
+
+        // Assert
+        int expected = initial + (WRITERS / 2) * OPS_PER_WRITER * 2 - (WRITERS / 2) * OPS_PER_WRITER;
+        assertThat(currentQuantity()).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("64 个并发扣减争抢有限库存，成功次数恰好等于库存且不超卖")
+    void shouldNeverOversell_whenWritersCompeteForLimitedStock() throws Exception {
+        // Arrange
+        int initial = 1000;
+        insertInventory(initial);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        // Act：总需求 64 * 50 = 3200，远超库存
+        runWriters(writer -> {
+            try (SqlSession session = sqlSessionFactory.openSession(true)) {
+                InventoryMapper mapper = session.getMapper(InventoryMapper.class);
+                for (int i = 0; i < OPS_PER_WRITER; i++) {
+                    if (mapper.decreaseQuantity(PRODUCT_ID, WAREHOUSE_ID, 1) == 1) {
+                        succeeded.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        // Assert
+        assertThat(succeeded.get()).isEqualTo(initial);
+        assertThat(rejected.get()).isEqualTo(WRITERS * OPS_PER_WRITER - initial);
+        assertThat(currentQuantity()).isZero();
+    }
+
+    @Test
+    @DisplayName("条件扣减在库存不足时不修改任何行")
+    void shouldNotUpdate_whenStockInsufficient() throws Exception {
+        // Arrange
+        insertInventory(5);
+
+        // Act
+        int rows;
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            rows = session.getMapper(InventoryMapper.class).decreaseQuantity(PRODUCT_ID, WAREHOUSE_ID, 6);
+        }
+
+        // Assert
+        assertThat(rows).isZero();
+        assertThat(currentQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("预占与普通扣减并发争抢库存，两者合计不超过库存且预占部分不被扣走")
+    void shouldNeverOversell_whenReservationsAndDecrementsCompete() throws Exception {
+        // Arrange
+        int initial = 1000;
+        insertInventory(initial);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger decreased = new AtomicInteger();
+
+        // Act：偶数线程预占，奇数线程直接扣减
+        runWriters(writer -> {
+            try (SqlSession session = sqlSessionFactory.openSession(true)) {
+                InventoryMapper mapper = session.getMapper(InventoryMapper.class);
+                for (int i = 0; i < OPS_PER_WRITER; i++) {
+                    if (writer % 2 == 0) {
+                        reserved.addAndGet(mapper.reserveQuantity(PRODUCT_ID, WAREHOUSE_ID, 1));
+                    } else {
+                        decreased.addAndGet(mapper.decreaseQuantity(PRODUCT_ID, WAREHOUSE_ID, 1));
+                    }
+                }
+            }
+        });
+
+        // Assert
+        assertThat(reserved.get() + decreased.get()).isEqualTo(initial);
+        Inventory inventory = currentInventory();
+        assertThat(inventory.getQuantity()).isEqualTo(initial - decreased.get());
+        assertThat(inventory.getReservedQuantity()).isEqualTo(reserved.get());
+        assertThat(inventory.getAvailableQuantity()).isZero();
+
+        // 预占转扣减后库存与预占同步减少
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            assertThat(session.getMapper(InventoryMapper.class)
+                    .consumeReserved(PRODUCT_ID, WAREHOUSE_ID, reserved.get())).isEqualTo(1);
+        }
+        assertThat(currentInventory().getQuantity()).isZero();
+        assertThat(currentInventory().getReservedQuantity()).isZero();
+    }
+
+    @Test
+    @DisplayName("按库存ID手工扣减不能扣走已预占的数量")
+    void shouldNotDecreaseReserved_whenAdjustingById() throws Exception {
+        // Arrange：库存 10，预占 6
+        insertInventory(10);
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            InventoryMapper mapper = session.getMapper(InventoryMapper.class);
+            assertThat(mapper.reserveQuantity(PRODUCT_ID, WAREHOUSE_ID, 6)).isEqualTo(1);
+            Long id = currentInventory().getId();
+
+            // Act & Assert
+            assertThat(mapper.decreaseQuantityById(id, 5)).isZero();
+            assertThat(mapper.decreaseQuantityById(id, 4)).isEqualTo(1);
+        }
+        assertThat(currentInventory().getQuantity()).isEqualTo(6);
+        assertThat(currentInventory().getAvailableQuantity()).isZero();
+    }
+
+    private void insertInventory(int quantity) {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            Inventory inventory = new Inventory();
+            inventory.setProductId(PRODUCT_ID);
+            inventory.setWarehouseId(WAREHOUSE_ID);
+            inventory.setQuantity(quantity);
+            inventory.setReservedQuantity(0);
+            inventory.setWarningStock(10);
+            inventory.setCreatedAt(LocalDateTime.now());
+            inventory.setUpdatedAt(LocalDateTime.now());
+            session.getMapper(InventoryMapper.class).insert(inventory);
+        }
+    }
+
+    private int currentQuantity() {
+        return currentInventory().getQuantity();
+    }
+
+    private Inventory currentInventory() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            return session.getMapper(InventoryMapper.class).selectByProductAndWarehouse(PRODUCT_ID, WAREHOUSE_ID);
+        }
+    }
+
+    private void runWriters(WriterTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(writer);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    @FunctionalInterface
+    private interface WriterTask {
+        void run(int writer);
+    }
+}
@@ -0,0 +1,194 @@
+package com.inventory.mapper;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.inventory.entity.Inventory;
+import com.inventory.entity.Product;
+import com.inventory.vo.CategoryDistributionVO;
+import com.inventory.vo.InventoryVO;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 库存关联分页查询测试
+ *
+ * 在 H2 (MySQL 模式) 上执行 InventoryMapper.selectInventoryPage / selectInventoryAfter，
+ * 验证筛选条件作用于全部数据、总数准确、金额由数据库计算，游标翻页不重不漏；
+ * 以及库存读模型不可用时低库存查询的排序与条数限制。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("库存关联分页查询测试 (InventoryMapperPageTest)")
+class InventoryMapperPageTest {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MapperTestDatabase database = MapperTestDatabase.create("inventory_page");
+        database.execute("INSERT INTO t_category (id, name) VALUES (1, '电子产品'), (2, '办公用品')");
+        // 12 个手机商品（分类 1），3 个文具商品（分类 2）
+        for (int i = 1; i <= 15; i++) {
+            String name = i <= 12 ? "Phone " + i : "Pen " + i;
+            long categoryId = i <= 12 ? 1 : 2;
+            // 奇数商品为低库存
+            int quantity = i % 2 == 1 ? 5 : 100;
+            database.execute(
+                    String.format("INSERT INTO t_product (id, sku, name, category_id, price) " +
+                            "VALUES (%d, 'SKU%03d', '%s', %d, 10.50)", i, i, name, categoryId),
+                    String.format("INSERT INTO t_inventory (product_id, warehouse_id, quantity, reserved_quantity) " +
+                            "VALUES (%d, 1, %d, 2)", i, quantity));
+        }
+        database.execute("INSERT INTO t_inventory (product_id, warehouse_id, quantity) VALUES (1, 2, 40)");
+        sqlSessionFactory = database.sessionFactory(InventoryMapper.class, ProductMapper.class);
+    }
+
+    private IPage<InventoryVO> query(String productName, Long categoryId, Long warehouseId, boolean lowStock,
+                                     int page, int size) {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            return session.getMapper(InventoryMapper.class)
+                    .selectInventoryPage(new Page<>(page, size), productName, categoryId, warehouseId, lowStock);
+        }
+    }
+
+    @Test
+    @DisplayName("按商品名称筛选时总数覆盖全部数据而非当前页")
+    void shouldCountAllMatches_whenFilteringByName() {
+        // Act
+        IPage<InventoryVO> result = query("phone", null, 1L, false, 1, 5);
+
+        // Assert
+        assertThat(result.getTotal()).isEqualTo(12);
+        assertThat(result.getRecords()).hasSize(5);
+        assertThat(result.getRecords()).allMatch(vo -> vo.getProductName().startsWith("Phone"));
+    }
+
+    @Test
+    @DisplayName("分类、低库存与仓库条件在 SQL 中组合")
+    void shouldCombinePredicates_whenCategoryAndLowStockGiven() {
+        // Act：分类 2 为商品 13、14、15，其中 13、15 为低库存
+        IPage<InventoryVO> result = query(null, 2L, 1L, true, 1, 10);
+
+        // Assert
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getRecords()).extracting(InventoryVO::getProductId).containsExactlyInAnyOrder(13L, 15L);
+        assertThat(result.getRecords()).allMatch(InventoryVO::getIsLowStock);
+    }
+
+    @Test
+    @DisplayName("商品、分类信息与金额、可用库存由同一查询返回")
+    void shouldFillProductCategoryAndAmount_inSingleQuery() {
+        // Act
+        IPage<InventoryVO> result = query("Phone 2", null, 1L, false, 1, 10);
+
+        // Assert
+        InventoryVO vo = result.getRecords().stream()
+                .filter(r -> r.getProductId() == 2L).findFirst().orElseThrow(AssertionError::new);
+        assertThat(vo.getProductSku()).isEqualTo("SKU002");
+        assertThat(vo.getCategoryName()).isEqualTo("电子产品");
+        assertThat(vo.getAmount()).isEqualByComparingTo(new BigDecimal("1050.00"));
+        assertThat(vo.getAvailableQuantity()).isEqualTo(98);
+        assertThat(vo.getIsLowStock()).isFalse();
+    }
+
+    @Test
+    @DisplayName("不指定仓库时查询全部仓库")
+    void shouldQueryAllWarehouses_whenWarehouseNotGiven() {
+        // Act
+        IPage<InventoryVO> result = query(null, null, null, false, 1, 10);
+
+        // Assert
+        assertThat(result.getTotal()).isEqualTo(16);
+    }
+
+    @Test
+    @DisplayName("游标翻页遍历全部数据，更新时间相同的行按ID区分且不重不漏")
+    void shouldWalkAllRowsOnce_whenPagingByCursor() {
+        // Arrange：全部行在同一秒插入，更新时间相同
+        List<Long> seen = new ArrayList<>();
+        LocalDateTime updatedAt = null;
+        Long id = null;
+
+        // Act
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            InventoryMapper mapper = session.getMapper(InventoryMapper.class);
+            while (true) {
+                List<InventoryVO> rows = mapper.selectInventoryAfter(null, null, null, false, updatedAt, id, 5);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                rows.forEach(vo -> seen.add(vo.getId()));
+                InventoryVO last = rows.get(rows.size() - 1);
+                updatedAt = last.getUpdatedAt();
+                id = last.getId();
+            }
+        }
+
+        // Assert
+        assertThat(seen).hasSize(16).doesNotHaveDuplicates();
+        assertThat(seen).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+
+    @Test
+    @DisplayName("按分类分组汇总各仓库存，商品不存在的库存单独一组")
+    void shouldSumQuantityPerCategory_inSingleGroupedQuery() throws Exception {
+        // Arrange：一条商品已不存在的库存
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            session.getConnection().createStatement()
+                    .execute("INSERT INTO t_inventory (product_id, warehouse_id, quantity) VALUES (99, 1, 7)");
+        }
+
+        // Act
+        List<CategoryDistributionVO> rows;
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            rows = session.getMapper(InventoryMapper.class).selectQuantityByCategory();
+        }
+
+        // Assert：分类 1 = 奇数 6 * 5 + 偶数 6 * 100 + 商品 1 在仓库 2 的 40；分类 2 = 5 + 100 + 5
+        Map<Long, Integer> byCategory = new HashMap<>();
+        rows.forEach(row -> byCategory.put(row.getCategoryId(), row.getQuantity()));
+        assertThat(byCategory).containsEntry(1L, 670).containsEntry(2L, 110).containsEntry(null, 7).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("低库存按缺货数量从多到少，商品按其最大缺货去重")
+    void shouldOrderLowStockByShortage() throws Exception {
+        // Arrange：商品 7 缺货最多；商品 3 在仓库 2 也低库存
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            Statement stmt = session.getConnection().createStatement();
+            stmt.execute("UPDATE t_inventory SET quantity = 0 WHERE product_id = 7");
+            stmt.execute("INSERT INTO t_inventory (product_id, warehouse_id, quantity) VALUES (3, 2, 2)");
+        }
+
+        // Act
+        List<Inventory> all;
+        List<Inventory> warehouse2;
+        List<Product> products;
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            InventoryMapper inventoryMapper = session.getMapper(InventoryMapper.class);
+            all = inventoryMapper.selectLowStock(null, 3);
+            warehouse2 = inventoryMapper.selectLowStock(2L, null);
+            products = session.getMapper(ProductMapper.class).selectLowStockProducts(3);
+        }
+
+        // Assert：缺货 7 > 5，相同缺货按商品ID、仓库ID
+        assertThat(all).extracting(Inventory::getProductId).containsExactly(7L, 3L, 1L);
+        assertThat(all).extracting(Inventory::getWarehouseId).containsExactly(1L, 2L, 1L);
+        assertThat(warehouse2).extracting(Inventory::getProductId).containsExactly(3L);
+        assertThat(products).extracting(Product::getId).containsExactly(7L, 3L, 1L);
+    }
+}
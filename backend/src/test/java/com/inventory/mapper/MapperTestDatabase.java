@@ -0,0 +1,122 @@
+package com.inventory.mapper;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.inventory.config.MybatisPlusConfig;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Mapper 测试数据库
+ *
+ * 在 H2 (MySQL 模式) 内存库上执行 src/main/resources/sql 下的建表脚本，Mapper 测试与生产使用同一份表结构。
+ * 脚本中的示例数据（INSERT）不执行，外键检查关闭，各测试只准备用到的行。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+final class MapperTestDatabase {
+
+    /**
+     * 建表脚本，按外键依赖顺序执行
+     */
+    private static final String[] SCRIPTS = {"category", "product", "inventory", "inbound", "outbound"};
+
+    private final JdbcDataSource dataSource;
+
+    private MapperTestDatabase(JdbcDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * 创建（或清空后重建）指定名称的内存库
+     *
+     * @param name 库名，各测试类使用不同的库名
+     * @return 测试数据库
+     */
+    static MapperTestDatabase create(String name) throws SQLException, IOException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        // IGNORECASE 对应 MySQL 默认的大小写不敏感排序规则
+        dataSource.setURL("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000;IGNORECASE=TRUE");
+        dataSource.setUser("sa");
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+            for (String script : SCRIPTS) {
+                for (String sql : readStatements("sql/" + script + ".sql")) {
+                    if (!sql.toUpperCase(Locale.ROOT).startsWith("INSERT")) {
+                        stmt.execute(sql);
+                    }
+                }
+            }
+            stmt.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        }
+        return new MapperTestDatabase(dataSource);
+    }
+
+    /**
+     * 构建注册了指定 Mapper 的会话工厂（与应用配置一致：下划线转驼峰、MySQL 分页插件及每页上限）
+     *
+     * @param mappers Mapper 接口
+     * @return 会话工厂
+     */
+    SqlSessionFactory sessionFactory(Class<?>... mappers) {
+        MybatisConfiguration configuration = new MybatisConfiguration(
+                new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        PaginationInnerInterceptor pagination = new PaginationInnerInterceptor(DbType.MYSQL);
+        pagination.setMaxLimit((long) MybatisPlusConfig.MAX_PAGE_SIZE);
+        interceptor.addInnerInterceptor(pagination);
+        configuration.addInterceptor(interceptor);
+        for (Class<?> mapper : mappers) {
+            configuration.addMapper(mapper);
+        }
+        return new MybatisSqlSessionFactoryBuilder().build(configuration);
+    }
+
+    /**
+     * 逐条执行 SQL（准备或修改测试数据）
+     *
+     * @param sqls SQL 语句
+     */
+    void execute(String... sqls) throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            for (String sql : sqls) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    JdbcDataSource getDataSource() {
+        return dataSource;
+    }
+
+    private static List<String> readStatements(String path) throws IOException {
+        String script;
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            script = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+        List<String> statements = new ArrayList<>();
+        ScriptUtils.splitSqlScript(script, ScriptUtils.DEFAULT_STATEMENT_SEPARATOR, statements);
+        return statements;
+    }
+}
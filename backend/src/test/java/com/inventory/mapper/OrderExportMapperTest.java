@@ -0,0 +1,87 @@
+package com.inventory.mapper;
+
+import com.inventory.vo.InboundVO;
+import com.inventory.vo.OutboundVO;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 出入库单导出查询测试
+ *
+ * 在 H2 (MySQL 模式) 上执行 InboundMapper.exportInbound / OutboundMapper.exportOutbound，
+ * 验证筛选条件与列表查询一致、商品信息由 SQL 关联、按创建时间倒序逐行回调。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("出入库单导出查询测试 (OrderExportMapperTest)")
+class OrderExportMapperTest {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MapperTestDatabase database = MapperTestDatabase.create("order_export");
+        database.execute(
+                "INSERT INTO t_product (id, sku, name, category_id) VALUES " +
+                        "(1, 'SKU001', 'iPhone 15', 1), (2, 'SKU002', 'MacBook', 1)",
+                "INSERT INTO t_inbound (id, inbound_no, product_id, quantity, supplier, inbound_date, status, created_at) VALUES " +
+                        "(1, 'IN20260104000001', 1, 10, 'A', '2026-01-04 09:00:00', 1, '2026-01-04 09:00:00'), " +
+                        "(2, 'IN20260104000002', 2, 20, 'B', '2026-01-04 10:00:00', 0, '2026-01-04 10:00:00'), " +
+                        "(3, 'IN20260105000001', 1, 30, 'C', '2026-01-05 09:00:00', 0, '2026-01-05 09:00:00'), " +
+                        "(4, 'IN20260105000002', 1, 40, 'D', '2026-01-05 10:00:00', 2, '2026-01-05 10:00:00')",
+                "INSERT INTO t_outbound (id, outbound_no, product_id, quantity, receiver, outbound_date, status, created_at) VALUES " +
+                        "(1, 'OUT20260104000001', 1, 5, '张三', '2026-01-04 11:00:00', 1, '2026-01-04 11:00:00'), " +
+                        "(2, 'OUT20260104000002', 2, 6, '李四', '2026-01-04 12:00:00', 0, '2026-01-04 12:00:00')");
+        sqlSessionFactory = database.sessionFactory(InboundMapper.class, OutboundMapper.class);
+    }
+
+    @Test
+    @DisplayName("入库单按条件逐行回调，商品信息与状态描述由 SQL 填充")
+    void shouldExportInboundWithFilters() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            InboundMapper mapper = session.getMapper(InboundMapper.class);
+
+            // Act
+            List<InboundVO> all = new ArrayList<>();
+            mapper.exportInbound(null, null, null, null, context -> all.add(context.getResultObject()));
+            List<InboundVO> filtered = new ArrayList<>();
+            mapper.exportInbound(1L, 0, "2026-01-04 00:00:00", "2026-01-05 23:59:59",
+                    context -> filtered.add(context.getResultObject()));
+
+            // Assert
+            assertThat(all).extracting(InboundVO::getId).containsExactly(4L, 3L, 2L, 1L);
+            assertThat(all.get(2).getProductName()).isEqualTo("MacBook");
+            assertThat(all.get(2).getProductSku()).isEqualTo("SKU002");
+            assertThat(all).extracting(InboundVO::getStatusDesc).containsExactly("已作废", "待审核", "待审核", "已审核");
+            assertThat(filtered).extracting(InboundVO::getInboundNo).containsExactly("IN20260105000001");
+        }
+    }
+
+    @Test
+    @DisplayName("出库单按条件逐行回调")
+    void shouldExportOutboundWithFilters() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            OutboundMapper mapper = session.getMapper(OutboundMapper.class);
+
+            // Act
+            List<OutboundVO> rows = new ArrayList<>();
+            mapper.exportOutbound(null, 1, null, null, context -> rows.add(context.getResultObject()));
+
+            // Assert
+            assertThat(rows).hasSize(1);
+            assertThat(rows.get(0).getOutboundNo()).isEqualTo("OUT20260104000001");
+            assertThat(rows.get(0).getReceiver()).isEqualTo("张三");
+            assertThat(rows.get(0).getProductName()).isEqualTo("iPhone 15");
+            assertThat(rows.get(0).getStatusText()).isEqualTo("已审核");
+        }
+    }
+}
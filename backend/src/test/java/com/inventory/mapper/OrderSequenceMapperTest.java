@@ -0,0 +1,51 @@
+package com.inventory.mapper;
+
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 单号序号测试
+ *
+ * 在 H2 (MySQL 模式) 上执行 OrderSequenceMapper 的建行与序号段预留。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("单号序号测试 (OrderSequenceMapperTest)")
+class OrderSequenceMapperTest {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sqlSessionFactory = MapperTestDatabase.create("order_sequence").sessionFactory(OrderSequenceMapper.class);
+    }
+
+    @Test
+    @DisplayName("序号行按名称和日期区分，重复建行被忽略，每次预留推进一个段长")
+    void shouldAdvanceByBlockPerNameAndDate() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            OrderSequenceMapper mapper = session.getMapper(OrderSequenceMapper.class);
+            LocalDate today = LocalDate.of(2026, 1, 4);
+
+            // Act & Assert：行不存在时不更新
+            assertThat(mapper.advance("INBOUND", today, 20)).isZero();
+            assertThat(mapper.insertIfAbsent("INBOUND", today)).isEqualTo(1);
+            assertThat(mapper.insertIfAbsent("INBOUND", today)).isZero();
+
+            assertThat(mapper.advance("INBOUND", today, 20)).isEqualTo(1);
+            assertThat(mapper.advance("INBOUND", today, 20)).isEqualTo(1);
+            assertThat(mapper.selectNextValue("INBOUND", today)).isEqualTo(41L);
+
+            assertThat(mapper.selectNextValue("OUTBOUND", today)).isNull();
+            assertThat(mapper.selectNextValue("INBOUND", today.plusDays(1))).isNull();
+        }
+    }
+}
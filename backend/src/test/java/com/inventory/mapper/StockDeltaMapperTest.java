@@ -0,0 +1,99 @@
+package com.inventory.mapper;
+
+import com.inventory.entity.StockDelta;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 库存合并写入批次测试
+ *
+ * 在 H2 (MySQL 模式) 上执行 StockDeltaMapper 的结算、搁置、加锁读取、超时扫描，以及 InventoryMapper 的增量应用。
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@DisplayName("库存合并写入批次测试 (StockDeltaMapperTest)")
+class StockDeltaMapperTest {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MapperTestDatabase database = MapperTestDatabase.create("stock_delta");
+        database.execute("INSERT INTO t_inventory (product_id, warehouse_id, quantity, reserved_quantity) " +
+                "VALUES (1, 1, 10, 4)");
+        sqlSessionFactory = database.sessionFactory(StockDeltaMapper.class, InventoryMapper.class);
+    }
+
+    private StockDelta batch(int quantity, LocalDateTime createdAt) {
+        StockDelta row = new StockDelta();
+        row.setProductId(1L);
+        row.setWarehouseId(1L);
+        row.setQuantity(quantity);
+        row.setApplied(0);
+        row.setReleased(0);
+        row.setStatus(StockDelta.STATUS_OPEN);
+        row.setCreatedAt(createdAt);
+        row.setUpdatedAt(createdAt);
+        return row;
+    }
+
+    @Test
+    @DisplayName("累加结算份额，搁置的批次不再加锁读取或参与恢复扫描")
+    void shouldSettleAndParkBatches() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            StockDeltaMapper mapper = session.getMapper(StockDeltaMapper.class);
+            LocalDateTime stale = LocalDateTime.now().minusMinutes(5);
+            StockDelta open = batch(-3, stale);
+            StockDelta parked = batch(-1, stale);
+            StockDelta fresh = batch(4, LocalDateTime.now());
+            mapper.insert(open);
+            mapper.insert(parked);
+            mapper.insert(fresh);
+
+            // Act
+            assertThat(mapper.settle(open.getId(), -2, 0)).isEqualTo(1);
+            assertThat(mapper.settle(open.getId(), 0, -1)).isEqualTo(1);
+            assertThat(mapper.park(Collections.singletonList(parked.getId()))).isEqualTo(1);
+
+            // Assert
+            assertThat(mapper.selectById(open.getId())).satisfies(row -> {
+                assertThat(row.getApplied()).isEqualTo(-2);
+                assertThat(row.getReleased()).isEqualTo(-1);
+            });
+            assertThat(mapper.selectOpenForUpdate(Arrays.asList(fresh.getId(), parked.getId(), open.getId())))
+                    .extracting(StockDelta::getId).containsExactly(open.getId(), fresh.getId());
+            assertThat(mapper.selectStaleIds(LocalDateTime.now().minusMinutes(1), 10))
+                    .containsExactly(open.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("应用增量时同时释放预占，预占或数量不足时不更新")
+    void shouldApplyDeltaAndReleaseReserved() {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            InventoryMapper mapper = session.getMapper(InventoryMapper.class);
+
+            // Act & Assert：库存 10、预占 4，扣减 3（已预占）并入库 5
+            assertThat(mapper.applyDelta(1L, 1L, 2, 3)).isEqualTo(1);
+            assertThat(mapper.applyDelta(1L, 1L, -1, 2)).isZero();
+            assertThat(mapper.applyDelta(1L, 1L, -13, 0)).isZero();
+            assertThat(mapper.applyDelta(2L, 1L, 1, 0)).isZero();
+
+            assertThat(mapper.selectByProductAndWarehouse(1L, 1L))
+                    .satisfies(inventory -> {
+                        assertThat(inventory.getQuantity()).isEqualTo(12);
+                        assertThat(inventory.getReservedQuantity()).isEqualTo(1);
+                    });
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.inventory.service;
 
+import com.inventory.component.InvalidationBus;
+import com.inventory.dto.CategoryDTO;
 import com.inventory.entity.Category;
 import com.inventory.mapper.CategoryMapper;
 import com.inventory.mapper.ProductMapper;
 import com.inventory.service.impl.CategoryServiceImpl;
+import com.inventory.vo.CategoryVO;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -48,6 +52,9 @@ class CategoryServiceTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private InvalidationBus invalidationBus;
+
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -620,6 +627,80 @@ class CategoryServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("分类树快照测试")
+    class CategoryTreeSnapshotTests {
+
+        @BeforeEach
+        void setUpMapper() {
+            ReflectionTestUtils.setField(categoryService, "baseMapper", categoryMapper);
+        }
+
+        @Test
+        @DisplayName("重复读取分类树应只查询一次数据库")
+        void shouldQueryOnce_whenTreeReadRepeatedly() {
+            // Arrange
+            when(categoryMapper.selectAllCategories())
+                    .thenReturn(Arrays.asList(level1Category, level2Category, level3Category));
+
+            // Act
+            List<CategoryVO> first = categoryService.getTree();
+            List<CategoryVO> second = categoryService.getTree();
+            List<CategoryVO> enabled = categoryService.getEnabledTree();
+
+            // Assert
+            assertThat(second).isSameAs(first);
+            assertThat(enabled).hasSize(1);
+            assertThat(first.get(0).getChildren().get(0).getChildren()).hasSize(1);
+            verify(categoryMapper, times(1)).selectAllCategories();
+            verify(categoryMapper, never()).selectEnabledCategories();
+        }
+
+        @Test
+        @DisplayName("启用树应排除禁用分类，且返回的列表不可修改")
+        void shouldExcludeDisabled_andReturnReadOnlyTree() {
+            // Arrange
+            level2Category.setStatus(0);
+            when(categoryMapper.selectAllCategories())
+                    .thenReturn(Arrays.asList(level1Category, level2Category, level3Category));
+
+            // Act
+            List<CategoryVO> tree = categoryService.getTree();
+            List<CategoryVO> enabled = categoryService.getEnabledTree();
+
+            // Assert
+            assertThat(tree.get(0).getChildren()).hasSize(1);
+            assertThat(enabled).hasSize(1);
+            assertThat(enabled.get(0).getChildren()).isEmpty();
+            assertThatThrownBy(() -> tree.add(new CategoryVO()))
+                    .isInstanceOf(UnsupportedOperationException.class);
+            assertThatThrownBy(() -> tree.get(0).getChildren().clear())
+                    .isInstanceOf(UnsupportedOperationException.class);
+        }
+
+        @Test
+        @DisplayName("分类写入后应重建分类树快照")
+        void shouldRebuildTree_afterCategoryCreated() {
+            // Arrange
+            when(categoryMapper.selectAllCategories())
+                    .thenReturn(Collections.singletonList(level1Category))
+                    .thenReturn(Arrays.asList(level1Category, level2Category));
+            when(categoryMapper.insert(any(Category.class))).thenReturn(1);
+            categoryService.getTree();
+
+            CategoryDTO dto = new CategoryDTO();
+            dto.setName("新分类");
+
+            // Act
+            categoryService.create(dto);
+            List<CategoryVO> tree = categoryService.getTree();
+
+            // Assert
+            assertThat(tree.get(0).getChildren()).hasSize(1);
+            verify(categoryMapper, times(2)).selectAllCategories();
+        }
+    }
+
     @Nested
     @DisplayName("分类状态切换测试")
     class ToggleCategoryStatusTests {
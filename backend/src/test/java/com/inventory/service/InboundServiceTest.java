@@ -1,14 +1,27 @@
 package com.inventory.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.component.InboundImportParser;
+import com.inventory.component.OrderNoGenerator;
+import com.inventory.component.ReferenceDataCache;
+import com.inventory.component.OrderNoGenerator.OrderType;
+import com.inventory.dto.InboundDTO;
+import com.inventory.dto.InboundDocumentDTO;
 import com.inventory.entity.Inbound;
+import com.inventory.entity.InboundLine;
 import com.inventory.entity.Product;
 import com.inventory.entity.Inventory;
 import com.inventory.exception.BusinessException;
+import com.inventory.mapper.DailyMovementMapper;
+import com.inventory.mapper.InboundLineMapper;
 import com.inventory.mapper.InboundMapper;
 import com.inventory.mapper.ProductMapper;
 import com.inventory.mapper.InventoryMapper;
 import com.inventory.service.impl.InboundServiceImpl;
+import com.inventory.vo.BatchApproveResultVO;
+import com.inventory.vo.ImportResultVO;
+import com.inventory.vo.InboundVO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -16,13 +29,22 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -42,15 +64,33 @@ class InboundServiceTest {
     @Mock
     private InboundMapper inboundMapper;
 
+    @Mock
+    private InboundLineMapper inboundLineMapper;
+
     @Mock
     private ProductMapper productMapper;
 
     @Mock
     private InventoryMapper inventoryMapper;
 
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+
     @Mock
     private InventoryService inventoryService;
 
+    @Mock
+    private DailyMovementMapper dailyMovementMapper;
+
+    @Mock
+    private OrderNoGenerator orderNoGenerator;
+
+    @Spy
+    private InboundImportParser inboundImportParser = new InboundImportParser(new ObjectMapper().findAndRegisterModules());
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private InboundServiceImpl inboundService;
 
@@ -62,6 +102,9 @@ class InboundServiceTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
 
+        String today = LocalDate.now().toString().replace("-", "");
+        when(orderNoGenerator.next(OrderType.INBOUND)).thenReturn("IN" + today + "000001", "IN" + today + "000002");
+
         // 准备测试商品数据
         testProduct = new Product();
         testProduct.setId(1L);
@@ -89,6 +132,7 @@ class InboundServiceTest {
         testInbound.setId(1L);
         testInbound.setInboundNo("IN202601040001");
         testInbound.setProductId(1L);
+        testInbound.setWarehouseId(1L);
         testInbound.setQuantity(50);
         testInbound.setSupplier("供应商A");
         testInbound.setInboundDate(LocalDateTime.now());
@@ -153,16 +197,16 @@ class InboundServiceTest {
 
             // Assert
             String inboundNo = newInbound.getInboundNo();
-            assertTrue(inboundNo.matches("IN\\d{12}"), "单号格式应为IN + 12位数字");
+            assertTrue(inboundNo.matches("IN\\d{14}"), "单号格式应为IN + 14位数字");
 
             // 验证日期部分 (yyyyMMdd)
             String datePart = inboundNo.substring(2, 10);
             String todayDate = LocalDate.now().toString().replace("-", "");
             assertEquals(todayDate, datePart, "日期部分应为当天日期");
 
-            // 验证序号部分 (4位)
-            String sequencePart = inboundNo.substring(10, 14);
-            assertTrue(sequencePart.matches("\\d{4}"), "序号应为4位数字");
+            // 验证序号部分 (6位)
+            String sequencePart = inboundNo.substring(10, 16);
+            assertTrue(sequencePart.matches("\\d{6}"), "序号应为6位数字");
         }
 
         @Test
@@ -188,8 +232,8 @@ class InboundServiceTest {
             inboundService.create(inbound2);
 
             // Assert
-            String sequence1 = inbound1.getInboundNo().substring(10, 14);
-            String sequence2 = inbound2.getInboundNo().substring(10, 14);
+            String sequence1 = inbound1.getInboundNo().substring(10, 16);
+            String sequence2 = inbound2.getInboundNo().substring(10, 16);
             assertTrue(Integer.parseInt(sequence2) > Integer.parseInt(sequence1),
                 "后续单号序号应大于前面的单号");
         }
@@ -490,6 +534,371 @@ class InboundServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("批量审核入库单测试 (Batch Approve Inbound)")
+    class BatchApproveInboundTests {
+
+        private Inbound pendingInbound(Long id, Long productId, int quantity) {
+            Inbound inbound = new Inbound();
+            inbound.setId(id);
+            inbound.setInboundNo("IN20260104" + String.format("%04d", id));
+            inbound.setProductId(productId);
+            inbound.setWarehouseId(1L);
+            inbound.setQuantity(quantity);
+            inbound.setInboundDate(LocalDateTime.of(2026, 1, 4, 10, 0));
+            inbound.setStatus(0);
+            return inbound;
+        }
+
+        @Test
+        @DisplayName("应一条语句审核并按商品汇总增加库存 - when all inbounds are pending")
+        void shouldApproveInOneStatement_andAggregateStockPerProduct() {
+            // Arrange
+            List<Inbound> inbounds = Arrays.asList(
+                pendingInbound(1L, 1L, 10),
+                pendingInbound(2L, 1L, 20),
+                pendingInbound(3L, 2L, 5));
+            when(inboundMapper.selectBatchIds(anyCollection())).thenReturn(inbounds);
+            when(inboundMapper.approveBatch(anyList(), eq("admin"), any(LocalDateTime.class))).thenReturn(3);
+
+            // Act
+            BatchApproveResultVO result = inboundService.approveBatch(Arrays.asList(1L, 2L, 3L), "admin");
+
+            // Assert
+            assertEquals(3, result.getSuccessCount());
+            assertEquals(0, result.getFailCount());
+            verify(inboundMapper, times(1)).approveBatch(eq(Arrays.asList(1L, 2L, 3L)), eq("admin"), any(LocalDateTime.class));
+            Map<Long, Integer> expected = new TreeMap<>();
+            expected.put(1L, 30);
+            expected.put(2L, 5);
+            verify(inventoryService, times(1)).addStockBatch(1L, expected);
+            verify(dailyMovementMapper, times(1)).addInbound(LocalDate.of(2026, 1, 4), 1L, 30);
+            verify(dailyMovementMapper, times(1)).addInbound(LocalDate.of(2026, 1, 4), 2L, 5);
+            verify(inboundMapper, never()).updateById(any());
+        }
+
+        @Test
+        @DisplayName("应跳过不存在和非待审核的单据并逐单返回原因 - when some inbounds are not approvable")
+        void shouldReportPerItemFailures_whenSomeInboundsNotApprovable() {
+            // Arrange
+            Inbound approved = pendingInbound(2L, 1L, 20);
+            approved.setStatus(1);
+            when(inboundMapper.selectBatchIds(anyCollection()))
+                .thenReturn(Arrays.asList(pendingInbound(1L, 1L, 10), approved));
+            when(inboundMapper.approveBatch(anyList(), anyString(), any(LocalDateTime.class))).thenReturn(1);
+
+            // Act
+            BatchApproveResultVO result = inboundService.approveBatch(Arrays.asList(1L, 2L, 999L), "admin");
+
+            // Assert
+            assertEquals(1, result.getSuccessCount());
+            assertEquals(2, result.getFailCount());
+            assertEquals(Arrays.asList(1L, 2L, 999L),
+                Arrays.asList(result.getItems().get(0).getId(), result.getItems().get(1).getId(), result.getItems().get(2).getId()));
+            assertTrue(result.getItems().get(1).getMessage().contains("待审核"));
+            assertTrue(result.getItems().get(2).getMessage().contains("不存在"));
+            verify(inboundMapper, times(1)).approveBatch(eq(Collections.singletonList(1L)), eq("admin"), any(LocalDateTime.class));
+            verify(inventoryService, times(1)).addStockBatch(1L, Collections.singletonMap(1L, 10));
+        }
+
+        @Test
+        @DisplayName("应整体回滚 - when status changed concurrently")
+        void shouldThrowException_whenStatusChangedConcurrently() {
+            // Arrange
+            when(inboundMapper.selectBatchIds(anyCollection()))
+                .thenReturn(Arrays.asList(pendingInbound(1L, 1L, 10), pendingInbound(2L, 1L, 20)));
+            when(inboundMapper.approveBatch(anyList(), anyString(), any(LocalDateTime.class))).thenReturn(1);
+
+            // Act & Assert
+            BusinessException exception = assertThrows(BusinessException.class,
+                () -> inboundService.approveBatch(Arrays.asList(1L, 2L), "admin"));
+
+            assertTrue(exception.getMessage().contains("状态已变更"));
+            verify(inventoryService, never()).addStockBatch(anyLong(), anyMap());
+        }
+
+        @Test
+        @DisplayName("应抛出异常 - when id list is empty")
+        void shouldThrowException_whenIdsEmpty() {
+            // Act & Assert
+            assertThrows(BusinessException.class,
+                () -> inboundService.approveBatch(Collections.emptyList(), "admin"));
+            verify(inboundMapper, never()).approveBatch(anyList(), anyString(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("多行入库单测试 (Multi-line Inbound Document)")
+    class InboundDocumentTests {
+
+        @BeforeEach
+        void setUp() {
+            // ServiceImpl.baseMapper 为泛型字段，@InjectMocks 不注入
+            ReflectionTestUtils.setField(inboundService, "baseMapper", inboundMapper);
+        }
+
+        private InboundDocumentDTO.Line line(Long productId, int quantity) {
+            InboundDocumentDTO.Line line = new InboundDocumentDTO.Line();
+            line.setProductId(productId);
+            line.setQuantity(quantity);
+            return line;
+        }
+
+        private InboundDocumentDTO document(InboundDocumentDTO.Line... lines) {
+            InboundDocumentDTO dto = new InboundDocumentDTO();
+            dto.setSupplier("供应商A");
+            dto.setInboundDate(LocalDateTime.of(2026, 1, 4, 10, 0));
+            dto.setLines(Arrays.asList(lines));
+            return dto;
+        }
+
+        private Product product(Long id) {
+            Product product = new Product();
+            product.setId(id);
+            product.setStatus(1);
+            return product;
+        }
+
+        private Inbound multiLineInbound() {
+            testInbound.setProductId(3L);
+            testInbound.setQuantity(35);
+            testInbound.setLineCount(2);
+            testInbound.setInboundDate(LocalDateTime.of(2026, 1, 4, 10, 0));
+            return testInbound;
+        }
+
+        private InboundLine inboundLine(int lineNo, Long productId, int quantity) {
+            InboundLine line = new InboundLine();
+            line.setInboundId(1L);
+            line.setLineNo(lineNo);
+            line.setProductId(productId);
+            line.setQuantity(quantity);
+            return line;
+        }
+
+        @Test
+        @DisplayName("应写入表头并一条语句写入全部明细 - when creating a multi-line inbound")
+        void shouldInsertHeaderAndLinesInOneBatch_whenCreatingDocument() {
+            // Arrange
+            when(productMapper.selectBatchIds(anyCollection())).thenReturn(Arrays.asList(product(3L), product(1L)));
+            when(inboundMapper.insert(any(Inbound.class))).thenAnswer(invocation -> {
+                Inbound inbound = invocation.getArgument(0);
+                inbound.setId(5L);
+                return 1;
+            });
+
+            // Act
+            Long id = inboundService.createDocument(document(line(3L, 20), line(1L, 15)));
+
+            // Assert
+            assertEquals(5L, id);
+            verify(inboundMapper).insert(argThat((Inbound inbound) -> inbound.getProductId().equals(3L)
+                && inbound.getQuantity() == 35 && inbound.getLineCount() == 2 && inbound.isPending()));
+            verify(inboundLineMapper, times(1)).insertBatch(argThat(lines -> lines.size() == 2
+                && lines.get(0).getLineNo() == 1 && lines.get(0).getProductId().equals(3L)
+                && lines.get(1).getLineNo() == 2 && lines.get(1).getProductId().equals(1L)
+                && lines.stream().allMatch(l -> l.getInboundId().equals(5L))));
+        }
+
+        @Test
+        @DisplayName("单行明细不写明细表 - when the document has only one line")
+        void shouldNotInsertLines_whenDocumentHasOneLine() {
+            // Arrange
+            when(productMapper.selectBatchIds(anyCollection())).thenReturn(Collections.singletonList(product(1L)));
+            when(inboundMapper.insert(any(Inbound.class))).thenReturn(1);
+
+            // Act
+            inboundService.createDocument(document(line(1L, 15)));
+
+            // Assert
+            verify(inboundMapper).insert(argThat((Inbound inbound) -> inbound.getLineCount() == 1));
+            verify(inboundLineMapper, never()).insertBatch(anyList());
+        }
+
+        @Test
+        @DisplayName("应拒绝重复商品 - when the same product appears twice")
+        void shouldThrowException_whenProductRepeated() {
+            // Act & Assert
+            BusinessException exception = assertThrows(BusinessException.class,
+                () -> inboundService.createDocument(document(line(1L, 10), line(1L, 5))));
+
+            assertTrue(exception.getMessage().contains("同一商品只能出现一行"));
+            verify(inboundMapper, never()).insert(any(Inbound.class));
+        }
+
+        @Test
+        @DisplayName("应拒绝禁用商品并指出商品ID - when any line product is disabled")
+        void shouldThrowException_whenAnyProductDisabled() {
+            // Arrange
+            Product disabled = product(2L);
+            disabled.setStatus(0);
+            when(productMapper.selectBatchIds(anyCollection())).thenReturn(Arrays.asList(product(1L), disabled));
+
+            // Act & Assert
+            BusinessException exception = assertThrows(BusinessException.class,
+                () -> inboundService.createDocument(document(line(1L, 10), line(2L, 5))));
+
+            assertTrue(exception.getMessage().contains("商品ID：2"));
+            verify(inboundLineMapper, never()).insertBatch(anyList());
+        }
+
+        @Test
+        @DisplayName("审核时全部明细按商品ID顺序一次批量增加库存 - when approving a multi-line inbound")
+        void shouldApplyAllLinesInOneBatch_whenApprovingDocument() {
+            // Arrange
+            when(inboundMapper.selectById(1L)).thenReturn(multiLineInbound());
+            when(inboundMapper.updateById(any(Inbound.class))).thenReturn(1);
+            when(inboundLineMapper.selectByInboundIds(Collections.singletonList(1L)))
+                .thenReturn(Arrays.asList(inboundLine(1, 3L, 20), inboundLine(2, 1L, 15)));
+
+            // Act
+            inboundService.approve(1L, "admin");
+
+            // Assert
+            Map<Long, Integer> expected = new TreeMap<>();
+            expected.put(1L, 15);
+            expected.put(3L, 20);
+            verify(inventoryService, times(1)).addStockBatch(eq(1L), argThat((Map<Long, Integer> quantities) ->
+                quantities.equals(expected) && new ArrayList<>(quantities.keySet()).equals(Arrays.asList(1L, 3L))));
+            verify(inventoryService, never()).addStock(anyLong(), anyLong(), anyInt());
+            verify(dailyMovementMapper, times(1)).addInbound(LocalDate.of(2026, 1, 4), 1L, 15);
+            verify(dailyMovementMapper, times(1)).addInbound(LocalDate.of(2026, 1, 4), 3L, 20);
+        }
+
+        @Test
+        @DisplayName("详情应带出全部明细 - when getting a multi-line inbound")
+        void shouldReturnLines_whenGettingDocumentDetail() {
+            // Arrange
+            when(inboundMapper.selectById(1L)).thenReturn(multiLineInbound());
+            when(inboundLineMapper.selectByInboundIds(Collections.singletonList(1L)))
+                .thenReturn(Arrays.asList(inboundLine(1, 3L, 20), inboundLine(2, 1L, 15)));
+            when(referenceDataCache.getProducts(anyCollection())).thenReturn(Collections.emptyMap());
+
+            // Act
+            InboundVO vo = inboundService.getDetail(1L);
+
+            // Assert
+            assertEquals(2, vo.getLineCount());
+            assertEquals(35, vo.getQuantity());
+            assertEquals(Arrays.asList(3L, 1L),
+                Arrays.asList(vo.getLines().get(0).getProductId(), vo.getLines().get(1).getProductId()));
+        }
+
+        @Test
+        @DisplayName("应拒绝按单行修改 - when updating a multi-line inbound")
+        void shouldThrowException_whenUpdatingDocumentAsSingleLine() {
+            // Arrange
+            when(inboundMapper.selectById(1L)).thenReturn(multiLineInbound());
+            InboundDTO dto = new InboundDTO();
+            dto.setProductId(1L);
+            dto.setQuantity(10);
+
+            // Act & Assert
+            BusinessException exception = assertThrows(BusinessException.class,
+                () -> inboundService.update(1L, dto));
+
+            assertTrue(exception.getMessage().contains("多行入库单"));
+            verify(inboundMapper, never()).updateById(any(Inbound.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("批量导入入库单测试 (Import Inbound)")
+    class ImportInboundTests {
+
+        @BeforeEach
+        void setUp() {
+            // ServiceImpl.baseMapper 为泛型字段，@InjectMocks 不注入
+            ReflectionTestUtils.setField(inboundService, "baseMapper", inboundMapper);
+            ReflectionTestUtils.setField(inboundService, "importBatchSize", 2);
+            Product disabled = new Product();
+            disabled.setId(2L);
+            disabled.setStatus(0);
+            when(productMapper.selectStatusBatch(eq(0L), anyInt())).thenReturn(Arrays.asList(testProduct, disabled));
+            when(productMapper.selectStatusBatch(eq(2L), anyInt())).thenReturn(Collections.emptyList());
+            when(orderNoGenerator.reserve(eq(OrderType.INBOUND), anyInt())).thenAnswer(invocation -> {
+                int count = invocation.getArgument(1);
+                return Collections.nCopies(count, "IN20260104000001");
+            });
+        }
+
+        @Test
+        @DisplayName("应逐行校验并按批写入，返回逐行错误 - when file mixes valid and invalid lines")
+        void shouldInsertValidLinesInBatches_andReportInvalidLines() {
+            // Arrange：第 3 行商品已禁用，第 4 行商品不存在，第 5 行数量为 0
+            String csv = "productId,quantity,supplier,inboundDate\n"
+                + "1,10,供应商A,2026-01-04 09:00:00\n"
+                + "2,10,供应商A,2026-01-04 09:00:00\n"
+                + "999,10,供应商A,2026-01-04 09:00:00\n"
+                + "1,0,供应商A,2026-01-04 09:00:00\n"
+                + "1,20,供应商B,2026-01-04 09:00:00\n"
+                + "1,30,供应商C,2026-01-04 09:00:00\n";
+            when(inboundMapper.insertBatch(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+            // Act
+            ImportResultVO result = inboundService.importInbound(input(csv), "csv");
+
+            // Assert
+            assertEquals(6, result.getTotalCount());
+            assertEquals(3, result.getSuccessCount());
+            assertEquals(3, result.getFailCount());
+            assertEquals(Arrays.asList(3, 4, 5), Arrays.asList(result.getErrors().get(0).getLine(),
+                result.getErrors().get(1).getLine(), result.getErrors().get(2).getLine()));
+            assertTrue(result.getErrors().get(0).getMessage().contains("已禁用"));
+            assertEquals("商品不存在", result.getErrors().get(1).getMessage());
+            assertEquals("入库数量必须大于0", result.getErrors().get(2).getMessage());
+            // 3 行有效数据分两批写入，每批预留一次单号；商品状态只加载一次
+            verify(inboundMapper, times(2)).insertBatch(anyList());
+            verify(orderNoGenerator, times(1)).reserve(OrderType.INBOUND, 2);
+            verify(orderNoGenerator, times(1)).reserve(OrderType.INBOUND, 1);
+            verify(productMapper, never()).selectById(any());
+            verify(inboundMapper, never()).insert(any(Inbound.class));
+        }
+
+        @Test
+        @DisplayName("应整批记为失败并继续后续批次 - when a batch insert fails")
+        void shouldReportWholeBatch_whenInsertFails() {
+            // Arrange
+            String ndjson = "{\"productId\":1,\"quantity\":1,\"supplier\":\"A\",\"inboundDate\":\"2026-01-04T09:00:00\"}\n"
+                + "{\"productId\":1,\"quantity\":2,\"supplier\":\"A\",\"inboundDate\":\"2026-01-04T09:00:00\"}\n"
+                + "{\"productId\":1,\"quantity\":3,\"supplier\":\"A\",\"inboundDate\":\"2026-01-04T09:00:00\"}\n";
+            when(inboundMapper.insertBatch(anyList()))
+                .thenThrow(new RuntimeException("Duplicate entry"))
+                .thenReturn(1);
+
+            // Act
+            ImportResultVO result = inboundService.importInbound(input(ndjson), "ndjson");
+
+            // Assert
+            assertEquals(1, result.getSuccessCount());
+            assertEquals(2, result.getFailCount());
+            assertEquals(Arrays.asList(1, 2), Arrays.asList(result.getErrors().get(0).getLine(), result.getErrors().get(1).getLine()));
+            assertEquals("写入失败", result.getErrors().get(0).getMessage());
+        }
+
+        @Test
+        @DisplayName("错误明细超过上限时只计数 - when too many lines are invalid")
+        void shouldTruncateErrors_whenExceedingLimit() {
+            // Arrange
+            ReflectionTestUtils.setField(inboundService, "importMaxErrors", 2);
+            String csv = "productId,quantity,supplier,inboundDate\n"
+                + "999,1,A,2026-01-04\n999,1,A,2026-01-04\n999,1,A,2026-01-04\n";
+
+            // Act
+            ImportResultVO result = inboundService.importInbound(input(csv), "csv");
+
+            // Assert
+            assertEquals(3, result.getFailCount());
+            assertEquals(2, result.getErrors().size());
+            assertTrue(result.getErrorsTruncated());
+            verify(inboundMapper, never()).insertBatch(anyList());
+        }
+
+        private ByteArrayInputStream input(String content) {
+            return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
     @Nested
     @DisplayName("修改入库单测试 (Update Inbound)")
     class UpdateInboundTests {
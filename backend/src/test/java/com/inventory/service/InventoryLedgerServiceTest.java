@@ -0,0 +1,212 @@
+package com.inventory.service;
+
+import com.inventory.component.InvalidationBus;
+import com.inventory.component.ResourceVersions.Resource;
+import com.inventory.component.StockView;
+import com.inventory.entity.Inventory;
+import com.inventory.entity.InventorySnapshot;
+import com.inventory.entity.InventoryTxn;
+import com.inventory.mapper.DashboardStatsMapper;
+import com.inventory.mapper.InventoryMapper;
+import com.inventory.mapper.InventorySnapshotMapper;
+import com.inventory.mapper.InventoryTotalMapper;
+import com.inventory.mapper.InventoryTxnMapper;
+import com.inventory.service.impl.InventoryLedgerServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 库存流水服务测试
+ * Inventory Ledger Service Tests
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("库存流水服务测试 (InventoryLedgerService Tests)")
+class InventoryLedgerServiceTest {
+
+    private static final LocalDateTime SNAPSHOT_AT = LocalDateTime.of(2026, 1, 4, 0, 0);
+    private static final LocalDateTime QUERY_AT = LocalDateTime.of(2026, 1, 4, 15, 30);
+
+    @Mock
+    private InventoryTxnMapper txnMapper;
+
+    @Mock
+    private InventorySnapshotMapper snapshotMapper;
+
+    @Mock
+    private InventoryMapper inventoryMapper;
+
+    @Mock
+    private InventoryTotalMapper inventoryTotalMapper;
+
+    @Mock
+    private StockView stockView;
+
+    @Mock
+    private DashboardStatsMapper dashboardStatsMapper;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    private InventoryLedgerServiceImpl ledgerService;
+
+    @BeforeEach
+    void setUp() {
+        ledgerService = new InventoryLedgerServiceImpl();
+        ReflectionTestUtils.setField(ledgerService, "baseMapper", txnMapper);
+        ReflectionTestUtils.setField(ledgerService, "snapshotMapper", snapshotMapper);
+        ReflectionTestUtils.setField(ledgerService, "inventoryMapper", inventoryMapper);
+        ReflectionTestUtils.setField(ledgerService, "inventoryTotalMapper", inventoryTotalMapper);
+        ReflectionTestUtils.setField(ledgerService, "stockView", stockView);
+        ReflectionTestUtils.setField(ledgerService, "dashboardStatsMapper", dashboardStatsMapper);
+        ReflectionTestUtils.setField(ledgerService, "invalidationBus", invalidationBus);
+    }
+
+    private InventorySnapshot snapshot(int quantity, LocalDateTime at) {
+        InventorySnapshot snapshot = new InventorySnapshot();
+        snapshot.setProductId(1L);
+        snapshot.setWarehouseId(1L);
+        snapshot.setQuantity(quantity);
+        snapshot.setSnapshotAt(at);
+        return snapshot;
+    }
+
+    private Inventory inventory(Long id, int quantity) {
+        Inventory inventory = new Inventory();
+        inventory.setId(id);
+        inventory.setProductId(id);
+        inventory.setWarehouseId(1L);
+        inventory.setQuantity(quantity);
+        return inventory;
+    }
+
+    @Nested
+    @DisplayName("追加流水测试 (Record Tests)")
+    class RecordTests {
+
+        @Test
+        @DisplayName("追加一条流水并累加跨仓合计")
+        void should_InsertTxn_When_DeltaNonZero() {
+            // Act
+            ledgerService.record(1L, 2L, InventoryTxn.TYPE_OUTBOUND, -5, "出库");
+
+            // Assert
+            ArgumentCaptor<InventoryTxn> captor = ArgumentCaptor.forClass(InventoryTxn.class);
+            verify(txnMapper).insert(captor.capture());
+            assertThat(captor.getValue().getDelta()).isEqualTo(-5);
+            assertThat(captor.getValue().getWarehouseId()).isEqualTo(2L);
+            assertThat(captor.getValue().getCreatedAt()).isNotNull();
+            verify(inventoryTotalMapper).addQuantity(1L, -5);
+            verify(dashboardStatsMapper).applyStockDelta(1, 1L, 2L, -5);
+            verify(invalidationBus).publishAfterCommit(Resource.INVENTORY, Collections.singleton(1L));
+        }
+
+        @Test
+        @DisplayName("变动量为 0 时不写流水")
+        void should_Skip_When_DeltaZero() {
+            // Act
+            ledgerService.record(1L, 1L, InventoryTxn.TYPE_ADJUST, 0, "盘点无差异");
+
+            // Assert
+            verify(txnMapper, never()).insert(any(InventoryTxn.class));
+            verify(inventoryTotalMapper, never()).addQuantity(anyLong(), anyInt());
+        }
+    }
+
+    @Nested
+    @DisplayName("历史库存查询测试 (Quantity As Of Tests)")
+    class QuantityAsOfTests {
+
+        @Test
+        @DisplayName("读取最近快照加其后一段流水")
+        void should_UseSnapshotPlusLedgerRange() {
+            // Arrange
+            when(snapshotMapper.selectLatestBefore(1L, 1L, QUERY_AT)).thenReturn(snapshot(100, SNAPSHOT_AT));
+            when(txnMapper.sumDelta(1L, 1L, SNAPSHOT_AT, QUERY_AT)).thenReturn(-30);
+
+            // Act & Assert
+            assertThat(ledgerService.getQuantityAsOf(1L, 1L, QUERY_AT)).isEqualTo(70);
+            verify(inventoryMapper, never()).selectByProductAndWarehouse(anyLong(), anyLong());
+        }
+
+        @Test
+        @DisplayName("尚无快照时由当前库存倒推")
+        void should_RollBackFromCurrent_When_NoSnapshot() {
+            // Arrange
+            when(snapshotMapper.selectLatestBefore(1L, 1L, QUERY_AT)).thenReturn(null);
+            when(inventoryMapper.selectByProductAndWarehouse(1L, 1L)).thenReturn(inventory(1L, 80));
+            when(txnMapper.sumDelta(1L, 1L, QUERY_AT, null)).thenReturn(20);
+
+            // Act & Assert
+            assertThat(ledgerService.getQuantityAsOf(1L, 1L, QUERY_AT)).isEqualTo(60);
+        }
+    }
+
+    @Nested
+    @DisplayName("快照生成测试 (Snapshot Tests)")
+    class SnapshotTests {
+
+        @Test
+        @DisplayName("有上一份快照时累加两次快照之间的流水，首次快照由当前库存倒推")
+        void should_BuildSnapshots_FromPreviousOrCurrent() {
+            // Arrange
+            LocalDateTime cutoff = SNAPSHOT_AT.plusDays(1);
+            when(inventoryMapper.selectList(any())).thenReturn(Arrays.asList(inventory(1L, 90), inventory(2L, 40)));
+            when(snapshotMapper.selectLatestBefore(1L, 1L, cutoff)).thenReturn(snapshot(100, SNAPSHOT_AT));
+            when(txnMapper.sumDelta(1L, 1L, SNAPSHOT_AT, cutoff)).thenReturn(-15);
+            when(snapshotMapper.selectLatestBefore(2L, 1L, cutoff)).thenReturn(null);
+            when(txnMapper.sumDelta(2L, 1L, cutoff, null)).thenReturn(10);
+
+            // Act
+            Long lastId = ledgerService.snapshotBatch(0L, 500, cutoff);
+
+            // Assert
+            assertThat(lastId).isEqualTo(2L);
+            ArgumentCaptor<InventorySnapshot> captor = ArgumentCaptor.forClass(InventorySnapshot.class);
+            verify(snapshotMapper, times(2)).insert(captor.capture());
+            assertThat(captor.getAllValues()).extracting(InventorySnapshot::getQuantity).containsExactly(85, 30);
+            assertThat(captor.getAllValues()).extracting(InventorySnapshot::getSnapshotAt).containsOnly(cutoff);
+        }
+
+        @Test
+        @DisplayName("重复执行时跳过已存在的快照")
+        void should_Skip_When_SnapshotAlreadyTaken() {
+            // Arrange
+            when(inventoryMapper.selectList(any())).thenReturn(Collections.singletonList(inventory(1L, 90)));
+            when(snapshotMapper.selectLatestBefore(1L, 1L, SNAPSHOT_AT)).thenReturn(snapshot(90, SNAPSHOT_AT));
+
+            // Act
+            ledgerService.snapshotBatch(0L, 500, SNAPSHOT_AT);
+
+            // Assert
+            verify(snapshotMapper, never()).insert(any(InventorySnapshot.class));
+        }
+
+        @Test
+        @DisplayName("没有更多库存记录时返回 null")
+        void should_ReturnNull_When_NoMoreInventory() {
+            // Arrange
+            when(inventoryMapper.selectList(any())).thenReturn(Collections.emptyList());
+
+            // Act & Assert
+            assertThat(ledgerService.snapshotBatch(100L, 500, SNAPSHOT_AT)).isNull();
+        }
+    }
+}
@@ -1,12 +1,25 @@
 package com.inventory.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.inventory.component.OrderNoGenerator;
+import com.inventory.component.OrderNoGenerator.OrderType;
+import com.inventory.component.ReferenceDataCache;
+import com.inventory.component.ReferenceDataCache.ProductRef;
+import com.inventory.config.MybatisPlusConfig;
 import com.inventory.dto.OutboundDTO;
+import com.inventory.dto.OutboundDocumentDTO;
+import com.inventory.dto.PageCursor;
 import com.inventory.entity.Outbound;
+import com.inventory.entity.OutboundLine;
 import com.inventory.entity.Product;
 import com.inventory.exception.BusinessException;
+import com.inventory.mapper.DailyMovementMapper;
+import com.inventory.mapper.OutboundLineMapper;
 import com.inventory.mapper.OutboundMapper;
 import com.inventory.mapper.ProductMapper;
+import com.inventory.vo.BatchApproveItemVO;
+import com.inventory.vo.BatchApproveResultVO;
+import com.inventory.vo.CursorPageVO;
 import com.inventory.vo.OutboundVO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -20,11 +33,19 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -47,12 +68,27 @@ class OutboundServiceTest {
     @Mock
     private OutboundMapper outboundMapper;
 
+    @Mock
+    private OutboundLineMapper outboundLineMapper;
+
     @Mock
     private ProductMapper productMapper;
 
     @Mock
     private InventoryService inventoryService;
 
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private DailyMovementMapper dailyMovementMapper;
+
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+
+    @Mock
+    private OrderNoGenerator orderNoGenerator;
+
     @InjectMocks
     private OutboundServiceImpl outboundService;
 
@@ -62,6 +98,9 @@ class OutboundServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(orderNoGenerator.next(OrderType.OUTBOUND))
+                .thenReturn("OUT" + LocalDate.now().toString().replace("-", "") + "000001");
+
         // 创建测试商品
         testProduct = new Product();
         testProduct.setId(1L);
@@ -88,6 +127,7 @@ class OutboundServiceTest {
         testOutbound.setId(1L);
         testOutbound.setOutboundNo("OUT202601040001");
         testOutbound.setProductId(1L);
+        testOutbound.setWarehouseId(1L);
         testOutbound.setQuantity(50);
         testOutbound.setReceiver("客户A");
         testOutbound.setReceiverPhone("13800138000");
@@ -98,6 +138,21 @@ class OutboundServiceTest {
         testOutbound.setCreatedAt(LocalDateTime.now());
     }
 
+    private OutboundLine outboundLine(Long outboundId, int lineNo, Long productId, int quantity) {
+        OutboundLine line = new OutboundLine();
+        line.setOutboundId(outboundId);
+        line.setLineNo(lineNo);
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        return line;
+    }
+
+    private Map<Long, ProductRef> productRefs(Product product) {
+        Map<Long, ProductRef> refs = new HashMap<>();
+        refs.put(product.getId(), new ProductRef(product));
+        return refs;
+    }
+
     @Nested
     @DisplayName("创建出库单测试 (Create Outbound Tests)")
     class CreateOutboundTests {
@@ -120,10 +175,30 @@ class OutboundServiceTest {
             assertThat(id).isNotNull();
             verify(outboundMapper, times(1)).insert(any(Outbound.class));
             verify(productMapper, times(1)).selectById(1L);
+            verify(stockReservationService, times(1)).reserve(1L, 1L, 1L, 50);
         }
 
         @Test
-        @DisplayName("应验证单号格式：OUT + yyyyMMdd + 4位序号")
+        @DisplayName("创建出库单失败 - 可用库存不足无法预占")
+        void should_ThrowException_When_Reserve_Fails() {
+            // Arrange
+            when(productMapper.selectById(1L)).thenReturn(testProduct);
+            when(outboundMapper.insert(any(Outbound.class))).thenAnswer(invocation -> {
+                Outbound outbound = invocation.getArgument(0);
+                outbound.setId(1L);
+                return 1;
+            });
+            doThrow(new BusinessException("可用库存不足，可用库存：30，需要：50"))
+                    .when(stockReservationService).reserve(1L, 1L, 1L, 50);
+
+            // Act & Assert
+            assertThatThrownBy(() -> outboundService.create(testOutboundDTO))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("可用库存不足");
+        }
+
+        @Test
+        @DisplayName("应验证单号格式：OUT + yyyyMMdd + 6位序号")
         void should_Generate_Valid_OutboundNo() {
             // Arrange
             when(productMapper.selectById(1L)).thenReturn(testProduct);
@@ -131,7 +206,7 @@ class OutboundServiceTest {
                 Outbound outbound = invocation.getArgument(0);
                 outbound.setId(1L);
                 // 验证单号格式
-                assertThat(outbound.getOutboundNo()).matches("^OUT\\d{12}$");
+                assertThat(outbound.getOutboundNo()).matches("^OUT\\d{14}$");
                 return 1;
             });
 
@@ -142,7 +217,7 @@ class OutboundServiceTest {
             verify(outboundMapper).insert(argThat(outbound ->
                     outbound.getOutboundNo() != null &&
                             outbound.getOutboundNo().startsWith("OUT") &&
-                            outbound.getOutboundNo().length() == 15
+                            outbound.getOutboundNo().length() == 17
             ));
         }
 
@@ -372,20 +447,47 @@ class OutboundServiceTest {
         void should_Approve_Success_When_ValidOutbound() {
             // Arrange
             when(outboundMapper.selectById(1L)).thenReturn(testOutbound);
-            when(outboundMapper.updateById(any(Outbound.class))).thenReturn(true);
-            doNothing().when(inventoryService).reduceStock(anyLong(), anyInt());
+            when(outboundMapper.approve(eq(1L), eq("admin"), any(LocalDateTime.class))).thenReturn(1);
+            doNothing().when(inventoryService).reduceStock(anyLong(), anyLong(), anyInt());
 
             // Act
             boolean result = outboundService.approve(1L, "admin");
 
             // Assert
             assertThat(result).isTrue();
-            verify(outboundMapper, times(1)).updateById(argThat(outbound ->
-                    outbound.getStatus().equals(Outbound.STATUS_APPROVED) &&
-                            outbound.getApprovedBy().equals("admin") &&
-                            outbound.getApprovedAt() != null
-            ));
-            verify(inventoryService, times(1)).reduceStock(1L, 50);
+            verify(outboundMapper, times(1)).approve(eq(1L), eq("admin"), any(LocalDateTime.class));
+            verify(inventoryService, times(1)).reduceStock(1L, 1L, 50);
+        }
+
+        @Test
+        @DisplayName("持有有效预占时审核直接将预占转为扣减")
+        void should_ConsumeReservation_When_ReservationActive() {
+            // Arrange
+            when(outboundMapper.selectById(1L)).thenReturn(testOutbound);
+            when(stockReservationService.confirm(1L)).thenReturn(true);
+            when(outboundMapper.approve(eq(1L), eq("admin"), any(LocalDateTime.class))).thenReturn(1);
+
+            // Act
+            boolean result = outboundService.approve(1L, "admin");
+
+            // Assert
+            assertThat(result).isTrue();
+            verify(stockReservationService, times(1)).confirm(1L);
+            verify(inventoryService, never()).reduceStock(anyLong(), anyLong(), anyInt());
+        }
+
+        @Test
+        @DisplayName("审核出库单失败 - 并发审核时状态已变更")
+        void should_ThrowException_When_Status_Changed_Concurrently() {
+            // Arrange
+            when(outboundMapper.selectById(1L)).thenReturn(testOutbound);
+            doNothing().when(inventoryService).reduceStock(anyLong(), anyLong(), anyInt());
+            when(outboundMapper.approve(eq(1L), eq("admin"), any(LocalDateTime.class))).thenReturn(0);
+
+            // Act & Assert
+            assertThatThrownBy(() -> outboundService.approve(1L, "admin"))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("状态已变更");
         }
 
         @Test
@@ -399,8 +501,8 @@ class OutboundServiceTest {
                     .isInstanceOf(BusinessException.class)
                     .hasMessageContaining("出库单不存在");
 
-            verify(outboundMapper, never()).updateById(any(Outbound.class));
-            verify(inventoryService, never()).reduceStock(anyLong(), anyInt());
+            verify(outboundMapper, never()).approve(anyLong(), anyString(), any(LocalDateTime.class));
+            verify(inventoryService, never()).reduceStock(anyLong(), anyLong(), anyInt());
         }
 
         @Test
@@ -415,8 +517,8 @@ class OutboundServiceTest {
                     .isInstanceOf(BusinessException.class)
                     .hasMessageContaining("只有待审核状态的出库单可以审核");
 
-            verify(outboundMapper, never()).updateById(any(Outbound.class));
-            verify(inventoryService, never()).reduceStock(anyLong(), anyInt());
+            verify(outboundMapper, never()).approve(anyLong(), anyString(), any(LocalDateTime.class));
+            verify(inventoryService, never()).reduceStock(anyLong(), anyLong(), anyInt());
         }
 
         @Test
@@ -431,7 +533,7 @@ class OutboundServiceTest {
                     .isInstanceOf(BusinessException.class)
                     .hasMessageContaining("只有待审核状态的出库单可以审核");
 
-            verify(inventoryService, never()).reduceStock(anyLong(), anyInt());
+            verify(inventoryService, never()).reduceStock(anyLong(), anyLong(), anyInt());
         }
 
         @Test
@@ -440,14 +542,291 @@ class OutboundServiceTest {
             // Arrange
             when(outboundMapper.selectById(1L)).thenReturn(testOutbound);
             doThrow(new BusinessException("库存不足，当前库存为30"))
-                    .when(inventoryService).reduceStock(anyLong(), anyInt());
+                    .when(inventoryService).reduceStock(anyLong(), anyLong(), anyInt());
 
             // Act & Assert
             assertThatThrownBy(() -> outboundService.approve(1L, "admin"))
                     .isInstanceOf(BusinessException.class)
                     .hasMessageContaining("库存不足");
 
-            verify(inventoryService, times(1)).reduceStock(1L, 50);
+            verify(inventoryService, times(1)).reduceStock(1L, 1L, 50);
+            verify(outboundMapper, never()).approve(anyLong(), anyString(), any(LocalDateTime.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("批量审核出库单测试 (Batch Approve Outbound Tests)")
+    class BatchApproveOutboundTests {
+
+        private Outbound pendingOutbound(Long id, Long productId, int quantity, int day) {
+            Outbound outbound = new Outbound();
+            outbound.setId(id);
+            outbound.setOutboundNo("OUT20260104" + String.format("%04d", id));
+            outbound.setProductId(productId);
+            outbound.setWarehouseId(1L);
+            outbound.setQuantity(quantity);
+            outbound.setOutboundDate(LocalDateTime.of(2026, 1, day, 10, 0));
+            outbound.setStatus(Outbound.STATUS_PENDING);
+            return outbound;
+        }
+
+        @Test
+        @DisplayName("库存充足时整批审核，每个商品只扣减一次")
+        void should_ApproveAll_And_ReduceOncePerProduct_When_StockSufficient() {
+            // Arrange
+            when(outboundMapper.selectBatchIds(anyCollection())).thenReturn(Arrays.asList(
+                    pendingOutbound(1L, 1L, 30, 1),
+                    pendingOutbound(2L, 1L, 20, 2),
+                    pendingOutbound(3L, 2L, 5, 1)));
+            Map<Long, Integer> stock = new HashMap<>();
+            stock.put(1L, 50);
+            stock.put(2L, 5);
+            when(inventoryService.getQuantityMap(anyCollection(), anyLong())).thenReturn(stock);
+            when(outboundMapper.approveBatch(anyList(), eq("admin"), any(LocalDateTime.class))).thenReturn(3);
+
+            // Act
+            BatchApproveResultVO result = outboundService.approveBatch(Arrays.asList(1L, 2L, 3L), "admin", false);
+
+            // Assert
+            assertThat(result.getSuccessCount()).isEqualTo(3);
+            assertThat(result.getFailCount()).isZero();
+            verify(inventoryService, times(1)).getQuantityMap(anyCollection(), anyLong());
+            Map<Long, Integer> expected = new TreeMap<>();
+            expected.put(1L, 50);
+            expected.put(2L, 5);
+            verify(inventoryService, times(1)).reduceStockBatch(1L, expected);
+        }
+
+        @Test
+        @DisplayName("整批模式下任一商品库存不足则拒绝整批")
+        void should_RejectWholeBatch_When_AnyProductShort() {
+            // Arrange
+            when(outboundMapper.selectBatchIds(anyCollection())).thenReturn(Arrays.asList(
+                    pendingOutbound(1L, 1L, 30, 1),
+                    pendingOutbound(2L, 1L, 30, 2)));
+            when(inventoryService.getQuantityMap(anyCollection(), anyLong())).thenReturn(Collections.singletonMap(1L, 50));
+
+            // Act & Assert
+            assertThatThrownBy(() -> outboundService.approveBatch(Arrays.asList(1L, 2L), "admin", false))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("库存不足")
+                    .hasMessageContaining("批量需要：60");
+            verify(outboundMapper, never()).approveBatch(anyList(), anyString(), any(LocalDateTime.class));
+            verify(inventoryService, never()).reduceStockBatch(anyLong(), anyMap());
+        }
+
+        @Test
+        @DisplayName("部分审核模式下按出库日期先后审核至库存用尽")
+        void should_ApproveInDateOrder_Until_StockExhausted_When_AllowPartial() {
+            // Arrange：请求顺序与出库日期相反，库存只够较早的两单
+            when(outboundMapper.selectBatchIds(anyCollection())).thenReturn(Arrays.asList(
+                    pendingOutbound(1L, 1L, 30, 3),
+                    pendingOutbound(2L, 1L, 30, 2),
+                    pendingOutbound(3L, 1L, 20, 1)));
+            when(inventoryService.getQuantityMap(anyCollection(), anyLong())).thenReturn(Collections.singletonMap(1L, 50));
+            when(outboundMapper.approveBatch(anyList(), anyString(), any(LocalDateTime.class))).thenReturn(2);
+
+            // Act
+            BatchApproveResultVO result = outboundService.approveBatch(Arrays.asList(1L, 2L, 3L), "admin", true);
+
+            // Assert
+            assertThat(result.getSuccessCount()).isEqualTo(2);
+            assertThat(result.getFailCount()).isEqualTo(1);
+            assertThat(result.getItems()).extracting(BatchApproveItemVO::getId).containsExactly(1L, 2L, 3L);
+            assertThat(result.getItems()).extracting(BatchApproveItemVO::getSuccess).containsExactly(false, true, true);
+            assertThat(result.getItems().get(0).getMessage()).contains("库存不足");
+            verify(outboundMapper, times(1)).approveBatch(eq(Arrays.asList(3L, 2L)), eq("admin"), any(LocalDateTime.class));
+            verify(inventoryService, times(1)).reduceStockBatch(1L, Collections.singletonMap(1L, 50));
+        }
+
+        @Test
+        @DisplayName("持有预占的单据不占用可用库存，直接转为扣减")
+        void should_ApproveReservedOrders_Without_ConsumingAvailableStock() {
+            // Arrange：单据 1 已预占，可用库存只够单据 2
+            when(outboundMapper.selectBatchIds(anyCollection())).thenReturn(Arrays.asList(
+                    pendingOutbound(1L, 1L, 40, 1),
+                    pendingOutbound(2L, 1L, 10, 2)));
+            when(stockReservationService.confirmBatch(anyCollection())).thenReturn(Collections.singleton(1L));
+            when(inventoryService.getQuantityMap(anyCollection(), anyLong())).thenReturn(Collections.singletonMap(1L, 10));
+            when(outboundMapper.approveBatch(anyList(), anyString(), any(LocalDateTime.class))).thenReturn(2);
+
+            // Act
+            BatchApproveResultVO result = outboundService.approveBatch(Arrays.asList(1L, 2L), "admin", false);
+
+            // Assert
+            assertThat(result.getSuccessCount()).isEqualTo(2);
+            verify(inventoryService, times(1)).reduceStockBatch(1L, Collections.singletonMap(1L, 10));
+        }
+
+        @Test
+        @DisplayName("同一商品在不同仓库按各自仓库的可用库存分配与扣减")
+        void should_PlanPerWarehouse_When_SameProductInDifferentWarehouses() {
+            // Arrange：仓库 1 库存足够，仓库 2 不足
+            Outbound otherWarehouse = pendingOutbound(2L, 1L, 30, 1);
+            otherWarehouse.setWarehouseId(2L);
+            when(outboundMapper.selectBatchIds(anyCollection())).thenReturn(Arrays.asList(
+                    pendingOutbound(1L, 1L, 30, 1), otherWarehouse));
+            when(inventoryService.getQuantityMap(anyCollection(), eq(1L))).thenReturn(Collections.singletonMap(1L, 30));
+            when(inventoryService.getQuantityMap(anyCollection(), eq(2L))).thenReturn(Collections.singletonMap(1L, 10));
+            when(outboundMapper.approveBatch(anyList(), anyString(), any(LocalDateTime.class))).thenReturn(1);
+
+            // Act
+            BatchApproveResultVO result = outboundService.approveBatch(Arrays.asList(1L, 2L), "admin", true);
+
+            // Assert
+            assertThat(result.getSuccessCount()).isEqualTo(1);
+            assertThat(result.getItems().get(1).getSuccess()).isFalse();
+            verify(inventoryService, times(1)).reduceStockBatch(1L, Collections.singletonMap(1L, 30));
+            verify(inventoryService, never()).reduceStockBatch(eq(2L), anyMap());
+        }
+
+        @Test
+        @DisplayName("多行出库单任一明细库存不足时整单不审核")
+        void should_SkipMultiLineOrder_When_AnyLineShort() {
+            // Arrange：单据 1 两行，商品 2 不足；单据 2 只需商品 1
+            Outbound multiLine = pendingOutbound(1L, 1L, 25, 1);
+            multiLine.setLineCount(2);
+            when(outboundMapper.selectBatchIds(anyCollection())).thenReturn(Arrays.asList(
+                    multiLine, pendingOutbound(2L, 1L, 10, 2)));
+            when(outboundLineMapper.selectByOutboundIds(Collections.singletonList(1L))).thenReturn(Arrays.asList(
+                    outboundLine(1L, 1, 1L, 20), outboundLine(1L, 2, 2L, 5)));
+            Map<Long, Integer> stock = new HashMap<>();
+            stock.put(1L, 30);
+            stock.put(2L, 3);
+            when(inventoryService.getQuantityMap(anyCollection(), anyLong())).thenReturn(stock);
+            when(outboundMapper.approveBatch(anyList(), anyString(), any(LocalDateTime.class))).thenReturn(1);
+
+            // Act
+            BatchApproveResultVO result = outboundService.approveBatch(Arrays.asList(1L, 2L), "admin", true);
+
+            // Assert：单据 1 不占用商品 1 的库存
+            assertThat(result.getItems()).extracting(BatchApproveItemVO::getSuccess).containsExactly(false, true);
+            assertThat(result.getItems().get(0).getMessage()).contains("商品ID：2");
+            verify(outboundMapper, times(1)).approveBatch(eq(Collections.singletonList(2L)), eq("admin"), any(LocalDateTime.class));
+            verify(inventoryService, times(1)).reduceStockBatch(1L, Collections.singletonMap(1L, 10));
+        }
+
+        @Test
+        @DisplayName("不存在或非待审核的出库单逐单记为失败")
+        void should_ReportFailure_When_OutboundMissingOrNotPending() {
+            // Arrange
+            Outbound approved = pendingOutbound(2L, 1L, 10, 1);
+            approved.setStatus(Outbound.STATUS_APPROVED);
+            when(outboundMapper.selectBatchIds(anyCollection())).thenReturn(Collections.singletonList(approved));
+
+            // Act
+            BatchApproveResultVO result = outboundService.approveBatch(Arrays.asList(2L, 999L), "admin", false);
+
+            // Assert
+            assertThat(result.getSuccessCount()).isZero();
+            assertThat(result.getFailCount()).isEqualTo(2);
+            assertThat(result.getItems().get(1).getMessage()).contains("不存在");
+            verify(outboundMapper, never()).approveBatch(anyList(), anyString(), any(LocalDateTime.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("多行出库单测试 (Multi-line Outbound Document Tests)")
+    class OutboundDocumentTests {
+
+        private OutboundDocumentDTO.Line line(Long productId, int quantity) {
+            OutboundDocumentDTO.Line line = new OutboundDocumentDTO.Line();
+            line.setProductId(productId);
+            line.setQuantity(quantity);
+            return line;
+        }
+
+        private OutboundDocumentDTO document(OutboundDocumentDTO.Line... lines) {
+            OutboundDocumentDTO dto = new OutboundDocumentDTO();
+            dto.setReceiver("客户A");
+            dto.setOutboundDate(LocalDateTime.of(2026, 1, 4, 10, 0));
+            dto.setLines(Arrays.asList(lines));
+            return dto;
+        }
+
+        private Product product(Long id) {
+            Product product = new Product();
+            product.setId(id);
+            product.setStatus(1);
+            return product;
+        }
+
+        private Outbound multiLineOutbound() {
+            testOutbound.setProductId(3L);
+            testOutbound.setQuantity(35);
+            testOutbound.setLineCount(2);
+            testOutbound.setOutboundDate(LocalDateTime.of(2026, 1, 4, 10, 0));
+            return testOutbound;
+        }
+
+        @Test
+        @DisplayName("应写入表头、一条语句写入明细并一次预占全部商品")
+        void should_InsertLinesAndReserveAll_When_CreatingDocument() {
+            // Arrange
+            when(productMapper.selectBatchIds(anyCollection())).thenReturn(Arrays.asList(product(3L), product(1L)));
+            when(outboundMapper.insert(any(Outbound.class))).thenAnswer(invocation -> {
+                Outbound outbound = invocation.getArgument(0);
+                outbound.setId(5L);
+                return 1;
+            });
+
+            // Act
+            Long id = outboundService.createDocument(document(line(3L, 20), line(1L, 15)));
+
+            // Assert
+            assertThat(id).isEqualTo(5L);
+            verify(outboundMapper).insert(argThat((Outbound outbound) -> outbound.getProductId().equals(3L)
+                    && outbound.getQuantity() == 35 && outbound.getLineCount() == 2));
+            verify(outboundLineMapper, times(1)).insertBatch(argThat(lines -> lines.size() == 2
+                    && lines.get(0).getLineNo() == 1 && lines.get(1).getProductId().equals(1L)));
+            Map<Long, Integer> expected = new HashMap<>();
+            expected.put(3L, 20);
+            expected.put(1L, 15);
+            verify(stockReservationService, times(1)).reserve(5L, 1L, expected);
+        }
+
+        @Test
+        @DisplayName("创建失败 - 同一商品出现多行")
+        void should_ThrowException_When_ProductRepeated() {
+            // Act & Assert
+            assertThatThrownBy(() -> outboundService.createDocument(document(line(1L, 10), line(1L, 5))))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("同一商品只能出现一行");
+            verify(outboundMapper, never()).insert(any(Outbound.class));
+            verify(stockReservationService, never()).reserve(anyLong(), anyLong(), anyMap());
+        }
+
+        @Test
+        @DisplayName("无有效预占时审核按商品ID顺序一次批量扣减全部明细")
+        void should_ReduceAllLinesInOneBatch_When_ApprovingWithoutReservation() {
+            // Arrange
+            when(outboundMapper.selectById(1L)).thenReturn(multiLineOutbound());
+            when(outboundMapper.approve(eq(1L), eq("admin"), any(LocalDateTime.class))).thenReturn(1);
+            when(outboundLineMapper.selectByOutboundIds(Collections.singletonList(1L))).thenReturn(Arrays.asList(
+                    outboundLine(1L, 1, 3L, 20), outboundLine(1L, 2, 1L, 15)));
+
+            // Act
+            boolean result = outboundService.approve(1L, "admin");
+
+            // Assert
+            assertThat(result).isTrue();
+            verify(inventoryService, times(1)).reduceStockBatch(eq(1L), argThat((Map<Long, Integer> quantities) ->
+                    new ArrayList<>(quantities.entrySet()).toString().equals("[1=15, 3=20]")));
+            verify(inventoryService, never()).reduceStock(anyLong(), anyLong(), anyInt());
+            verify(dailyMovementMapper, times(1)).addOutbound(LocalDate.of(2026, 1, 4), 1L, 15);
+            verify(dailyMovementMapper, times(1)).addOutbound(LocalDate.of(2026, 1, 4), 3L, 20);
+        }
+
+        @Test
+        @DisplayName("更新失败 - 多行出库单不能按单行修改")
+        void should_ThrowException_When_UpdatingMultiLineDocument() {
+            // Arrange
+            when(outboundMapper.selectById(1L)).thenReturn(multiLineOutbound());
+
+            // Act & Assert
+            assertThatThrownBy(() -> outboundService.update(1L, testOutboundDTO))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("多行出库单");
             verify(outboundMapper, never()).updateById(any(Outbound.class));
         }
     }
@@ -470,6 +849,7 @@ class OutboundServiceTest {
             verify(outboundMapper, times(1)).updateById(argThat(outbound ->
                     outbound.getStatus().equals(Outbound.STATUS_VOID)
             ));
+            verify(stockReservationService, times(1)).release(1L);
         }
 
         @Test
@@ -526,7 +906,7 @@ class OutboundServiceTest {
         void should_GetDetail_Success() {
             // Arrange
             when(outboundMapper.selectById(1L)).thenReturn(testOutbound);
-            when(productMapper.selectById(1L)).thenReturn(testProduct);
+            when(referenceDataCache.getProducts(anyCollection())).thenReturn(productRefs(testProduct));
 
             // Act
             OutboundVO vo = outboundService.getDetail(1L);
@@ -556,7 +936,7 @@ class OutboundServiceTest {
         void should_Handle_ProductNotFound_OnGetDetail() {
             // Arrange
             when(outboundMapper.selectById(1L)).thenReturn(testOutbound);
-            when(productMapper.selectById(1L)).thenReturn(null);
+            when(referenceDataCache.getProducts(anyCollection())).thenReturn(Collections.emptyMap());
 
             // Act
             OutboundVO vo = outboundService.getDetail(1L);
@@ -584,7 +964,7 @@ class OutboundServiceTest {
                         page.setTotal(1);
                         return page;
                     });
-            when(productMapper.selectById(1L)).thenReturn(testProduct);
+            when(referenceDataCache.getProducts(anyCollection())).thenReturn(productRefs(testProduct));
 
             // Act
             IPage<OutboundVO> result = outboundService.page(null, null, null, null, 1, 10);
@@ -608,7 +988,7 @@ class OutboundServiceTest {
                         page.setTotal(1);
                         return page;
                     });
-            when(productMapper.selectById(1L)).thenReturn(testProduct);
+            when(referenceDataCache.getProducts(anyCollection())).thenReturn(productRefs(testProduct));
 
             // Act
             IPage<OutboundVO> result = outboundService.page(1L, null, null, null, 1, 10);
@@ -632,7 +1012,7 @@ class OutboundServiceTest {
                         page.setTotal(1);
                         return page;
                     });
-            when(productMapper.selectById(1L)).thenReturn(testProduct);
+            when(referenceDataCache.getProducts(anyCollection())).thenReturn(productRefs(testProduct));
 
             // Act
             IPage<OutboundVO> result = outboundService.page(null, Outbound.STATUS_PENDING, null, null, 1, 10);
@@ -653,7 +1033,7 @@ class OutboundServiceTest {
                         page.setTotal(1);
                         return page;
                     });
-            when(productMapper.selectById(1L)).thenReturn(testProduct);
+            when(referenceDataCache.getProducts(anyCollection())).thenReturn(productRefs(testProduct));
 
             // Act
             IPage<OutboundVO> result = outboundService.page(
@@ -687,6 +1067,84 @@ class OutboundServiceTest {
             assertThat(result.getRecords()).isEmpty();
             assertThat(result.getTotal()).isEqualTo(0);
         }
+
+        @Test
+        @DisplayName("游标分页多取一行判断下一页，并以本页最后一行生成游标")
+        void should_ReturnNextCursor_When_MoreRowsExist() {
+            // Arrange：每页 2 条，查询返回 3 条
+            LocalDateTime createdAt = LocalDateTime.of(2026, 1, 4, 10, 0);
+            java.util.List<Outbound> rows = new java.util.ArrayList<>();
+            for (long id = 3; id >= 1; id--) {
+                Outbound outbound = new Outbound();
+                outbound.setId(id);
+                outbound.setProductId(1L);
+                outbound.setCreatedAt(createdAt);
+                rows.add(outbound);
+            }
+            when(outboundMapper.selectList(any())).thenReturn(rows);
+            when(referenceDataCache.getProducts(anyCollection())).thenReturn(productRefs(testProduct));
+
+            // Act
+            CursorPageVO<OutboundVO> result = outboundService.pageByCursor(null, null, null, null, null, 2);
+
+            // Assert
+            assertThat(result.getRecords()).hasSize(2);
+            assertThat(result.getHasMore()).isTrue();
+            PageCursor next = PageCursor.decode(result.getNextCursor());
+            assertThat(next.getTime()).isEqualTo(createdAt);
+            assertThat(next.getId()).isEqualTo(2L);
+            verify(outboundMapper, never()).selectPage(any(), any());
+        }
+
+        @Test
+        @DisplayName("最后一页不返回游标")
+        void should_ReturnNoCursor_When_LastPage() {
+            // Arrange
+            when(outboundMapper.selectList(any())).thenReturn(Collections.singletonList(testOutbound));
+            when(referenceDataCache.getProducts(anyCollection())).thenReturn(productRefs(testProduct));
+
+            // Act
+            CursorPageVO<OutboundVO> result = outboundService.pageByCursor(
+                    null, null, null, null, PageCursor.encode(LocalDateTime.now(), 100L), 10);
+
+            // Assert
+            assertThat(result.getRecords()).hasSize(1);
+            assertThat(result.getHasMore()).isFalse();
+            assertThat(result.getNextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("每页大小超过上限时按上限查询")
+        void should_CapPageSize_When_SizeTooLarge() {
+            // Arrange：查询返回的行数多于上限
+            java.util.List<Outbound> rows = new java.util.ArrayList<>();
+            for (long id = MybatisPlusConfig.MAX_PAGE_SIZE + 2; id >= 1; id--) {
+                Outbound outbound = new Outbound();
+                outbound.setId(id);
+                outbound.setProductId(1L);
+                outbound.setCreatedAt(LocalDateTime.of(2026, 1, 4, 10, 0));
+                rows.add(outbound);
+            }
+            when(outboundMapper.selectList(any())).thenReturn(rows);
+            when(referenceDataCache.getProducts(anyCollection())).thenReturn(productRefs(testProduct));
+
+            // Act
+            CursorPageVO<OutboundVO> result = outboundService.pageByCursor(null, null, null, null, null, 1_000_000);
+
+            // Assert
+            assertThat(result.getSize()).isEqualTo(MybatisPlusConfig.MAX_PAGE_SIZE);
+            assertThat(result.getRecords()).hasSize(MybatisPlusConfig.MAX_PAGE_SIZE);
+            assertThat(result.getHasMore()).isTrue();
+        }
+
+        @Test
+        @DisplayName("游标无法解析时抛出异常")
+        void should_ThrowException_When_CursorInvalid() {
+            // Act & Assert
+            assertThatThrownBy(() -> outboundService.pageByCursor(null, null, null, null, "not-a-cursor", 10))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("游标");
+        }
     }
 
     @Nested
@@ -699,16 +1157,14 @@ class OutboundServiceTest {
             // Arrange
             testOutbound.setStatus(Outbound.STATUS_PENDING);
             when(outboundMapper.selectById(1L)).thenReturn(testOutbound);
-            when(outboundMapper.updateById(any(Outbound.class))).thenReturn(true);
-            doNothing().when(inventoryService).reduceStock(anyLong(), anyInt());
+            when(outboundMapper.approve(eq(1L), eq("admin"), any(LocalDateTime.class))).thenReturn(1);
+            doNothing().when(inventoryService).reduceStock(anyLong(), anyLong(), anyInt());
 
             // Act
             outboundService.approve(1L, "admin");
 
             // Assert
-            verify(outboundMapper).updateById(argThat(outbound ->
-                    outbound.getStatus().equals(Outbound.STATUS_APPROVED)
-            ));
+            verify(outboundMapper).approve(eq(1L), eq("admin"), any(LocalDateTime.class));
         }
 
         @Test
@@ -768,14 +1224,14 @@ class OutboundServiceTest {
         void should_Verify_Stock_OnApproval() {
             // Arrange
             when(outboundMapper.selectById(1L)).thenReturn(testOutbound);
-            doNothing().when(inventoryService).reduceStock(1L, 50);
-            when(outboundMapper.updateById(any(Outbound.class))).thenReturn(true);
+            doNothing().when(inventoryService).reduceStock(1L, 1L, 50);
+            when(outboundMapper.approve(eq(1L), eq("admin"), any(LocalDateTime.class))).thenReturn(1);
 
             // Act
             outboundService.approve(1L, "admin");
 
             // Assert
-            verify(inventoryService, times(1)).reduceStock(1L, 50);
+            verify(inventoryService, times(1)).reduceStock(1L, 1L, 50);
         }
 
         @Test
@@ -784,14 +1240,14 @@ class OutboundServiceTest {
             // Arrange
             when(outboundMapper.selectById(1L)).thenReturn(testOutbound);
             doThrow(new BusinessException("库存不足"))
-                    .when(inventoryService).reduceStock(anyLong(), anyInt());
+                    .when(inventoryService).reduceStock(anyLong(), anyLong(), anyInt());
 
             // Act & Assert
             assertThatThrownBy(() -> outboundService.approve(1L, "admin"))
                     .isInstanceOf(BusinessException.class);
 
-            verify(inventoryService, times(1)).reduceStock(1L, 50);
-            verify(outboundMapper, never()).updateById(any(Outbound.class));
+            verify(inventoryService, times(1)).reduceStock(1L, 1L, 50);
+            verify(outboundMapper, never()).approve(anyLong(), anyString(), any(LocalDateTime.class));
         }
     }
 }
@@ -1,9 +1,13 @@
 package com.inventory.service;
 
+import com.inventory.component.InvalidationBus;
+import com.inventory.component.SkuFilter;
+import com.inventory.component.StockView;
 import com.inventory.entity.Product;
 import com.inventory.entity.Category;
 import com.inventory.mapper.ProductMapper;
 import com.inventory.mapper.CategoryMapper;
+import com.inventory.mapper.DashboardStatsMapper;
 import com.inventory.service.impl.ProductServiceImpl;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.junit.jupiter.api.BeforeEach;
@@ -44,6 +48,18 @@ class ProductServiceTest {
     @Mock
     private InventoryService inventoryService;
 
+    @Mock
+    private DashboardStatsMapper dashboardStatsMapper;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @Mock
+    private SkuFilter skuFilter;
+
+    @Mock
+    private StockView stockView;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -53,6 +69,8 @@ class ProductServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // 默认过滤器判定可能存在，由数据库查询决定
+        when(skuFilter.mightContain(anyString())).thenReturn(true);
 
         // 准备测试分类数据
         testCategory = new Category();
@@ -668,6 +686,20 @@ class ProductServiceTest {
                 wrapper.toString().contains("id") || wrapper.toString().contains("1")
             ));
         }
+
+        @Test
+        @DisplayName("应不查询数据库 - when SKU filter rules it out")
+        void shouldSkipQuery_whenSkuFilterRulesOut() {
+            // Arrange
+            when(skuFilter.mightContain("SKU999")).thenReturn(false);
+
+            // Act
+            boolean exists = productService.checkSkuExists("SKU999", null);
+
+            // Assert
+            assertFalse(exists);
+            verify(productMapper, never()).selectCount(any());
+        }
     }
 
     @Nested
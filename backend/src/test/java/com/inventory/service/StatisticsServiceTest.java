@@ -0,0 +1,180 @@
+package com.inventory.service;
+
+import com.inventory.component.InvalidationBus;
+import com.inventory.component.ResourceVersions.Resource;
+import com.inventory.component.StockView;
+import com.inventory.exception.BusinessException;
+import com.inventory.mapper.InventoryMapper;
+import com.inventory.service.impl.StatisticsServiceImpl;
+import com.inventory.vo.CategoryDistributionVO;
+import com.inventory.vo.CategoryVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 统计报表服务测试
+ * Statistics Service Tests
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("统计报表服务测试 (StatisticsService Tests)")
+class StatisticsServiceTest {
+
+    @Mock
+    private InventoryMapper inventoryMapper;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private StockView stockView;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @InjectMocks
+    private StatisticsServiceImpl statisticsService;
+
+    @Nested
+    @DisplayName("库存分类分布测试 (Category Distribution Tests)")
+    class CategoryDistributionTests {
+
+        /**
+         * 电子产品(1) → 手机(2) → 智能手机(3)；电子产品(1) → 电脑(4)；办公用品(5)
+         */
+        private List<CategoryVO> tree;
+
+        private Consumer<Set<Long>> productInvalidation;
+
+        @BeforeEach
+        void setUp() {
+            CategoryVO smartphone = category(3L, "智能手机");
+            CategoryVO phone = category(2L, "手机", smartphone);
+            CategoryVO computer = category(4L, "电脑");
+            tree = Arrays.asList(category(1L, "电子产品", phone, computer), category(5L, "办公用品"));
+
+            lenient().doAnswer(invocation -> productInvalidation = invocation.getArgument(1))
+                    .when(invalidationBus).subscribe(eq(Resource.PRODUCT), any());
+            statisticsService.subscribeInvalidation();
+
+            lenient().when(categoryService.getTree()).thenReturn(tree);
+            lenient().when(stockView.isReady()).thenReturn(true);
+            lenient().when(stockView.getQuantityVersion()).thenReturn(1L);
+            // 智能手机 60、手机 10、电脑 20、分类已不存在的商品 10
+            lenient().when(inventoryMapper.selectQuantityByCategory()).thenReturn(Arrays.asList(
+                    row(3L, 60), row(2L, 10), row(4L, 20), row(null, 10)));
+        }
+
+        @Test
+        @DisplayName("仅顶级分类时汇总全部子分类库存，占比以全部库存为基数")
+        void should_RollUpToTopLevel() {
+            // Act
+            List<CategoryDistributionVO> result = statisticsService.getCategoryDistribution(1);
+
+            // Assert：办公用品下没有库存，不出现在结果中
+            assertThat(result).hasSize(1);
+            assertThat(result.get(0).getCategoryName()).isEqualTo("电子产品");
+            assertThat(result.get(0).getQuantity()).isEqualTo(90);
+            assertThat(result.get(0).getPercentage()).isEqualTo(90.0);
+        }
+
+        @Test
+        @DisplayName("第二层按数量降序，第三层只含本层分类")
+        void should_RollUpPerLevel() {
+            // Act
+            List<CategoryDistributionVO> level2 = statisticsService.getCategoryDistribution(2);
+            List<CategoryDistributionVO> level3 = statisticsService.getCategoryDistribution(3);
+
+            // Assert
+            assertThat(level2).extracting(CategoryDistributionVO::getCategoryName).containsExactly("手机", "电脑");
+            assertThat(level2).extracting(CategoryDistributionVO::getQuantity).containsExactly(70, 20);
+            assertThat(level3).extracting(CategoryDistributionVO::getCategoryId).containsExactly(3L);
+            assertThat(level3.get(0).getLevel()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("未指定层级时按商品直属分类统计")
+        void should_GroupByDirectCategory_When_LevelAbsent() {
+            // Act
+            List<CategoryDistributionVO> result = statisticsService.getCategoryDistribution();
+
+            // Assert
+            assertThat(result).extracting(CategoryDistributionVO::getCategoryId).containsExactly(3L, 4L, 2L);
+            assertThat(result).extracting(CategoryDistributionVO::getQuantity).containsExactly(60, 20, 10);
+        }
+
+        @Test
+        @DisplayName("库存未变化时复用缓存，库存变化或商品变更后重新查询")
+        void should_ReuseSnapshot_Until_StockOrProductChanges() {
+            // Act & Assert：各层级共用一次查询
+            statisticsService.getCategoryDistribution(1);
+            statisticsService.getCategoryDistribution(2);
+            statisticsService.getCategoryDistribution();
+            verify(inventoryMapper, times(1)).selectQuantityByCategory();
+
+            when(stockView.getQuantityVersion()).thenReturn(2L);
+            statisticsService.getCategoryDistribution(1);
+            verify(inventoryMapper, times(2)).selectQuantityByCategory();
+
+            productInvalidation.accept(Collections.singleton(1L));
+            statisticsService.getCategoryDistribution(1);
+            verify(inventoryMapper, times(3)).selectQuantityByCategory();
+        }
+
+        @Test
+        @DisplayName("读模型不可用时不使用缓存")
+        void should_NotCache_When_StockViewNotReady() {
+            // Arrange
+            when(stockView.isReady()).thenReturn(false);
+
+            // Act
+            statisticsService.getCategoryDistribution(1);
+            statisticsService.getCategoryDistribution(1);
+
+            // Assert
+            verify(inventoryMapper, times(2)).selectQuantityByCategory();
+        }
+
+        @Test
+        @DisplayName("层级超出范围时抛出异常")
+        void should_ThrowException_When_LevelInvalid() {
+            assertThatThrownBy(() -> statisticsService.getCategoryDistribution(4))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage("分类层级无效");
+            verifyNoInteractions(inventoryMapper);
+        }
+
+        private CategoryVO category(Long id, String name, CategoryVO... children) {
+            CategoryVO category = new CategoryVO();
+            category.setId(id);
+            category.setName(name);
+            category.setChildren(children.length > 0 ? Arrays.asList(children) : Collections.emptyList());
+            return category;
+        }
+
+        private CategoryDistributionVO row(Long categoryId, int quantity) {
+            CategoryDistributionVO row = new CategoryDistributionVO();
+            row.setCategoryId(categoryId);
+            row.setQuantity(quantity);
+            return row;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.inventory.service;
+
+import com.inventory.component.InvalidationBus;
+import com.inventory.component.StockView;
+import com.inventory.entity.Inventory;
+import com.inventory.entity.InventoryTxn;
+import com.inventory.entity.StockReservation;
+import com.inventory.exception.BusinessException;
+import com.inventory.mapper.InventoryMapper;
+import com.inventory.mapper.StockReservationMapper;
+import com.inventory.service.impl.StockReservationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 库存预占服务测试
+ * Stock Reservation Service Tests
+ *
+ * @author inventory-system
+ * @since 2026-01-04
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("库存预占服务测试 (StockReservationService Tests)")
+class StockReservationServiceTest {
+
+    @Mock
+    private StockReservationMapper reservationMapper;
+
+    @Mock
+    private InventoryMapper inventoryMapper;
+
+    @Mock
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Mock
+    private StockView stockView;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    private StockReservationServiceImpl reservationService;
+
+    @BeforeEach
+    void setUp() {
+        reservationService = new StockReservationServiceImpl();
+        ReflectionTestUtils.setField(reservationService, "baseMapper", reservationMapper);
+        ReflectionTestUtils.setField(reservationService, "inventoryMapper", inventoryMapper);
+        ReflectionTestUtils.setField(reservationService, "inventoryLedgerService", inventoryLedgerService);
+        ReflectionTestUtils.setField(reservationService, "stockView", stockView);
+        ReflectionTestUtils.setField(reservationService, "invalidationBus", invalidationBus);
+        ReflectionTestUtils.setField(reservationService, "ttlMinutes", 30L);
+    }
+
+    private StockReservation activeReservation(Long id, Long outboundId, Long productId, int quantity) {
+        StockReservation reservation = new StockReservation();
+        reservation.setId(id);
+        reservation.setOutboundId(outboundId);
+        reservation.setProductId(productId);
+        reservation.setWarehouseId(1L);
+        reservation.setQuantity(quantity);
+        reservation.setStatus(StockReservation.STATUS_ACTIVE);
+        return reservation;
+    }
+
+    private Inventory inventory(Long productId, int quantity, int reserved) {
+        Inventory inventory = new Inventory();
+        inventory.setProductId(productId);
+        inventory.setWarehouseId(1L);
+        inventory.setQuantity(quantity);
+        inventory.setReservedQuantity(reserved);
+        return inventory;
+    }
+
+    @Nested
+    @DisplayName("预占库存测试 (Reserve Tests)")
+    class ReserveTests {
+
+        @Test
+        @DisplayName("可用库存充足时预占并记录过期时间")
+        void should_Reserve_And_SaveRecord_When_AvailableSufficient() {
+            // Arrange
+            when(inventoryMapper.reserveQuantity(1L, 2L, 50)).thenReturn(1);
+            when(reservationMapper.insert(any(StockReservation.class))).thenReturn(1);
+
+            // Act
+            reservationService.reserve(10L, 1L, 2L, 50);
+
+            // Assert
+            ArgumentCaptor<StockReservation> captor = ArgumentCaptor.forClass(StockReservation.class);
+            verify(reservationMapper).insert(captor.capture());
+            StockReservation saved = captor.getValue();
+            assertThat(saved.getOutboundId()).isEqualTo(10L);
+            assertThat(saved.getWarehouseId()).isEqualTo(2L);
+            assertThat(saved.getStatus()).isEqualTo(StockReservation.STATUS_ACTIVE);
+            assertThat(saved.getExpireAt()).isAfter(LocalDateTime.now().plusMinutes(29));
+            verify(stockView).applyAfterCommit(1L, 2L, 0, 50);
+        }
+
+        @Test
+        @DisplayName("可用库存不足时抛出异常且不记录预占")
+        void should_ThrowException_When_AvailableInsufficient() {
+            // Arrange
+            Inventory inventory = new Inventory();
+            inventory.setQuantity(100);
+            inventory.setReservedQuantity(80);
+            when(inventoryMapper.reserveQuantity(1L, 1L, 50)).thenReturn(0);
+            when(inventoryMapper.selectByProductAndWarehouse(1L, 1L)).thenReturn(inventory);
+
+            // Act & Assert
+            assertThatThrownBy(() -> reservationService.reserve(10L, 1L, 1L, 50))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("可用库存：20");
+            verify(reservationMapper, never()).insert(any(StockReservation.class));
+        }
+
+        @Test
+        @DisplayName("多行出库单一条语句预占全部商品并批量记录预占")
+        void should_ReserveAllProducts_When_MultiLine() {
+            // Arrange
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            quantities.put(2L, 5);
+            quantities.put(1L, 50);
+            when(inventoryMapper.selectByProductIds(anyCollection(), eq(1L))).thenReturn(Arrays.asList(
+                    inventory(1L, 100, 0), inventory(2L, 10, 0)));
+            when(inventoryMapper.reserveQuantityBatch(eq(1L), anyMap())).thenReturn(2);
+
+            // Act
+            reservationService.reserve(10L, 1L, quantities);
+
+            // Assert
+            ArgumentCaptor<Map<Long, Integer>> quantityCaptor = ArgumentCaptor.forClass(Map.class);
+            verify(inventoryMapper).reserveQuantityBatch(eq(1L), quantityCaptor.capture());
+            assertThat(quantityCaptor.getValue()).containsExactly(entry(1L, 50), entry(2L, 5));
+            ArgumentCaptor<List<StockReservation>> captor = ArgumentCaptor.forClass(List.class);
+            verify(reservationMapper).insertBatch(captor.capture());
+            assertThat(captor.getValue()).extracting(StockReservation::getProductId).containsExactly(1L, 2L);
+            assertThat(captor.getValue()).allMatch(r -> r.getOutboundId().equals(10L)
+                    && r.getStatus() == StockReservation.STATUS_ACTIVE);
+            verify(reservationMapper, never()).insert(any(StockReservation.class));
+        }
+
+        @Test
+        @DisplayName("多行出库单任一商品可用库存不足时指出商品且不预占")
+        void should_ThrowException_When_AnyLineInsufficient() {
+            // Arrange
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            quantities.put(1L, 50);
+            quantities.put(2L, 5);
+            when(inventoryMapper.selectByProductIds(anyCollection(), eq(1L))).thenReturn(Arrays.asList(
+                    inventory(1L, 100, 0), inventory(2L, 10, 8)));
+
+            // Act & Assert
+            assertThatThrownBy(() -> reservationService.reserve(10L, 1L, quantities))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("商品ID：2")
+                    .hasMessageContaining("可用库存：2");
+            verify(inventoryMapper, never()).reserveQuantityBatch(anyLong(), anyMap());
+            verify(reservationMapper, never()).insertBatch(anyList());
+        }
+    }
+
+    @Nested
+    @DisplayName("预占转扣减与释放测试 (Confirm & Release Tests)")
+    class ConfirmAndReleaseTests {
+
+        @Test
+        @DisplayName("有效预占转为扣减")
+        void should_ConsumeReserved_When_ReservationActive() {
+            // Arrange
+            when(reservationMapper.selectActiveByOutboundId(10L))
+                    .thenReturn(Collections.singletonList(activeReservation(1L, 10L, 1L, 50)));
+            when(reservationMapper.finish(anyCollection(), eq(StockReservation.STATUS_CONSUMED))).thenReturn(1);
+            when(inventoryMapper.consumeReserved(1L, 1L, 50)).thenReturn(1);
+
+            // Act & Assert
+            assertThat(reservationService.confirm(10L)).isTrue();
+            verify(inventoryMapper).consumeReserved(1L, 1L, 50);
+            verify(inventoryLedgerService).record(eq(1L), eq(1L), eq(InventoryTxn.TYPE_OUTBOUND), eq(-50), anyString());
+        }
+
+        @Test
+        @DisplayName("预占已过期时返回 false，由调用方按普通出库扣减")
+        void should_ReturnFalse_When_NoActiveReservation() {
+            // Arrange
+            when(reservationMapper.selectActiveByOutboundId(10L)).thenReturn(Collections.emptyList());
+
+            // Act & Assert
+            assertThat(reservationService.confirm(10L)).isFalse();
+            verify(inventoryMapper, never()).consumeReserved(anyLong(), anyLong(), anyInt());
+        }
+
+        @Test
+        @DisplayName("批量转扣减时按商品汇总，同一仓库一条语句扣减")
+        void should_ConsumeOncePerProduct_When_ConfirmBatch() {
+            // Arrange
+            when(reservationMapper.selectActiveByOutboundIds(anyCollection())).thenReturn(Arrays.asList(
+                    activeReservation(1L, 10L, 1L, 30),
+                    activeReservation(2L, 11L, 1L, 20),
+                    activeReservation(3L, 12L, 2L, 5)));
+            when(reservationMapper.finish(anyCollection(), eq(StockReservation.STATUS_CONSUMED))).thenReturn(3);
+            when(inventoryMapper.consumeReservedBatch(eq(1L), anyMap())).thenReturn(2);
+
+            // Act
+            Set<Long> confirmed = reservationService.confirmBatch(Arrays.asList(10L, 11L, 12L, 13L));
+
+            // Assert
+            assertThat(confirmed).containsExactlyInAnyOrder(10L, 11L, 12L);
+            Map<Long, Integer> expected = new TreeMap<>();
+            expected.put(1L, 50);
+            expected.put(2L, 5);
+            verify(inventoryMapper, times(1)).consumeReservedBatch(1L, expected);
+            verify(inventoryMapper, never()).consumeReserved(anyLong(), anyLong(), anyInt());
+        }
+
+        @Test
+        @DisplayName("批量转扣减时同一商品在不同仓库分别扣减")
+        void should_ConsumePerWarehouse_When_ConfirmBatchAcrossWarehouses() {
+            // Arrange
+            StockReservation otherWarehouse = activeReservation(2L, 11L, 1L, 20);
+            otherWarehouse.setWarehouseId(2L);
+            when(reservationMapper.selectActiveByOutboundIds(anyCollection())).thenReturn(Arrays.asList(
+                    activeReservation(1L, 10L, 1L, 30), otherWarehouse));
+            when(reservationMapper.finish(anyCollection(), eq(StockReservation.STATUS_CONSUMED))).thenReturn(2);
+            when(inventoryMapper.consumeReserved(anyLong(), anyLong(), anyInt())).thenReturn(1);
+
+            // Act
+            reservationService.confirmBatch(Arrays.asList(10L, 11L));
+
+            // Assert
+            verify(inventoryMapper, times(1)).consumeReserved(1L, 1L, 30);
+            verify(inventoryMapper, times(1)).consumeReserved(1L, 2L, 20);
+        }
+
+        @Test
+        @DisplayName("多行出库单的全部预占一条语句转为扣减")
+        void should_ConsumeAllLines_When_MultiLineReservationsActive() {
+            // Arrange
+            when(reservationMapper.selectActiveByOutboundId(10L)).thenReturn(Arrays.asList(
+                    activeReservation(1L, 10L, 2L, 5), activeReservation(2L, 10L, 1L, 50)));
+            when(reservationMapper.finish(anyCollection(), eq(StockReservation.STATUS_CONSUMED))).thenReturn(2);
+            when(inventoryMapper.consumeReservedBatch(eq(1L), anyMap())).thenReturn(2);
+
+            // Act & Assert
+            assertThat(reservationService.confirm(10L)).isTrue();
+            ArgumentCaptor<Map<Long, Integer>> captor = ArgumentCaptor.forClass(Map.class);
+            verify(inventoryMapper).consumeReservedBatch(eq(1L), captor.capture());
+            assertThat(captor.getValue()).containsExactly(entry(1L, 50), entry(2L, 5));
+            verify(inventoryLedgerService).record(eq(1L), eq(1L), eq(InventoryTxn.TYPE_OUTBOUND), eq(-50), anyString());
+            verify(inventoryLedgerService).record(eq(2L), eq(1L), eq(InventoryTxn.TYPE_OUTBOUND), eq(-5), anyString());
+        }
+
+        @Test
+        @DisplayName("多行出库单只剩部分预占时拒绝审核")
+        void should_ThrowException_When_ReservationsPartiallyFinished() {
+            // Arrange
+            when(reservationMapper.selectActiveByOutboundId(10L)).thenReturn(Arrays.asList(
+                    activeReservation(1L, 10L, 1L, 50), activeReservation(2L, 10L, 2L, 5)));
+            when(reservationMapper.finish(anyCollection(), eq(StockReservation.STATUS_CONSUMED))).thenReturn(1);
+
+            // Act & Assert
+            assertThatThrownBy(() -> reservationService.confirm(10L))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("部分预占已变更");
+            verify(inventoryMapper, never()).consumeReservedBatch(anyLong(), anyMap());
+        }
+
+        @Test
+        @DisplayName("作废时释放有效预占")
+        void should_ReleaseReserved_When_ReservationActive() {
+            // Arrange
+            when(reservationMapper.selectActiveByOutboundId(10L))
+                    .thenReturn(Collections.singletonList(activeReservation(1L, 10L, 1L, 50)));
+            when(reservationMapper.finish(anyCollection(), eq(StockReservation.STATUS_RELEASED))).thenReturn(1);
+
+            // Act
+            reservationService.release(10L);
+
+            // Assert
+            verify(inventoryMapper).releaseReserved(1L, 1L, 50);
+        }
+    }
+
+    @Nested
+    @DisplayName("过期清理测试 (Expire Tests)")
+    class ExpireTests {
+
+        @Test
+        @DisplayName("批量释放过期预占，跳过已被并发处理的记录并按商品合并释放")
+        void should_ReleaseExpired_And_SkipConcurrentlyFinished() {
+            // Arrange
+            when(reservationMapper.selectExpired(any(LocalDateTime.class), eq(100))).thenReturn(Arrays.asList(
+                    activeReservation(1L, 10L, 1L, 30),
+                    activeReservation(2L, 11L, 1L, 20),
+                    activeReservation(3L, 12L, 1L, 5)));
+            when(reservationMapper.finish(eq(Collections.singleton(1L)), eq(StockReservation.STATUS_EXPIRED))).thenReturn(1);
+            when(reservationMapper.finish(eq(Collections.singleton(2L)), eq(StockReservation.STATUS_EXPIRED))).thenReturn(0);
+            when(reservationMapper.finish(eq(Collections.singleton(3L)), eq(StockReservation.STATUS_EXPIRED))).thenReturn(1);
+
+            // Act
+            int count = reservationService.expireBatch(100);
+
+            // Assert
+            assertThat(count).isEqualTo(2);
+            verify(inventoryMapper, times(1)).releaseReserved(1L, 1L, 35);
+        }
+
+        @Test
+        @DisplayName("没有过期预占时不做任何更新")
+        void should_DoNothing_When_NoExpired() {
+            // Arrange
+            when(reservationMapper.selectExpired(any(LocalDateTime.class), anyInt())).thenReturn(Collections.emptyList());
+
+            // Act & Assert
+            assertThat(reservationService.expireBatch(100)).isZero();
+            verify(inventoryMapper, never()).releaseReserved(anyLong(), anyLong(), anyInt());
+        }
+    }
+}